@@ -627,7 +627,8 @@ public final class Main {
 
     IndexFileParser.setAbbreviate(abbreviate);
     for (String jaifFile : jaifFiles) {
-      IndexFileSpecification spec = new IndexFileSpecification(jaifFile);
+      // The scene's classes are only needed to write converted index files.
+      IndexFileSpecification spec = new IndexFileSpecification(jaifFile, convert_jaifs);
       try {
         List<Insertion> parsedSpec = spec.parse();
         if (temporaryDebug) {
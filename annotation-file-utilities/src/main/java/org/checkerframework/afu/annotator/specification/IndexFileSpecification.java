@@ -69,6 +69,12 @@ public class IndexFileSpecification {
   private final AScene scene;
   private final String indexFileName;
 
+  /**
+   * True if {@link #scene} retains the classes of the index file. If false, each class is turned
+   * into insertions as soon as it has been parsed and then discarded.
+   */
+  private final boolean retainScene;
+
   // If set, do not attempt to read class files with Asm.
   // Mostly for debugging and workarounds.
   public static boolean noAsm = false;
@@ -76,13 +82,34 @@ public class IndexFileSpecification {
   private static boolean debug = false;
 
   public IndexFileSpecification(String indexFileName) {
+    this(indexFileName, true);
+  }
+
+  /**
+   * Creates a specification for the given index file.
+   *
+   * @param indexFileName the index file
+   * @param retainScene if true, {@link #getScene} returns all the classes of the index file; if
+   *     false, {@link #parse} discards each class once its insertions have been computed, so the
+   *     scene contains only the annotation imports
+   */
+  public IndexFileSpecification(String indexFileName, boolean retainScene) {
     this.indexFileName = indexFileName;
+    this.retainScene = retainScene;
     scene = new AScene();
   }
 
   public List<Insertion> parse() throws FileIOException {
     try {
-      Map<String, AnnotationDef> annotationDefs = IndexFileParser.parseFile(indexFileName, scene);
+      Map<String, AnnotationDef> annotationDefs;
+      if (retainScene) {
+        annotationDefs = IndexFileParser.parseFile(indexFileName, scene);
+      } else {
+        CriterionList clist = new CriterionList();
+        annotationDefs =
+            IndexFileParser.parseFile(
+                indexFileName, scene, (name, clazz) -> parseClassEntry(clist, name, clazz));
+      }
       Set<String> defKeys = annotationDefs.keySet();
       Set<String> ambiguous = new LinkedHashSet<>();
       // If a qualified name's unqualified counterpart maps to null in
@@ -175,14 +202,25 @@ public class IndexFileSpecification {
     @SuppressWarnings("signature:assignment") // scene-lib is not fully annotated
     VivifyingMap<@ClassGetName String, AClass> classes = scene.classes;
     for (Map.Entry<@ClassGetName String, AClass> entry : classes.entrySet()) {
-      String key = entry.getKey();
-      AClass clazz = entry.getValue();
-      if (key.endsWith(".package-info")) {
-        // strip off suffix to get package name
-        parsePackage(clist, key.substring(0, key.length() - 13), clazz);
-      } else {
-        parseClass(clist, key, clazz);
-      }
+      parseClassEntry(clist, entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Fill in this.insertions with insertion pairs for one class of the scene.
+   *
+   * @param clist where to store the Criteria
+   * @param key the class name, or a package name followed by {@code .package-info}
+   * @param clazz the class's annotations
+   */
+  private void parseClassEntry(CriterionList clist, String key, AClass clazz) {
+    if (key.endsWith(".package-info")) {
+      // strip off suffix to get package name
+      parsePackage(clist, key.substring(0, key.length() - 13), clazz);
+    } else {
+      @SuppressWarnings("signature:assignment") // scene-lib is not fully annotated
+      @ClassGetName String className = key;
+      parseClass(clist, className, clazz);
     }
   }
 
@@ -0,0 +1,543 @@
+package org.checkerframework.afu.scenelib.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamTokenizer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The tokenizer of {@link IndexFileParser}. It produces the same tokens as the {@link
+ * StreamTokenizer} configuration that the parser used to use, with the same {@link #ttype}, {@link
+ * #sval}, and {@link #nval} fields, but it reads UTF-8 bytes directly from a buffer, which may be a
+ * memory-mapped file, instead of one character at a time from a {@link Reader}.
+ *
+ * <p>Word tokens are interned: every occurrence of the same word is the same String. Index files
+ * repeat a small vocabulary of keywords and identifiers many times, so this avoids allocating a
+ * String per word. String literals are not interned.
+ *
+ * <p>The tokens are:
+ *
+ * <ul>
+ *   <li>a word ({@link StreamTokenizer#TT_WORD}): a letter, {@code _}, {@code $}, {@code -}, or
+ *       non-ASCII character, followed by any of those or digits
+ *   <li>a number ({@link StreamTokenizer#TT_NUMBER}): digits with at most one {@code .}, optionally
+ *       preceded by {@code -}
+ *   <li>a string or character literal, whose type is the quote character and whose {@link #sval}
+ *       is the unescaped content
+ *   <li>any other character, whose type is that character
+ * </ul>
+ *
+ * Whitespace and {@code //} comments are skipped.
+ */
+final class IndexFileLexer {
+
+  /** The type of the token before the first call to {@link #nextToken}. */
+  private static final int TT_NOTHING = -4;
+
+  /** Character class of a character that is not part of a word or number. */
+  private static final byte ORDINARY = 0;
+
+  /** Character class of whitespace. */
+  private static final byte WHITESPACE = 1;
+
+  /** Character class of a character that can be part of a word. */
+  private static final byte WORD = 2;
+
+  /** Character class of a digit, which can start a number or be part of a word. */
+  private static final byte DIGIT = 3;
+
+  /** Character class of a quote character. */
+  private static final byte QUOTE = 4;
+
+  /** The character class of each byte value; bytes of non-ASCII characters are word bytes. */
+  private static final byte[] CHAR_CLASS = new byte[256];
+
+  static {
+    for (int c = 0; c <= ' '; c++) {
+      CHAR_CLASS[c] = WHITESPACE;
+    }
+    for (int c = 'a'; c <= 'z'; c++) {
+      CHAR_CLASS[c] = WORD;
+    }
+    for (int c = 'A'; c <= 'Z'; c++) {
+      CHAR_CLASS[c] = WORD;
+    }
+    for (int c = 0x80; c <= 0xff; c++) {
+      CHAR_CLASS[c] = WORD;
+    }
+    for (int c = '0'; c <= '9'; c++) {
+      CHAR_CLASS[c] = DIGIT;
+    }
+    CHAR_CLASS['_'] = WORD;
+    CHAR_CLASS['$'] = WORD;
+    // A '-' starts a number if a digit follows, and otherwise is ordinary; within a word, it is a
+    // word character, as in "inner-type".
+    CHAR_CLASS['-'] = DIGIT;
+    CHAR_CLASS['"'] = QUOTE;
+    CHAR_CLASS['\''] = QUOTE;
+  }
+
+  /**
+   * The keywords of the index file format, which are added to the intern table up front so that no
+   * String is allocated for them.
+   */
+  private static final String[] KEYWORDS = {
+    "annotation",
+    "bound",
+    "call",
+    "class",
+    "enum",
+    "extends",
+    "false",
+    "field",
+    "implements",
+    "inner-type",
+    "insert-annotation",
+    "insert-typecast",
+    "instanceinit",
+    "instanceof",
+    "lambda",
+    "local",
+    "method",
+    "new",
+    "package",
+    "parameter",
+    "receiver",
+    "reference",
+    "return",
+    "staticinit",
+    "super",
+    "throws",
+    "true",
+    "type",
+    "typearg",
+    "typecast",
+    "typeparam",
+    "unknown",
+    "value"
+  };
+
+  /** The input, as UTF-8. */
+  private final ByteBuffer in;
+
+  /** The position in {@link #in} of the next byte to read. */
+  private int pos;
+
+  /** The current line number, starting at 1. */
+  private int lineno = 1;
+
+  /** The type of the current token: a character, or one of the {@code TT_} constants. */
+  int ttype = TT_NOTHING;
+
+  /** The current word, or the content of the current string literal; null otherwise. */
+  @Nullable String sval;
+
+  /** The value of the current number token. */
+  double nval;
+
+  /** The interned words; a power-of-two-sized open-addressing hash table. */
+  private String[] internTable = new String[1024];
+
+  /** The number of words in {@link #internTable}. */
+  private int internCount = 0;
+
+  /** Scratch space for the bytes of a string literal. */
+  private byte[] scratch = new byte[64];
+
+  /**
+   * Creates a lexer for the given UTF-8 input.
+   *
+   * @param in the input, from its position to its limit
+   */
+  IndexFileLexer(ByteBuffer in) {
+    this.in = in.slice();
+    for (String keyword : KEYWORDS) {
+      intern(keyword);
+    }
+  }
+
+  /**
+   * Creates a lexer for the given text.
+   *
+   * @param text the input
+   */
+  IndexFileLexer(String text) {
+    this(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Creates a lexer for the content of a reader.
+   *
+   * @param reader the input, which is read completely
+   * @return a lexer for the content of {@code reader}
+   * @throws IOException if the reader cannot be read
+   */
+  static IndexFileLexer fromReader(Reader reader) throws IOException {
+    StringBuilder text = new StringBuilder();
+    char[] buffer = new char[8192];
+    int n;
+    while ((n = reader.read(buffer)) >= 0) {
+      text.append(buffer, 0, n);
+    }
+    return new IndexFileLexer(text.toString());
+  }
+
+  /**
+   * Creates a lexer for a file, which is memory-mapped.
+   *
+   * @param file an index file
+   * @return a lexer for the content of {@code file}
+   * @throws IOException if the file cannot be read
+   */
+  static IndexFileLexer fromFile(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large: " + size + " bytes");
+      }
+      return new IndexFileLexer(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /**
+   * Returns the current line number.
+   *
+   * @return the current line number, starting at 1
+   */
+  int lineno() {
+    return lineno;
+  }
+
+  /**
+   * Returns the next byte without consuming it, or -1 at the end of the input.
+   *
+   * @return the next byte, or -1
+   */
+  private int peek() {
+    return pos < in.limit() ? in.get(pos) & 0xff : -1;
+  }
+
+  /**
+   * Reads the next token.
+   *
+   * @return the type of the token, which is also stored in {@link #ttype}
+   */
+  int nextToken() {
+    sval = null;
+    int limit = in.limit();
+    while (true) {
+      // Skip whitespace, counting lines.
+      int c;
+      while (true) {
+        c = peek();
+        if (c < 0) {
+          return ttype = StreamTokenizer.TT_EOF;
+        }
+        if (CHAR_CLASS[c] != WHITESPACE) {
+          break;
+        }
+        pos++;
+        if (c == '\r') {
+          lineno++;
+          if (peek() == '\n') {
+            pos++;
+          }
+        } else if (c == '\n') {
+          lineno++;
+        }
+      }
+
+      if (c == '/' && pos + 1 < limit && in.get(pos + 1) == '/') {
+        // A comment extends to the end of the line.
+        pos += 2;
+        while (pos < limit && in.get(pos) != '\n' && in.get(pos) != '\r') {
+          pos++;
+        }
+        continue;
+      }
+
+      switch (CHAR_CLASS[c]) {
+        case DIGIT -> {
+          return lexNumber(c);
+        }
+        case WORD -> {
+          return lexWord();
+        }
+        case QUOTE -> {
+          return lexQuoted(c);
+        }
+        default -> {
+          pos++;
+          return ttype = c;
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads a number, or a '-' token.
+   *
+   * @param c the first byte of the token, a digit or '-'
+   * @return the type of the token
+   */
+  private int lexNumber(int c) {
+    pos++;
+    boolean negative = false;
+    if (c == '-') {
+      c = peek();
+      if (c != '.' && (c < '0' || c > '9')) {
+        return ttype = '-';
+      }
+      negative = true;
+      pos++;
+    }
+    double value = 0;
+    int decimalExponent = 0;
+    boolean seenDot = false;
+    // c is the first byte of the number, which has been consumed.
+    while (true) {
+      if (c == '.' && !seenDot) {
+        seenDot = true;
+      } else if ('0' <= c && c <= '9') {
+        value = value * 10 + (c - '0');
+        if (seenDot) {
+          decimalExponent++;
+        }
+      } else {
+        break;
+      }
+      c = peek();
+      if (c == '.' ? seenDot : (c < '0' || c > '9')) {
+        break;
+      }
+      pos++;
+    }
+    if (decimalExponent != 0) {
+      double denominator = 10;
+      while (--decimalExponent > 0) {
+        denominator *= 10;
+      }
+      value = value / denominator;
+    }
+    nval = negative ? -value : value;
+    return ttype = StreamTokenizer.TT_NUMBER;
+  }
+
+  /**
+   * Reads a word.
+   *
+   * @return {@link StreamTokenizer#TT_WORD}
+   */
+  private int lexWord() {
+    int start = pos;
+    int limit = in.limit();
+    int hash = 0;
+    boolean ascii = true;
+    while (pos < limit) {
+      int b = in.get(pos) & 0xff;
+      byte charClass = CHAR_CLASS[b];
+      if (charClass != WORD && charClass != DIGIT) {
+        break;
+      }
+      ascii &= b < 0x80;
+      hash = 31 * hash + b;
+      pos++;
+    }
+    if (ascii) {
+      sval = lookup(start, pos - start, hash);
+    } else {
+      byte[] bytes = new byte[pos - start];
+      in.get(start, bytes);
+      sval = intern(new String(bytes, StandardCharsets.UTF_8));
+    }
+    return ttype = StreamTokenizer.TT_WORD;
+  }
+
+  /**
+   * Returns the interned String for an ASCII word in the input, adding it if it is new.
+   *
+   * @param start the position of the word
+   * @param length the length of the word
+   * @param hash the hash of the word's bytes, which is {@link String#hashCode} of the word
+   * @return the interned word
+   */
+  private String lookup(int start, int length, int hash) {
+    int mask = internTable.length - 1;
+    for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+      String s = internTable[i];
+      if (s == null) {
+        byte[] bytes = new byte[length];
+        in.get(start, bytes);
+        String word = new String(bytes, StandardCharsets.ISO_8859_1);
+        add(word);
+        return word;
+      }
+      if (s.hashCode() == hash && equalsInput(s, start, length)) {
+        return s;
+      }
+    }
+  }
+
+  /**
+   * Returns true if a string equals an ASCII word in the input.
+   *
+   * @param s a string
+   * @param start the position of the word
+   * @param length the length of the word
+   * @return true if {@code s} equals the word
+   */
+  private boolean equalsInput(String s, int start, int length) {
+    if (s.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (s.charAt(i) != in.get(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the interned version of a word, adding it if it is new.
+   *
+   * @param word a word
+   * @return the interned word
+   */
+  private String intern(String word) {
+    int mask = internTable.length - 1;
+    for (int i = spread(word.hashCode()) & mask; ; i = (i + 1) & mask) {
+      String s = internTable[i];
+      if (s == null) {
+        add(word);
+        return word;
+      }
+      if (s.equals(word)) {
+        return s;
+      }
+    }
+  }
+
+  /**
+   * Adds a word that is not yet in the intern table.
+   *
+   * @param word a word
+   */
+  private void add(String word) {
+    if (2 * (internCount + 1) > internTable.length) {
+      String[] old = internTable;
+      internTable = new String[old.length * 2];
+      for (String s : old) {
+        if (s != null) {
+          insert(s);
+        }
+      }
+    }
+    insert(word);
+    internCount++;
+  }
+
+  /**
+   * Inserts a word into the intern table, which has room for it.
+   *
+   * @param word a word that is not in the table
+   */
+  private void insert(String word) {
+    int mask = internTable.length - 1;
+    int i = spread(word.hashCode()) & mask;
+    while (internTable[i] != null) {
+      i = (i + 1) & mask;
+    }
+    internTable[i] = word;
+  }
+
+  /**
+   * Spreads the bits of a hash code, so that the low bits used for the table index depend on all
+   * of them.
+   *
+   * @param hash a hash code
+   * @return the spread hash code
+   */
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Reads a string or character literal. Like {@link StreamTokenizer}, this recognizes the Java
+   * escape sequences, and the literal ends at the closing quote or the end of the line.
+   *
+   * @param quote the quote character
+   * @return the quote character
+   */
+  private int lexQuoted(int quote) {
+    pos++;
+    int limit = in.limit();
+    int length = 0;
+    StringBuilder escaped = null;
+    while (pos < limit) {
+      int d = in.get(pos) & 0xff;
+      if (d == quote) {
+        pos++;
+        break;
+      }
+      if (d == '\n' || d == '\r') {
+        break;
+      }
+      pos++;
+      if (d != '\\') {
+        if (length == scratch.length) {
+          scratch = Arrays.copyOf(scratch, length * 2);
+        }
+        scratch[length++] = (byte) d;
+        continue;
+      }
+      // An escape sequence produces a character, not a UTF-8 byte.
+      if (escaped == null) {
+        escaped = new StringBuilder();
+      }
+      escaped.append(new String(scratch, 0, length, StandardCharsets.UTF_8));
+      length = 0;
+      int c = peek();
+      if (c < 0) {
+        break;
+      }
+      pos++;
+      if ('0' <= c && c <= '7') {
+        int first = c;
+        int value = c - '0';
+        int c2 = peek();
+        if ('0' <= c2 && c2 <= '7') {
+          pos++;
+          value = (value << 3) + (c2 - '0');
+          int c3 = peek();
+          if ('0' <= c3 && c3 <= '7' && first <= '3') {
+            pos++;
+            value = (value << 3) + (c3 - '0');
+          }
+        }
+        escaped.append((char) value);
+      } else {
+        escaped.append(
+            switch (c) {
+              case 'a' -> (char) 0x7;
+              case 'b' -> '\b';
+              case 'f' -> (char) 0xC;
+              case 'n' -> '\n';
+              case 'r' -> '\r';
+              case 't' -> '\t';
+              case 'v' -> (char) 0xB;
+              default -> (char) c;
+            });
+      }
+    }
+    String tail = new String(scratch, 0, length, StandardCharsets.UTF_8);
+    sval = escaped == null ? tail : escaped.append(tail).toString();
+    return ttype = quote;
+  }
+}
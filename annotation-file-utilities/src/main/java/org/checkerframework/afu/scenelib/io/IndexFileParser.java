@@ -5,9 +5,6 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Reader;
 import java.io.StreamTokenizer;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.Collator;
 import java.util.ArrayList;
@@ -88,7 +85,7 @@ public final class IndexFileParser {
   private static boolean abbreviate = true;
 
   // The input
-  private final StreamTokenizer st;
+  private final IndexFileLexer st;
   // filename or other source
   private final String source;
 
@@ -97,6 +94,24 @@ public final class IndexFileParser {
 
   private String curPkgPrefix;
 
+  /**
+   * If non-null, receives each class as soon as it has been parsed, after which the class is
+   * removed from {@link #scene}.
+   */
+  private final @Nullable ClassConsumer consumer;
+
+  /** Receives the classes of an index file one at a time, as they are parsed. */
+  public interface ClassConsumer {
+    /**
+     * Processes a class that has just been parsed. For the annotations on a package, the class
+     * name is the package name followed by {@code .package-info}.
+     *
+     * @param className the binary name of the class
+     * @param clazz the annotations on the class and its members
+     */
+    void accept(String className, AClass clazz);
+  }
+
   /**
    * Holds definitions we've seen so far. Maps from annotation name to the definition itself. Maps
    * from both the qualified name and the unqualified name. If the unqualified name is not unique,
@@ -1649,7 +1664,30 @@ public final class IndexFileParser {
 
     AClass c = scene.classes.getVivify(fullName);
     expectChar(':');
+    parseClassBody(c);
+    release(fullName, c);
+  }
 
+  /**
+   * If this parser streams classes to a {@link ClassConsumer}, passes the given class to it and
+   * removes the class from the scene.
+   *
+   * @param className the binary name of the class
+   * @param c the class, which has been completely parsed
+   */
+  private void release(String className, AClass c) {
+    if (consumer != null) {
+      consumer.accept(className, c);
+      scene.classes.remove(className);
+    }
+  }
+
+  /**
+   * Parses the contents of a class, after its name and colon.
+   *
+   * @param c the class whose contents to parse
+   */
+  private void parseClassBody(AClass c) throws IOException, ParseException {
     parseAnnotations(c);
     parseBounds(c.bounds);
 
@@ -1693,6 +1731,7 @@ public final class IndexFileParser {
         expectChar(':');
         AClass p = scene.classes.getVivify(pkg + ".package-info");
         parseAnnotations(p);
+        release(pkg + ".package-info", p);
       }
 
       if (pkg != null) {
@@ -1770,8 +1809,10 @@ public final class IndexFileParser {
     */
   }
 
-  private IndexFileParser(Reader in, String source, AScene scene) {
+  private IndexFileParser(
+      IndexFileLexer st, String source, AScene scene, @Nullable ClassConsumer consumer) {
     this.source = source;
+    this.consumer = consumer;
     defs = new LinkedHashMap<>();
     for (AnnotationDef ad : Annotations.standardDefs) {
       try {
@@ -1781,26 +1822,10 @@ public final class IndexFileParser {
       }
     }
 
-    st = new StreamTokenizer(in);
-    st.slashSlashComments(true);
-
-    // restrict numbers -- don't really need, could interfere with
-    // annotation values
-    // st.ordinaryChar('-');
-    // HMMM this fixes fully-qualified-name strangeness but breaks
-    // floating-point numbers
-    st.ordinaryChar('.');
-
-    // argggh!!! stupid default needs to be overridden! see java bug 4217680
-    st.ordinaryChar('/');
-
-    // for "type-argument"
-    st.wordChars('-', '-');
-
-    // java identifiers can contain numbers, _, and $
-    st.wordChars('0', '9');
-    st.wordChars('_', '_');
-    st.wordChars('$', '$');
+    // The lexer treats '.' and '/' as ordinary characters, so that qualified names are separate
+    // words and "//" comments are recognized.  Words may contain '-' (for "inner-type"), digits,
+    // '_', and '$'.
+    this.st = st;
 
     this.scene = scene;
 
@@ -1823,9 +1848,10 @@ public final class IndexFileParser {
    */
   public static Map<String, AnnotationDef> parse(LineNumberReader in, String filename, AScene scene)
       throws IOException, ParseException {
-    IndexFileParser parser = new IndexFileParser(in, filename, scene);
+    IndexFileParser parser =
+        new IndexFileParser(IndexFileLexer.fromReader(in), filename, scene, null);
     // no filename is available in the exception messages
-    return parseAndReturnAnnotationDefs(null, in, parser);
+    return parseAndReturnAnnotationDefs(null, parser);
   }
 
   /**
@@ -1834,12 +1860,32 @@ public final class IndexFileParser {
    */
   public static Map<String, AnnotationDef> parseFile(String filename, AScene scene)
       throws IOException {
-    try (LineNumberReader in =
-        new LineNumberReader(
-            Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8))) {
-      IndexFileParser parser = new IndexFileParser(in, filename, scene);
-      return parseAndReturnAnnotationDefs(filename, in, parser);
-    }
+    IndexFileParser parser =
+        new IndexFileParser(IndexFileLexer.fromFile(Paths.get(filename)), filename, scene, null);
+    return parseAndReturnAnnotationDefs(filename, parser);
+  }
+
+  /**
+   * Reads annotations from the index file {@code filename}, passing each class to {@code consumer}
+   * as soon as it has been parsed instead of retaining it in {@code scene}. Only one class is in
+   * memory at a time, so this is suitable for very large index files. The annotation imports are
+   * still collected in {@code scene}.
+   *
+   * <p>If a class appears more than once in the file, each occurrence is passed to {@code
+   * consumer} separately.
+   *
+   * @param filename the index file to read
+   * @param scene the scene in which to collect the annotation imports
+   * @param consumer receives each class
+   * @return the annotation definitions in the file
+   * @throws IOException if the file cannot be read or parsed
+   */
+  public static Map<String, AnnotationDef> parseFile(
+      String filename, AScene scene, ClassConsumer consumer) throws IOException {
+    IndexFileParser parser =
+        new IndexFileParser(
+            IndexFileLexer.fromFile(Paths.get(filename)), filename, scene, consumer);
+    return parseAndReturnAnnotationDefs(filename, parser);
   }
 
   /**
@@ -1854,19 +1900,20 @@ public final class IndexFileParser {
             + ": \n----------------BEGIN----------------\n"
             + fileContents
             + "----------------END----------------\n";
-    LineNumberReader in = new LineNumberReader(new StringReader(fileContents));
-    IndexFileParser parser = new IndexFileParser(in, filename, scene);
-    return parseAndReturnAnnotationDefs(filename, in, parser);
+    IndexFileParser parser =
+        new IndexFileParser(new IndexFileLexer(fileContents), filename, scene, null);
+    return parseAndReturnAnnotationDefs(filename, parser);
   }
 
   private static Map<String, AnnotationDef> parseAndReturnAnnotationDefs(
-      String filename, LineNumberReader in, IndexFileParser parser) throws IOException {
+      String filename, IndexFileParser parser) throws IOException {
     try {
       parser.parse();
       return Collections.unmodifiableMap(parser.defs);
-    } catch (IOException e) {
-      throw filename == null ? new FileIOException(in, e) : new FileIOException(in, filename, e);
-    } catch (ParseException e) {
+    } catch (IOException | ParseException e) {
+      // FileIOException takes its line number from a LineNumberReader, which counts from 0.
+      LineNumberReader in = new LineNumberReader(Reader.nullReader());
+      in.setLineNumber(parser.st.lineno() - 1);
       throw filename == null ? new FileIOException(in, e) : new FileIOException(in, filename, e);
     }
   }
@@ -1879,15 +1926,13 @@ public final class IndexFileParser {
    * @return the type
    */
   public static Type parseType(String text, String filename) {
-    try (StringReader in = new StringReader(text)) {
-      @SuppressWarnings("nullness:argument") // null value is not used by callee
-      IndexFileParser parser = new IndexFileParser(in, filename, null);
-      try {
-        parser.st.nextToken();
-        return parser.parseType();
-      } catch (Exception e) {
-        throw new RuntimeException("Error parsing type from: '" + text + "'", e);
-      }
+    @SuppressWarnings("nullness:argument") // null value is not used by callee
+    IndexFileParser parser = new IndexFileParser(new IndexFileLexer(text), filename, null, null);
+    try {
+      parser.st.nextToken();
+      return parser.parseType();
+    } catch (Exception e) {
+      throw new RuntimeException("Error parsing type from: '" + text + "'", e);
     }
   }
 }
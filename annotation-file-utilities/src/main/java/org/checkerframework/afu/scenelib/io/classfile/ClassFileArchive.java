@@ -0,0 +1,271 @@
+package org.checkerframework.afu.scenelib.io.classfile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The files of a jar file or of a directory tree, for the bulk methods {@link
+ * ClassFileReader#readAll} and {@link ClassFileWriter#insertAll}. Entries are named by their
+ * '/'-separated path relative to the root of the jar or directory.
+ */
+final class ClassFileArchive implements Closeable {
+
+  /** The number of class files that are processed concurrently. */
+  private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+  /** The jar file, or the directory. */
+  private final Path path;
+
+  /** The open jar file, or null if this is a directory. */
+  private final @Nullable ZipFile zip;
+
+  /**
+   * The names of the entries: for a jar file, all its entries in order, including directory
+   * entries, whose names end with '/'; for a directory, its files in sorted order.
+   */
+  private final List<String> entryNames;
+
+  /**
+   * Opens a jar file or directory.
+   *
+   * @param path a jar file or a directory
+   * @throws IOException if {@code path} cannot be read
+   */
+  ClassFileArchive(Path path) throws IOException {
+    this.path = path;
+    List<String> names = new ArrayList<>();
+    if (Files.isDirectory(path)) {
+      zip = null;
+      try (Stream<Path> files = Files.walk(path)) {
+        files
+            .filter(Files::isRegularFile)
+            .forEach(file -> names.add(path.relativize(file).toString().replace('\\', '/')));
+      }
+      Collections.sort(names);
+    } else {
+      zip = new ZipFile(path.toFile());
+      for (ZipEntry entry : Collections.list(zip.entries())) {
+        names.add(entry.getName());
+      }
+    }
+    this.entryNames = names;
+  }
+
+  /**
+   * Returns true if the argument names a jar file or directory, which the bulk methods process as a
+   * whole.
+   *
+   * @param arg a command-line argument
+   * @return true if {@code arg} is a jar file or a directory
+   */
+  static boolean isArchive(String arg) {
+    return arg.endsWith(".jar") || Files.isDirectory(Paths.get(arg));
+  }
+
+  /**
+   * Returns true if this is a jar file, false if it is a directory.
+   *
+   * @return true if this is a jar file
+   */
+  boolean isJar() {
+    return zip != null;
+  }
+
+  /**
+   * Returns the names of all the files in this.
+   *
+   * @return the names of all the files in this
+   */
+  List<String> entryNames() {
+    return entryNames;
+  }
+
+  /**
+   * Returns true if the entry is a class file whose annotations can be read or written. Module
+   * descriptors and the versioned classes of a multi-release jar are not.
+   *
+   * @param entryName the name of an entry
+   * @return true if the entry is a class file
+   */
+  static boolean isClassFile(String entryName) {
+    return entryName.endsWith(".class")
+        && !entryName.startsWith("META-INF/")
+        && !entryName.endsWith("module-info.class");
+  }
+
+  /**
+   * Returns the name of the class in a class file entry, as used by {@code AScene.classes}.
+   *
+   * @param entryName the name of a class file entry
+   * @return the binary name of the class, such as {@code a.b.C$D}
+   */
+  static String className(String entryName) {
+    return entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+  }
+
+  /**
+   * Opens an entry for reading.
+   *
+   * @param entryName the name of an entry
+   * @return the content of the entry
+   * @throws IOException if the entry cannot be read
+   */
+  InputStream open(String entryName) throws IOException {
+    if (zip != null) {
+      ZipEntry entry = zip.getEntry(entryName);
+      if (entry == null) {
+        throw new IOException("No entry " + entryName + " in " + path);
+      }
+      return zip.getInputStream(entry);
+    }
+    return Files.newInputStream(path.resolve(entryName));
+  }
+
+  /**
+   * Returns the ZIP metadata of an entry.
+   *
+   * @param entryName the name of an entry of a jar file
+   * @return the entry's metadata
+   */
+  ZipEntry zipEntry(String entryName) {
+    assert zip != null;
+    return zip.getEntry(entryName);
+  }
+
+  /**
+   * Reads an entry.
+   *
+   * @param entryName the name of an entry
+   * @return the content of the entry
+   * @throws IOException if the entry cannot be read
+   */
+  byte[] read(String entryName) throws IOException {
+    try (InputStream in = open(entryName)) {
+      return in.readAllBytes();
+    }
+  }
+
+  /** A function that may throw an IOException. */
+  @FunctionalInterface
+  interface IOFunction<T, R> {
+    /**
+     * Applies the function.
+     *
+     * @param t the argument
+     * @return the result
+     * @throws IOException if the function fails
+     */
+    R apply(T t) throws IOException;
+  }
+
+  /** A consumer that may throw an IOException. */
+  @FunctionalInterface
+  interface IOConsumer<T> {
+    /**
+     * Performs the operation.
+     *
+     * @param t the argument
+     * @throws IOException if the operation fails
+     */
+    void accept(T t) throws IOException;
+  }
+
+  /**
+   * Applies {@code function} to each of the inputs concurrently, and passes the results to {@code
+   * sink} on the calling thread in the order of the inputs. Only a bounded number of results are
+   * held in memory at once.
+   *
+   * @param <T> the type of the inputs
+   * @param <R> the type of the results
+   * @param inputs the inputs
+   * @param function the function to apply to each input; it must be thread-safe
+   * @param sink receives the results in order
+   * @throws IOException if {@code function} or {@code sink} throws an IOException
+   */
+  static <T, R> void mapInOrder(
+      List<T> inputs, IOFunction<? super T, ? extends R> function, IOConsumer<? super R> sink)
+      throws IOException {
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            THREADS,
+            runnable -> {
+              Thread thread = new Thread(runnable, "class-file-worker");
+              thread.setDaemon(true);
+              return thread;
+            });
+    ArrayDeque<Future<R>> pending = new ArrayDeque<>();
+    try {
+      for (T input : inputs) {
+        if (pending.size() >= 2 * THREADS) {
+          sink.accept(await(pending.remove()));
+        }
+        pending.add(
+            executor.submit(
+                () -> {
+                  try {
+                    return function.apply(input);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                }));
+      }
+      while (!pending.isEmpty()) {
+        sink.accept(await(pending.remove()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Waits for a result, rethrowing the exception of a failed computation.
+   *
+   * @param <R> the type of the result
+   * @param future a computation
+   * @return the result of the computation
+   * @throws IOException if the computation threw an IOException
+   */
+  private static <R> R await(Future<R> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while processing class files", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new Error(cause);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (zip != null) {
+      zip.close();
+    }
+  }
+}
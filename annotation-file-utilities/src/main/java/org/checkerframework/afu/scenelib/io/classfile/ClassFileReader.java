@@ -3,7 +3,12 @@ package org.checkerframework.afu.scenelib.io.classfile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.afu.scenelib.el.AClass;
 import org.checkerframework.afu.scenelib.el.AScene;
 import org.checkerframework.afu.scenelib.io.IndexFileWriter;
 import org.checkerframework.afu.scenelib.util.CommandLineUtils;
@@ -44,7 +49,9 @@ public final class ClassFileReader {
           "extract-annotations [options] class1 class2 ...",
           "Each argument is a class a.second.C (that is on the classpath) or a class file",
           "a/b/C.class.  Extracts the annotations from each such argument and prints",
-          "them in index-file format to a.second.C.jaif .  Arguments beginning with a",
+          "them in index-file format to a.second.C.jaif .  An argument can also be a jar",
+          "file lib.jar or a directory lib/ of class files, whose annotations are read in",
+          "parallel and written to lib.jaif .  Arguments beginning with a",
           "single '@' are interpreted as argument files to be read and expanded into",
           "the command line.  A few options are available only when invoked via the",
           "script extract-annotations, not when invoked as a Java program:",
@@ -108,13 +115,18 @@ public final class ClassFileReader {
         System.out.println("reading: " + origName);
       }
       String className = origName;
+      boolean isArchive = ClassFileArchive.isArchive(origName);
       if (origName.endsWith(".class")) {
         origName = origName.replace(".class", "");
+      } else if (isArchive) {
+        origName = origName.replaceFirst("(\\.jar|/+)$", "");
       }
 
       AScene scene = new AScene();
       try {
-        if (className.endsWith(".class")) {
+        if (isArchive) {
+          readAll(scene, Paths.get(className));
+        } else if (className.endsWith(".class")) {
           read(scene, className);
         } else {
           readFromClass(scene, className);
@@ -144,10 +156,11 @@ public final class ClassFileReader {
   /** If s is not a valid representation of a class, print a warning message and return false. */
   public static boolean checkClass(String arg) {
     // check for invalid class file paths with '.'
-    if (!arg.contains(".class") && arg.contains("/")) {
+    if (!arg.contains(".class") && arg.contains("/") && !ClassFileArchive.isArchive(arg)) {
       System.out.println("Error: bad class " + arg);
       System.out.println("Use a fully qualified class name such as java.lang.Object");
       System.out.println("or a filename such as .../path/to/MyClass.class");
+      System.out.println("or a jar file or directory of class files");
       return false;
     }
     return true;
@@ -204,4 +217,49 @@ public final class ClassFileReader {
         new ClassAnnotationSceneReader(Opcodes.ASM8, classReader, scene, ignore_bridge_methods);
     classReader.accept(ca, 0);
   }
+
+  /**
+   * Reads the annotations from all the class files of a jar file or directory tree and inserts them
+   * into {@code scene}. The class files are read in parallel, and a class without annotations is
+   * not added to {@code scene}.
+   *
+   * @param scene the scene into which the annotations should be inserted
+   * @param jarOrDirectory a jar file, or a directory that contains class files
+   * @throws IOException if there is a problem reading from {@code jarOrDirectory}
+   */
+  public static void readAll(AScene scene, Path jarOrDirectory) throws IOException {
+    try (ClassFileArchive archive = new ClassFileArchive(jarOrDirectory)) {
+      List<String> classFiles = new ArrayList<>();
+      for (String entryName : archive.entryNames()) {
+        if (ClassFileArchive.isClassFile(entryName)) {
+          classFiles.add(entryName);
+        }
+      }
+      ClassFileArchive.mapInOrder(
+          classFiles,
+          entryName -> {
+            // Each class is read into a scene of its own, because AScene is not thread-safe.
+            AScene classScene = new AScene();
+            String className = ClassFileArchive.className(entryName);
+            AClass existing;
+            synchronized (scene) {
+              existing = scene.classes.get(className);
+            }
+            if (existing != null) {
+              classScene.classes.put(className, existing);
+            }
+            read(classScene, new ClassReader(archive.read(entryName)));
+            return classScene;
+          },
+          classScene -> {
+            for (Map.Entry<String, AClass> entry : classScene.classes.entrySet()) {
+              if (!entry.getValue().isEmpty()) {
+                synchronized (scene) {
+                  scene.classes.put(entry.getKey(), entry.getValue());
+                }
+              }
+            }
+          });
+    }
+  }
 }
@@ -5,14 +5,23 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.checkerframework.afu.scenelib.el.AClass;
 import org.checkerframework.afu.scenelib.el.AScene;
 import org.checkerframework.afu.scenelib.io.IndexFileParser;
 import org.checkerframework.afu.scenelib.util.CommandLineUtils;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.plumelib.options.Option;
 import org.plumelib.options.Options;
+import org.plumelib.util.IPair;
 
 /**
  * A {@code ClassFileWriter} provides methods for inserting annotations from an {@link AScene} into
@@ -33,6 +42,13 @@ public final class ClassFileWriter {
   @Option("print progress messages")
   public static boolean verbose = false;
 
+  /**
+   * The directory to which the class files of a directory argument are written. If null, they are
+   * rewritten in place.
+   */
+  @Option("-d <directory> Directory to which the class files of a directory argument are written")
+  public static @Nullable String outdir = null;
+
   /** The system-specific line separator. */
   private static String linesep = System.getProperty("line.separator");
 
@@ -51,6 +67,12 @@ public final class ClassFileWriter {
           + linesep
           + "or a path to a .class file, such as e.g. /.../path/to/a/b/C.class ."
           + linesep
+          + "A class can also be a directory of class files, which are rewritten in place"
+          + linesep
+          + "or, with -d, written to another directory,"
+          + linesep
+          + "or a jar file lib.jar, which is written to lib-annotated.jar ."
+          + linesep
           + "Arguments beginning with a single '@' are interpreted as argument files to"
           + linesep
           + "be read and expanded into the command line.  Options:";
@@ -130,7 +152,19 @@ public final class ClassFileWriter {
       // annotations loaded from index file into scene, now insert them
       // into class file
       try {
-        if (className.endsWith(".class")) {
+        if (ClassFileArchive.isArchive(className)) {
+          Path input = Paths.get(className);
+          Path output;
+          if (Files.isDirectory(input)) {
+            output = outdir != null ? Paths.get(outdir) : input;
+          } else {
+            output = Paths.get(className.replaceFirst("\\.jar$", "") + "-annotated.jar");
+          }
+          if (verbose) {
+            System.out.printf("Adding annotations to %s; writing to %s%n", input, output);
+          }
+          insertAll(scene, input, output, true);
+        } else if (className.endsWith(".class")) {
           String fileName = className;
           if (verbose) {
             System.out.printf("Adding annotations to class file %s%n", fileName);
@@ -249,4 +283,103 @@ public final class ClassFileWriter {
       fos.write(classAnnotationSceneWriter.toByteArray());
     }
   }
+
+  /**
+   * Inserts the annotations contained in {@code scene} into all the class files of a jar file or
+   * directory tree. The class files are processed in parallel. A class that has no annotations in
+   * {@code scene} is copied unchanged, without being parsed.
+   *
+   * <p>If {@code input} is a jar file, {@code output} is a new jar file that contains all the
+   * entries of {@code input}, including directory entries, in the same order and with the same
+   * metadata. If {@code input} is a directory, {@code output} is the directory to which the class
+   * files are written; it may be {@code input} itself, in which case only the changed class files
+   * are written.
+   *
+   * @param scene the scene containing the annotations to insert into the classes
+   * @param input a jar file, or a directory that contains class files
+   * @param output the jar file or directory to write
+   * @param overwrite controls behavior when an annotation exists on a particular element in both
+   *     the scene and the class file. If true, then the one from the scene is used; else the
+   *     existing annotation in the class file is retained.
+   * @throws IOException if there is a problem reading from {@code input} or writing to {@code
+   *     output}
+   */
+  public static void insertAll(AScene scene, Path input, Path output, boolean overwrite)
+      throws IOException {
+    try (ClassFileArchive archive = new ClassFileArchive(input)) {
+      if (archive.isJar() && Files.isSameFile(input, output)) {
+        throw new IOException("Cannot write " + input + " in place");
+      }
+      List<String> entryNames = archive.entryNames();
+      ClassFileArchive.IOFunction<String, byte @Nullable []> annotate =
+          entryName -> {
+            if (!ClassFileArchive.isClassFile(entryName)) {
+              return null;
+            }
+            AClass aClass = scene.classes.get(ClassFileArchive.className(entryName));
+            if (aClass == null || aClass.isEmpty()) {
+              return null;
+            }
+            // Each class is written from a scene of its own, because the writer adds to the scene.
+            AScene classScene = new AScene();
+            classScene.classes.put(ClassFileArchive.className(entryName), aClass);
+            ClassReader classReader = new ClassReader(archive.read(entryName));
+            ClassAnnotationSceneWriter classAnnotationSceneWriter =
+                new ClassAnnotationSceneWriter(Opcodes.ASM8, classReader, classScene, overwrite);
+            classReader.accept(classAnnotationSceneWriter, 0);
+            return classAnnotationSceneWriter.toByteArray();
+          };
+
+      if (!archive.isJar()) {
+        boolean inPlace =
+            input.toAbsolutePath().normalize().equals(output.toAbsolutePath().normalize());
+        ClassFileArchive.mapInOrder(
+            entryNames,
+            entryName -> {
+              byte[] annotated = annotate.apply(entryName);
+              Path target = output.resolve(entryName);
+              if (annotated != null) {
+                Files.createDirectories(target.getParent());
+                Files.write(target, annotated);
+              } else if (!inPlace) {
+                Files.createDirectories(target.getParent());
+                Files.copy(input.resolve(entryName), target, StandardCopyOption.REPLACE_EXISTING);
+              }
+              return null;
+            },
+            ignored -> {});
+        return;
+      }
+
+      try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(output))) {
+        ClassFileArchive.mapInOrder(
+            entryNames,
+            entryName -> IPair.of(entryName, annotate.apply(entryName)),
+            annotated -> {
+              String entryName = annotated.first;
+              byte[] bytes = annotated.second;
+              // Keep the metadata of the entry, such as its method, times, extra fields, and
+              // comment. The compressed size depends on the compressor, so it is recomputed.
+              ZipEntry entry = new ZipEntry(archive.zipEntry(entryName));
+              entry.setCompressedSize(-1);
+              if (bytes != null && entry.getMethod() == ZipEntry.STORED) {
+                // A stored entry is written with its size and CRC in its header.
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                entry.setSize(bytes.length);
+                entry.setCrc(crc.getValue());
+              }
+              out.putNextEntry(entry);
+              if (bytes != null) {
+                out.write(bytes);
+              } else if (!entry.isDirectory()) {
+                try (InputStream in = archive.open(entryName)) {
+                  in.transferTo(out);
+                }
+              }
+              out.closeEntry();
+            });
+      }
+    }
+  }
 }
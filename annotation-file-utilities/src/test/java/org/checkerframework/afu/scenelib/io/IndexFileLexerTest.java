@@ -0,0 +1,120 @@
+package org.checkerframework.afu.scenelib.io;
+
+import java.io.IOException;
+import java.io.StreamTokenizer;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link IndexFileLexer} produces the same tokens as the {@link StreamTokenizer}
+ * configuration that {@link IndexFileParser} used before.
+ */
+public class IndexFileLexerTest {
+
+  /**
+   * Returns a StreamTokenizer configured as IndexFileParser configured it.
+   *
+   * @param text the input
+   * @return a StreamTokenizer for {@code text}
+   */
+  private static StreamTokenizer streamTokenizer(String text) {
+    StreamTokenizer st = new StreamTokenizer(new StringReader(text));
+    st.slashSlashComments(true);
+    st.ordinaryChar('.');
+    st.ordinaryChar('/');
+    st.wordChars('-', '-');
+    st.wordChars('0', '9');
+    st.wordChars('_', '_');
+    st.wordChars('$', '$');
+    return st;
+  }
+
+  /**
+   * Returns the tokens of a StreamTokenizer, each as its type, value, and line number.
+   *
+   * @param st a StreamTokenizer
+   * @return the tokens of {@code st}
+   * @throws IOException if reading fails
+   */
+  private static List<String> tokens(StreamTokenizer st) throws IOException {
+    List<String> result = new ArrayList<>();
+    while (st.nextToken() != StreamTokenizer.TT_EOF) {
+      result.add(st.ttype + " " + st.sval + " " + st.nval + " @" + st.lineno());
+    }
+    return result;
+  }
+
+  /**
+   * Returns the tokens of an IndexFileLexer, each as its type, value, and line number.
+   *
+   * @param lexer an IndexFileLexer
+   * @return the tokens of {@code lexer}
+   */
+  private static List<String> tokens(IndexFileLexer lexer) {
+    List<String> result = new ArrayList<>();
+    while (lexer.nextToken() != StreamTokenizer.TT_EOF) {
+      result.add(lexer.ttype + " " + lexer.sval + " " + lexer.nval + " @" + lexer.lineno());
+    }
+    return result;
+  }
+
+  /**
+   * Asserts that the lexer, reading from a String and from a buffer of UTF-8 bytes, produces the
+   * same tokens as the StreamTokenizer.
+   *
+   * @param text the input
+   * @throws IOException if reading fails
+   */
+  private static void assertSameTokens(String text) throws IOException {
+    List<String> expected = tokens(streamTokenizer(text));
+    Assert.assertEquals(expected, tokens(new IndexFileLexer(text)));
+    ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    Assert.assertEquals(expected, tokens(new IndexFileLexer(bytes)));
+  }
+
+  @Test
+  public void testWordsAndPunctuation() throws IOException {
+    assertSameTokens("package p1:\nclass Foo$Bar: @p2.A(value=12)\n  inner-type 0, 1:\n");
+    assertSameTokens("method <init>(Ljava/util/Set;)V:\n  local 1 #3+5: @A\n");
+    assertSameTokens("annotation @\u00e9t\u00e9: String \u03bbvalue_2\n");
+  }
+
+  @Test
+  public void testNumbers() throws IOException {
+    assertSameTokens("@A(value=-1) @B(value=2.5) @C(value=3L) @D(value=1.5E10) 007 1.2.3");
+    assertSameTokens("a-1 -b - 1 -.5 .5 x-");
+  }
+
+  @Test
+  public void testStringEscapes() throws IOException {
+    assertSameTokens("\"plain\" \"a \\\"quoted\\\" \\\\ word\" 'c' '\\''");
+    assertSameTokens("\"\\b\\f\\n\\r\\t\\a\\v \\0 \\7 \\101 \\377 \\400 \\q\"");
+    assertSameTokens("\"\u00e9\\t\u03bb\" \"// not a comment\"");
+    // An unterminated literal ends at the end of the line.
+    assertSameTokens("\"unterminated\nnext \"also unterminated");
+  }
+
+  @Test
+  public void testComments() throws IOException {
+    assertSameTokens("// only a comment");
+    assertSameTokens("a // comment\n// another comment\r\nb /not a comment / c //\n d");
+    assertSameTokens("a /* not a block comment */ b");
+  }
+
+  @Test
+  public void testWordsAreInterned() {
+    IndexFileLexer lexer = new IndexFileLexer("someWord class someWord class");
+    List<String> words = new ArrayList<>();
+    while (lexer.nextToken() != StreamTokenizer.TT_EOF) {
+      words.add(lexer.sval);
+    }
+    Assert.assertEquals(4, words.size());
+    Assert.assertSame(words.get(0), words.get(2));
+    Assert.assertSame(words.get(1), words.get(3));
+  }
+}
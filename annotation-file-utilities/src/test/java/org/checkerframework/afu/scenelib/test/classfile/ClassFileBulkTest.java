@@ -0,0 +1,237 @@
+package org.checkerframework.afu.scenelib.test.classfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.checkerframework.afu.scenelib.el.AScene;
+import org.checkerframework.afu.scenelib.io.IndexFileParser;
+import org.checkerframework.afu.scenelib.io.classfile.ClassFileReader;
+import org.checkerframework.afu.scenelib.io.classfile.ClassFileWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link ClassFileWriter#insertAll} and {@link ClassFileReader#readAll}, which process all
+ * the class files of a jar file or directory.
+ */
+public class ClassFileBulkTest {
+
+  /** The directory in which to find the index files. */
+  private static final String INDEX_FILE_BASE =
+      "build/resources/test/annotations/tests/classfile/cases/";
+
+  /** The directory in which to find the class files. */
+  private static final String CLASS_FILE_BASE =
+      "build/resources/test/annotations-expected/tests/classfile/cases/";
+
+  /** The directory of the test classes within a jar file or class directory. */
+  private static final String PACKAGE_DIR = "annotations/tests/classfile/cases/";
+
+  /** The class that has annotations in the scene. */
+  private static final String ANNOTATED = "TestFieldSimple";
+
+  /** A class that has no annotations in the scene. */
+  private static final String UNANNOTATED = "TestClassEmpty";
+
+  /**
+   * Returns the scene that contains the annotations of {@link #ANNOTATED}.
+   *
+   * @return the scene that contains the annotations of {@link #ANNOTATED}
+   * @throws IOException if the index file cannot be read
+   */
+  private static AScene scene() throws IOException {
+    AScene scene = new AScene();
+    IndexFileParser.parseFile(INDEX_FILE_BASE + ANNOTATED + ".jaif", scene);
+    return scene;
+  }
+
+  /**
+   * Returns the content of a test class file.
+   *
+   * @param className the simple name of a test class
+   * @return the content of its class file
+   * @throws IOException if the file cannot be read
+   */
+  private static byte[] classFile(String className) throws IOException {
+    return Files.readAllBytes(Paths.get(CLASS_FILE_BASE + className + ".class"));
+  }
+
+  /**
+   * Returns the content of {@link #ANNOTATED}'s class file with the annotations of the scene
+   * inserted, as written by {@link ClassFileWriter#insert(AScene, InputStream, OutputStream,
+   * boolean)}.
+   *
+   * @return the expected content of the annotated class file
+   * @throws IOException if the file cannot be read
+   */
+  private static byte[] expectedAnnotatedClassFile() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Path classFile = Paths.get(CLASS_FILE_BASE + ANNOTATED + ".class");
+    try (InputStream in = Files.newInputStream(classFile)) {
+      ClassFileWriter.insert(scene(), in, out, true);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Adds an entry to a jar file.
+   *
+   * @param out the jar file
+   * @param name the name of the entry
+   * @param content the content of the entry
+   * @param stored if true, the entry is stored; otherwise it is deflated
+   * @param comment the comment of the entry
+   * @throws IOException if writing fails
+   */
+  private static void putEntry(
+      ZipOutputStream out, String name, byte[] content, boolean stored, String comment)
+      throws IOException {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setComment(comment);
+    entry.setTime(1_000_000_000_000L);
+    if (stored) {
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      entry.setMethod(ZipEntry.STORED);
+      entry.setSize(content.length);
+      entry.setCrc(crc.getValue());
+    }
+    out.putNextEntry(entry);
+    out.write(content);
+    out.closeEntry();
+  }
+
+  /**
+   * Returns the content of an entry of a jar file.
+   *
+   * @param zip a jar file
+   * @param entry an entry of {@code zip}
+   * @return the content of {@code entry}
+   * @throws IOException if reading fails
+   */
+  private static byte[] read(ZipFile zip, ZipEntry entry) throws IOException {
+    try (InputStream in = zip.getInputStream(entry)) {
+      return in.readAllBytes();
+    }
+  }
+
+  @Test
+  public void testJar() throws IOException {
+    Path dir = Files.createTempDirectory("bulk");
+    Path input = dir.resolve("lib.jar");
+    Path output = dir.resolve("lib-annotated.jar");
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(input))) {
+      putEntry(out, "annotations/", new byte[0], true, "a directory");
+      putEntry(out, PACKAGE_DIR, new byte[0], true, "another directory");
+      putEntry(out, PACKAGE_DIR + ANNOTATED + ".class", classFile(ANNOTATED), true, "stored");
+      putEntry(out, PACKAGE_DIR + UNANNOTATED + ".class", classFile(UNANNOTATED), false, "plain");
+      putEntry(out, "META-INF/resource.txt", new byte[] {'x'}, false, "a resource");
+    }
+
+    ClassFileWriter.insertAll(scene(), input, output, true);
+
+    try (ZipFile in = new ZipFile(input.toFile());
+        ZipFile out = new ZipFile(output.toFile())) {
+      List<ZipEntry> inEntries = Collections.list(in.entries());
+      List<ZipEntry> outEntries = Collections.list(out.entries());
+      List<String> inNames = new ArrayList<>();
+      List<String> outNames = new ArrayList<>();
+      inEntries.forEach(e -> inNames.add(e.getName()));
+      outEntries.forEach(e -> outNames.add(e.getName()));
+      // Every entry is kept, including the directory entries, in the same order.
+      Assert.assertEquals(inNames, outNames);
+      for (int i = 0; i < inEntries.size(); i++) {
+        ZipEntry inEntry = inEntries.get(i);
+        ZipEntry outEntry = outEntries.get(i);
+        Assert.assertEquals(inEntry.getMethod(), outEntry.getMethod());
+        Assert.assertEquals(inEntry.getComment(), outEntry.getComment());
+        Assert.assertEquals(inEntry.getTime(), outEntry.getTime());
+        if (inEntry.getName().endsWith(ANNOTATED + ".class")) {
+          Assert.assertArrayEquals(expectedAnnotatedClassFile(), read(out, outEntry));
+        } else {
+          Assert.assertArrayEquals(read(in, inEntry), read(out, outEntry));
+        }
+      }
+    }
+
+    // Reading the annotations of the whole jar file finds the inserted annotations.
+    AScene readScene = new AScene();
+    ClassFileReader.readAll(readScene, output);
+    Assert.assertFalse(
+        readScene.classes.get("annotations.tests.classfile.cases." + ANNOTATED).isEmpty());
+  }
+
+  @Test
+  public void testJarInPlace() throws IOException {
+    Path jar = Files.createTempDirectory("bulk").resolve("lib.jar");
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      putEntry(out, PACKAGE_DIR + ANNOTATED + ".class", classFile(ANNOTATED), false, "");
+    }
+    AScene scene = scene();
+    Assert.assertThrows(IOException.class, () -> ClassFileWriter.insertAll(scene, jar, jar, true));
+  }
+
+  /**
+   * Creates a directory that contains the class files of {@link #ANNOTATED} and {@link
+   * #UNANNOTATED}.
+   *
+   * @return the directory
+   * @throws IOException if writing fails
+   */
+  private static Path classDirectory() throws IOException {
+    Path dir = Files.createTempDirectory("bulk");
+    Path packageDir = dir.resolve(PACKAGE_DIR);
+    Files.createDirectories(packageDir);
+    Files.write(packageDir.resolve(ANNOTATED + ".class"), classFile(ANNOTATED));
+    Files.write(packageDir.resolve(UNANNOTATED + ".class"), classFile(UNANNOTATED));
+    return dir;
+  }
+
+  @Test
+  public void testDirectoryInPlace() throws IOException {
+    Path dir = classDirectory();
+    ClassFileWriter.insertAll(scene(), dir, dir, true);
+    Assert.assertArrayEquals(
+        expectedAnnotatedClassFile(),
+        Files.readAllBytes(dir.resolve(PACKAGE_DIR + ANNOTATED + ".class")));
+    Assert.assertArrayEquals(
+        classFile(UNANNOTATED),
+        Files.readAllBytes(dir.resolve(PACKAGE_DIR + UNANNOTATED + ".class")));
+  }
+
+  @Test
+  public void testDirectoryToOtherDirectory() throws IOException {
+    Path input = classDirectory();
+    Path output = Files.createTempDirectory("bulk-out");
+    String oldOutdir = ClassFileWriter.outdir;
+    try {
+      ClassFileWriter.main(
+          new String[] {
+            "-d", output.toString(), input.toString(), INDEX_FILE_BASE + ANNOTATED + ".jaif"
+          });
+    } finally {
+      ClassFileWriter.outdir = oldOutdir;
+    }
+    // The input is unchanged, and the output has every class file.
+    Assert.assertArrayEquals(
+        classFile(ANNOTATED),
+        Files.readAllBytes(input.resolve(PACKAGE_DIR + ANNOTATED + ".class")));
+    Assert.assertArrayEquals(
+        expectedAnnotatedClassFile(),
+        Files.readAllBytes(output.resolve(PACKAGE_DIR + ANNOTATED + ".class")));
+    Assert.assertArrayEquals(
+        classFile(UNANNOTATED),
+        Files.readAllBytes(output.resolve(PACKAGE_DIR + UNANNOTATED + ".class")));
+  }
+}
@@ -5,10 +5,14 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.annotation.RetentionPolicy;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -339,6 +343,50 @@ public class TestSceneLib {
     doRewriteTest(fr, "test2.jaif");
   }
 
+  @Test
+  public void testRewriteEscapesAndComments() throws Exception {
+    String index =
+        "package: // a comment after a package\n"
+            + "annotation @Author: @Retention(CLASS) // a comment after a definition\n"
+            + "  String value\n"
+            + "// a comment on its own line\n"
+            + "class Foo: @Author(value=\"a \\\"quoted\\\" \\\\ tab\\t newline\\n octal\\101"
+            + " \u00e9 \u03bb // not a comment\") // a comment after an annotation\n";
+    AScene s1 = newScene();
+    IndexFileParser.parseString(index, "testRewriteEscapesAndComments()", s1);
+    Annotation a = s1.classes.get("Foo").lookup("Author");
+    Assert.assertEquals(
+        "a \"quoted\" \\ tab\t newline\n octalA \u00e9 \u03bb // not a comment",
+        a.fieldValues.get("value"));
+
+    AScene s2 = newScene();
+    StringWriter sw = new StringWriter();
+    IndexFileWriter.write(s1, sw);
+    IndexFileParser.parseString(sw.toString(), "unparsed testRewriteEscapesAndComments()", s2);
+    Assert.assertEquals(s1, s2);
+  }
+
+  @Test
+  public void testStreamingParse() throws Exception {
+    AScene s1 = newScene();
+    IndexFileParser.parse(openPackagedIndexFile("test1.jaif"), "test1.jaif", s1);
+    Path file = Files.createTempFile("test1", ".jaif");
+    try {
+      try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        IndexFileWriter.write(s1, w);
+      }
+      // Each class is passed to the consumer, and equals the class that the non-streaming parser
+      // read into s1.
+      Map<String, AClass> classes = new LinkedHashMap<>();
+      IndexFileParser.parseFile(file.toString(), newScene(), classes::put);
+      for (Map.Entry<String, AClass> entry : s1.classes.entrySet()) {
+        Assert.assertEquals(entry.getValue(), classes.get(entry.getKey()));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
   @Test
   public void testConflictedDefinition() throws Exception {
     AScene s1 = newScene();
@@ -0,0 +1,194 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Target;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Writes one qualifier index file per checker {@code qual} package. The index lists the binary
+ * names of the type qualifiers in the package, so that {@code AnnotationClassLoader} does not need
+ * to scan the enclosing jar or directory, nor load every class in the package, at checker startup.
+ *
+ * <p>An annotation is a type qualifier if its {@code @Target} meta-annotation contains {@code
+ * TYPE_USE}, or if it is meta-annotated with {@code @InvisibleQualifier} or {@code @SubtypeOf}. This
+ * is the same rule as {@code AnnotationClassLoader.isTypeQualifierAnnotation}.
+ *
+ * <p>The index for package {@code p} is written to {@code <outputDir>/p.txt}, one binary name per
+ * line in sorted order. The index records only names; it does not record the meta-annotations of
+ * the qualifiers, which {@code AnnotationClassLoader} reads by reflection after loading each
+ * listed class.
+ */
+@CacheableTask
+public abstract class GenerateQualifierIndexTask extends DefaultTask {
+
+  /** The binary name of the {@code @InvisibleQualifier} meta-annotation. */
+  private static final String INVISIBLE_QUALIFIER =
+      "org.checkerframework.framework.qual.InvisibleQualifier";
+
+  /** The binary name of the {@code @SubtypeOf} meta-annotation. */
+  private static final String SUBTYPE_OF = "org.checkerframework.framework.qual.SubtypeOf";
+
+  /** The name of a checker's qualifier package segment. */
+  private static final String QUAL_PACKAGE = "qual";
+
+  /** The suffix for a .class file. */
+  private static final String CLASS_SUFFIX = ".class";
+
+  /** Creates a new GenerateQualifierIndexTask. */
+  public GenerateQualifierIndexTask() {}
+
+  /**
+   * Returns the class directories whose {@code qual} packages are indexed.
+   *
+   * @return the class directories whose {@code qual} packages are indexed
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public abstract ConfigurableFileCollection getQualClasses();
+
+  /**
+   * Returns the classpath needed to load the qualifiers, such as the meta-annotations.
+   *
+   * @return the classpath needed to load the qualifiers
+   */
+  @Classpath
+  public abstract ConfigurableFileCollection getClasspath();
+
+  /**
+   * Returns the directory into which the index files are written.
+   *
+   * @return the directory into which the index files are written
+   */
+  @OutputDirectory
+  public abstract DirectoryProperty getOutputDir();
+
+  /** Writes the index files. */
+  @TaskAction
+  public void generate() {
+    // Maps a qual package name to the binary names of all classes in it or its subpackages.
+    Map<String, SortedSet<String>> classesByPackage = new TreeMap<>();
+    getQualClasses()
+        .getAsFileTree()
+        .visit(
+            (FileVisitDetails fvd) -> {
+              if (fvd.isDirectory() || !fvd.getName().endsWith(CLASS_SUFFIX)) {
+                return;
+              }
+              String[] segments = fvd.getRelativePath().getSegments();
+              for (int i = 0; i < segments.length - 1; i++) {
+                if (segments[i].equals(QUAL_PACKAGE)) {
+                  String packageName = String.join(".", List.of(segments).subList(0, i + 1));
+                  String path = fvd.getRelativePath().getPathString();
+                  String binaryName =
+                      path.substring(0, path.length() - CLASS_SUFFIX.length()).replace('/', '.');
+                  classesByPackage
+                      .computeIfAbsent(packageName, k -> new TreeSet<>())
+                      .add(binaryName);
+                  return;
+                }
+              }
+            });
+
+    File outputDir = getOutputDir().get().getAsFile();
+    outputDir.mkdirs();
+    File[] staleFiles = outputDir.listFiles();
+    if (staleFiles != null) {
+      for (File staleFile : staleFiles) {
+        staleFile.delete();
+      }
+    }
+
+    try (URLClassLoader loader = new URLClassLoader(classpathUrls(), null)) {
+      for (Map.Entry<String, SortedSet<String>> entry : classesByPackage.entrySet()) {
+        List<String> qualifiers = new ArrayList<>();
+        for (String className : entry.getValue()) {
+          Class<?> cls;
+          try {
+            cls = Class.forName(className, false, loader);
+          } catch (ClassNotFoundException | LinkageError e) {
+            throw new RuntimeException("Cannot load " + className, e);
+          }
+          if (cls.isAnnotation() && isTypeQualifier(cls)) {
+            qualifiers.add(className);
+          }
+        }
+        if (!qualifiers.isEmpty()) {
+          Files.write(
+              new File(outputDir, entry.getKey() + ".txt").toPath(),
+              qualifiers,
+              StandardCharsets.UTF_8);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the URLs of the qualifier class directories followed by the classpath.
+   *
+   * @return the URLs used to load the qualifiers
+   */
+  private URL[] classpathUrls() {
+    List<URL> urls = new ArrayList<>();
+    try {
+      for (File f : getQualClasses().getFiles()) {
+        urls.add(f.toURI().toURL());
+      }
+      for (File f : getClasspath().getFiles()) {
+        urls.add(f.toURI().toURL());
+      }
+    } catch (MalformedURLException e) {
+      throw new RuntimeException(e);
+    }
+    return urls.toArray(new URL[0]);
+  }
+
+  /**
+   * Returns true if the given annotation class is a type qualifier. The meta-annotations are
+   * compared by name, because they are loaded by a different class loader than this task.
+   *
+   * @param annoClass an annotation class
+   * @return true if the annotation class is a type qualifier
+   */
+  private static boolean isTypeQualifier(Class<?> annoClass) {
+    Target target = annoClass.getAnnotation(Target.class);
+    if (target != null) {
+      for (ElementType elementType : target.value()) {
+        if (elementType == ElementType.TYPE_USE) {
+          return true;
+        }
+      }
+    }
+    for (Annotation metaAnno : annoClass.getAnnotations()) {
+      String name = metaAnno.annotationType().getName();
+      if (name.equals(INVISIBLE_QUALIFIER) || name.equals(SUBTYPE_OF)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
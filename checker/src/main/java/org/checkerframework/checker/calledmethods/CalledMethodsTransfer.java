@@ -35,7 +35,6 @@ import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.ElementUtils;
 import org.checkerframework.javacutil.TreeUtils;
-import org.plumelib.util.CollectionsP;
 
 /** A transfer function that accumulates the names of methods called. */
 public class CalledMethodsTransfer extends AccumulationTransfer {
@@ -156,24 +155,23 @@ public class CalledMethodsTransfer extends AccumulationTransfer {
     List<String> valuesAsList = Arrays.asList(values);
     JavaExpression target = JavaExpression.fromNode(node);
     if (CFAbstractStore.canInsertJavaExpression(target)) {
+      AnnotationMirror oldAnno = null;
       AccumulationValue flowValue = result.getRegularStore().getValue(target);
       if (flowValue != null) {
         // Dataflow has already recorded information about the target.  Integrate it into
-        // the list of values in the new annotation.
+        // the values in the new annotation.
         AnnotationMirrorSet flowAnnos = flowValue.getAnnotations();
         assert flowAnnos.size() <= 1;
         for (AnnotationMirror anno : flowAnnos) {
           if (atypeFactory.isAccumulatorAnnotation(anno)) {
-            List<String> oldFlowValues =
-                AnnotationUtils.getElementValueArray(anno, calledMethodsValueElement, String.class);
-            // valuesAsList cannot have its length changed -- it is backed by an
-            // array.  getElementValueArray returns a new, modifiable list.
-            oldFlowValues.addAll(valuesAsList);
-            valuesAsList = oldFlowValues;
+            oldAnno = anno;
           }
         }
       }
-      AnnotationMirror newAnno = atypeFactory.createAccumulatorAnnotation(valuesAsList);
+      AnnotationMirror newAnno =
+          oldAnno == null
+              ? atypeFactory.createAccumulatorAnnotation(valuesAsList)
+              : atypeFactory.createAccumulatorAnnotation(oldAnno, valuesAsList);
       exceptionalStores.forEach(
           (tm, s) ->
               s.replaceValue(
@@ -333,11 +331,12 @@ public class CalledMethodsTransfer extends AccumulationTransfer {
       return null;
     }
 
-    List<String> currentMethods =
-        AnnotationUtils.getElementValueArray(type, calledMethodsValueElement, String.class);
-    List<String> newList = CollectionsP.concatenate(currentMethods, methodNames);
+    if (!atypeFactory.isAccumulatorAnnotation(type)) {
+      // A polymorphic qualifier has no accumulated values.
+      type = atypeFactory.top;
+    }
 
-    return atypeFactory.createAccumulatorAnnotation(newList);
+    return atypeFactory.createAccumulatorAnnotation(type, methodNames);
   }
 
   /**
@@ -60,6 +60,7 @@ import org.checkerframework.common.value.ValueChecker;
 import org.checkerframework.common.value.ValueCheckerUtils;
 import org.checkerframework.common.value.qual.BottomVal;
 import org.checkerframework.common.value.util.Range;
+import org.checkerframework.dataflow.analysis.WideningStrategy;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.dataflow.expression.JavaExpression;
 import org.checkerframework.dataflow.expression.JavaExpressionParseException;
@@ -458,6 +459,11 @@ public class UpperBoundAnnotatedTypeFactory extends BaseAnnotatedTypeFactoryForI
       return 10;
     }
 
+    @Override
+    public WideningStrategy wideningStrategy() {
+      return WideningStrategy.LOOP_HEADS;
+    }
+
     /**
      * {@inheritDoc}
      *
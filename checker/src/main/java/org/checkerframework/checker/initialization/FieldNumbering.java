@@ -0,0 +1,127 @@
+package org.checkerframework.checker.initialization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.VariableElement;
+import org.checkerframework.javacutil.ElementUtils;
+
+/**
+ * Numbers fields densely, so that an {@link InitializationStore} can represent a set of fields as
+ * a {@link BitSet}.
+ *
+ * <p>The first time a field is numbered, all the fields of its class are numbered, in declaration
+ * order. The fields of a class therefore have consecutive numbers, and the sets of a store that
+ * analyzes code in one class stay small.
+ */
+final class FieldNumbering {
+
+  /** The fields, by number. */
+  private final List<VariableElement> fields = new ArrayList<>();
+
+  /** The number of each field. */
+  private final Map<VariableElement, Integer> numbers = new HashMap<>();
+
+  /** Creates an empty numbering. */
+  FieldNumbering() {}
+
+  /**
+   * Returns the number of a field, numbering it and the other fields of its class if necessary.
+   *
+   * @param field a field
+   * @return the number of {@code field}
+   */
+  int getOrCreateNumber(VariableElement field) {
+    Integer number = numbers.get(field);
+    if (number == null) {
+      Element enclosing = field.getEnclosingElement();
+      if (enclosing != null) {
+        for (Element member : enclosing.getEnclosedElements()) {
+          if (member.getKind().isField()) {
+            addIfAbsent((VariableElement) member);
+          }
+        }
+      }
+      number = addIfAbsent(field);
+    }
+    return number;
+  }
+
+  /**
+   * Returns the number of a field, without numbering it.
+   *
+   * @param field a field
+   * @return the number of {@code field}, or -1 if it has not been numbered
+   */
+  int getNumber(Element field) {
+    Integer number = numbers.get(field);
+    return number == null ? -1 : number;
+  }
+
+  /**
+   * Returns the fields in a set.
+   *
+   * @param set a set of field numbers
+   * @return a new list of the fields in {@code set}
+   */
+  List<VariableElement> toFields(BitSet set) {
+    List<VariableElement> result = new ArrayList<>(set.cardinality());
+    for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+      result.add(fields.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the set of the given fields that are static or not static.
+   *
+   * @param candidates fields
+   * @param isStatic if true, the result contains the static fields of {@code candidates};
+   *     otherwise, it contains the instance fields
+   * @return a new set of the numbers of those fields of {@code candidates}
+   */
+  BitSet toSet(Iterable<VariableElement> candidates, boolean isStatic) {
+    BitSet result = new BitSet();
+    for (VariableElement field : candidates) {
+      if (ElementUtils.isStatic(field) == isStatic) {
+        result.set(getOrCreateNumber(field));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the first set contains every field of the second, without allocating.
+   *
+   * @param superset a set of field numbers
+   * @param subset a set of field numbers
+   * @return true if {@code superset} contains every field of {@code subset}
+   */
+  static boolean containsAll(BitSet superset, BitSet subset) {
+    for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+      if (!superset.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Numbers a field if it has not been numbered yet.
+   *
+   * @param field a field
+   * @return the number of {@code field}
+   */
+  private int addIfAbsent(VariableElement field) {
+    Integer number = numbers.get(field);
+    if (number == null) {
+      number = fields.size();
+      fields.add(field);
+      numbers.put(field, number);
+    }
+    return number;
+  }
+}
@@ -15,11 +15,14 @@ import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.tree.JCTree;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -119,6 +122,14 @@ public abstract class InitializationAnnotatedTypeFactory<
    */
   protected final Set<String> initAnnoNames;
 
+  /**
+   * The numbering of the fields in the sets of initialized fields of {@link InitializationStore}s.
+   */
+  private final FieldNumbering fieldNumbering = new FieldNumbering();
+
+  /** The fields of each class that has been checked, as sets of field numbers. */
+  private final Map<TypeElement, ClassFields> classFieldsCache = new HashMap<>();
+
   /**
    * Create a new InitializationAnnotatedTypeFactory.
    *
@@ -160,6 +171,16 @@ public abstract class InitializationAnnotatedTypeFactory<
     // Its subclasses must call postInit().
   }
 
+  /**
+   * Returns the numbering of the fields in the sets of initialized fields of {@link
+   * InitializationStore}s.
+   *
+   * @return the numbering of the fields in the sets of initialized fields
+   */
+  /*package-private*/ FieldNumbering getFieldNumbering() {
+    return fieldNumbering;
+  }
+
   public Set<Class<? extends Annotation>> getInitializationAnnotations() {
     return initAnnos;
   }
@@ -514,8 +535,9 @@ public abstract class InitializationAnnotatedTypeFactory<
     if (areAllFieldsInitializedOnly(enclosingClass)) {
       Store store = getStoreBefore(tree);
       if (store != null
-          && getUninitializedInvariantFields(store, path, false, Collections.emptyList())
-              .isEmpty()) {
+          && (store.areFieldsInitialized(getClassFields(enclosingClass).invariantInstanceFields())
+              || getUninitializedInvariantFields(store, path, false, Collections.emptyList())
+                  .isEmpty())) {
         if (classType.isFinal()) {
           annotation = INITIALIZED;
         } else {
@@ -603,6 +625,65 @@ public abstract class InitializationAnnotatedTypeFactory<
     return IPair.of(uninitWithInvariantAnno, uninitWithoutInvariantAnno);
   }
 
+  /**
+   * Returns true if all the fields of a class are initialized in a given store. Then {@link
+   * #getUninitializedFields} returns two empty lists for the store and the class, but this method
+   * only needs to look up the fields and their types the first time it is called for the class.
+   *
+   * @param store a store
+   * @param classTree the class whose fields to check
+   * @param isStatic if true, check static fields; if false, check instance fields
+   * @return true if all the static (if {@code isStatic}) or instance fields of {@code classTree}
+   *     are initialized in {@code store}
+   */
+  public boolean areAllFieldsInitialized(Store store, ClassTree classTree, boolean isStatic) {
+    ClassFields classFields = getClassFields(classTree);
+    return store.areFieldsInitialized(
+        isStatic ? classFields.staticFields() : classFields.instanceFields());
+  }
+
+  /**
+   * Returns the fields of a class as sets of field numbers, computing them the first time they are
+   * needed.
+   *
+   * @param classTree a class
+   * @return the fields of {@code classTree}
+   */
+  private ClassFields getClassFields(ClassTree classTree) {
+    TypeElement classElt = TreeUtils.elementFromDeclaration(classTree);
+    ClassFields result = classFieldsCache.get(classElt);
+    if (result == null) {
+      BitSet staticFields = new BitSet();
+      BitSet instanceFields = new BitSet();
+      BitSet invariantInstanceFields = new BitSet();
+      for (VariableTree field : TreeUtils.fieldsFromClassTree(classTree)) {
+        VariableElement fieldElem = TreeUtils.elementFromDeclaration(field);
+        int number = fieldNumbering.getOrCreateNumber(fieldElem);
+        if (ElementUtils.isStatic(fieldElem)) {
+          staticFields.set(number);
+        } else {
+          instanceFields.set(number);
+          if (hasFieldInvariantAnnotation(field)) {
+            invariantInstanceFields.set(number);
+          }
+        }
+      }
+      result = new ClassFields(staticFields, instanceFields, invariantInstanceFields);
+      classFieldsCache.put(classElt, result);
+    }
+    return result;
+  }
+
+  /**
+   * The fields of a class, as sets of field numbers.
+   *
+   * @param staticFields the static fields
+   * @param instanceFields the instance fields
+   * @param invariantInstanceFields the instance fields that have the invariant annotation
+   */
+  private record ClassFields(
+      BitSet staticFields, BitSet instanceFields, BitSet invariantInstanceFields) {}
+
   /**
    * Returns the fields that have the invariant annotation and are not yet initialized in a given
    * store.
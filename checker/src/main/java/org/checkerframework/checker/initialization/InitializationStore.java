@@ -1,10 +1,9 @@
 package org.checkerframework.checker.initialization;
 
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.VariableElement;
@@ -34,8 +33,11 @@ import org.plumelib.util.ToStringComparator;
 public class InitializationStore<V extends CFAbstractValue<V>, S extends InitializationStore<V, S>>
     extends CFAbstractStore<V, S> {
 
-  /** The set of fields that are initialized. */
-  protected final Set<VariableElement> initializedFields;
+  /** The numbering of the fields in {@link #initializedFields}. */
+  private final FieldNumbering fieldNumbering;
+
+  /** The set of fields that are initialized, as numbered by {@link #fieldNumbering}. */
+  protected final BitSet initializedFields;
 
   /** The set of fields that have the 'invariant' annotation, and their value. */
   protected final Map<FieldAccess, V> invariantFields;
@@ -48,7 +50,10 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
    */
   public InitializationStore(CFAbstractAnalysis<V, S, ?> analysis, boolean sequentialSemantics) {
     super(analysis, sequentialSemantics);
-    initializedFields = new HashSet<>(4);
+    fieldNumbering =
+        ((InitializationAnnotatedTypeFactory<?, ?, ?, ?>) analysis.getTypeFactory())
+            .getFieldNumbering();
+    initializedFields = new BitSet();
     invariantFields = new HashMap<>(4);
   }
 
@@ -118,7 +123,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
   /** A copy constructor. */
   public InitializationStore(S other) {
     super(other);
-    initializedFields = new HashSet<>(other.initializedFields);
+    fieldNumbering = other.fieldNumbering;
+    initializedFields = (BitSet) other.initializedFields.clone();
     invariantFields = new HashMap<>(other.invariantFields);
   }
 
@@ -133,7 +139,7 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
     boolean fieldOnThisReference = field.getReceiver() instanceof ThisReference;
     boolean staticField = field.isStatic();
     if (fieldOnThisReference || staticField) {
-      initializedFields.add(field.getField());
+      addInitializedField(field.getField());
     }
   }
 
@@ -144,12 +150,24 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
    * @param f a field that is initialized
    */
   public void addInitializedField(VariableElement f) {
-    initializedFields.add(f);
+    initializedFields.set(fieldNumbering.getOrCreateNumber(f));
   }
 
   /** Is the field identified by the element {@code f} initialized? */
   public boolean isFieldInitialized(Element f) {
-    return initializedFields.contains(f);
+    int number = fieldNumbering.getNumber(f);
+    return number >= 0 && initializedFields.get(number);
+  }
+
+  /**
+   * Returns true if all the given fields are initialized.
+   *
+   * @param fields a set of fields, as numbered by {@link
+   *     InitializationAnnotatedTypeFactory#getFieldNumbering}
+   * @return true if all of {@code fields} are initialized
+   */
+  /*package-private*/ boolean areFieldsInitialized(BitSet fields) {
+    return FieldNumbering.containsAll(initializedFields, fields);
   }
 
   @Override
@@ -160,10 +178,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
     @SuppressWarnings("unchecked")
     S other = (S) o;
 
-    for (Element field : other.initializedFields) {
-      if (!initializedFields.contains(field)) {
-        return false;
-      }
+    if (!FieldNumbering.containsAll(initializedFields, other.initializedFields)) {
+      return false;
     }
 
     for (FieldAccess invariantField : other.invariantFields.keySet()) {
@@ -214,8 +230,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
     other.fieldValues.putAll(removedOtherFieldValues);
 
     // Set intersection for initializedFields.
-    result.initializedFields.addAll(other.initializedFields);
-    result.initializedFields.retainAll(initializedFields);
+    result.initializedFields.or(other.initializedFields);
+    result.initializedFields.and(initializedFields);
 
     // Set intersection for invariantFields.
     for (Map.Entry<FieldAccess, V> e : invariantFields.entrySet()) {
@@ -238,7 +254,8 @@ public class InitializationStore<V extends CFAbstractValue<V>, S extends Initial
 
     String initializedVisualize =
         viz.visualizeStoreKeyVal(
-            "initialized fields", ToStringComparator.sorted(initializedFields));
+            "initialized fields",
+            ToStringComparator.sorted(fieldNumbering.toFields(initializedFields)));
 
     List<VariableElement> invariantVars =
         CollectionsP.mapList(FieldAccess::getField, invariantFields.keySet());
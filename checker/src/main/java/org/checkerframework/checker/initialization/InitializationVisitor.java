@@ -13,7 +13,9 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.StringJoiner;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -40,6 +42,7 @@ import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.DefaultAnnotationFormatter;
 import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.TreePathUtil;
 import org.checkerframework.javacutil.TreeUtils;
 import org.plumelib.util.IPair;
 
@@ -61,8 +64,8 @@ public class InitializationVisitor<
   /** The annotation formatter. */
   protected final AnnotationFormatter annoFormatter;
 
-  /** List of fields in the current compilation unit that have been initialized. */
-  protected final List<VariableTree> initializedFields;
+  /** Set of fields in the current compilation unit that have been initialized. */
+  protected final Set<VariableTree> initializedFields;
 
   /**
    * Creates a new InitializationVisitor.
@@ -72,7 +75,7 @@ public class InitializationVisitor<
   public InitializationVisitor(BaseTypeChecker checker) {
     super(checker);
     annoFormatter = new DefaultAnnotationFormatter();
-    initializedFields = new ArrayList<>();
+    initializedFields = new HashSet<>();
   }
 
   @Override
@@ -349,6 +352,12 @@ public class InitializationVisitor<
       return;
     }
 
+    // Most constructors initialize every field, which needs no further checks.
+    ClassTree currentClass = TreePathUtil.enclosingClass(getCurrentPath());
+    if (atypeFactory.areAllFieldsInitialized(store, currentClass, staticFields)) {
+      return;
+    }
+
     IPair<List<VariableTree>, List<VariableTree>> uninitializedFields =
         atypeFactory.getUninitializedFields(
             store, getCurrentPath(), staticFields, receiverAnnotations);
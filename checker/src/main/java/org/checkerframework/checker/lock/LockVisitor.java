@@ -42,7 +42,9 @@ import org.checkerframework.checker.lock.qual.Holding;
 import org.checkerframework.checker.lock.qual.LockHeld;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeValidator;
 import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.common.basetype.TypeValidator;
 import org.checkerframework.dataflow.expression.JavaExpression;
 import org.checkerframework.dataflow.expression.JavaExpressionParseException;
 import org.checkerframework.dataflow.expression.Unknown;
@@ -93,6 +95,17 @@ public class LockVisitor extends BaseTypeVisitor<LockAnnotatedTypeFactory> {
     super(checker);
   }
 
+  @Override
+  protected TypeValidator createTypeValidator() {
+    return new BaseTypeValidator(checker, this, atypeFactory) {
+      // Checking a type argument may check that a lock is held at the type argument's tree.
+      @Override
+      protected boolean shouldMemoizeTypeArgumentChecks() {
+        return false;
+      }
+    };
+  }
+
   @Override
   public Void visitVariable(VariableTree tree, Void p) { // visit a variable declaration
     // A user may not annotate a primitive type, a boxed primitive type or a String
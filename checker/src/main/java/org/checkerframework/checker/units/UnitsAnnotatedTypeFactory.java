@@ -16,7 +16,6 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
 import javax.lang.model.util.Elements;
-import javax.tools.Diagnostic;
 import org.checkerframework.checker.initialization.qual.UnderInitialization;
 import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -47,6 +46,7 @@ import org.checkerframework.framework.util.DefaultQualifierKindHierarchy;
 import org.checkerframework.framework.util.QualifierKind;
 import org.checkerframework.framework.util.QualifierKindHierarchy;
 import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.InternalUtils;
@@ -100,6 +100,21 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
 
   private static final Map<String, AnnotationMirror> aliasMap = new HashMap<>();
 
+  /**
+   * The canonical mirror of each unit that has been the operand or result of a binary operation.
+   * Equal units are represented by the same canonical mirror, so the canonical mirrors can be
+   * compared by identity. The canonical mirror of a unit with {@code Prefix.one} has no prefix.
+   */
+  private final Map<Unit, AnnotationMirror> canonicalUnits = new HashMap<>();
+
+  /**
+   * The unit of the result of each binary operation whose result has been computed, such as
+   * {@code @mPERs} for the division of {@code @m} by {@code @s}. The operands are canonical
+   * mirrors. The table is filled at first use of each operation, so the units relations are
+   * consulted once per operation rather than once per expression.
+   */
+  private final Map<BinaryOperation, AnnotationMirror> binaryOperationResults = new HashMap<>();
+
   @SuppressWarnings("this-escape")
   public UnitsAnnotatedTypeFactory(BaseTypeChecker checker) {
     // use true to enable flow inference, false to disable it
@@ -435,13 +450,52 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
       super(atypeFactory);
     }
 
-    @SuppressWarnings("DuplicateBranches")
     @Override
     public Void visitBinary(BinaryTree tree, AnnotatedTypeMirror type) {
       AnnotatedTypeMirror lht = getAnnotatedType(tree.getLeftOperand());
       AnnotatedTypeMirror rht = getAnnotatedType(tree.getRightOperand());
       Tree.Kind kind = tree.getKind();
 
+      AnnotationMirror lhsUnit = getCanonicalUnit(lht);
+      AnnotationMirror rhsUnit = getCanonicalUnit(rht);
+      BinaryOperation operation =
+          lhsUnit == null || rhsUnit == null ? null : new BinaryOperation(kind, lhsUnit, rhsUnit);
+      if (operation != null) {
+        AnnotationMirror result = binaryOperationResults.get(operation);
+        if (result != null) {
+          type.replaceAnnotation(result);
+          return null;
+        }
+      }
+
+      if (annotateBinary(tree, lht, rht, type) && operation != null) {
+        AnnotationMirror result = getCanonicalUnit(type);
+        if (result != null) {
+          binaryOperationResults.put(operation, result);
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Annotates a binary operation by consulting the units relations and, if none of them
+     * determines the result, the default rules. Helper method for {@link #visitBinary}.
+     *
+     * @param tree the binary operation
+     * @param lht the type of the left operand
+     * @param rht the type of the right operand
+     * @param type the type of the binary operation, which is side-effected
+     * @return true if the result depends only on the kind of {@code tree} and the units of the
+     *     operands, and may therefore be reused for other operations of the same kind on the same
+     *     units
+     */
+    @SuppressWarnings("DuplicateBranches")
+    private boolean annotateBinary(
+        BinaryTree tree,
+        AnnotatedTypeMirror lht,
+        AnnotatedTypeMirror rht,
+        AnnotatedTypeMirror type) {
+      Tree.Kind kind = tree.getKind();
       // Remove Prefix.one
       if (UnitsRelationsTools.getPrefix(lht) == Prefix.one) {
         lht = UnitsRelationsTools.removePrefix(elements, lht);
@@ -455,13 +509,8 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
         AnnotationMirror res = useUnitsRelation(kind, ur, lht, rht);
 
         if (bestres != null && res != null && !bestres.equals(res)) {
-          checker.message(
-              Diagnostic.Kind.WARNING,
-              "UnitsRelation mismatch, taking neither! Previous: "
-                  + bestres
-                  + " and current: "
-                  + res);
-          return null; // super.visitBinary(tree, type);
+          checker.reportWarning(tree, "units.relations.mismatch", bestres, res);
+          return false; // super.visitBinary(tree, type);
         }
 
         if (res != null) {
@@ -520,11 +569,14 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
               // in modulo operation, it always returns the left unit regardless of what
               // it is (unknown, or some unit)
               type.replaceAnnotations(lht.getPrimaryAnnotations());
-          default -> {} // Placeholders for unhandled binary operations; do nothing
+          default -> {
+            // Placeholders for unhandled binary operations; do nothing
+            return false;
+          }
         }
       }
 
-      return null;
+      return true;
     }
 
     @Override
@@ -700,4 +752,48 @@ public class UnitsAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
   private AnnotationMirror removePrefix(AnnotationMirror anno) {
     return UnitsRelationsTools.removePrefix(elements, anno);
   }
+
+  /**
+   * Returns the canonical mirror of the unit of a type.
+   *
+   * @param type a type
+   * @return the canonical mirror of the unit of {@code type}, or null if {@code type} does not have
+   *     exactly one primary annotation, or if its annotation has elements other than a prefix
+   */
+  private @Nullable AnnotationMirror getCanonicalUnit(AnnotatedTypeMirror type) {
+    AnnotationMirrorSet annos = type.getPrimaryAnnotations();
+    if (annos.size() != 1) {
+      return null;
+    }
+    AnnotationMirror anno = annos.first();
+    Prefix prefix = UnitsRelationsTools.getPrefix(anno);
+    if (anno.getElementValues().size() != (UnitsRelationsTools.hasNoPrefix(anno) ? 0 : 1)) {
+      return null;
+    }
+    Unit unit =
+        new Unit(AnnotationUtils.annotationName(anno), prefix == Prefix.one ? null : prefix);
+    AnnotationMirror canonical = canonicalUnits.get(unit);
+    if (canonical == null) {
+      canonical = prefix == Prefix.one ? removePrefix(anno) : anno;
+      canonicalUnits.put(unit, canonical);
+    }
+    return canonical;
+  }
+
+  /**
+   * A unit: a units annotation and its prefix.
+   *
+   * @param name the name of the units annotation
+   * @param prefix the prefix, or null if there is none or it is {@code Prefix.one}
+   */
+  private record Unit(@CanonicalName String name, @Nullable Prefix prefix) {}
+
+  /**
+   * A binary operation on two units.
+   *
+   * @param kind the kind of the operation
+   * @param left the canonical mirror of the unit of the left operand
+   * @param right the canonical mirror of the unit of the right operand
+   */
+  private record BinaryOperation(Tree.Kind kind, AnnotationMirror left, AnnotationMirror right) {}
 }
@@ -9,6 +9,11 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror;
  * Interface that is used to specify the relation between units. A class that implements this
  * interface is the argument to the {@link org.checkerframework.checker.units.qual.UnitsRelations}
  * annotation.
+ *
+ * <p>The result of a relation must depend only on the units (the primary annotations) of its
+ * arguments. The Units Checker consults the relations once for each combination of an operator and
+ * two units, and reuses the result for every other expression that applies the operator to the
+ * same units.
  */
 public interface UnitsRelations {
   /**
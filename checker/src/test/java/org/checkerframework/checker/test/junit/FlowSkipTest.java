@@ -0,0 +1,28 @@
+package org.checkerframework.checker.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.checker.testchecker.flowskip.FlowSkipChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests which methods are not analyzed by dataflow because no expression in them has a relevant
+ * type, and that the methods that are analyzed keep the refinements that only dataflow provides.
+ */
+public class FlowSkipTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * Create a FlowSkipTest.
+   *
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public FlowSkipTest(List<File> testFiles) {
+    super(testFiles, FlowSkipChecker.class, "flowskip");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"flowskip"};
+  }
+}
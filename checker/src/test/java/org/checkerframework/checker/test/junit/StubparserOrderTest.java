@@ -0,0 +1,38 @@
+package org.checkerframework.checker.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized;
+
+/**
+ * Tests that stub files, which are parsed concurrently, take precedence over each other in the
+ * order in which they are listed.
+ */
+public class StubparserOrderTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * Create a StubparserOrderTest.
+   *
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public StubparserOrderTest(List<File> testFiles) {
+    super(
+        testFiles,
+        org.checkerframework.checker.nullness.NullnessChecker.class,
+        "stubparser-order",
+        "-Astubs="
+            + String.join(
+                ":",
+                "tests/stubparser-order/order1.astub",
+                "tests/stubparser-order/order2.astub",
+                "tests/stubparser-order/order3.astub",
+                "tests/stubparser-order/order4.astub",
+                "tests/stubparser-order/order5.astub"));
+  }
+
+  @Parameterized.Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"stubparser-order"};
+  }
+}
@@ -0,0 +1,28 @@
+package org.checkerframework.checker.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.checker.testchecker.unitsmemo.UnitsMemoChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the Units Checker warns at every binary operation on which two units relations
+ * disagree, although it reuses the results of other operations.
+ */
+public class UnitsMemoTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * Create a UnitsMemoTest.
+   *
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public UnitsMemoTest(List<File> testFiles) {
+    super(testFiles, UnitsMemoChecker.class, "units-memo");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"units-memo"};
+  }
+}
@@ -0,0 +1,31 @@
+package org.checkerframework.checker.testchecker.flowskip;
+
+import com.sun.source.tree.MethodTree;
+import org.checkerframework.checker.regex.RegexAnnotatedTypeFactory;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+
+/** The type factory of the Regex Checker, extended to report the methods it does not analyze. */
+public class FlowSkipAnnotatedTypeFactory extends RegexAnnotatedTypeFactory {
+
+  /**
+   * Creates a FlowSkipAnnotatedTypeFactory.
+   *
+   * @param checker the checker
+   */
+  public FlowSkipAnnotatedTypeFactory(BaseTypeChecker checker) {
+    super(checker);
+  }
+
+  @Override
+  protected boolean canSkipFlowAnalysis(MethodTree methodTree) {
+    boolean result = super.canSkipFlowAnalysis(methodTree);
+    if (result) {
+      checker.reportWarning(
+          methodTree,
+          // A warning specific to this checker, with no corresponding text in a
+          // messages.properties file; this checker is just for testing.
+          "flowskip.skipped");
+    }
+    return result;
+  }
+}
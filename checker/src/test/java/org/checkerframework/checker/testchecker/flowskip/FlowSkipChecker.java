@@ -0,0 +1,10 @@
+package org.checkerframework.checker.testchecker.flowskip;
+
+import org.checkerframework.checker.regex.RegexChecker;
+
+/**
+ * The Regex Checker, extended to issue a "flowskip.skipped" warning at each method whose dataflow
+ * analysis is skipped by {@link
+ * org.checkerframework.framework.type.GenericAnnotatedTypeFactory#canSkipFlowAnalysis}.
+ */
+public class FlowSkipChecker extends RegexChecker {}
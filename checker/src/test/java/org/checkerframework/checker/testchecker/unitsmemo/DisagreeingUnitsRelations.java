@@ -0,0 +1,24 @@
+package org.checkerframework.checker.testchecker.unitsmemo;
+
+import javax.lang.model.element.AnnotationMirror;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.checker.units.UnitsRelationsDefault;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+
+/**
+ * A units relation that disagrees with {@link UnitsRelationsDefault}: it says that {@code m / s} is
+ * in {@code kmPERh} rather than in {@code mPERs}. It determines no other result.
+ */
+public class DisagreeingUnitsRelations extends UnitsRelationsDefault {
+
+  @Override
+  public @Nullable AnnotationMirror multiplication(
+      AnnotatedTypeMirror lht, AnnotatedTypeMirror rht) {
+    return null;
+  }
+
+  @Override
+  public @Nullable AnnotationMirror division(AnnotatedTypeMirror lht, AnnotatedTypeMirror rht) {
+    return super.division(lht, rht) == mPERs ? kmPERh : null;
+  }
+}
@@ -0,0 +1,29 @@
+package org.checkerframework.checker.testchecker.unitsmemo;
+
+import java.util.Map;
+import org.checkerframework.checker.signature.qual.CanonicalName;
+import org.checkerframework.checker.units.UnitsAnnotatedTypeFactory;
+import org.checkerframework.checker.units.UnitsRelations;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+
+/** The type factory of the Units Checker, extended with {@link DisagreeingUnitsRelations}. */
+public class UnitsMemoAnnotatedTypeFactory extends UnitsAnnotatedTypeFactory {
+
+  /**
+   * Creates a UnitsMemoAnnotatedTypeFactory.
+   *
+   * @param checker the checker
+   */
+  public UnitsMemoAnnotatedTypeFactory(BaseTypeChecker checker) {
+    super(checker);
+  }
+
+  @Override
+  protected Map<@CanonicalName String, UnitsRelations> getUnitsRel() {
+    Map<@CanonicalName String, UnitsRelations> unitsRel = super.getUnitsRel();
+    unitsRel.computeIfAbsent(
+        DisagreeingUnitsRelations.class.getCanonicalName(),
+        name -> new DisagreeingUnitsRelations().init(processingEnv));
+    return unitsRel;
+  }
+}
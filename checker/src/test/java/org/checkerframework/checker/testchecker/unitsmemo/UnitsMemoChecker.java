@@ -0,0 +1,9 @@
+package org.checkerframework.checker.testchecker.unitsmemo;
+
+import org.checkerframework.checker.units.UnitsChecker;
+
+/**
+ * The Units Checker, with an additional units relation that disagrees with the default relations
+ * about the unit of {@code m / s}. See {@link DisagreeingUnitsRelations}.
+ */
+public class UnitsMemoChecker extends UnitsChecker {}
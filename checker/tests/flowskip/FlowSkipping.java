@@ -0,0 +1,82 @@
+import java.util.List;
+import java.util.regex.Pattern;
+import org.checkerframework.checker.regex.qual.Regex;
+import org.checkerframework.framework.qual.EnsuresQualifier;
+import org.checkerframework.framework.qual.RequiresQualifier;
+
+// FlowSkipChecker issues a flowskip.skipped warning at each method that is not analyzed by
+// dataflow.  Every method that must be analyzed relies on a refinement that only dataflow provides,
+// so skipping it would cause an argument or contracts error.
+public class FlowSkipping {
+
+  @Regex String regexField;
+
+  int count;
+
+  // No expression has a type that is relevant to the Regex Checker, so dataflow could not refine
+  // any of them and the method is skipped.  All types are the declared ones either way.
+  // :: warning: [flowskip.skipped]
+  int noRelevantTypes(int[] values, List<Integer> list) {
+    int sum = list.size();
+    for (int i = 0; i < values.length; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  // Each of the following methods needs dataflow.
+
+  void relevantExpression() {
+    String s = "a+";
+    Pattern.compile(s);
+    String t = "(";
+    // :: error: [argument]
+    Pattern.compile(t);
+  }
+
+  Runnable lambda() {
+    return () -> {
+      String s = "a+";
+      Pattern.compile(s);
+    };
+  }
+
+  void localClass() {
+    class Local {
+      void compile() {
+        String s = "a+";
+        Pattern.compile(s);
+      }
+    }
+  }
+
+  Runnable anonymousClass() {
+    return new Runnable() {
+      @Override
+      public void run() {
+        String s = "a+";
+        Pattern.compile(s);
+      }
+    };
+  }
+
+  @RequiresQualifier(expression = "this.regexField", qualifier = Regex.class)
+  void requiresRegexField() {}
+
+  // The store at the call, which contains the declared type of the field, satisfies the
+  // precondition.
+  void callsMethodWithPrecondition() {
+    requiresRegexField();
+  }
+
+  // The exit store, which contains the declared type of the field, satisfies the postcondition.
+  @EnsuresQualifier(expression = "this.regexField", qualifier = Regex.class)
+  void hasPostcondition() {
+    count++;
+  }
+
+  // Constructors are always analyzed.
+  FlowSkipping(int count) {
+    this.count = count;
+  }
+}
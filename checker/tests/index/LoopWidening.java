@@ -0,0 +1,43 @@
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.common.value.qual.IntVal;
+
+// These loops run more times than the Index Checker's analyses iterate before widening.  Widening
+// happens only at the loop heads and is followed by narrowing, so the loop counters keep precise
+// bounds inside and after the loops.
+public class LoopWidening {
+  void literalBound() {
+    int[] a = new int[1000];
+    for (int i = 0; i < 1000; i++) {
+      a[i] = i;
+    }
+  }
+
+  void afterLiteralBound() {
+    int[] a = new int[1000];
+    int i = 0;
+    while (i < 1000) {
+      a[i] = 0;
+      i++;
+    }
+    @IntVal(1000) int after = i;
+    // :: error: [array.access.unsafe.high.constant]
+    a[i] = 0;
+  }
+
+  void afterLengthBound(int[] a) {
+    int i = 0;
+    while (i < a.length) {
+      a[i] = 0;
+      i++;
+    }
+    @NonNegative int after = i;
+    // :: error: [array.access.unsafe.high]
+    a[i] = 0;
+  }
+
+  void countDown(int[] a) {
+    for (int i = a.length - 1; i >= 0; i--) {
+      a[i] = 0;
+    }
+  }
+}
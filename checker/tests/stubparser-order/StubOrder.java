@@ -0,0 +1,31 @@
+import org.checkerframework.checker.nullness.qual.*;
+
+/*
+ * This test reads five stub files, which are parsed concurrently:
+ * tests/stubparser-order/order1.astub
+ * ...
+ * tests/stubparser-order/order5.astub
+ *
+ * Where two stub files annotate the same method, the one that is listed later in -Astubs is used,
+ * as if the files were parsed one after another.
+ */
+public class StubOrder {
+  void method(String s) {
+    // order2.astub overrides order1.astub.
+    @NonNull String trimmed = s.trim();
+
+    // order4.astub overrides order3.astub.
+    // :: error: [assignment]
+    @NonNull String stripped = s.strip();
+
+    // order5.astub overrides order1.astub.
+    @NonNull String repeated = s.repeat(2);
+
+    // Only order5.astub annotates toLowerCase().
+    // :: error: [assignment]
+    @NonNull String lower = s.toLowerCase();
+
+    // No stub file annotates toUpperCase().
+    @NonNull String upper = s.toUpperCase();
+  }
+}
@@ -0,0 +1,29 @@
+import org.checkerframework.checker.units.qual.Prefix;
+import org.checkerframework.checker.units.qual.km;
+import org.checkerframework.checker.units.qual.m;
+import org.checkerframework.checker.units.qual.s;
+
+// DisagreeingUnitsRelations says that m / s is in kmPERh, but the default relations say that it is
+// in mPERs.  Neither unit is used, and the warning is issued at every such division, not only at
+// the first one.
+public class DisagreeingRelations {
+
+  void divide(@m int m, @m(Prefix.one) int mOne, @s int s) {
+    // :: warning: [units.relations.mismatch]
+    int v1 = m / s;
+    // :: warning: [units.relations.mismatch]
+    int v2 = m / s;
+    // :: warning: [units.relations.mismatch]
+    int v3 = mOne / s;
+    // :: warning: [units.relations.mismatch]
+    int v4 = m / s;
+  }
+
+  void otherOperations(@m int m, @km int km, @s int s) {
+    // Neither relation determines the unit of these operations, so there is no warning.
+    int p1 = m * s;
+    int p2 = m * s;
+    int q1 = km / s;
+    int q2 = km / s;
+  }
+}
@@ -0,0 +1,72 @@
+import org.checkerframework.checker.units.qual.Prefix;
+import org.checkerframework.checker.units.qual.h;
+import org.checkerframework.checker.units.qual.km;
+import org.checkerframework.checker.units.qual.km2;
+import org.checkerframework.checker.units.qual.kmPERh;
+import org.checkerframework.checker.units.qual.m;
+import org.checkerframework.checker.units.qual.m2;
+import org.checkerframework.checker.units.qual.mPERs;
+import org.checkerframework.checker.units.qual.mm;
+import org.checkerframework.checker.units.qual.mm2;
+import org.checkerframework.checker.units.qual.s;
+
+// The unit of an operator applied to two units is computed once and reused for every later
+// expression that applies the operator to the same units.  Each expression below must get the same
+// unit as the first one on the same units, whichever way the prefix is written, and an operation
+// on a unit with another prefix must not get the unit of the operation without it.
+public class RepeatedOperations {
+
+  void multiply(
+      @m int m, @m(Prefix.one) int mOne, @km int km, @m(Prefix.kilo) int kiloM, @mm int mm) {
+    @m2 int a1 = m * m;
+    @m2 int a2 = m * m;
+    @m2 int a3 = mOne * mOne;
+    @m2 int a4 = m * mOne;
+    @m2 int a5 = mOne * m;
+
+    @km2 int k1 = km * km;
+    @km2 int k2 = kiloM * kiloM;
+    @km2 int k3 = km * kiloM;
+    // :: error: [assignment]
+    @m2 int k4 = km * km;
+
+    @mm2 int mm1 = mm * mm;
+    // :: error: [assignment]
+    @km2 int mm2 = mm * mm;
+
+    // :: error: [assignment]
+    @km2 int a6 = m * m;
+    @m2 int a7 = mOne * mOne;
+  }
+
+  void divide(@m int m, @m(Prefix.one) int mOne, @km int km, @s int s, @h int h) {
+    @mPERs int v1 = m / s;
+    @mPERs int v2 = m / s;
+    @mPERs int v3 = mOne / s;
+
+    @kmPERh int v4 = km / h;
+    @kmPERh int v5 = km / h;
+
+    // :: error: [assignment]
+    @mPERs int v6 = km / s;
+    // :: error: [assignment]
+    @kmPERh int v7 = m / s;
+    @mPERs int v8 = m / s;
+  }
+
+  void add(@m int m, @m(Prefix.one) int mOne, @km int km) {
+    @m int s1 = m + m;
+    @m int s2 = m + mOne;
+    @m int s3 = mOne - m;
+
+    @km int s4 = km + km;
+    // :: error: [assignment]
+    @m int s5 = km + km;
+
+    // :: error: [assignment]
+    @m int s6 = m + km;
+    // :: error: [assignment]
+    @km int s7 = m + km;
+    @m int s8 = m + m;
+  }
+}
@@ -13,6 +13,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import javax.lang.model.element.VariableElement;
 import org.checkerframework.checker.initialization.qual.UnknownInitialization;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.javacutil.BugInCF;
@@ -71,6 +72,12 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
   protected final Map<TransferInput<V, S>, IdentityHashMap<Node, TransferResult<V, S>>>
       analysisCaches;
 
+  /**
+   * Abstract values of the trees of control flow graphs whose nodes and stores have been released
+   * by {@link #release(ControlFlowGraph)}.
+   */
+  protected final IdentityHashMap<Tree, V> releasedTreeValues;
+
   /** The unique ID for the next-created object. */
   private static final AtomicLong nextUid = new AtomicLong(0);
 
@@ -106,6 +113,7 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
     this.inputs = inputs;
     this.finalLocalValues = finalLocalValues;
     this.analysisCaches = analysisCaches;
+    this.releasedTreeValues = new IdentityHashMap<>();
   }
 
   /**
@@ -154,6 +162,41 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
     postfixLookup.putAll(other.postfixLookup);
     inputs.putAll(other.inputs);
     finalLocalValues.putAll(other.finalLocalValues);
+    releasedTreeValues.putAll(other.releasedTreeValues);
+  }
+
+  /**
+   * Releases the nodes and stores of {@code cfg}, keeping only the abstract value of each of its
+   * trees. Afterward, {@link #getValue(Tree)} still returns the same value for a tree of {@code
+   * cfg}, but {@link #getNodesForTree(Tree)} returns null and no store is available for it.
+   *
+   * <p>This lets the control flow graph and its stores be garbage-collected once no client needs
+   * them any more.
+   *
+   * @param cfg a control flow graph whose results were combined into this
+   */
+  public void release(ControlFlowGraph cfg) {
+    copyMapsIfNeeded();
+    for (Map.Entry<Tree, Set<Node>> entry : cfg.getTreeLookup().entrySet()) {
+      Tree tree = entry.getKey();
+      V value = getValue(tree);
+      if (value != null) {
+        releasedTreeValues.put(tree, value);
+      }
+      treeLookup.remove(tree);
+      for (Node node : entry.getValue()) {
+        nodeValues.remove(node);
+      }
+    }
+    for (Block block : cfg.getAllBlocks()) {
+      TransferInput<V, S> input = inputs.remove(block);
+      if (input != null) {
+        analysisCaches.remove(input);
+      }
+      for (Node node : block.getNodes()) {
+        nodeValues.remove(node);
+      }
+    }
   }
 
   /** Make copies of certain internal IdentityHashMaps, if they have not been copied already. */
@@ -221,7 +264,7 @@ public class AnalysisResult<V extends AbstractValue<V>, S extends Store<S>> impl
     Set<Node> nodes = treeLookup.get(t);
 
     if (nodes == null) {
-      return null;
+      return releasedTreeValues.get(t);
     }
     V merged = null;
     for (Node aNode : nodes) {
@@ -2,11 +2,16 @@ package org.checkerframework.dataflow.analysis;
 
 import com.sun.source.tree.LambdaExpressionTree;
 import com.sun.source.tree.MethodTree;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.checker.interning.qual.FindDistinct;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -20,9 +25,13 @@ import org.checkerframework.dataflow.cfg.block.ConditionalBlock;
 import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
 import org.checkerframework.dataflow.cfg.block.RegularBlock;
 import org.checkerframework.dataflow.cfg.block.SpecialBlock;
+import org.checkerframework.dataflow.cfg.node.CharacterLiteralNode;
+import org.checkerframework.dataflow.cfg.node.IntegerLiteralNode;
 import org.checkerframework.dataflow.cfg.node.LocalVariableNode;
+import org.checkerframework.dataflow.cfg.node.LongLiteralNode;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.dataflow.cfg.node.ReturnNode;
+import org.checkerframework.dataflow.cfg.node.ShortLiteralNode;
 import org.checkerframework.dataflow.qual.SideEffectFree;
 import org.checkerframework.javacutil.BugInCF;
 import org.plumelib.util.CollectionsP;
@@ -52,6 +61,28 @@ public class ForwardAnalysisImpl<
    */
   protected final int maxCountBeforeWidening;
 
+  /** Where and how this analysis widens. */
+  protected final WideningStrategy wideningStrategy;
+
+  /**
+   * The blocks at which this analysis widens: the targets of back edges of a depth-first traversal
+   * of the control flow graph. Empty unless {@link WideningStrategy#loopHeadsOnly()}.
+   */
+  protected final Set<Block> loopHeads = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * The integral literals of the control flow graph, and their neighbors. Empty unless {@link
+   * WideningStrategy#collectThresholds()}.
+   */
+  protected final TreeSet<Long> wideningThresholds = new TreeSet<>();
+
+  /**
+   * The inputs of the blocks before the current narrowing pass, or null if no narrowing pass is
+   * running. While a narrowing pass runs, {@link #getInputBefore} reads these inputs, and {@link
+   * #addStoreBefore} never widens.
+   */
+  private @Nullable IdentityHashMap<Block, TransferInput<V, S>> narrowingInputs = null;
+
   /** Then stores before every basic block (assumed to be 'no information' if not present). */
   protected final IdentityHashMap<Block, S> thenStores;
 
@@ -70,8 +101,22 @@ public class ForwardAnalysisImpl<
    * @param maxCountBeforeWidening number of times a block can be analyzed before widening
    */
   public ForwardAnalysisImpl(int maxCountBeforeWidening) {
+    this(maxCountBeforeWidening, WideningStrategy.EVERY_BLOCK);
+  }
+
+  // `@code`, not `@link`, because dataflow module doesn't depend on framework module.
+  /**
+   * Construct an object that can perform a org.checkerframework.dataflow forward analysis over a
+   * control flow graph. When using this constructor, the transfer function is set later by the
+   * subclass, e.g., {@code org.checkerframework.framework.flow.CFAbstractAnalysis}.
+   *
+   * @param maxCountBeforeWidening number of times a block can be analyzed before widening
+   * @param wideningStrategy where and how to widen
+   */
+  public ForwardAnalysisImpl(int maxCountBeforeWidening, WideningStrategy wideningStrategy) {
     super(Direction.FORWARD);
     this.maxCountBeforeWidening = maxCountBeforeWidening;
+    this.wideningStrategy = wideningStrategy;
     this.blockCount = maxCountBeforeWidening == -1 ? null : new IdentityHashMap<>();
     this.thenStores = new IdentityHashMap<>();
     this.elseStores = new IdentityHashMap<>();
@@ -104,6 +149,13 @@ public class ForwardAnalysisImpl<
         Block b = worklist.remove();
         performAnalysisBlock(b);
       }
+      if (blockCount != null) {
+        for (int i = 0; i < wideningStrategy.narrowingPasses(); i++) {
+          if (!narrow(cfg)) {
+            break;
+          }
+        }
+      }
     } finally {
       assert isRunning;
       // In case performAnalysisBlock crashed, reset isRunning to false.
@@ -111,6 +163,57 @@ public class ForwardAnalysisImpl<
     }
   }
 
+  /**
+   * Performs one narrowing pass: recomputes the input of every block from the inputs of its
+   * predecessors that the previous iteration computed, without widening. Because the previous
+   * inputs are a fixed point, the new inputs are no larger, and they are still sound.
+   *
+   * @param cfg the control flow graph being analyzed
+   * @return true if any input changed
+   */
+  private boolean narrow(ControlFlowGraph cfg) {
+    IdentityHashMap<Block, TransferInput<V, S>> previousInputs = new IdentityHashMap<>(inputs);
+    // Only the entry block's input is not recomputed from its predecessors.
+    Set<Block> entryOnly = Collections.singleton(cfg.getEntryBlock());
+    thenStores.keySet().retainAll(entryOnly);
+    elseStores.keySet().retainAll(entryOnly);
+    inputs.keySet().retainAll(entryOnly);
+
+    narrowingInputs = previousInputs;
+    try {
+      Set<Block> done = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Block b : cfg.getDepthFirstOrderedBlocks()) {
+        if (previousInputs.containsKey(b) && done.add(b)) {
+          performAnalysisBlock(b);
+        }
+      }
+    } finally {
+      narrowingInputs = null;
+      // The blocks whose inputs changed were added to the worklist, but each narrowing pass
+      // recomputes all of them anyway.
+      worklist.process(cfg);
+    }
+
+    for (Map.Entry<Block, TransferInput<V, S>> e : previousInputs.entrySet()) {
+      if (!e.getValue().equals(inputs.get(e.getKey()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the integral literals of the control flow graph being analyzed, and the values
+   * adjacent to them and to their negations. A widening operator may widen a bound to the nearest
+   * of these values before it widens to the limit of the type, because loops are usually bounded by
+   * constants that appear in the method. Empty unless {@link WideningStrategy#collectThresholds()}.
+   *
+   * @return the widening thresholds of the control flow graph being analyzed
+   */
+  public NavigableSet<Long> getWideningThresholds() {
+    return Collections.unmodifiableNavigableSet(wideningThresholds);
+  }
+
   @Override
   public void performAnalysisBlock(Block b) {
     switch (b.getType()) {
@@ -320,9 +423,76 @@ public class ForwardAnalysisImpl<
       blockCount.clear();
     }
     storesAtReturnStatements.clear();
+    loopHeads.clear();
+    wideningThresholds.clear();
+    if (blockCount != null && wideningStrategy.loopHeadsOnly()) {
+      computeLoopHeads(cfg);
+    }
+    if (blockCount != null && wideningStrategy.collectThresholds()) {
+      computeWideningThresholds(cfg);
+    }
     super.initFields(cfg);
   }
 
+  /**
+   * Sets {@link #loopHeads} to the targets of the back edges of a depth-first traversal of the
+   * control flow graph. A back edge leads to a block that is on the current path of the traversal.
+   *
+   * @param cfg a control flow graph
+   */
+  private void computeLoopHeads(ControlFlowGraph cfg) {
+    Set<Block> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    Set<Block> onPath = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<IPair<Block, Iterator<Block>>> path = new ArrayDeque<>();
+    Block entry = cfg.getEntryBlock();
+    visited.add(entry);
+    onPath.add(entry);
+    path.push(IPair.of(entry, entry.getSuccessors().iterator()));
+    while (!path.isEmpty()) {
+      IPair<Block, Iterator<Block>> top = path.peek();
+      if (top.second.hasNext()) {
+        Block succ = top.second.next();
+        if (onPath.contains(succ)) {
+          loopHeads.add(succ);
+        } else if (visited.add(succ)) {
+          onPath.add(succ);
+          path.push(IPair.of(succ, succ.getSuccessors().iterator()));
+        }
+      } else {
+        onPath.remove(top.first);
+        path.pop();
+      }
+    }
+  }
+
+  /**
+   * Sets {@link #wideningThresholds} from the integral literals of the control flow graph.
+   *
+   * @param cfg a control flow graph
+   */
+  private void computeWideningThresholds(ControlFlowGraph cfg) {
+    for (Node n : cfg.getAllNodes()) {
+      long value;
+      if (n instanceof IntegerLiteralNode integer) {
+        value = integer.getValue();
+      } else if (n instanceof LongLiteralNode longLiteral) {
+        value = longLiteral.getValue();
+      } else if (n instanceof ShortLiteralNode shortLiteral) {
+        value = shortLiteral.getValue();
+      } else if (n instanceof CharacterLiteralNode character) {
+        value = character.getValue();
+      } else {
+        continue;
+      }
+      // -Long.MIN_VALUE overflows to itself, which is harmless.
+      for (long threshold : new long[] {value, -value}) {
+        wideningThresholds.add(threshold - 1);
+        wideningThresholds.add(threshold);
+        wideningThresholds.add(threshold + 1);
+      }
+    }
+  }
+
   @Override
   @RequiresNonNull("cfg")
   protected void initInitialInputs() {
@@ -433,7 +603,9 @@ public class ForwardAnalysisImpl<
     S thenStore = getStoreBefore(b, Store.Kind.THEN);
     S elseStore = getStoreBefore(b, Store.Kind.ELSE);
     boolean shouldWiden = false;
-    if (blockCount != null) {
+    if (blockCount != null
+        && narrowingInputs == null
+        && (!wideningStrategy.loopHeadsOnly() || loopHeads.contains(b))) {
       Integer count = blockCount.getOrDefault(b, 0);
       shouldWiden = count >= maxCountBeforeWidening;
       if (shouldWiden) {
@@ -542,6 +714,9 @@ public class ForwardAnalysisImpl<
    * @return the transfer input corresponding to the location right before the basic block {@code b}
    */
   protected @Nullable TransferInput<V, S> getInputBefore(Block b) {
+    if (narrowingInputs != null) {
+      return narrowingInputs.get(b);
+    }
     return inputs.get(b);
   }
 }
@@ -0,0 +1,50 @@
+package org.checkerframework.dataflow.analysis;
+
+import org.checkerframework.javacutil.BugInCF;
+
+/**
+ * Where and how a {@link ForwardAnalysisImpl} widens. Widening only matters if the analysis has a
+ * positive {@code maxCountBeforeWidening}.
+ *
+ * <p>Widening at every block discards precision in straight-line code after a loop as well as in
+ * the loop itself. Every cycle of a control flow graph passes through the target of a back edge of
+ * a depth-first traversal, so widening only at those loop heads still guarantees termination.
+ * Narrowing recovers some of the precision that widening gave up: after the fixed point has been
+ * reached, each narrowing pass recomputes every block's input from its predecessors' previous
+ * inputs, without widening. Starting from a fixed point, such a pass can only make the stores
+ * smaller, and they remain a sound approximation.
+ *
+ * @param loopHeadsOnly if true, widen only at the targets of back edges instead of at every block
+ * @param collectThresholds if true, collect the integral literals of each control flow graph; see
+ *     {@link ForwardAnalysisImpl#getWideningThresholds()}
+ * @param narrowingPasses the number of narrowing passes after the fixed point has been reached
+ */
+public record WideningStrategy(
+    boolean loopHeadsOnly, boolean collectThresholds, int narrowingPasses) {
+
+  /** Widen at every block, and do not narrow. This is the default. */
+  public static final WideningStrategy EVERY_BLOCK = new WideningStrategy(false, false, 0);
+
+  /** Widen only at loop heads, then narrow twice. */
+  public static final WideningStrategy LOOP_HEADS = new WideningStrategy(true, false, 2);
+
+  /**
+   * Widen only at loop heads to bounds taken from the method's integral literals, then narrow
+   * twice.
+   */
+  public static final WideningStrategy LOOP_HEADS_WITH_THRESHOLDS =
+      new WideningStrategy(true, true, 2);
+
+  /**
+   * Creates a WideningStrategy.
+   *
+   * @param loopHeadsOnly if true, widen only at the targets of back edges
+   * @param collectThresholds if true, collect the integral literals of each control flow graph
+   * @param narrowingPasses the number of narrowing passes, which must not be negative
+   */
+  public WideningStrategy {
+    if (narrowingPasses < 0) {
+      throw new BugInCF("negative narrowingPasses: " + narrowingPasses);
+    }
+  }
+}
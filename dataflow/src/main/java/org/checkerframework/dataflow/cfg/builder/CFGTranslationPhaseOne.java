@@ -62,9 +62,9 @@ import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Type;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -310,7 +310,7 @@ public class CFGTranslationPhaseOne extends TreeScanner<Node, Void> {
   private final Map<Label, Integer> bindings;
 
   /** The set of leaders (represented as indices into {@code nodeList}). */
-  private final Set<Integer> leaders;
+  private final BitSet leaders;
 
   /**
    * All return nodes (if any) encountered. Only includes return statements that actually return
@@ -422,7 +422,7 @@ public class CFGTranslationPhaseOne extends TreeScanner<Node, Void> {
     postfixTreeToCfgNodes = new IdentityHashMap<>();
     nodeList = new ArrayList<>();
     bindings = new HashMap<>();
-    leaders = new HashSet<>();
+    leaders = new BitSet();
 
     regularExitLabel = new Label();
     exceptionalExitLabel = new Label();
@@ -789,15 +789,12 @@ public class CFGTranslationPhaseOne extends TreeScanner<Node, Void> {
           bindings.put(e.getKey(), e.getValue() + 1);
         }
       }
-      // update leaders
-      Set<Integer> oldLeaders = new HashSet<>(leaders);
-      leaders.clear();
-      for (Integer l : oldLeaders) {
-        if (l >= index + 1) {
-          leaders.add(l + 1);
-        } else {
-          leaders.add(l);
-        }
+      // update leaders: shift the leaders at or after the insertion point by one
+      for (int l = leaders.previousSetBit(leaders.length() - 1);
+          l >= index + 1;
+          l = leaders.previousSetBit(l - 1)) {
+        leaders.clear(l);
+        leaders.set(l + 1);
       }
     } else {
       nodeList.add(n);
@@ -813,7 +810,7 @@ public class CFGTranslationPhaseOne extends TreeScanner<Node, Void> {
     if (bindings.containsKey(l)) {
       throw new BugInCF("bindings already contains key %s: %s", l, bindings);
     }
-    leaders.add(nodeList.size());
+    leaders.set(nodeList.size());
     bindings.put(l, nodeList.size());
   }
 
@@ -1,6 +1,7 @@
 package org.checkerframework.dataflow.cfg.builder;
 
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,7 +18,6 @@ import org.checkerframework.dataflow.cfg.block.SpecialBlockImpl;
 import org.checkerframework.dataflow.cfg.node.CatchMarkerNode;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.javacutil.BugInCF;
-import org.plumelib.util.ArraySet;
 
 /** Class that performs phase two of the translation process. */
 @SuppressWarnings("nullness") // TODO
@@ -40,7 +40,7 @@ public final class CFGTranslationPhaseTwo {
     Map<Label, Integer> bindings = in.bindings;
     List<ExtendedNode> nodeList = in.nodeList;
     // A leader is an extended node which will give rise to a basic block in phase two.
-    Set<Integer> leaders = in.leaders;
+    BitSet leaders = in.leaders;
 
     assert !in.nodeList.isEmpty();
 
@@ -49,10 +49,10 @@ public final class CFGTranslationPhaseTwo {
     SpecialBlockImpl exceptionalExitBlock = new SpecialBlockImpl(SpecialBlockType.EXCEPTIONAL_EXIT);
 
     // record missing edges that will be added later
-    Set<MissingEdge> missingEdges = new ArraySet<>(1);
+    List<MissingEdge> missingEdges = new ArrayList<>();
 
     // missing exceptional edges
-    Set<MissingEdge> missingExceptionalEdges = new LinkedHashSet<>();
+    List<MissingEdge> missingExceptionalEdges = new ArrayList<>();
 
     // create start block
     SpecialBlockImpl startBlock = new SpecialBlockImpl(SpecialBlockType.ENTRY);
@@ -60,17 +60,22 @@ public final class CFGTranslationPhaseTwo {
 
     // Loop through all 'leaders' (while dynamically detecting the leaders).
     @NonNull RegularBlockImpl block = new RegularBlockImpl(); // block being processed/built
+    // True if no extended node has been assigned to `block`. Such a block is unreachable: no edge
+    // can target it, and it has no predecessor. A leader reuses it rather than starting a new
+    // block, so that phase three does not have to remove it again.
+    boolean blockIsFresh = true;
     int i = 0;
     for (ExtendedNode node : nodeList) {
       switch (node.getType()) {
         case NODE -> {
-          if (leaders.contains(i)) {
+          if (leaders.get(i) && !blockIsFresh) {
             RegularBlockImpl b = new RegularBlockImpl();
             block.setSuccessor(b);
             block = b;
           }
           block.addNode(node.getNode());
           node.setBlock(block);
+          blockIsFresh = false;
 
           // does this node end the execution (modeled as an edge to
           // the exceptional exit block)
@@ -78,6 +83,7 @@ public final class CFGTranslationPhaseTwo {
           if (terminatesExecution) {
             block.setSuccessor(exceptionalExitBlock);
             block = new RegularBlockImpl();
+            blockIsFresh = true;
           }
         }
         case CONDITIONAL_JUMP -> {
@@ -95,22 +101,14 @@ public final class CFGTranslationPhaseTwo {
           }
           block.setSuccessor(cb);
           block = new RegularBlockImpl();
+          blockIsFresh = true;
 
-          // use two anonymous SingleSuccessorBlockImpl that set the
-          // 'then' and 'else' successor of the conditional block
+          // the 'then' and 'else' successors of the conditional block
           Label thenLabel = cj.getThenLabel();
           Label elseLabel = cj.getElseLabel();
           Integer target = bindings.get(thenLabel);
           assert target != null;
-          missingEdges.add(
-              new MissingEdge(
-                  new RegularBlockImpl() {
-                    @Override
-                    public void setSuccessor(BlockImpl successor) {
-                      cb.setThenSuccessor(successor);
-                    }
-                  },
-                  target));
+          missingEdges.add(new MissingEdge(cb, true, target));
           target = bindings.get(elseLabel);
           if (target == null) {
             throw new BugInCF(
@@ -118,19 +116,11 @@ public final class CFGTranslationPhaseTwo {
                     "in conditional jump %s, no binding for elseLabel %s: %s",
                     cj, elseLabel, bindings));
           }
-          missingEdges.add(
-              new MissingEdge(
-                  new RegularBlockImpl() {
-                    @Override
-                    public void setSuccessor(BlockImpl successor) {
-                      cb.setElseSuccessor(successor);
-                    }
-                  },
-                  target));
+          missingEdges.add(new MissingEdge(cb, false, target));
         }
         case UNCONDITIONAL_JUMP -> {
           UnconditionalJump uj = (UnconditionalJump) node;
-          if (leaders.contains(i)) {
+          if (leaders.get(i) && !blockIsFresh) {
             RegularBlockImpl b = new RegularBlockImpl();
             block.setSuccessor(b);
             block = b;
@@ -147,6 +137,7 @@ public final class CFGTranslationPhaseTwo {
             missingEdges.add(new MissingEdge(block, target, uj.getFlowRule()));
           }
           block = new RegularBlockImpl();
+          blockIsFresh = true;
         }
         case EXCEPTION_NODE -> {
           NodeWithExceptionsHolder en = (NodeWithExceptionsHolder) node;
@@ -155,8 +146,11 @@ public final class CFGTranslationPhaseTwo {
           Node nn = en.getNode();
           e.setNode(nn);
           node.setBlock(e);
-          block.setSuccessor(e);
+          if (!blockIsFresh) {
+            block.setSuccessor(e);
+          }
           block = new RegularBlockImpl();
+          blockIsFresh = true;
 
           // Ensure linking between e and next block (normal edge).
           // Note: do not link to the next block for throw statements (these throw
@@ -186,6 +180,15 @@ public final class CFGTranslationPhaseTwo {
       assert index != null : "CFGBuilder: problem in CFG construction " + p.source;
       ExtendedNode extendedNode = nodeList.get(index);
       BlockImpl target = extendedNode.getBlock();
+      ConditionalBlockImpl conditionalSource = p.conditionalSource;
+      if (conditionalSource != null) {
+        if (p.isThenEdge) {
+          conditionalSource.setThenSuccessor(target);
+        } else {
+          conditionalSource.setElseSuccessor(target);
+        }
+        continue;
+      }
       SingleSuccessorBlockImpl source = p.source;
       source.setSuccessor(target);
       if (p.flowRule != null) {
@@ -3,6 +3,7 @@ package org.checkerframework.dataflow.cfg.builder;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.analysis.Store.FlowRule;
+import org.checkerframework.dataflow.cfg.block.ConditionalBlockImpl;
 import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlockImpl;
 
 /* --------------------------------------------------------- */
@@ -11,8 +12,14 @@ import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlockImpl;
 
 /** Represents a missing edge that will be added later. */
 /*package-private*/ class MissingEdge {
-  /** The source of the edge. */
-  /*package-private*/ final SingleSuccessorBlockImpl source;
+  /** The source of the edge, or null if the source is {@link #conditionalSource}. */
+  /*package-private*/ final @Nullable SingleSuccessorBlockImpl source;
+
+  /** The source of the edge if it is a 'then' or 'else' edge of a conditional block; else null. */
+  /*package-private*/ final @Nullable ConditionalBlockImpl conditionalSource;
+
+  /** True if the edge is the 'then' edge of {@link #conditionalSource}. */
+  /*package-private*/ final boolean isThenEdge;
 
   /** The index (target?) of the edge. Null means go to exceptional exit. */
   /*package-private*/ final @Nullable Integer index;
@@ -71,13 +78,39 @@ import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlockImpl;
       FlowRule flowRule) {
     assert (index != null) || (cause != null);
     this.source = source;
+    this.conditionalSource = null;
+    this.isThenEdge = false;
     this.index = index;
     this.cause = cause;
     this.flowRule = flowRule;
   }
 
+  /**
+   * Create a new MissingEdge for the 'then' or 'else' edge of a conditional block.
+   *
+   * @param conditionalSource the source of the edge
+   * @param isThenEdge true for the 'then' edge, false for the 'else' edge
+   * @param index the index (target?) of the edge
+   */
+  public MissingEdge(ConditionalBlockImpl conditionalSource, boolean isThenEdge, int index) {
+    this.source = null;
+    this.conditionalSource = conditionalSource;
+    this.isThenEdge = isThenEdge;
+    this.index = index;
+    this.cause = null;
+    this.flowRule = null;
+  }
+
   @Override
   public String toString() {
+    if (conditionalSource != null) {
+      return "MissingEdge("
+          + conditionalSource
+          + (isThenEdge ? " then" : " else")
+          + ", "
+          + index
+          + ")";
+    }
     return "MissingEdge(" + source + ", " + index + ", " + cause + ")";
   }
 }
@@ -5,6 +5,7 @@ import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.LambdaExpressionTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
+import java.util.BitSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,7 +48,7 @@ public class PhaseOneResult {
   /*package-private*/ final Map<Label, Integer> bindings;
 
   /** The set of leaders (represented as indices into {@code nodeList}). */
-  /*package-private*/ final Set<Integer> leaders;
+  /*package-private*/ final BitSet leaders;
 
   /**
    * All return nodes (if any) encountered. Only includes return statements that actually return
@@ -100,7 +101,7 @@ public class PhaseOneResult {
       IdentityHashMap<UnaryTree, BinaryTree> postfixTreeToCfgNodes,
       List<ExtendedNode> nodeList,
       Map<Label, Integer> bindings,
-      Set<Integer> leaders,
+      BitSet leaders,
       List<ReturnNode> returnNodes,
       Label regularExitLabel,
       Label exceptionalExitLabel,
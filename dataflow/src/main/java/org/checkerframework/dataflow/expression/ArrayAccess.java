@@ -71,14 +71,17 @@ public class ArrayAccess extends JavaExpression {
 
   @Override
   public boolean equals(@Nullable Object obj) {
-    if (!(obj instanceof ArrayAccess other)) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ArrayAccess other) || hashCode() != other.hashCode()) {
       return false;
     }
     return array.equals(other.array) && index.equals(other.index);
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return Objects.hash(array, index);
   }
 
@@ -87,7 +87,10 @@ public class ArrayCreation extends JavaExpression {
 
   @Override
   public boolean equals(@Nullable Object obj) {
-    if (!(obj instanceof ArrayCreation other)) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ArrayCreation other) || hashCode() != other.hashCode()) {
       return false;
     }
     return this.dimensions.equals(other.getDimensions())
@@ -98,7 +101,7 @@ public class ArrayCreation extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return Objects.hash(dimensions, initializers, getType().toString());
   }
 
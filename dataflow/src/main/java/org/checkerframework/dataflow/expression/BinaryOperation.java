@@ -105,7 +105,10 @@ public class BinaryOperation extends JavaExpression {
 
   @Override
   public boolean equals(@Nullable Object other) {
-    if (!(other instanceof BinaryOperation biOp)) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof BinaryOperation biOp) || hashCode() != biOp.hashCode()) {
       return false;
     }
     if (operationKind != biOp.getOperationKind()) {
@@ -119,7 +122,7 @@ public class BinaryOperation extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     if (isCommutative()) {
       // Use a commutative combination of the operands' hash codes so that equal operands in
       // swapped order (for which `equals()` returns true) hash identically.
@@ -66,7 +66,7 @@ public class ClassName extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return Objects.hash(typeString);
   }
 
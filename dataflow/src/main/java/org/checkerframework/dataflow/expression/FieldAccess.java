@@ -96,7 +96,11 @@ public class FieldAccess extends JavaExpression {
 
   @Override
   public boolean equals(@Nullable Object obj) {
-    if (!(obj instanceof FieldAccess fa)) {
+    if (this == obj) {
+      return true;
+    }
+    // `this` and `super` receivers have the same hash code, so equal field accesses do too.
+    if (!(obj instanceof FieldAccess fa) || hashCode() != fa.hashCode()) {
       return false;
     }
     if (!fa.getField().equals(getField())) {
@@ -113,7 +117,7 @@ public class FieldAccess extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return Objects.hash(getField(), getReceiver());
   }
 
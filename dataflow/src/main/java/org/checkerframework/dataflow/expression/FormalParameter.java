@@ -90,7 +90,7 @@ public class FormalParameter extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     VarSymbol vs = (VarSymbol) element;
     // Hash the same fields that `equals()` compares (via `LocalVariable.sameElement()`),
     // mirroring `LocalVariable.hashCode()`.
@@ -79,6 +79,9 @@ public abstract class JavaExpression {
   /** The type of this expression. */
   protected final TypeMirror type;
 
+  /** The hash code of this expression, or 0 if it has not been computed yet. */
+  private int hashCode = 0;
+
   /**
    * Create a JavaExpression.
    *
@@ -149,6 +152,30 @@ public abstract class JavaExpression {
   // Equality and containment
   //
 
+  /**
+   * Returns the hash code of this expression, which {@link #computeHashCode} computes on first use.
+   * Stores use expressions as map keys, and the hash code of a compound expression depends on all
+   * of its subexpressions, so it is computed only once. Expressions are immutable.
+   *
+   * @return the hash code of this expression
+   */
+  @Override
+  public final int hashCode() {
+    int result = hashCode;
+    if (result == 0) {
+      result = computeHashCode();
+      hashCode = result;
+    }
+    return result;
+  }
+
+  /**
+   * Computes the hash code of this expression. It must be consistent with {@link #equals}.
+   *
+   * @return the hash code of this expression
+   */
+  protected abstract int computeHashCode();
+
   /**
    * Returns true if and only if the two Java expressions are syntactically identical.
    *
@@ -0,0 +1,128 @@
+package org.checkerframework.dataflow.expression;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import javax.lang.model.element.ElementKind;
+import org.checkerframework.dataflow.cfg.node.Node;
+
+/**
+ * Creates {@link JavaExpression}s so that syntactically equal expressions of the same type are one
+ * object. An analysis uses one interner for the control flow graph that it is analyzing.
+ *
+ * <p>Stores are maps keyed by expressions, and a hash map compares keys by identity before it calls
+ * {@link JavaExpression#equals}. When the keys of a store and the expressions that look them up
+ * come from the same interner, the lookups never compare expressions structurally. Interning also
+ * avoids allocating a new expression each time a node is converted, which happens on every
+ * iteration of the dataflow analysis.
+ *
+ * <p>Expressions that are {@link JavaExpression#equals} but not syntactically equal, such as {@code
+ * this.f} and {@code super.f}, or {@code a + b} and {@code b + a}, remain distinct objects. An
+ * expression that contains an {@link Unknown} or a constructor call is never equal to another
+ * expression, so it is neither interned nor cached: converting the same node twice still yields two
+ * unequal expressions.
+ */
+public final class JavaExpressionInterner {
+
+  /** The expression for each node that has been converted. */
+  private final IdentityHashMap<Node, JavaExpression> fromNodeCache = new IdentityHashMap<>();
+
+  /** The canonical expression for each class of equal expressions. */
+  private final HashMap<JavaExpression, JavaExpression> canonical = new HashMap<>();
+
+  /** Creates a new JavaExpressionInterner. */
+  public JavaExpressionInterner() {}
+
+  /**
+   * Returns the interned expression for a node; see {@link JavaExpression#fromNode}.
+   *
+   * @param node a node of the control flow graph being analyzed
+   * @return the interned expression for {@code node}
+   */
+  public JavaExpression fromNode(Node node) {
+    JavaExpression result = fromNodeCache.get(node);
+    if (result == null) {
+      result = JavaExpression.fromNode(node);
+      if (hasIdentityEquality(result)) {
+        return result;
+      }
+      result = intern(result);
+      fromNodeCache.put(node, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the interned version of an expression: an expression that is syntactically equal to
+   * {@code expr} and has the same type.
+   *
+   * @param expr an expression
+   * @return the interned version of {@code expr}, which is {@code expr} itself the first time
+   */
+  public JavaExpression intern(JavaExpression expr) {
+    if (hasIdentityEquality(expr)) {
+      return expr;
+    }
+    JavaExpression existing = canonical.putIfAbsent(expr, expr);
+    if (existing == null || existing == expr) {
+      return expr;
+    }
+    if (existing.syntacticEquals(expr) && sameType(existing, expr)) {
+      return existing;
+    }
+    return expr;
+  }
+
+  /**
+   * Returns true if the expression contains an {@link Unknown} or a constructor call, which are
+   * equal only to themselves.
+   *
+   * @param expr an expression
+   * @return true if {@code expr} is equal only to itself
+   */
+  private static boolean hasIdentityEquality(JavaExpression expr) {
+    if (expr.containsUnknown()) {
+      return true;
+    }
+    ConstructorCallScanner scanner = new ConstructorCallScanner();
+    scanner.scan(expr, null);
+    return scanner.found;
+  }
+
+  /** Determines whether an expression contains a constructor call. */
+  private static class ConstructorCallScanner extends JavaExpressionScanner<Void> {
+
+    /** True if the scanned expression contains a constructor call. */
+    boolean found = false;
+
+    @Override
+    protected Void visitMethodCall(MethodCall methodCallExpr, Void p) {
+      if (methodCallExpr.getElement().getKind() == ElementKind.CONSTRUCTOR) {
+        found = true;
+        return null;
+      }
+      return super.visitMethodCall(methodCallExpr, p);
+    }
+  }
+
+  /**
+   * Returns true if two expressions have the same type. Like {@link ValueLiteral#equals}, this
+   * compares the types' string representations because no {@code Types} object is available.
+   *
+   * @param e1 an expression
+   * @param e2 an expression
+   * @return true if the expressions have the same type
+   */
+  private static boolean sameType(JavaExpression e1, JavaExpression e2) {
+    return e1.getType() == e2.getType()
+        || e1.getType().toString().equals(e2.getType().toString());
+  }
+
+  /**
+   * Forgets all interned expressions. The analysis calls this before it analyzes another control
+   * flow graph, whose nodes are different.
+   */
+  public void clear() {
+    fromNodeCache.clear();
+    canonical.clear();
+  }
+}
@@ -94,7 +94,7 @@ public class LocalVariable extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     VarSymbol vs = (VarSymbol) element;
     return Objects.hash(vs.pos, vs.name, vs.owner);
   }
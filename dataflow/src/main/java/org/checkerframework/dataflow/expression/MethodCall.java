@@ -117,7 +117,7 @@ public class MethodCall extends JavaExpression {
     if (this == obj) {
       return true;
     }
-    if (!(obj instanceof MethodCall other)) {
+    if (!(obj instanceof MethodCall other) || hashCode() != other.hashCode()) {
       return false;
     }
     if (method.getKind() == ElementKind.CONSTRUCTOR) {
@@ -132,7 +132,7 @@ public class MethodCall extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     if (method.getKind() == ElementKind.CONSTRUCTOR) {
       return System.identityHashCode(this);
     }
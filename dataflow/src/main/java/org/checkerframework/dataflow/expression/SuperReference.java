@@ -45,7 +45,7 @@ public class SuperReference extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return 0;
   }
 
@@ -54,7 +54,7 @@ public class ThisReference extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return 0;
   }
 
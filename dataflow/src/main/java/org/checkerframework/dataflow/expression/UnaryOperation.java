@@ -85,14 +85,17 @@ public class UnaryOperation extends JavaExpression {
 
   @Override
   public boolean equals(@Nullable Object other) {
-    if (!(other instanceof UnaryOperation unOp)) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof UnaryOperation unOp) || hashCode() != unOp.hashCode()) {
       return false;
     }
     return operationKind == unOp.getOperationKind() && operand.equals(unOp.operand);
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return Objects.hash(operationKind, operand);
   }
 
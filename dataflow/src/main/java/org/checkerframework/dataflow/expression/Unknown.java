@@ -82,7 +82,7 @@ public class Unknown extends JavaExpression {
 
   // Overridden to avoid an error "overrides equals, but does not override hashCode"
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return System.identityHashCode(this);
   }
 
@@ -123,7 +123,10 @@ public class ValueLiteral extends JavaExpression {
 
   @Override
   public boolean equals(@Nullable Object obj) {
-    if (!(obj instanceof ValueLiteral other)) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ValueLiteral other) || hashCode() != other.hashCode()) {
       return false;
     }
     // TODO:  Can this string comparison be cleaned up?
@@ -132,7 +135,7 @@ public class ValueLiteral extends JavaExpression {
   }
 
   @Override
-  public int hashCode() {
+  protected int computeHashCode() {
     return Objects.hash(value, type.toString());
   }
 
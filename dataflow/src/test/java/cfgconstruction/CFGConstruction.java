@@ -1,6 +1,11 @@
 package cfgconstruction;
 
 import org.checkerframework.dataflow.cfg.ControlFlowGraph;
+import org.checkerframework.dataflow.cfg.block.Block;
+import org.checkerframework.dataflow.cfg.block.Block.BlockType;
+import org.checkerframework.dataflow.cfg.block.ExceptionBlock;
+import org.checkerframework.dataflow.cfg.block.SingleSuccessorBlock;
+import org.checkerframework.dataflow.cfg.node.ThrowNode;
 import org.checkerframework.dataflow.cfg.visualize.CFGVisualizeLauncher;
 
 public class CFGConstruction {
@@ -14,10 +19,87 @@ public class CFGConstruction {
 
     String inputFile = "Test.java";
     String clazz = "Test";
-    String method = "manyNestedTryFinallyBlocks";
 
+    checkMethod(inputFile, clazz, "manyNestedTryFinallyBlocks");
+
+    // An exception block directly follows another exception block.
+    ControlFlowGraph cfg = checkMethod(inputFile, clazz, "consecutiveExceptionNodes");
+    checkSuccessor(cfg, BlockType.EXCEPTION_BLOCK, BlockType.EXCEPTION_BLOCK);
+
+    // A conditional block directly follows an exception block.
+    cfg = checkMethod(inputFile, clazz, "conditionalAfterExceptionNode");
+    checkSuccessor(cfg, BlockType.EXCEPTION_BLOCK, BlockType.CONDITIONAL_BLOCK);
+
+    // Both throw statements are followed by a label: the end of the `if` statement.
+    cfg = checkMethod(inputFile, clazz, "throwFollowedByLabel");
+    int throwBlocks = 0;
+    for (Block b : cfg.getAllBlocks()) {
+      if (b instanceof ExceptionBlock eb && eb.getNode() instanceof ThrowNode) {
+        throwBlocks++;
+      }
+    }
+    if (throwBlocks != 2) {
+      throw new IllegalStateException("Expected 2 throw blocks, found " + throwBlocks);
+    }
+  }
+
+  /**
+   * Generates the control flow graph of the given method and checks that it is well formed: every
+   * regular block is non-empty and has a successor, every exception block other than a {@code
+   * throw} has a normal successor, and the regular exit block is reachable.
+   *
+   * @param inputFile the Java source file
+   * @param clazz the class that contains the method
+   * @param method the method whose control flow graph to check
+   * @return the control flow graph of the method
+   */
+  private static ControlFlowGraph checkMethod(String inputFile, String clazz, String method) {
     ControlFlowGraph cfg =
         CFGVisualizeLauncher.generateMethodCFG(inputFile, method, clazz, /* analysis= */ null);
     cfg.checkInvariants();
+
+    for (Block b : cfg.getAllBlocks()) {
+      switch (b.getType()) {
+        case REGULAR_BLOCK -> {
+          if (b.getNodes().isEmpty()) {
+            throw new IllegalStateException("Empty block " + b + " in " + method);
+          }
+          if (((SingleSuccessorBlock) b).getSuccessor() == null) {
+            throw new IllegalStateException("Block " + b + " in " + method + " has no successor");
+          }
+        }
+        case EXCEPTION_BLOCK -> {
+          ExceptionBlock eb = (ExceptionBlock) b;
+          if (!(eb.getNode() instanceof ThrowNode) && eb.getSuccessor() == null) {
+            throw new IllegalStateException("Block " + b + " in " + method + " has no successor");
+          }
+        }
+        default -> {}
+      }
+    }
+    if (!cfg.getAllBlocks().contains(cfg.getRegularExitBlock())) {
+      throw new IllegalStateException("The regular exit of " + method + " is unreachable");
+    }
+    return cfg;
+  }
+
+  /**
+   * Checks that some block of type {@code from} has a block of type {@code to} as its normal
+   * successor.
+   *
+   * @param cfg the control flow graph
+   * @param from the type of the predecessor
+   * @param to the type of the successor
+   */
+  private static void checkSuccessor(ControlFlowGraph cfg, BlockType from, BlockType to) {
+    for (Block b : cfg.getAllBlocks()) {
+      if (b.getType() == from && b instanceof SingleSuccessorBlock ssb) {
+        Block succ = ssb.getSuccessor();
+        if (succ != null && succ.getType() == to) {
+          return;
+        }
+      }
+    }
+    throw new IllegalStateException("No " + from + " is followed by a " + to);
   }
 }
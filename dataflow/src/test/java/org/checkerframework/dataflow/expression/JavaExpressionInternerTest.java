@@ -0,0 +1,177 @@
+package org.checkerframework.dataflow.expression;
+
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that {@link JavaExpressionInterner} returns one object for syntactically equal expressions,
+ * and that interned expressions hash consistently with {@link JavaExpression#equals}.
+ */
+public class JavaExpressionInternerTest {
+
+  /** The type {@code int}. */
+  private final TypeMirror intType;
+
+  /** The type {@code Integer}. */
+  private final TypeMirror integerType;
+
+  /** The type {@code Number}, the superclass of {@code Integer}. */
+  private final TypeMirror numberType;
+
+  /** The field {@code Integer.MAX_VALUE}. */
+  private final VariableElement maxValueField;
+
+  /** The field {@code Integer.value}. */
+  private final VariableElement valueField;
+
+  /** Creates a JavaExpressionInternerTest, with the types and fields of {@code Integer}. */
+  public JavaExpressionInternerTest() {
+    Context context = new Context();
+    ProcessingEnvironment env = JavacProcessingEnvironment.instance(context);
+    JavaCompiler javac = JavaCompiler.instance(context);
+    javac.initModules(com.sun.tools.javac.util.List.nil());
+    javac.enterDone();
+
+    intType = env.getTypeUtils().getPrimitiveType(TypeKind.INT);
+    TypeElement integer = env.getElementUtils().getTypeElement("java.lang.Integer");
+    integerType = integer.asType();
+    numberType = integer.getSuperclass();
+    maxValueField = field(integer, "MAX_VALUE");
+    valueField = field(integer, "value");
+  }
+
+  /**
+   * Returns the field of a class with the given name.
+   *
+   * @param type a class
+   * @param name the name of a field of {@code type}
+   * @return the field of {@code type} named {@code name}
+   */
+  private static VariableElement field(TypeElement type, String name) {
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      if (field.getSimpleName().contentEquals(name)) {
+        return field;
+      }
+    }
+    throw new Error("No field " + name + " in " + type);
+  }
+
+  /**
+   * Returns a new expression {@code Integer.MAX_VALUE}.
+   *
+   * @return a new expression {@code Integer.MAX_VALUE}
+   */
+  private JavaExpression maxValue() {
+    return new FieldAccess(new ClassName(integerType), maxValueField);
+  }
+
+  /**
+   * Returns a new expression {@code left + right}.
+   *
+   * @param left the left operand
+   * @param right the right operand
+   * @return a new expression {@code left + right}
+   */
+  private JavaExpression plus(int left, int right) {
+    return new BinaryOperation(
+        intType,
+        Tree.Kind.PLUS,
+        new ValueLiteral(intType, left),
+        new ValueLiteral(intType, right));
+  }
+
+  @Test
+  public void structurallyEqualExpressionsAreIdentical() {
+    JavaExpressionInterner interner = new JavaExpressionInterner();
+    JavaExpression first = maxValue();
+    JavaExpression second = maxValue();
+    Assert.assertNotSame(first, second);
+    Assert.assertSame(first, interner.intern(first));
+    Assert.assertSame(first, interner.intern(second));
+
+    JavaExpression sum = interner.intern(plus(1, 2));
+    Assert.assertSame(sum, interner.intern(plus(1, 2)));
+    Assert.assertSame(first, interner.intern(maxValue()));
+  }
+
+  @Test
+  public void syntacticallyDifferentExpressionsAreDistinct() {
+    JavaExpressionInterner interner = new JavaExpressionInterner();
+
+    JavaExpression sum = interner.intern(plus(1, 2));
+    JavaExpression reversed = plus(2, 1);
+    Assert.assertEquals(sum, reversed);
+    Assert.assertSame(reversed, interner.intern(reversed));
+
+    JavaExpression thisValue =
+        interner.intern(new FieldAccess(new ThisReference(integerType), valueField));
+    JavaExpression superValue = new FieldAccess(new SuperReference(numberType), valueField);
+    Assert.assertEquals(thisValue, superValue);
+    Assert.assertSame(superValue, interner.intern(superValue));
+  }
+
+  @Test
+  public void unknownIsNotInterned() {
+    JavaExpressionInterner interner = new JavaExpressionInterner();
+    JavaExpression unknown = new Unknown(intType);
+    JavaExpression other = new Unknown(intType);
+    Assert.assertSame(unknown, interner.intern(unknown));
+    Assert.assertSame(other, interner.intern(other));
+    Assert.assertNotEquals(unknown, other);
+  }
+
+  @Test
+  public void clearForgetsInternedExpressions() {
+    JavaExpressionInterner interner = new JavaExpressionInterner();
+    JavaExpression first = interner.intern(maxValue());
+    interner.clear();
+    JavaExpression second = maxValue();
+    Assert.assertSame(second, interner.intern(second));
+    Assert.assertNotSame(first, second);
+  }
+
+  @Test
+  public void internedExpressionsHashConsistentlyWithEquals() {
+    JavaExpressionInterner interner = new JavaExpressionInterner();
+    List<JavaExpression> expressions = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      expressions.add(maxValue());
+      expressions.add(plus(1, 2));
+      expressions.add(plus(2, 1));
+      expressions.add(new FieldAccess(new ThisReference(integerType), valueField));
+      expressions.add(new FieldAccess(new SuperReference(numberType), valueField));
+      expressions.add(new ValueLiteral(intType, 1));
+      expressions.add(new Unknown(intType));
+    }
+    List<JavaExpression> interned = new ArrayList<>();
+    for (JavaExpression expression : expressions) {
+      interned.add(interner.intern(expression));
+    }
+    for (int i = 0; i < expressions.size(); i++) {
+      JavaExpression a = interned.get(i);
+      Assert.assertEquals(expressions.get(i), a);
+      for (int j = 0; j < expressions.size(); j++) {
+        JavaExpression b = interned.get(j);
+        if (a.equals(b)) {
+          Assert.assertEquals(a + " and " + b, a.hashCode(), b.hashCode());
+        }
+        if (a == b) {
+          Assert.assertTrue(
+              a + " and " + b, expressions.get(i).syntacticEquals(expressions.get(j)));
+        }
+      }
+    }
+  }
+}
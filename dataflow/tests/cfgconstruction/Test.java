@@ -23,4 +23,34 @@ public class Test {
       }
     }
   }
+
+  public int consecutiveExceptionNodes(Object o, int[] a) {
+    return o.toString().length() / a[0];
+  }
+
+  public int conditionalAfterExceptionNode(Object o) {
+    if (o.equals("")) {
+      return 1;
+    } else {
+      return 2;
+    }
+  }
+
+  public int throwFollowedByLabel(boolean b, int n) {
+    if (b) {
+      throw new IllegalStateException();
+    }
+    int i = 0;
+    loop:
+    while (i < n) {
+      if (i == 3) {
+        throw new IllegalArgumentException();
+      }
+      i++;
+      if (i > 5) {
+        break loop;
+      }
+    }
+    return i;
+  }
 }
@@ -0,0 +1,418 @@
+package org.checkerframework.framework.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A file manager that shares the class files of the JDK and of classpath jars among all the javac
+ * tasks run by the test framework in one JVM. Package listings and class file contents are read
+ * once and then served from memory, so a test does not re-open and re-scan the same jars as the
+ * tests before it. The test framework uses this class only when test cases run concurrently; see
+ * {@link RootedSuite}.
+ *
+ * <p>Only locations that cannot change during a test run are cached: the system modules, and any
+ * other input location that consists solely of archive files. A location that contains a directory,
+ * such as a classpath with a build output directory on it, is always listed by the underlying file
+ * manager. Source files are never cached.
+ *
+ * <p>The platform options of the task, such as {@code --release} and {@code --system}, determine
+ * which system classes a location contains, and which version of a multi-release jar it contains.
+ * Therefore, the caches are keyed on those options as well as on the paths of the location. The
+ * caches last until {@link #clearCaches} is called, which {@link RootedSuite} does after each test
+ * suite.
+ *
+ * <p>The caches are thread-safe, so tasks that run concurrently may use different instances of this
+ * class. A single instance must not be used by concurrent tasks.
+ */
+public class CachingJavaFileManager extends ForwardingJavaFileManager<StandardJavaFileManager>
+    implements StandardJavaFileManager {
+
+  /**
+   * The options that determine the contents of a location other than its paths. An option in the
+   * form {@code --option=value} is also recognized.
+   */
+  private static final Set<String> PLATFORM_OPTIONS =
+      Set.of(
+          "--release",
+          "--system",
+          "-bootclasspath",
+          "--boot-class-path",
+          "-source",
+          "--source",
+          "-target",
+          "--target");
+
+  /**
+   * A cached package listing.
+   *
+   * @param platform the platform options of the task that listed the location
+   * @param location the name of the location that was listed
+   * @param paths the paths of the location, or the empty list for the system modules
+   * @param packageName the package that was listed
+   * @param recurse whether subpackages were listed too
+   */
+  private record ListingKey(
+      String platform, String location, List<String> paths, String packageName, boolean recurse) {}
+
+  /**
+   * A cached class file.
+   *
+   * @param platform the platform options of the task that listed the class file
+   * @param uri the URI of the class file
+   */
+  private record ContentKey(String platform, URI uri) {}
+
+  /** The class files in each cached package listing. */
+  private static final Map<ListingKey, List<CachedClassFile>> listings = new ConcurrentHashMap<>();
+
+  /** The contents of the cached class files, read on first use. */
+  private static final Map<ContentKey, byte[]> contents = new ConcurrentHashMap<>();
+
+  /** The class file kind, the only kind that is cached. */
+  private static final Set<Kind> CLASS_KIND = EnumSet.of(Kind.CLASS);
+
+  /** The platform options of the task that uses this file manager, as a cache key. */
+  private final String platform;
+
+  /**
+   * Creates a new CachingJavaFileManager.
+   *
+   * @param fileManager the file manager that reads files that are not cached
+   * @param options the javac options of the task that uses this file manager
+   */
+  public CachingJavaFileManager(StandardJavaFileManager fileManager, List<String> options) {
+    super(fileManager);
+    this.platform = platformKey(options);
+  }
+
+  /**
+   * Discards the cached package listings and class file contents, so that later tasks read them
+   * afresh.
+   */
+  public static void clearCaches() {
+    listings.clear();
+    contents.clear();
+  }
+
+  /**
+   * Returns the platform options among {@code options}, as a cache key.
+   *
+   * @param options javac options
+   * @return the platform options among {@code options}, separated by spaces
+   */
+  private static String platformKey(List<String> options) {
+    List<String> platformOptions = new ArrayList<>();
+    for (int i = 0; i < options.size(); i++) {
+      String option = options.get(i);
+      int equals = option.indexOf('=');
+      String name = equals == -1 ? option : option.substring(0, equals);
+      if (!PLATFORM_OPTIONS.contains(name)) {
+        continue;
+      }
+      if (equals != -1) {
+        platformOptions.add(option);
+      } else if (i + 1 < options.size()) {
+        platformOptions.add(option + "=" + options.get(++i));
+      }
+    }
+    return String.join(" ", platformOptions);
+  }
+
+  @Override
+  public Iterable<JavaFileObject> list(
+      Location location, String packageName, Set<Kind> kinds, boolean recurse)
+      throws IOException {
+    if (!kinds.contains(Kind.CLASS)) {
+      return super.list(location, packageName, kinds, recurse);
+    }
+    List<String> paths = cacheablePaths(location);
+    if (paths == null) {
+      return super.list(location, packageName, kinds, recurse);
+    }
+
+    ListingKey key = new ListingKey(platform, location.getName(), paths, packageName, recurse);
+    List<CachedClassFile> classFiles = listings.get(key);
+    if (classFiles == null) {
+      classFiles = new ArrayList<>();
+      for (JavaFileObject file : super.list(location, packageName, CLASS_KIND, recurse)) {
+        classFiles.add(
+            new CachedClassFile(
+                new ContentKey(platform, file.toUri()),
+                super.inferBinaryName(location, file),
+                file.getLastModified()));
+      }
+      listings.putIfAbsent(key, classFiles);
+    }
+
+    List<JavaFileObject> result = new ArrayList<>(classFiles);
+    if (kinds.size() > 1) {
+      Set<Kind> otherKinds = EnumSet.copyOf(kinds);
+      otherKinds.remove(Kind.CLASS);
+      for (JavaFileObject file : super.list(location, packageName, otherKinds, recurse)) {
+        result.add(file);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the paths that identify {@code location} in the cache, or null if {@code location} must
+   * not be cached.
+   *
+   * @param location a location
+   * @return the paths that identify {@code location} in the cache, or null if it must not be cached
+   */
+  private @Nullable List<String> cacheablePaths(Location location) {
+    if (location.isOutputLocation()
+        || location == StandardLocation.SOURCE_PATH
+        || location == StandardLocation.MODULE_SOURCE_PATH) {
+      return null;
+    }
+    if (location.getName().startsWith(StandardLocation.SYSTEM_MODULES.getName())) {
+      // The system modules are determined by the platform options, which are part of the key.
+      return List.of();
+    }
+    Iterable<? extends Path> locationPaths;
+    try {
+      locationPaths = fileManager.getLocationAsPaths(location);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      // A module-oriented location.
+      return null;
+    }
+    if (locationPaths == null) {
+      return null;
+    }
+    List<String> paths = new ArrayList<>();
+    for (Path path : locationPaths) {
+      if (!Files.isRegularFile(path)) {
+        // A directory may change between tests.
+        return null;
+      }
+      paths.add(path.toString());
+    }
+    return paths;
+  }
+
+  @Override
+  public @Nullable String inferBinaryName(Location location, JavaFileObject file) {
+    if (file instanceof CachedClassFile cachedFile) {
+      return cachedFile.binaryName;
+    }
+    return super.inferBinaryName(location, file);
+  }
+
+  @Override
+  public boolean isSameFile(FileObject a, FileObject b) {
+    if (a instanceof CachedClassFile || b instanceof CachedClassFile) {
+      return a.toUri().equals(b.toUri());
+    }
+    return super.isSameFile(a, b);
+  }
+
+  @Override
+  public Iterable<? extends JavaFileObject> getJavaFileObjectsFromFiles(
+      Iterable<? extends File> files) {
+    return fileManager.getJavaFileObjectsFromFiles(files);
+  }
+
+  @Override
+  public Iterable<? extends JavaFileObject> getJavaFileObjectsFromPaths(
+      Collection<? extends Path> paths) {
+    return fileManager.getJavaFileObjectsFromPaths(paths);
+  }
+
+  @Override
+  public Iterable<? extends JavaFileObject> getJavaFileObjects(File... files) {
+    return fileManager.getJavaFileObjects(files);
+  }
+
+  @Override
+  public Iterable<? extends JavaFileObject> getJavaFileObjects(Path... paths) {
+    return fileManager.getJavaFileObjects(paths);
+  }
+
+  @Override
+  public Iterable<? extends JavaFileObject> getJavaFileObjectsFromStrings(Iterable<String> names) {
+    return fileManager.getJavaFileObjectsFromStrings(names);
+  }
+
+  @Override
+  public Iterable<? extends JavaFileObject> getJavaFileObjects(String... names) {
+    return fileManager.getJavaFileObjects(names);
+  }
+
+  @Override
+  public void setLocation(Location location, Iterable<? extends File> files) throws IOException {
+    fileManager.setLocation(location, files);
+  }
+
+  @Override
+  public void setLocationFromPaths(Location location, Collection<? extends Path> paths)
+      throws IOException {
+    fileManager.setLocationFromPaths(location, paths);
+  }
+
+  @Override
+  public void setLocationForModule(
+      Location location, String moduleName, Collection<? extends Path> paths) throws IOException {
+    fileManager.setLocationForModule(location, moduleName, paths);
+  }
+
+  @Override
+  public @Nullable Iterable<? extends File> getLocation(Location location) {
+    return fileManager.getLocation(location);
+  }
+
+  @Override
+  public @Nullable Iterable<? extends Path> getLocationAsPaths(Location location) {
+    return fileManager.getLocationAsPaths(location);
+  }
+
+  @Override
+  public Path asPath(FileObject file) {
+    return fileManager.asPath(file);
+  }
+
+  @Override
+  public void setPathFactory(PathFactory f) {
+    fileManager.setPathFactory(f);
+  }
+
+  /**
+   * A class file whose contents are shared among all javac tasks. This class does not extend {@link
+   * javax.tools.SimpleJavaFileObject}, which rejects the opaque URIs of files in jars.
+   */
+  private static class CachedClassFile implements JavaFileObject {
+
+    /** The key of the contents of the class file. */
+    final ContentKey key;
+
+    /** The binary name of the class. */
+    final @Nullable String binaryName;
+
+    /** The time at which the class file was last modified. */
+    final long lastModified;
+
+    /**
+     * Creates a new CachedClassFile.
+     *
+     * @param key the key of the contents of the class file
+     * @param binaryName the binary name of the class
+     * @param lastModified the time at which the class file was last modified
+     */
+    CachedClassFile(ContentKey key, @Nullable String binaryName, long lastModified) {
+      this.key = key;
+      this.binaryName = binaryName;
+      this.lastModified = lastModified;
+    }
+
+    @Override
+    public URI toUri() {
+      return key.uri();
+    }
+
+    @Override
+    public String getName() {
+      return key.uri().toString();
+    }
+
+    @Override
+    public Kind getKind() {
+      return Kind.CLASS;
+    }
+
+    @Override
+    public InputStream openInputStream() throws IOException {
+      byte[] bytes = contents.get(key);
+      if (bytes == null) {
+        URLConnection connection = key.uri().toURL().openConnection();
+        // Do not keep the jar open, or read an old version of it, after the caches are cleared.
+        connection.setUseCaches(false);
+        try (InputStream in = connection.getInputStream()) {
+          bytes = in.readAllBytes();
+        }
+        contents.putIfAbsent(key, bytes);
+      }
+      return new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public OutputStream openOutputStream() {
+      throw new UnsupportedOperationException("Cached class files are read-only: " + getName());
+    }
+
+    @Override
+    public Reader openReader(boolean ignoreEncodingErrors) {
+      throw new UnsupportedOperationException("Class files have no characters: " + getName());
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      throw new UnsupportedOperationException("Class files have no characters: " + getName());
+    }
+
+    @Override
+    public Writer openWriter() {
+      throw new UnsupportedOperationException("Cached class files are read-only: " + getName());
+    }
+
+    @Override
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    @Override
+    public boolean delete() {
+      return false;
+    }
+
+    @Override
+    public boolean isNameCompatible(String simpleName, Kind kind) {
+      // The URI of a file in a jar is opaque, so the name cannot be taken from its path.
+      if (kind != Kind.CLASS || binaryName == null) {
+        return false;
+      }
+      return binaryName.equals(simpleName) || binaryName.endsWith("." + simpleName);
+    }
+
+    @Override
+    public @Nullable NestingKind getNestingKind() {
+      return null;
+    }
+
+    @Override
+    public @Nullable Modifier getAccessLevel() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return getName();
+    }
+  }
+}
@@ -1,16 +1,49 @@
 package org.checkerframework.framework.test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.Suite;
 import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
 
 /**
  * Encapsulates the directory root to search within for test files to parameterise the test with.
+ *
+ * <p>If the system property {@code tests.threads} is greater than 1, the suite runs that many of
+ * its test cases concurrently. Each test case then writes its class files to its own subdirectory
+ * of the output directory, and the test cases share the class files of the JDK and of classpath
+ * jars through a {@link CachingJavaFileManager}. If the system property {@code tests.timing} is
+ * true, the suite prints the time taken by each test case.
  */
 abstract class RootedSuite extends Suite {
 
+  /** The number of test cases that run concurrently, from system property {@code tests.threads}. */
+  private static final int THREADS = Integer.getInteger("tests.threads", 1);
+
+  /**
+   * True if the time taken by each test case is printed. From system property {@code
+   * tests.timing}.
+   */
+  private static final boolean REPORT_TIMING = Boolean.getBoolean("tests.timing");
+
+  /**
+   * Returns true if test cases run concurrently, as determined by system property {@code
+   * tests.threads}.
+   *
+   * @return true if test cases run concurrently
+   */
+  static boolean runsConcurrently() {
+    return THREADS > 1;
+  }
+
   /**
    * Called by this class and subclasses once the runners making up the suite have been determined.
    *
@@ -18,8 +51,12 @@ abstract class RootedSuite extends Suite {
    * @param runners for each class in the suite, a {@link Runner}
    * @throws InitializationError malformed test suite
    */
+  @SuppressWarnings("this-escape")
   public RootedSuite(Class<?> klass, List<Runner> runners) throws InitializationError {
     super(klass, runners);
+    if (THREADS > 1) {
+      setScheduler(new ConcurrentScheduler(THREADS));
+    }
   }
 
   /**
@@ -35,4 +72,79 @@ abstract class RootedSuite extends Suite {
     }
     return new File("tests");
   }
+
+  @Override
+  public void run(RunNotifier notifier) {
+    try {
+      super.run(notifier);
+    } finally {
+      // Later suites may use other jars, so do not keep this suite's class files in memory.
+      CachingJavaFileManager.clearCaches();
+    }
+  }
+
+  @Override
+  protected void runChild(Runner runner, RunNotifier notifier) {
+    if (!REPORT_TIMING) {
+      super.runChild(runner, notifier);
+      return;
+    }
+    long startNanos = System.nanoTime();
+    super.runChild(runner, notifier);
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    System.out.printf("%s took %d ms%n", runner.getDescription().getDisplayName(), millis);
+  }
+
+  /**
+   * Runs the test cases of a suite on a bounded thread pool. Each test case compiles its files with
+   * its own javac task and writes its class files to its own directory. The test cases of a suite
+   * use the same checker options, so checkers that set static state from their options set it to
+   * the same value in each test case.
+   */
+  static class ConcurrentScheduler implements RunnerScheduler {
+
+    /** The thread pool that runs the test cases. */
+    private final ExecutorService executor;
+
+    /** The test cases that have been scheduled. */
+    private final List<Future<?>> scheduled = new ArrayList<>();
+
+    /**
+     * Creates a new ConcurrentScheduler.
+     *
+     * @param threads the number of test cases to run concurrently
+     */
+    ConcurrentScheduler(int threads) {
+      executor =
+          Executors.newFixedThreadPool(
+              threads,
+              runnable -> {
+                Thread thread = new Thread(runnable, "test-runner");
+                thread.setDaemon(true);
+                return thread;
+              });
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+      scheduled.add(executor.submit(childStatement));
+    }
+
+    @Override
+    public void finished() {
+      try {
+        for (Future<?> future : scheduled) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new Error(e);
+      } catch (ExecutionException e) {
+        // A test case reports its own failures to the notifier, so this is a bug in the runner.
+        throw new Error(e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
 }
@@ -3,6 +3,8 @@ package org.checkerframework.framework.test;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import javax.tools.DiagnosticCollector;
@@ -57,38 +59,47 @@ public class TypecheckExecutor {
     StringWriter javacOutput = new StringWriter();
     DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
 
-    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
-      Iterable<? extends JavaFileObject> javaFiles =
-          fileManager.getJavaFileObjects(configuration.getTestSourceFiles().toArray(new File[] {}));
-
-      // Even though the method compiler.getTask takes a list of processors, it fails if
-      // processors are passed this way with the message:
-      //   error: Class names, 'org.checkerframework.checker.interning.InterningChecker', are
-      //   only accepted if annotation processing is explicitly requested
-      // Therefore, we now add them to the beginning of the options list.
-      List<String> options = new ArrayList<>();
-      options.add("-processor");
-      options.add(String.join(",", configuration.getProcessors()));
-
-      List<String> nonJvmOptions = new ArrayList<>();
-      for (String option : configuration.getFlatOptions()) {
-        if (!option.startsWith("-J-")) {
-          nonJvmOptions.add(option);
-        }
+    // Even though the method compiler.getTask takes a list of processors, it fails if
+    // processors are passed this way with the message:
+    //   error: Class names, 'org.checkerframework.checker.interning.InterningChecker', are
+    //   only accepted if annotation processing is explicitly requested
+    // Therefore, we now add them to the beginning of the options list.
+    List<String> options = new ArrayList<>();
+    options.add("-processor");
+    options.add(String.join(",", configuration.getProcessors()));
+
+    List<String> nonJvmOptions = new ArrayList<>();
+    for (String option : configuration.getFlatOptions()) {
+      if (!option.startsWith("-J-")) {
+        nonJvmOptions.add(option);
       }
-      nonJvmOptions.add("-Xmaxerrs");
-      nonJvmOptions.add("100000");
-      nonJvmOptions.add("-Xmaxwarns");
-      nonJvmOptions.add("100000");
-      nonJvmOptions.add("-Xlint:deprecation");
+    }
+    nonJvmOptions.add("-Xmaxerrs");
+    nonJvmOptions.add("100000");
+    nonJvmOptions.add("-Xmaxwarns");
+    nonJvmOptions.add("100000");
+    nonJvmOptions.add("-Xlint:deprecation");
 
-      nonJvmOptions.add("-ApermitMissingJdk");
-      nonJvmOptions.add("-Anocheckjdk"); // temporary, for backward compatibility
+    nonJvmOptions.add("-ApermitMissingJdk");
+    nonJvmOptions.add("-Anocheckjdk"); // temporary, for backward compatibility
 
-      nonJvmOptions.add("-Aonelinemsg");
+    nonJvmOptions.add("-Aonelinemsg");
 
-      options.addAll(nonJvmOptions);
+    options.addAll(nonJvmOptions);
+
+    if (RootedSuite.runsConcurrently()) {
+      // Test cases that run at the same time must not read or overwrite one another's class files.
+      options = withOutputDirectory(options, dOption, createCaseOutputDirectory(dOption));
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+    try (StandardJavaFileManager fileManager =
+        RootedSuite.runsConcurrently()
+            ? new CachingJavaFileManager(standardFileManager, options)
+            : standardFileManager) {
+      Iterable<? extends JavaFileObject> javaFiles =
+          fileManager.getJavaFileObjects(configuration.getTestSourceFiles().toArray(new File[] {}));
 
       if (configuration.shouldEmitDebugInfo()) {
         System.out.println("Running test using the following invocation:");
@@ -118,6 +129,60 @@ public class TypecheckExecutor {
     }
   }
 
+  /**
+   * Creates a new, empty directory within {@code outputDir}, for the class files of one test case.
+   *
+   * @param outputDir the output directory of the test configuration
+   * @return the new directory
+   */
+  private static String createCaseOutputDirectory(String outputDir) {
+    try {
+      return Files.createTempDirectory(Path.of(outputDir), "case").toString();
+    } catch (IOException e) {
+      throw new Error("Cannot create an output directory in " + outputDir, e);
+    }
+  }
+
+  /**
+   * Returns a copy of {@code options} in which the output directory {@code oldDir} is replaced by
+   * {@code newDir}, both as the argument of {@code -d} and as an entry of the classpath.
+   *
+   * @param options javac options
+   * @param oldDir the output directory to replace
+   * @param newDir the output directory to use instead
+   * @return a copy of {@code options} that uses {@code newDir} as the output directory
+   */
+  private static List<String> withOutputDirectory(
+      List<String> options, String oldDir, String newDir) {
+    Path oldPath = Path.of(oldDir).toAbsolutePath().normalize();
+    List<String> result = new ArrayList<>(options.size());
+    for (int i = 0; i < options.size(); i++) {
+      String option = options.get(i);
+      result.add(option);
+      if (i + 1 == options.size()) {
+        break;
+      }
+      switch (option) {
+        case "-d" -> {
+          result.add(newDir);
+          i++;
+        }
+        case "-cp", "-classpath", "--class-path" -> {
+          List<String> entries = new ArrayList<>();
+          for (String entry : options.get(i + 1).split(File.pathSeparator, -1)) {
+            boolean isOutputDir =
+                !entry.isEmpty() && Path.of(entry).toAbsolutePath().normalize().equals(oldPath);
+            entries.add(isOutputDir ? newDir : entry);
+          }
+          result.add(String.join(File.pathSeparator, entries));
+          i++;
+        }
+        default -> {}
+      }
+    }
+    return result;
+  }
+
   /**
    * Reads the expected diagnostics for the given configuration and creates a TypecheckResult which
    * contains all of the missing and expected diagnostics.
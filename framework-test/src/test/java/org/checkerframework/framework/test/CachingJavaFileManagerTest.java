@@ -0,0 +1,138 @@
+package org.checkerframework.framework.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests that {@link CachingJavaFileManager} lists and reads the same class files as javac. */
+public class CachingJavaFileManagerTest {
+
+  /** A jar on the classpath of the file managers under test. */
+  private Path jar;
+
+  /**
+   * Creates the jar and clears the caches.
+   *
+   * @throws IOException if the jar cannot be created
+   */
+  @Before
+  public void setUp() throws IOException {
+    jar = Files.createTempFile("cached", ".jar");
+    CachingJavaFileManager.clearCaches();
+  }
+
+  /**
+   * Deletes the jar and clears the caches.
+   *
+   * @throws IOException if the jar cannot be deleted
+   */
+  @After
+  public void tearDown() throws IOException {
+    CachingJavaFileManager.clearCaches();
+    Files.deleteIfExists(jar);
+  }
+
+  @Test
+  public void cachedEqualsUncached() throws IOException {
+    writeJar(Map.of("p/A", "a", "p/B", "b", "p/q/C", "c"));
+    Map<String, String> uncached = listClasses(null, false);
+    Assert.assertEquals(Map.of("p.A", "a", "p.B", "b"), uncached);
+    Assert.assertEquals(uncached, listClasses(List.of(), false));
+    // The second listing is served from the cache.
+    Assert.assertEquals(uncached, listClasses(List.of(), false));
+    Assert.assertEquals(listClasses(null, true), listClasses(List.of(), true));
+  }
+
+  @Test
+  public void platformOptionsAreKeys() throws IOException {
+    writeJar(Map.of("p/A", "a"));
+    Assert.assertEquals(Map.of("p.A", "a"), listClasses(List.of(), false));
+
+    writeJar(Map.of("p/A", "a2", "p/B", "b"));
+    // The listing for the options of the first task is cached.
+    Assert.assertEquals(Map.of("p.A", "a"), listClasses(List.of("-Xlint"), false));
+    // Tasks with other platform options read the jar afresh, in either form of the options.
+    Map<String, String> current = Map.of("p.A", "a2", "p.B", "b");
+    Assert.assertEquals(current, listClasses(List.of("--release", "11"), false));
+    Assert.assertEquals(current, listClasses(List.of("--release=17"), false));
+    Assert.assertEquals(current, listClasses(List.of("--system", "none"), false));
+  }
+
+  @Test
+  public void clearCachesDiscardsListingsAndContents() throws IOException {
+    writeJar(Map.of("p/A", "a"));
+    Assert.assertEquals(Map.of("p.A", "a"), listClasses(List.of(), false));
+
+    writeJar(Map.of("p/A", "a2", "p/B", "b"));
+    CachingJavaFileManager.clearCaches();
+    Assert.assertEquals(Map.of("p.A", "a2", "p.B", "b"), listClasses(List.of(), false));
+  }
+
+  /**
+   * Replaces the jar by one that contains the given classes.
+   *
+   * @param classes map from the internal name of each class to the contents of its class file
+   * @throws IOException if the jar cannot be written
+   */
+  private void writeJar(Map<String, String> classes) throws IOException {
+    try (OutputStream out = Files.newOutputStream(jar);
+        JarOutputStream jarOut = new JarOutputStream(out)) {
+      for (Map.Entry<String, String> entry : classes.entrySet()) {
+        jarOut.putNextEntry(new ZipEntry(entry.getKey() + ".class"));
+        jarOut.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        jarOut.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Lists the class files in package {@code p} of the classpath, which consists of the jar.
+   *
+   * @param options if non-null, the javac options of a {@link CachingJavaFileManager} to list the
+   *     classes with; if null, the classes are listed by javac's standard file manager
+   * @param recurse whether to list subpackages too
+   * @return map from the binary name of each class to the contents of its class file
+   * @throws IOException if the jar cannot be read
+   */
+  private Map<String, String> listClasses(@Nullable List<String> options, boolean recurse)
+      throws IOException {
+    StandardJavaFileManager standardFileManager =
+        ToolProvider.getSystemJavaCompiler().getStandardFileManager(null, null, null);
+    try (StandardJavaFileManager fileManager =
+        options == null
+            ? standardFileManager
+            : new CachingJavaFileManager(standardFileManager, options)) {
+      fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, List.of(jar));
+      Map<String, String> result = new TreeMap<>();
+      JavaFileManager.Location location = StandardLocation.CLASS_PATH;
+      for (JavaFileObject file : fileManager.list(location, "p", Set.of(Kind.CLASS), recurse)) {
+        try (InputStream in = file.openInputStream()) {
+          result.put(
+              fileManager.inferBinaryName(location, file),
+              new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+      }
+      return result;
+    }
+  }
+}
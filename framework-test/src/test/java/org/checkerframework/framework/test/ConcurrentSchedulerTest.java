@@ -0,0 +1,59 @@
+package org.checkerframework.framework.test;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests {@link RootedSuite.ConcurrentScheduler}. */
+public class ConcurrentSchedulerTest {
+
+  /** The number of test cases that run concurrently. */
+  private static final int THREADS = 3;
+
+  @Test
+  public void runsTestCasesConcurrently() {
+    RootedSuite.ConcurrentScheduler scheduler = new RootedSuite.ConcurrentScheduler(THREADS);
+    // Each test case waits until all of them have started, which happens only if they run at the
+    // same time.
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+    AtomicInteger concurrent = new AtomicInteger();
+    for (int i = 0; i < THREADS; i++) {
+      scheduler.schedule(
+          () -> {
+            try {
+              barrier.await(10, TimeUnit.SECONDS);
+              concurrent.incrementAndGet();
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+              // The test case is not counted.
+            }
+          });
+    }
+    scheduler.finished();
+    Assert.assertEquals(THREADS, concurrent.get());
+  }
+
+  @Test
+  public void finishedWaitsForAllTestCases() {
+    RootedSuite.ConcurrentScheduler scheduler = new RootedSuite.ConcurrentScheduler(THREADS);
+    int testCases = 4 * THREADS;
+    AtomicInteger completed = new AtomicInteger();
+    for (int i = 0; i < testCases; i++) {
+      scheduler.schedule(
+          () -> {
+            try {
+              Thread.sleep(20);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              return;
+            }
+            completed.incrementAndGet();
+          });
+    }
+    scheduler.finished();
+    Assert.assertEquals(testCases, completed.get());
+  }
+}
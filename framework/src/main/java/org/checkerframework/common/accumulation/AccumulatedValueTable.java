@@ -0,0 +1,127 @@
+package org.checkerframework.common.accumulation;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import javax.lang.model.element.AnnotationMirror;
+
+/**
+ * The values accumulated by the accumulator annotations of one {@link
+ * AccumulationAnnotatedTypeFactory}, numbered densely so that a set of them is a {@link BitSet}.
+ *
+ * <p>The qualifier hierarchy computes subtyping, least upper bounds, and greatest lower bounds on
+ * these sets instead of on the lists of strings in the annotations. The table remembers the set of
+ * each accumulator annotation that it has decoded, and it creates one canonical accumulator
+ * annotation for each set, so an annotation is only built when a set is seen for the first time.
+ *
+ * <p>The sets that this table returns are shared and must not be modified.
+ */
+final class AccumulatedValueTable {
+
+  /** The accumulated values, by number. */
+  private final List<String> values = new ArrayList<>();
+
+  /** The number of each accumulated value. */
+  private final Map<String, Integer> numbers = new HashMap<>();
+
+  /**
+   * The set of values of each accumulator annotation that has been decoded or created. Annotation
+   * mirrors are compared by identity, so an annotation from source code or bytecode is decoded once
+   * and then forgotten when it is no longer used.
+   */
+  private final Map<AnnotationMirror, BitSet> setsByAnnotation = new WeakHashMap<>();
+
+  /** The canonical accumulator annotation for each set of values. */
+  private final Map<BitSet, AnnotationMirror> annotationsBySet = new HashMap<>();
+
+  /** Creates an empty table. */
+  AccumulatedValueTable() {}
+
+  /**
+   * Returns the set of the given values.
+   *
+   * @param values accumulated values, which may contain duplicates
+   * @return a new set of {@code values}, which the caller may modify
+   */
+  BitSet toSet(Collection<String> values) {
+    BitSet result = new BitSet();
+    for (String value : values) {
+      Integer number = numbers.get(value);
+      if (number == null) {
+        number = this.values.size();
+        this.values.add(value);
+        numbers.put(value, number);
+      }
+      result.set(number);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the values in a set.
+   *
+   * @param set a set returned by this table
+   * @return a new list of the values in {@code set}, in the order in which they were numbered
+   */
+  List<String> toValues(BitSet set) {
+    List<String> result = new ArrayList<>(set.cardinality());
+    for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+      result.add(values.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the set of values of an accumulator annotation.
+   *
+   * @param anno an accumulator annotation
+   * @param decode returns the values of an accumulator annotation
+   * @return the set of values of {@code anno}, which must not be modified
+   */
+  BitSet getSet(AnnotationMirror anno, Function<AnnotationMirror, List<String>> decode) {
+    BitSet result = setsByAnnotation.get(anno);
+    if (result == null) {
+      result = toSet(decode.apply(anno));
+      setsByAnnotation.put(anno, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the canonical accumulator annotation for a set of values.
+   *
+   * @param set a set of values, which must not be modified after this call
+   * @param build creates an accumulator annotation for a set of values
+   * @return the canonical accumulator annotation for {@code set}
+   */
+  AnnotationMirror getAnnotation(BitSet set, Function<BitSet, AnnotationMirror> build) {
+    AnnotationMirror result = annotationsBySet.get(set);
+    if (result == null) {
+      result = build.apply(set);
+      annotationsBySet.put(set, result);
+      setsByAnnotation.put(result, set);
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the first set contains every value of the second, without allocating.
+   *
+   * @param superset a set of values
+   * @param subset a set of values
+   * @return true if {@code superset} contains every value of {@code subset}
+   */
+  static boolean containsAll(BitSet superset, BitSet subset) {
+    for (int i = subset.nextSetBit(0); i >= 0; i = subset.nextSetBit(i + 1)) {
+      if (!superset.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
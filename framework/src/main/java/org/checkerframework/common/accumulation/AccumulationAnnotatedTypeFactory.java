@@ -10,6 +10,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -75,6 +76,9 @@ public abstract class AccumulationAnnotatedTypeFactory
    */
   private final @MonotonicNonNull Class<? extends Annotation> predicate;
 
+  /** The numbering of the accumulated values and the canonical accumulator annotations. */
+  private final AccumulatedValueTable valueTable = new AccumulatedValueTable();
+
   /**
    * Create an annotated type factory for an accumulation checker.
    *
@@ -202,9 +206,51 @@ public abstract class AccumulationAnnotatedTypeFactory
    *     arguments; this is top if {@code values} is empty
    */
   public AnnotationMirror createAccumulatorAnnotation(List<String> values) {
-    AnnotationBuilder builder = new AnnotationBuilder(processingEnv, accumulator);
-    builder.setValue("value", CollectionsP.withoutDuplicatesSorted(values));
-    return builder.build();
+    return createAccumulatorAnnotation(valueTable.toSet(values));
+  }
+
+  /**
+   * Creates an instance of the accumulator annotation that contains the values of {@code
+   * accumulator} and the elements of {@code values}.
+   *
+   * @param accumulator an accumulator annotation; must not be bottom
+   * @param values the values to add. The values can contain duplicates and can be in any order.
+   * @return an annotation mirror representing the accumulator annotation with the values of {@code
+   *     accumulator} and {@code values} as its arguments
+   */
+  public AnnotationMirror createAccumulatorAnnotation(
+      AnnotationMirror accumulator, Collection<String> values) {
+    BitSet set = valueTable.toSet(values);
+    set.or(getAccumulatedValueSet(accumulator));
+    return createAccumulatorAnnotation(set);
+  }
+
+  /**
+   * Returns the accumulator annotation for a set of values in {@link #valueTable}. The annotation
+   * is built the first time the set is seen, and is shared after that.
+   *
+   * @param set a set of values, which must not be modified after this call
+   * @return the accumulator annotation whose arguments are the values in {@code set}
+   */
+  private AnnotationMirror createAccumulatorAnnotation(BitSet set) {
+    return valueTable.getAnnotation(
+        set,
+        s -> {
+          AnnotationBuilder builder = new AnnotationBuilder(processingEnv, accumulator);
+          builder.setValue("value", CollectionsP.withoutDuplicatesSorted(valueTable.toValues(s)));
+          return builder.build();
+        });
+  }
+
+  /**
+   * Returns the set of values that an accumulator annotation has accumulated, in {@link
+   * #valueTable}.
+   *
+   * @param anno an accumulator annotation; must not be bottom
+   * @return the set of values of {@code anno}, which must not be modified
+   */
+  private BitSet getAccumulatedValueSet(AnnotationMirror anno) {
+    return valueTable.getSet(anno, this::getAccumulatedValues);
   }
 
   /**
@@ -215,9 +261,7 @@ public abstract class AccumulationAnnotatedTypeFactory
    *     argument
    */
   public AnnotationMirror createAccumulatorAnnotation(String value) {
-    AnnotationBuilder builder = new AnnotationBuilder(processingEnv, accumulator);
-    builder.setValue("value", Collections.singletonList(value));
-    return builder.build();
+    return createAccumulatorAnnotation(Collections.singletonList(value));
   }
 
   /**
@@ -447,17 +491,18 @@ public abstract class AccumulationAnnotatedTypeFactory
         }
       }
 
-      List<String> a1Val = getAccumulatedValues(a1);
-      List<String> a2Val = getAccumulatedValues(a2);
-      // Avoid creating new annotation objects in the common case.
-      if (a1Val.containsAll(a2Val)) {
+      BitSet a1Val = getAccumulatedValueSet(a1);
+      BitSet a2Val = getAccumulatedValueSet(a2);
+      // Avoid creating new sets in the common case.
+      if (AccumulatedValueTable.containsAll(a1Val, a2Val)) {
         return a1;
       }
-      if (a2Val.containsAll(a1Val)) {
+      if (AccumulatedValueTable.containsAll(a2Val, a1Val)) {
         return a2;
       }
-      a1Val.addAll(a2Val); // union
-      return createAccumulatorAnnotation(a1Val);
+      BitSet union = (BitSet) a1Val.clone();
+      union.or(a2Val);
+      return createAccumulatorAnnotation(union);
     }
 
     /**
@@ -492,17 +537,18 @@ public abstract class AccumulationAnnotatedTypeFactory
         }
       }
 
-      List<String> a1Val = getAccumulatedValues(a1);
-      List<String> a2Val = getAccumulatedValues(a2);
-      // Avoid creating new annotation objects in the common case.
-      if (a1Val.containsAll(a2Val)) {
+      BitSet a1Val = getAccumulatedValueSet(a1);
+      BitSet a2Val = getAccumulatedValueSet(a2);
+      // Avoid creating new sets in the common case.
+      if (AccumulatedValueTable.containsAll(a1Val, a2Val)) {
         return a2;
       }
-      if (a2Val.containsAll(a1Val)) {
+      if (AccumulatedValueTable.containsAll(a2Val, a1Val)) {
         return a1;
       }
-      a1Val.retainAll(a2Val); // intersection
-      return createAccumulatorAnnotation(a1Val);
+      BitSet intersection = (BitSet) a1Val.clone();
+      intersection.and(a2Val);
+      return createAccumulatorAnnotation(intersection);
     }
 
     /**
@@ -539,9 +585,8 @@ public abstract class AccumulationAnnotatedTypeFactory
         return evaluatePredicate(subAnno, convertToPredicate(superAnno));
       }
 
-      List<String> subVal = getAccumulatedValues(subAnno);
-      List<String> superVal = getAccumulatedValues(superAnno);
-      return subVal.containsAll(superVal);
+      return AccumulatedValueTable.containsAll(
+          getAccumulatedValueSet(subAnno), getAccumulatedValueSet(superAnno));
     }
   }
 
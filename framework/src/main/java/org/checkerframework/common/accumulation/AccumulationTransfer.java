@@ -2,7 +2,6 @@ package org.checkerframework.common.accumulation;
 
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -104,8 +103,8 @@ public class AccumulationTransfer
    */
   private void updateValueAndInsertIntoStore(
       AccumulationStore store, JavaExpression target, List<String> values) {
-    // Make a modifiable copy of the list.
-    List<String> valuesAsList = new ArrayList<>(values);
+    List<String> valuesAsList = values;
+    AnnotationMirror newAnno = null;
     AccumulationValue flowValue = store.getValue(target);
     if (flowValue != null) {
       Set<String> accumulatedValues = flowValue.getAccumulatedValues();
@@ -116,19 +115,14 @@ public class AccumulationTransfer
         assert flowAnnos.size() <= 1;
         for (AnnotationMirror anno : flowAnnos) {
           if (atypeFactory.isAccumulatorAnnotation(anno)) {
-            List<String> oldFlowValues = atypeFactory.getAccumulatedValues(anno);
-            if (!oldFlowValues.isEmpty()) {
-              // valuesAsList cannot have its length changed -- it is backed by an
-              // array -- but if oldFlowValues is not empty, it is a new, modifiable
-              // list.
-              oldFlowValues.addAll(valuesAsList);
-              valuesAsList = oldFlowValues;
-            }
+            newAnno = atypeFactory.createAccumulatorAnnotation(anno, valuesAsList);
           }
         }
       }
     }
-    AnnotationMirror newAnno = atypeFactory.createAccumulatorAnnotation(valuesAsList);
+    if (newAnno == null) {
+      newAnno = atypeFactory.createAccumulatorAnnotation(valuesAsList);
+    }
     store.insertValue(target, newAnno);
   }
 }
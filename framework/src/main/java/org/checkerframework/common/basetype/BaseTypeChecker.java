@@ -13,6 +13,7 @@ import org.checkerframework.dataflow.cfg.visualize.CFGVisualizer;
 import org.checkerframework.framework.qual.SubtypeOf;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMemo;
 import org.checkerframework.framework.type.GenericAnnotatedTypeFactory;
 import org.checkerframework.framework.type.QualifierHierarchy;
 import org.checkerframework.framework.type.TypeHierarchy;
@@ -138,6 +139,15 @@ public abstract class BaseTypeChecker extends SourceChecker {
     return getTypeFactory();
   }
 
+  @Override
+  public void typeProcessingOver() {
+    if (getVisitor() != null) {
+      getTypeFactory().writeAnnotationSummary();
+      getTypeFactory().writePuritySummary();
+    }
+    super.typeProcessingOver();
+  }
+
   /**
    * Returns the type factory used by a subchecker. Returns null if no matching subchecker was found
    * or if the type factory is null. The caller must know the exact checker class to request.
@@ -200,6 +210,16 @@ public abstract class BaseTypeChecker extends SourceChecker {
     }
   }
 
+  @Override
+  protected void printStats() {
+    super.printStats();
+    AnnotatedTypeMemo memo = getTypeFactory().getTypeMemo();
+    if (memo != null) {
+      System.out.println("Type memo statistics for " + getClass().getSimpleName());
+      System.out.println(memo.toString().indent(2).stripTrailing());
+    }
+  }
+
   @Override
   protected Set<String> createSupportedLintOptions() {
     Set<String> lintSet = super.createSupportedLintOptions();
@@ -2,6 +2,7 @@ package org.checkerframework.common.basetype;
 
 import com.sun.source.tree.AnnotatedTypeTree;
 import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MethodTree;
@@ -11,13 +12,16 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.TypeParameterTree;
 import com.sun.source.tree.VariableTree;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.Types;
 import org.checkerframework.checker.compilermsgs.qual.CompilerMessageKey;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.framework.source.DiagMessage;
@@ -31,6 +35,7 @@ import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVari
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcardType;
 import org.checkerframework.framework.type.AnnotatedTypeParameterBounds;
 import org.checkerframework.framework.type.QualifierHierarchy;
+import org.checkerframework.framework.type.SameTypeAtmComparer;
 import org.checkerframework.framework.type.TypeHierarchy;
 import org.checkerframework.framework.type.visitor.AnnotatedTypeScanner;
 import org.checkerframework.framework.type.visitor.SimpleAnnotatedTypeScanner;
@@ -77,6 +82,17 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
   /** The qualifier hierarchy. */
   protected final QualifierHierarchy qualHierarchy;
 
+  /**
+   * The parameterized types whose type arguments {@link #visitParameterizedType} has checked in the
+   * current compilation unit without reporting any diagnostic. Each element holds a copy, so that
+   * later side effects on the visited type do not change the set. See {@link
+   * #shouldMemoizeTypeArgumentChecks}.
+   */
+  private final Set<CheckedType> typeArgumentsCheckedWithoutDiagnostics = new HashSet<>();
+
+  /** Compares the keys of {@link #typeArgumentsCheckedWithoutDiagnostics}. */
+  private final SameTypeAtmComparer sameTypeComparer;
+
   // TODO: clean up coupling between components
   public BaseTypeValidator(
       BaseTypeChecker checker, BaseTypeVisitor<?> visitor, AnnotatedTypeFactory atypeFactory) {
@@ -84,6 +100,8 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
     this.visitor = visitor;
     this.atypeFactory = atypeFactory;
     this.qualHierarchy = atypeFactory.getQualifierHierarchy();
+    this.sameTypeComparer =
+        new SameTypeAtmComparer(atypeFactory.getProcessingEnv().getTypeUtils());
   }
 
   /**
@@ -522,6 +540,36 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
     return super.visitArray(type, tree);
   }
 
+  /**
+   * Called when the visitor starts to check a compilation unit. Discards the memoized results of
+   * {@link #visitParameterizedType}, which would otherwise retain types of the previous compilation
+   * unit.
+   *
+   * @param root the compilation unit
+   */
+  public void setRoot(CompilationUnitTree root) {
+    typeArgumentsCheckedWithoutDiagnostics.clear();
+  }
+
+  /**
+   * Returns true if {@link #visitParameterizedType} may skip checking the type arguments of a type
+   * that is equal to one whose type arguments it has already checked, without reporting any
+   * diagnostic, in the current compilation unit. A parameterized type is usually written many
+   * times, and checking its type arguments requires capture conversion and a subtype test per
+   * type argument.
+   *
+   * <p>This is sound if the checks that {@link BaseTypeVisitor#checkTypeArguments} performs depend
+   * on the types alone, and use the tree only as the location of a diagnostic. A checker whose
+   * {@link BaseTypeVisitor#commonAssignmentCheck(AnnotatedTypeMirror, AnnotatedTypeMirror, Tree,
+   * String, Object...)} depends on the location, for example on the dataflow facts there, should
+   * override this method to return false.
+   *
+   * @return true if the results of type argument checks may be reused
+   */
+  protected boolean shouldMemoizeTypeArgumentChecks() {
+    return true;
+  }
+
   /**
    * Checks that the annotations on the type arguments supplied to a type or a method invocation are
    * within the bounds of the type variables as declared, and issues the "type.argument" error if
@@ -543,6 +591,28 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
       return null;
     }
 
+    boolean memoize = shouldMemoizeTypeArgumentChecks();
+    if (memoize && typeArgumentsCheckedWithoutDiagnostics.contains(new CheckedType(type))) {
+      return null;
+    }
+    long reportCount = checker.getReportCount();
+    checkTypeArguments(type, tree, element);
+    if (memoize && checker.getReportCount() == reportCount) {
+      typeArgumentsCheckedWithoutDiagnostics.add(new CheckedType(type.deepCopy()));
+    }
+    return null;
+  }
+
+  /**
+   * Checks the type arguments of a parameterized type. Helper method for {@link
+   * #visitParameterizedType}.
+   *
+   * @param type the type to check
+   * @param tree the type's tree
+   * @param element the element of the type
+   */
+  private void checkTypeArguments(
+      AnnotatedDeclaredType type, ParameterizedTypeTree tree, TypeElement element) {
     AnnotatedDeclaredType capturedType =
         (AnnotatedDeclaredType) atypeFactory.applyCaptureConversion(type);
     List<AnnotatedTypeParameterBounds> bounds =
@@ -561,7 +631,7 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
     // does not have wildcards.
     boolean hasCapturedTypeVariables = capturedType != type;
     if (!hasCapturedTypeVariables) {
-      return null;
+      return;
     }
 
     // Check that the extends bound of the captured type variable is a subtype of the
@@ -623,8 +693,40 @@ public class BaseTypeValidator extends AnnotatedTypeScanner<Void, Tree> implemen
         }
       }
     }
+  }
 
-    return null;
+  /**
+   * A parameterized type in {@link #typeArgumentsCheckedWithoutDiagnostics}. {@link
+   * AnnotatedTypeMirror#equals} compares underlying types by identity, but javac creates a new
+   * underlying type for each occurrence of a parameterized type in the source code. Two keys are
+   * therefore equal if their types have the same annotations and their underlying types are the
+   * same according to {@link Types#isSameType}.
+   */
+  private final class CheckedType {
+
+    /** The parameterized type. */
+    private final AnnotatedDeclaredType type;
+
+    /**
+     * Creates a key for a parameterized type.
+     *
+     * @param type the parameterized type, which must not be modified while the key is in use
+     */
+    CheckedType(AnnotatedDeclaredType type) {
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      return o instanceof CheckedType other && sameTypeComparer.visit(type, other.type, null);
+    }
+
+    @Override
+    public int hashCode() {
+      // The hash code depends on how the underlying type prints, which is the same for types that
+      // are the same.
+      return type.hashCode();
+    }
   }
 
   @Override
@@ -112,6 +112,7 @@ import org.checkerframework.framework.qual.HasQualifierParameter;
 import org.checkerframework.framework.qual.Unused;
 import org.checkerframework.framework.source.DiagMessage;
 import org.checkerframework.framework.source.SourceVisitor;
+import org.checkerframework.framework.stub.PuritySummaries;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeFactory.ParameterizedExecutableType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
@@ -274,6 +275,12 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
   /** True if "-AassumePureGetters" was passed on the command line. */
   public final boolean assumePureGetters;
 
+  /**
+   * True if "-ApuritySummaryOutputDir" was passed on the command line, and no option that makes
+   * purity analysis unsound was.
+   */
+  private final boolean recordPuritySummaries;
+
   /** True if "-AcheckCastElementType" was passed on the command line. */
   private final boolean checkCastElementType;
 
@@ -345,6 +352,11 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     assumeDeterministic =
         checker.hasOption("assumeDeterministic") || checker.hasOption("assumePure");
     assumePureGetters = checker.hasOption("assumePureGetters");
+    recordPuritySummaries =
+        checker.hasOption("puritySummaryOutputDir")
+            && !assumeSideEffectFree
+            && !assumeDeterministic
+            && !assumePureGetters;
     checkCastElementType = checker.hasOption("checkCastElementType");
     warnRedundantAnnotations = checker.hasOption("warnRedundantAnnotations");
     // This construct is because `slowTypecheckingSeconds` is a final variable.
@@ -425,6 +437,9 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
   @Override
   public void setRoot(CompilationUnitTree newRoot) {
     atypeFactory.setRoot(newRoot);
+    if (typeValidator instanceof BaseTypeValidator baseTypeValidator) {
+      baseTypeValidator.setRoot(newRoot);
+    }
     super.setRoot(newRoot);
     testJointJavacJavaParserVisitor();
     testAnnotationInsertion();
@@ -1124,6 +1139,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
       super.visitMethod(tree, null);
     } finally {
       methodTree = preMT;
+      atypeFactory.postProcessMethodTree(tree);
     }
 
     checkSlowTypechecking(tree, startSlowTypeCheckingTree, startMillis);
@@ -1161,7 +1177,10 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     boolean needToCheck = checkPurityAnnotations && !purityKinds.isEmpty();
 
     if (!needToSuggest && !needToCheck) {
-      // There is no work to do.
+      if (recordPuritySummaries && tree.getBody() != null) {
+        computePurity(tree);
+      }
+      // There is no other work to do.
       return;
     }
 
@@ -1180,15 +1199,7 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
       }
     }
 
-    TreePath body = atypeFactory.getPath(tree.getBody());
-    PurityResult r;
-    if (body == null) {
-      r = new PurityResult();
-    } else {
-      r =
-          PurityChecker.checkPurity(
-              body, atypeFactory, assumeSideEffectFree, assumeDeterministic, assumePureGetters);
-    }
+    PurityResult r = computePurity(tree);
     if (!r.isPure(purityKinds)) {
       reportPurityErrors(r, tree, purityKinds);
     }
@@ -1237,6 +1248,30 @@ public class BaseTypeVisitor<Factory extends GenericAnnotatedTypeFactory<?, ?, ?
     }
   }
 
+  /**
+   * Determines the purity of a method body, and records it in the purity summary if {@code
+   * -ApuritySummaryOutputDir} was passed. The body is always analyzed: a summary of a method that
+   * is compiled again may be out of date, because the purity of the methods it calls may have
+   * changed.
+   *
+   * @param tree the method whose body to analyze
+   * @return the purity of the body of {@code tree}
+   */
+  private PurityResult computePurity(MethodTree tree) {
+    TreePath body = atypeFactory.getPath(tree.getBody());
+    if (body == null) {
+      return new PurityResult();
+    }
+    PurityResult r =
+        PurityChecker.checkPurity(
+            body, atypeFactory, assumeSideEffectFree, assumeDeterministic, assumePureGetters);
+    PuritySummaries puritySummaries = atypeFactory.getPuritySummaries();
+    if (recordPuritySummaries && puritySummaries != null) {
+      puritySummaries.put(tree, r.getKinds());
+    }
+    return r;
+  }
+
   /**
    * Returns a diagnostic message for an annotation expression that cannot be parsed, describing
    * where the expression appears in addition to why it cannot be parsed.
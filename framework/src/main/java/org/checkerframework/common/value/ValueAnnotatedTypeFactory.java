@@ -11,6 +11,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
@@ -1299,6 +1300,20 @@ public class ValueAnnotatedTypeFactory extends BaseAnnotatedTypeFactory {
     return createIntRangeAnnotation(Collections.min(intValues), Collections.max(intValues));
   }
 
+  /**
+   * Returns the widening thresholds of the method that dataflow is analyzing: its integral
+   * literals and their neighbors.
+   *
+   * @return the widening thresholds of the method being analyzed, or an empty set if dataflow is
+   *     not running
+   */
+  NavigableSet<Long> getWideningThresholds() {
+    if (analysis == null || !analysis.isRunning()) {
+      return Collections.emptyNavigableSet();
+    }
+    return analysis.getWideningThresholds();
+  }
+
   /**
    * Returns a {@link Range} bounded by the values specified in the given {@code @Range} annotation.
    * Also returns an appropriate range if an {@code @IntVal} annotation is passed. Returns {@code
@@ -4,7 +4,6 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.common.basetype.BaseTypeVisitor;
-import org.checkerframework.common.value.util.Range;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.source.SupportedOptions;
 
@@ -55,11 +54,4 @@ public class ValueChecker extends BaseTypeChecker {
     // reflection can't be resolved.
     return false;
   }
-
-  @Override
-  public void typeProcessingOver() {
-    // Reset ignore overflow.
-    Range.ignoreOverflow = false;
-    super.typeProcessingOver();
-  }
 }
@@ -4,6 +4,7 @@ import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.NavigableSet;
 import java.util.TreeSet;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.type.TypeMirror;
@@ -11,6 +12,7 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.regex.qual.Regex;
 import org.checkerframework.common.value.util.Range;
+import org.checkerframework.dataflow.analysis.WideningStrategy;
 import org.checkerframework.framework.type.ElementQualifierHierarchy;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.TypeSystemError;
@@ -127,6 +129,16 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
     return ValueAnnotatedTypeFactory.MAX_VALUES + 1;
   }
 
+  /**
+   * Widens only at loop heads, so that ranges after a loop are not widened as well, and then
+   * narrows. Widened bounds stop at the integral literals of the method, such as a loop bound,
+   * before they reach the limits of a type.
+   */
+  @Override
+  public WideningStrategy wideningStrategy() {
+    return WideningStrategy.LOOP_HEADS_WITH_THRESHOLDS;
+  }
+
   @Override
   public AnnotationMirror widenedUpperBound(
       AnnotationMirror newQualifier, AnnotationMirror previousQualifier) {
@@ -176,7 +188,8 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
   }
 
   /**
-   * Determine the widened range from other ranges.
+   * Determine the widened range from other ranges. A bound that moves is widened to the nearest of
+   * {@link #wideningValues} and the widening thresholds of the method being analyzed.
    *
    * @param newRange the new range
    * @param oldRange the old range
@@ -187,13 +200,15 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
     if (newRange == null || oldRange == null || lubRange.equals(oldRange)) {
       return lubRange;
     }
+    NavigableSet<Long> thresholds = atypeFactory.getWideningThresholds();
 
     long min;
     // Is the lower bound decreasing?
     if (newRange.from < oldRange.from) {
       // Non-null because wideningValues contains Long.MIN_VALUE.
       @NonNull Long floor = wideningValues.floor(newRange.from);
-      min = floor;
+      Long threshold = thresholds.floor(newRange.from);
+      min = threshold == null ? floor : Math.max(floor, threshold);
     } else {
       min = oldRange.from;
     }
@@ -203,7 +218,8 @@ final class ValueQualifierHierarchy extends ElementQualifierHierarchy {
     if (newRange.to > oldRange.to) {
       // Non-null because wideningValues contains Long.MAX_VALUE.
       @NonNull Long ceiling = wideningValues.ceiling(newRange.to);
-      max = ceiling;
+      Long threshold = thresholds.ceiling(newRange.to);
+      max = threshold == null ? ceiling : Math.min(ceiling, threshold);
     } else {
       max = oldRange.to;
     }
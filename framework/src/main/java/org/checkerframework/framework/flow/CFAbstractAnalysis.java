@@ -1,6 +1,7 @@
 package org.checkerframework.framework.flow;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,7 @@ import org.checkerframework.dataflow.cfg.node.MethodInvocationNode;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.dataflow.expression.FieldAccess;
 import org.checkerframework.dataflow.expression.JavaExpression;
+import org.checkerframework.dataflow.expression.JavaExpressionInterner;
 import org.checkerframework.dataflow.expression.JavaExpressionParseException;
 import org.checkerframework.framework.source.DiagMessage;
 import org.checkerframework.framework.source.SourceChecker;
@@ -112,19 +114,33 @@ public abstract class CFAbstractAnalysis<
   private final IdentityHashMap<MethodInvocationNode, @Nullable List<JavaExpression>>
       sideEffectsOnlyExpressionsCache = new IdentityHashMap<>();
 
+  /**
+   * Converts the nodes of the control flow graph being analyzed to expressions, so that the keys of
+   * the stores are shared. {@link #clearCaches} clears this.
+   */
+  private final JavaExpressionInterner expressionInterner = new JavaExpressionInterner();
+
+  /**
+   * Cache for {@link #canAlias}, which a store calls for many of its entries on every assignment.
+   * The types of the expressions of one control flow graph are few and shared through {@link
+   * #expressionInterner}, so {@link #clearCaches} clears this.
+   */
+  private final Map<TypePair, Boolean> canAliasCache = new HashMap<>();
+
   /**
    * Create a CFAbstractAnalysis.
    *
    * @param checker a checker that contains command-line arguments and other information
    * @param factory an annotated type factory to introduce type and dataflow rules
-   * @param maxCountBeforeWidening number of times a block can be analyzed before widening
+   * @param maxCountBeforeWidening number of times a block can be analyzed before widening; where
+   *     to widen is determined by {@link QualifierHierarchy#wideningStrategy()}
    */
   @SuppressWarnings("this-escape")
   protected CFAbstractAnalysis(
       BaseTypeChecker checker,
       GenericAnnotatedTypeFactory<V, S, T, ? extends CFAbstractAnalysis<V, S, T>> factory,
       int maxCountBeforeWidening) {
-    super(maxCountBeforeWidening);
+    super(maxCountBeforeWidening, factory.getQualifierHierarchy().wideningStrategy());
     env = checker.getProcessingEnvironment();
     types = env.getTypeUtils();
     qualHierarchy = factory.getQualifierHierarchy();
@@ -157,11 +173,22 @@ public abstract class CFAbstractAnalysis<
   public void performAnalysis(ControlFlowGraph cfg, List<FieldInitialValue<V>> fieldValues) {
     this.fieldValues.clear();
     this.fieldValues.addAll(fieldValues);
-    // The cache's keys are nodes of the control flow graph that was analyzed previously.
-    sideEffectsOnlyExpressionsCache.clear();
+    clearCaches();
     super.performAnalysis(cfg);
   }
 
+  /**
+   * Clears the caches whose keys are the nodes or expressions of the control flow graph that was
+   * analyzed previously. {@link #performAnalysis} calls this before it analyzes another graph, and
+   * the type factory calls it when it moves to another compilation unit, so that the caches do not
+   * keep the trees of the previous one.
+   */
+  public void clearCaches() {
+    sideEffectsOnlyExpressionsCache.clear();
+    expressionInterner.clear();
+    canAliasCache.clear();
+  }
+
   /**
    * Returns the expressions that the invoked method side-effects (specified as arguments/elements
    * of {@code @SideEffectsOnly}), viewpoint-adapted to the given method invocation. Returns null if
@@ -434,6 +461,43 @@ public abstract class CFAbstractAnalysis<
     return types;
   }
 
+  /**
+   * Returns true if values of the two types can be aliases, that is, if either type is a subtype of
+   * the other.
+   *
+   * @param a a type
+   * @param b a type
+   * @return true if values of {@code a} and {@code b} can be aliases
+   */
+  public boolean canAlias(TypeMirror a, TypeMirror b) {
+    TypePair key = new TypePair(a, b);
+    Boolean cached = canAliasCache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    boolean result = types.isSubtype(a, b) || types.isSubtype(b, a);
+    canAliasCache.put(key, result);
+    return result;
+  }
+
+  /**
+   * The arguments of {@link #canAlias}.
+   *
+   * @param a a type
+   * @param b a type
+   */
+  private record TypePair(TypeMirror a, TypeMirror b) {}
+
+  /**
+   * Returns the interner that converts the nodes of the control flow graph being analyzed to
+   * expressions.
+   *
+   * @return the expression interner of this analysis
+   */
+  public JavaExpressionInterner getExpressionInterner() {
+    return expressionInterner;
+  }
+
   /**
    * Returns the processing environment.
    *
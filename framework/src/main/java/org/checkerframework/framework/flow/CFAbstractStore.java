@@ -13,9 +13,7 @@ import java.util.function.BinaryOperator;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Name;
-import javax.lang.model.element.VariableElement;
 import javax.lang.model.type.TypeMirror;
-import javax.lang.model.util.Types;
 import org.checkerframework.checker.nullness.qual.EnsuresNonNullIf;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.dataflow.analysis.Store;
@@ -45,7 +43,6 @@ import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
 import org.plumelib.util.CollectionsP;
 import org.plumelib.util.IPair;
-import org.plumelib.util.MapsP;
 import org.plumelib.util.ToStringComparator;
 import org.plumelib.util.UniqueId;
 
@@ -76,7 +73,11 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
   /** Information collected about the current object. */
   protected V thisValue;
 
-  /** Information collected about fields, using the internal representation {@link FieldAccess}. */
+  /**
+   * Information collected about fields, using the internal representation {@link FieldAccess}.
+   * This is a {@link FieldValueMap} unless a subclass replaces it, which lets the store find the
+   * entries that an assignment can affect without visiting every entry.
+   */
   protected Map<FieldAccess, V> fieldValues;
 
   /**
@@ -144,7 +145,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     this.analysis = analysis;
     this.localVariableValues = new HashMap<>();
     this.thisValue = null;
-    this.fieldValues = new HashMap<>();
+    this.fieldValues = new FieldValueMap<>();
     this.methodCallExpressions = new HashMap<>();
     this.arrayValues = new HashMap<>();
     this.classValues = new HashMap<>();
@@ -164,7 +165,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     this.analysis = other.analysis;
     this.localVariableValues = new HashMap<>(other.localVariableValues);
     this.thisValue = other.thisValue;
-    this.fieldValues = new HashMap<>(other.fieldValues);
+    this.fieldValues = new FieldValueMap<>(other.fieldValues);
     this.methodCallExpressions = new HashMap<>(other.methodCallExpressions);
     this.arrayValues = new HashMap<>(other.arrayValues);
     this.classValues = new HashMap<>(other.classValues);
@@ -241,7 +242,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
       // This is an expression that is exempted from unrefinement, or null if no expression is
       // exempted.
       @Nullable JavaExpression unrefinableReceiverJe =
-          hasDoesNotUnrefineReceiver ? JavaExpression.fromNode(receiver) : null;
+          hasDoesNotUnrefineReceiver ? analysis.getExpressionInterner().fromNode(receiver) : null;
 
       @Nullable List<JavaExpression> seOnlyExpressions =
           analysis.getSideEffectsOnlyExpressions(methodInvocationNode);
@@ -292,7 +293,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     }
 
     // Store information about method calls if possible.
-    JavaExpression methodCall = JavaExpression.fromNode(methodInvocationNode);
+    JavaExpression methodCall = analysis.getExpressionInterner().fromNode(methodInvocationNode);
     replaceValue(methodCall, val);
   }
 
@@ -518,7 +519,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
       GenericAnnotatedTypeFactory<V, S, ?, ?> atypeFactory,
       @Nullable JavaExpression unrefinableReceiverJe,
       @Nullable List<JavaExpression> sideEffectsOnlyExpressions) {
-    Map<FieldAccess, V> newFieldValues = new HashMap<>(MapsP.mapCapacity(fieldValues));
+    Map<FieldAccess, V> newFieldValues = new FieldValueMap<>();
     for (Map.Entry<FieldAccess, V> e : fieldValues.entrySet()) {
       FieldAccess fieldAccess = e.getKey();
       V previousValue = e.getValue();
@@ -970,7 +971,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    *     available
    */
   public @Nullable V getValue(FieldAccessNode n) {
-    JavaExpression je = JavaExpression.fromNodeFieldAccess(n);
+    JavaExpression je = analysis.getExpressionInterner().fromNode(n);
     if (je instanceof FieldAccess fa) {
       return fieldValues.get(fa);
     } else if (je instanceof ClassName cn) {
@@ -1007,7 +1008,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    *     available
    */
   public @Nullable V getValue(MethodInvocationNode n) {
-    JavaExpression method = JavaExpression.fromNode(n);
+    JavaExpression method = analysis.getExpressionInterner().fromNode(n);
     if (method == null) {
       return null;
     }
@@ -1023,8 +1024,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    *     available
    */
   public @Nullable V getValue(ArrayAccessNode n) {
-    ArrayAccess arrayAccess = JavaExpression.fromArrayAccess(n);
-    return arrayValues.get(arrayAccess);
+    return arrayValues.get(analysis.getExpressionInterner().fromNode(n));
   }
 
   /**
@@ -1034,7 +1034,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    * @param val the right-hand value of an assignment
    */
   public void updateForAssignment(Node n, @Nullable V val) {
-    JavaExpression je = JavaExpression.fromNode(n);
+    JavaExpression je = analysis.getExpressionInterner().fromNode(n);
     if (je instanceof ArrayAccess aa) {
       updateForArrayAssignment(aa, val);
     } else if (je instanceof FieldAccess fa) {
@@ -1123,25 +1123,25 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    *     abstract value is not known)
    */
   protected void removeConflicting(FieldAccess fieldAccess, @Nullable V val) {
-    Iterator<Map.Entry<FieldAccess, V>> fieldValuesIterator = fieldValues.entrySet().iterator();
-    while (fieldValuesIterator.hasNext()) {
-      Map.Entry<FieldAccess, V> entry = fieldValuesIterator.next();
-      FieldAccess otherFieldAccess = entry.getKey();
-      V otherVal = entry.getValue();
+    Collection<FieldAccess> candidates =
+        fieldValues instanceof FieldValueMap<V> indexed
+            ? indexed.keysAffectedByAssignmentTo(fieldAccess)
+            : new ArrayList<>(fieldValues.keySet());
+    for (FieldAccess otherFieldAccess : candidates) {
       // case 2:
       if (otherFieldAccess.getReceiver().containsModifiableAliasOf(this, fieldAccess)) {
-        fieldValuesIterator.remove(); // remove information completely
+        fieldValues.remove(otherFieldAccess); // remove information completely
       }
       // case 1:
       else if (fieldAccess.getField().equals(otherFieldAccess.getField())) {
         if (canAlias(fieldAccess.getReceiver(), otherFieldAccess.getReceiver())) {
           if (!otherFieldAccess.isFinal()) {
             if (val != null) {
-              V newVal = val.leastUpperBound(otherVal);
-              entry.setValue(newVal);
+              V newVal = val.leastUpperBound(fieldValues.get(otherFieldAccess));
+              fieldValues.put(otherFieldAccess, newVal);
             } else {
               // remove information completely
-              fieldValuesIterator.remove();
+              fieldValues.remove(otherFieldAccess);
             }
           }
         }
@@ -1197,15 +1197,12 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     }
 
     // case 2:
-    Iterator<Map.Entry<FieldAccess, V>> fieldValuesIterator = fieldValues.entrySet().iterator();
-    while (fieldValuesIterator.hasNext()) {
-      Map.Entry<FieldAccess, V> entry = fieldValuesIterator.next();
-      FieldAccess otherFieldAccess = entry.getKey();
+    for (FieldAccess otherFieldAccess : fieldAccessesWithModifiableReceiver()) {
       JavaExpression otherReceiver = otherFieldAccess.getReceiver();
       if (otherReceiver.containsModifiableAliasOf(this, arrayAccess)
           && otherReceiver.containsOfClass(ArrayAccess.class)) {
         // remove information completely
-        fieldValuesIterator.remove();
+        fieldValues.remove(otherFieldAccess);
       }
     }
 
@@ -1227,13 +1224,10 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    * </ol>
    */
   protected void removeConflicting(LocalVariable var) {
-    Iterator<Map.Entry<FieldAccess, V>> fieldValuesIterator = fieldValues.entrySet().iterator();
-    while (fieldValuesIterator.hasNext()) {
-      Map.Entry<FieldAccess, V> entry = fieldValuesIterator.next();
-      FieldAccess otherFieldAccess = entry.getKey();
+    for (FieldAccess otherFieldAccess : fieldAccessesWithModifiableReceiver()) {
       // case 1:
       if (otherFieldAccess.containsSyntacticEqualJavaExpression(var)) {
-        fieldValuesIterator.remove();
+        fieldValues.remove(otherFieldAccess);
       }
     }
 
@@ -1259,16 +1253,28 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
     }
   }
 
+  /**
+   * Returns the keys of {@link #fieldValues} whose receiver is not {@code this}, {@code super}, or
+   * a class name: the only field accesses that can contain an array access or a local variable. If
+   * a subclass has replaced {@link #fieldValues} by a map without indexes, returns all its keys.
+   * The result is a new collection, so the caller may modify {@link #fieldValues} while iterating
+   * over it.
+   *
+   * @return the keys of {@link #fieldValues} that can contain an array access or a local variable
+   */
+  private Collection<FieldAccess> fieldAccessesWithModifiableReceiver() {
+    return fieldValues instanceof FieldValueMap<V> indexed
+        ? indexed.keysWithModifiableReceiver()
+        : new ArrayList<>(fieldValues.keySet());
+  }
+
   /**
    * Can the objects {@code a} and {@code b} be aliases? Returns a conservative answer (i.e.,
    * returns {@code true} if not enough information is available to determine aliasing).
    */
   @Override
   public boolean canAlias(JavaExpression a, JavaExpression b) {
-    TypeMirror tb = b.getType();
-    TypeMirror ta = a.getType();
-    Types types = analysis.getTypes();
-    return types.isSubtype(ta, tb) || types.isSubtype(tb, ta);
+    return analysis.canAlias(a.getType(), b.getType());
   }
 
   /* --------------------------------------------------------- */
@@ -1284,8 +1290,7 @@ public abstract class CFAbstractStore<V extends CFAbstractValue<V>, S extends CF
    *     available
    */
   public @Nullable V getValue(LocalVariableNode n) {
-    VariableElement el = n.getElement();
-    return localVariableValues.get(new LocalVariable(el));
+    return localVariableValues.get(analysis.getExpressionInterner().fromNode(n));
   }
 
   /* --------------------------------------------------------- */
@@ -926,7 +926,7 @@ public abstract class CFAbstractTransfer<
       if (!firstValue.equals(secondValue)) {
         List<Node> secondParts = splitAssignments(secondNode);
         for (Node secondPart : secondParts) {
-          JavaExpression secondInternal = JavaExpression.fromNode(secondPart);
+          JavaExpression secondInternal = analysis.getExpressionInterner().fromNode(secondPart);
           if (!secondInternal.isDeterministic(analysis.atypeFactory)) {
             continue;
           }
@@ -1146,7 +1146,7 @@ public abstract class CFAbstractTransfer<
   public TransferResult<V, S> visitInstanceOf(InstanceOfNode node, TransferInput<V, S> in) {
     TransferResult<V, S> result = super.visitInstanceOf(node, in);
     for (LocalVariableNode bindingVar : node.getBindingVariables()) {
-      JavaExpression expr = JavaExpression.fromNode(bindingVar);
+      JavaExpression expr = analysis.getExpressionInterner().fromNode(bindingVar);
       AnnotatedTypeMirror expType =
           analysis.atypeFactory.getAnnotatedType(node.getTree().getExpression());
       for (AnnotationMirror anno : expType.getPrimaryAnnotations()) {
@@ -1347,7 +1347,7 @@ public abstract class CFAbstractTransfer<
               finishValue(null, store), in.getThenStore().copy(), in.getElseStore().copy(), false);
       V caseValue = in.getValueOfSubNode(caseOperand);
       AssignmentNode assign = n.getSwitchOperand();
-      V switchValue = store.getValue(JavaExpression.fromNode(assign.getTarget()));
+      V switchValue = store.getValue(analysis.getExpressionInterner().fromNode(assign.getTarget()));
       result =
           strengthenAnnotationOfEqualTo(
               result, caseOperand, assign.getExpression(), caseValue, switchValue, false);
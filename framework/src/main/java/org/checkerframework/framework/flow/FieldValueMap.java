@@ -0,0 +1,270 @@
+package org.checkerframework.framework.flow;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.VariableElement;
+import org.checkerframework.checker.nullness.qual.EnsuresNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.expression.ClassName;
+import org.checkerframework.dataflow.expression.FieldAccess;
+import org.checkerframework.dataflow.expression.JavaExpression;
+import org.checkerframework.dataflow.expression.SuperReference;
+import org.checkerframework.dataflow.expression.ThisReference;
+import org.plumelib.util.ArraySet;
+
+/**
+ * The map from field accesses to abstract values of a {@link CFAbstractStore}, with indexes that
+ * let the store find the entries that an assignment can affect without visiting every entry.
+ *
+ * <p>Most field accesses in a store have a receiver of {@code this}, {@code super}, or a class
+ * name. Such a receiver contains no local variable, array access, or other expression that an
+ * assignment can change or that can alias the assigned expression. An assignment to {@code a.f}
+ * can therefore only affect such an entry if the entry's field is {@code f}. The map indexes its
+ * keys by field, and separately keeps the keys whose receiver is anything else.
+ *
+ * <p>The indexes are built the first time they are needed and are maintained by every
+ * modification after that, including modifications through the views of the map. Copying the map
+ * does not copy them.
+ *
+ * @param <V> the type of the abstract values
+ */
+final class FieldValueMap<V> extends AbstractMap<FieldAccess, V> {
+
+  /** The entries of this map. */
+  private final HashMap<FieldAccess, V> values;
+
+  /** The keys of this map, by field; null until an index is first needed. */
+  private @Nullable Map<VariableElement, Set<FieldAccess>> byField = null;
+
+  /**
+   * The keys of this map whose receiver is not {@code this}, {@code super}, or a class name; null
+   * until an index is first needed.
+   */
+  private @Nullable Set<FieldAccess> withModifiableReceiver = null;
+
+  /** The view returned by {@link #entrySet}. */
+  private final EntrySet entrySet = new EntrySet();
+
+  /** Creates an empty map. */
+  FieldValueMap() {
+    this.values = new HashMap<>();
+  }
+
+  /**
+   * Creates a map with the same entries as the given map.
+   *
+   * @param other the map whose entries to copy
+   */
+  FieldValueMap(Map<FieldAccess, V> other) {
+    this.values = new HashMap<>(other);
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return values.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return values.containsKey(key);
+  }
+
+  @Override
+  public @Nullable V get(@Nullable Object key) {
+    return values.get(key);
+  }
+
+  @Override
+  public @Nullable V put(FieldAccess key, V value) {
+    V previous = values.put(key, value);
+    if (byField != null) {
+      index(key);
+    }
+    return previous;
+  }
+
+  @Override
+  public @Nullable V remove(@Nullable Object key) {
+    if (!values.containsKey(key)) {
+      return null;
+    }
+    V previous = values.remove(key);
+    if (byField != null) {
+      unindex((FieldAccess) key);
+    }
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    values.clear();
+    byField = null;
+    withModifiableReceiver = null;
+  }
+
+  @Override
+  public Set<Map.Entry<FieldAccess, V>> entrySet() {
+    return entrySet;
+  }
+
+  /**
+   * Returns the keys whose values an assignment to {@code fieldAccess} might change: those with the
+   * same field, and those whose receiver might contain an alias of {@code fieldAccess}. The result
+   * is a new list, so the caller may modify this map while iterating over it.
+   *
+   * @param fieldAccess the target of an assignment
+   * @return the keys whose values an assignment to {@code fieldAccess} might change
+   */
+  List<FieldAccess> keysAffectedByAssignmentTo(FieldAccess fieldAccess) {
+    buildIndexes();
+    Set<FieldAccess> sameField = byField.get(fieldAccess.getField());
+    List<FieldAccess> result =
+        new ArrayList<>(
+            (sameField == null ? 0 : sameField.size()) + withModifiableReceiver.size());
+    if (sameField != null) {
+      result.addAll(sameField);
+    }
+    for (FieldAccess key : withModifiableReceiver) {
+      if (!key.getField().equals(fieldAccess.getField())) {
+        result.add(key);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the keys whose receiver is not {@code this}, {@code super}, or a class name. Only their
+   * values can depend on an array element or a local variable. The result is a new list, so the
+   * caller may modify this map while iterating over it.
+   *
+   * @return the keys whose receiver is not {@code this}, {@code super}, or a class name
+   */
+  List<FieldAccess> keysWithModifiableReceiver() {
+    buildIndexes();
+    return new ArrayList<>(withModifiableReceiver);
+  }
+
+  /**
+   * Returns true if the receiver of a field access might contain an expression that an assignment
+   * can change or that can alias the target of an assignment.
+   *
+   * @param fieldAccess a field access
+   * @return false if the receiver of {@code fieldAccess} is {@code this}, {@code super}, or a class
+   *     name
+   */
+  private static boolean hasModifiableReceiver(FieldAccess fieldAccess) {
+    JavaExpression receiver = fieldAccess.getReceiver();
+    return !(receiver instanceof ThisReference
+        || receiver instanceof SuperReference
+        || receiver instanceof ClassName);
+  }
+
+  /** Builds the indexes, unless they have already been built. */
+  @EnsuresNonNull({"byField", "withModifiableReceiver"})
+  private void buildIndexes() {
+    if (byField == null || withModifiableReceiver == null) {
+      byField = new HashMap<>();
+      withModifiableReceiver = new HashSet<>();
+      for (FieldAccess key : values.keySet()) {
+        index(key);
+      }
+    }
+  }
+
+  /**
+   * Adds a key to the indexes, which must have been built.
+   *
+   * @param key a key of this map
+   */
+  private void index(FieldAccess key) {
+    assert byField != null && withModifiableReceiver != null
+        : "@AssumeAssertion(nullness): only called when the indexes exist";
+    byField.computeIfAbsent(key.getField(), f -> new ArraySet<>(2)).add(key);
+    if (hasModifiableReceiver(key)) {
+      withModifiableReceiver.add(key);
+    }
+  }
+
+  /**
+   * Removes a key from the indexes, which must have been built.
+   *
+   * @param key a former key of this map
+   */
+  private void unindex(FieldAccess key) {
+    assert byField != null && withModifiableReceiver != null
+        : "@AssumeAssertion(nullness): only called when the indexes exist";
+    Set<FieldAccess> sameField = byField.get(key.getField());
+    if (sameField != null) {
+      sameField.remove(key);
+      if (sameField.isEmpty()) {
+        byField.remove(key.getField());
+      }
+    }
+    withModifiableReceiver.remove(key);
+  }
+
+  /** The entries of a {@link FieldValueMap}, whose iterator keeps the indexes up to date. */
+  private final class EntrySet extends AbstractSet<Map.Entry<FieldAccess, V>> {
+
+    /** Creates the entry set view. */
+    EntrySet() {}
+
+    @Override
+    public int size() {
+      return values.size();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object o) {
+      return values.entrySet().contains(o);
+    }
+
+    @Override
+    public void clear() {
+      FieldValueMap.this.clear();
+    }
+
+    @Override
+    public Iterator<Map.Entry<FieldAccess, V>> iterator() {
+      Iterator<Map.Entry<FieldAccess, V>> delegate = values.entrySet().iterator();
+      return new Iterator<Map.Entry<FieldAccess, V>>() {
+
+        /** The key of the entry most recently returned by {@link #next}. */
+        private @Nullable FieldAccess lastKey = null;
+
+        @Override
+        public boolean hasNext() {
+          return delegate.hasNext();
+        }
+
+        @Override
+        public Map.Entry<FieldAccess, V> next() {
+          Map.Entry<FieldAccess, V> entry = delegate.next();
+          lastKey = entry.getKey();
+          return entry;
+        }
+
+        @Override
+        public void remove() {
+          delegate.remove();
+          if (byField != null && lastKey != null) {
+            unindex(lastKey);
+          }
+          lastKey = null;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package org.checkerframework.framework.source;
+
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ast.StubUnit;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.util.Elements;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.util.JavaExpressionParseCache;
+import org.checkerframework.framework.util.TreePathCacher;
+import org.plumelib.util.MapsP;
+
+/**
+ * The state that all the checkers of one compilation share.
+ *
+ * <p>A checker shares its {@link TreePathCacher} and {@link JavaExpressionParseCache} with its
+ * subcheckers, including the checkers of an {@link AggregateChecker}. Checkers that are passed to
+ * javac as separate annotation processors, as in {@code -processor
+ * NullnessChecker,RegexChecker,TaintingChecker}, are not subcheckers of one another. They share
+ * these caches through the coordinator of their compilation instead, so each tree path and each
+ * expression string is computed once, not once per checker. The checkers also share the parsed
+ * ASTs of the annotated JDK, so each JDK stub file is parsed once even though each checker reads
+ * its own annotations from it.
+ *
+ * <p>Element-based queries such as those of {@link org.checkerframework.javacutil.ElementUtils}
+ * are memoized per compilation in javacutil and are therefore already shared. Control flow graphs
+ * are not shared: their construction depends on the options and the annotation provider of each
+ * checker.
+ *
+ * <p>A coordinator holds trees and parsed stub files of its compilation, so it is discarded, and
+ * its caches are cleared, when the compilation finishes.
+ */
+public final class CheckerCoordinator {
+
+  /** The maximum number of parsed JDK stub files to retain. */
+  private static final int JDK_STUB_UNITS_SIZE = 200;
+
+  /** The coordinator of each compilation, by the {@code Elements} object of the compilation. */
+  private static final Map<Object, CheckerCoordinator> instances = new WeakHashMap<>();
+
+  /** The tree path cache of the top-level checkers. */
+  private final TreePathCacher treePathCacher = new TreePathCacher();
+
+  /** The expression parse cache of the top-level checkers. */
+  private final JavaExpressionParseCache javaExpressionParseCache =
+      new JavaExpressionParseCache();
+
+  /** The recently parsed JDK stub files, by their location. */
+  private final Map<String, StubUnit> jdkStubUnits = MapsP.createLruCache(JDK_STUB_UNITS_SIZE);
+
+  /** The compilation unit that a top-level checker most recently started to check. */
+  private @Nullable CompilationUnitTree currentRoot = null;
+
+  /** Creates a coordinator. */
+  private CheckerCoordinator() {}
+
+  /**
+   * Returns the coordinator of a compilation.
+   *
+   * @param env the processing environment of the compilation
+   * @return the coordinator of the compilation of {@code env}
+   */
+  public static CheckerCoordinator of(ProcessingEnvironment env) {
+    synchronized (instances) {
+      Elements elements = env.getElementUtils();
+      CheckerCoordinator coordinator = instances.get(elements);
+      if (coordinator == null) {
+        coordinator = new CheckerCoordinator();
+        instances.put(elements, coordinator);
+        JavacTask.instance(env).addTaskListener(new CompilationListener(elements, coordinator));
+      }
+      return coordinator;
+    }
+  }
+
+  /**
+   * Discards the coordinator of a compilation and clears its caches. Called when the compilation
+   * finishes, after every checker's {@code typeProcessingOver}, or after type processing stopped
+   * because of errors.
+   *
+   * @param elements the {@code Elements} object of the compilation
+   * @param coordinator the coordinator of the compilation
+   */
+  private static void discard(Elements elements, CheckerCoordinator coordinator) {
+    synchronized (instances) {
+      if (instances.get(elements) == coordinator) {
+        instances.remove(elements);
+      }
+    }
+    coordinator.currentRoot = null;
+    coordinator.treePathCacher.clear();
+    coordinator.javaExpressionParseCache.clear();
+    coordinator.jdkStubUnits.clear();
+  }
+
+  /**
+   * Returns the tree path cache that the top-level checkers of this compilation share.
+   *
+   * @return the shared tree path cache
+   */
+  public TreePathCacher getTreePathCacher() {
+    return treePathCacher;
+  }
+
+  /**
+   * Returns the expression parse cache that the top-level checkers of this compilation share.
+   *
+   * @return the shared expression parse cache
+   */
+  public JavaExpressionParseCache getJavaExpressionParseCache() {
+    return javaExpressionParseCache;
+  }
+
+  /**
+   * Called when a top-level checker starts to check a compilation unit. Clears the shared caches
+   * if the compilation unit is not the one that the previous checker checked. javac runs all
+   * checkers on a class before moving on to the next, so the caches are cleared once per
+   * compilation unit rather than once per checker.
+   *
+   * @param root the compilation unit
+   */
+  /*package-private*/ void setRoot(CompilationUnitTree root) {
+    if (root != currentRoot) {
+      currentRoot = root;
+      treePathCacher.clear();
+      javaExpressionParseCache.clear();
+    }
+  }
+
+  /**
+   * Returns the parsed JDK stub file at a location, parsing it unless a checker of this compilation
+   * has parsed it recently. The AST must not be modified.
+   *
+   * @param location the location of the file, such as a path or a jar entry URL
+   * @param parser parses the file
+   * @return the parsed file; if parsing threw a {@link ParseProblemException}, a future that fails
+   *     with it
+   */
+  public Future<StubUnit> getJdkStubUnit(String location, Supplier<StubUnit> parser) {
+    StubUnit stubUnit = jdkStubUnits.get(location);
+    if (stubUnit == null) {
+      try {
+        stubUnit = parser.get();
+      } catch (ParseProblemException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+      jdkStubUnits.put(location, stubUnit);
+    }
+    return CompletableFuture.completedFuture(stubUnit);
+  }
+
+  /** Discards the coordinator of a compilation when the compilation finishes. */
+  private static final class CompilationListener implements TaskListener {
+
+    /** The {@code Elements} object of the compilation. */
+    private final Elements elements;
+
+    /** The coordinator of the compilation. */
+    private final CheckerCoordinator coordinator;
+
+    /**
+     * Creates a CompilationListener.
+     *
+     * @param elements the {@code Elements} object of the compilation
+     * @param coordinator the coordinator of the compilation
+     */
+    CompilationListener(Elements elements, CheckerCoordinator coordinator) {
+      this.elements = elements;
+      this.coordinator = coordinator;
+    }
+
+    @Override
+    public void finished(TaskEvent e) {
+      if (e.getKind() == TaskEvent.Kind.COMPILATION) {
+        discard(elements, coordinator);
+      }
+    }
+  }
+}
@@ -78,6 +78,7 @@ import org.checkerframework.common.reflection.MethodValChecker;
 import org.checkerframework.framework.qual.AnnotatedFor;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.util.CheckerMain;
+import org.checkerframework.framework.util.JavaExpressionParseCache;
 import org.checkerframework.framework.util.OptionConfiguration;
 import org.checkerframework.framework.util.TreePathCacher;
 import org.checkerframework.javacutil.AbstractTypeProcessor;
@@ -292,6 +293,18 @@ import org.plumelib.util.UtilP;
   // directly in source code, such as during whole-program inference. The annotations in the
   // stub files will be glb'd with those in the source code before local inference begins.
   "mergeStubsWithSource",
+  // Write an annotation summary of the checked classes to the given directory.
+  // org.checkerframework.framework.stub.AnnotationSummaryWriter
+  "annotationSummaryOutputDir",
+  // Read the annotation summaries of libraries on the classpath.
+  // org.checkerframework.framework.stub.AnnotationSummaries
+  "useAnnotationSummaries",
+  // Write the inferred purity of the checked methods to the given directory.
+  // org.checkerframework.framework.stub.PuritySummaries
+  "puritySummaryOutputDir",
+  // Read the inferred purity of methods from the purity summaries on the classpath.
+  // org.checkerframework.framework.stub.PuritySummaries
+  "usePuritySummaries",
   // Already listed above, but worth noting again in this section:
   // "useConservativeDefaultsForUncheckedCode"
 
@@ -419,6 +432,11 @@ import org.plumelib.util.UtilP;
   // Sets AnnotatedTypeFactory shouldCache to false
   "atfDoNotCache",
 
+  // Once a method has been type-checked, release its dataflow stores and keep only the refined
+  // type of each expression, to reduce memory use on large classes.
+  // org.checkerframework.framework.type.GenericAnnotatedTypeFactory.postProcessMethodTree
+  "compactFlowResults",
+
   // Language Server Protocol (LSP) Support
 
   // TODO: document `-AlspTypeInfo` in manual, as a debugging option.
@@ -566,6 +584,13 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
    */
   private @MonotonicNonNull Pattern onlyDefsPattern;
 
+  /**
+   * Method declarations that are not checked in the current compilation, because the client that
+   * runs the checker already has their results. Set by {@link #setMethodsToSkip}; shared with the
+   * subcheckers.
+   */
+  private Set<MethodTree> methodsToSkip = Collections.emptySet();
+
   /**
    * Regular expression pattern to specify files or directories that should not be checked.
    *
@@ -646,6 +671,12 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
    */
   private @Nullable CompilationUnitTree reportOnceCompilationUnit = null;
 
+  /**
+   * The number of diagnostics that this checker has been asked to report, including suppressed
+   * ones. See {@link #getReportCount}.
+   */
+  private long reportCount = 0;
+
   /** True if the -Afilenames command-line argument was passed. */
   private boolean printFilenames;
 
@@ -683,11 +714,19 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
   protected @MonotonicNonNull List<SourceChecker> immediateSubcheckers = null;
 
   /**
-   * TreePathCacher to share between subcheckers. Initialized either in {@link #getTreePathCacher()}
-   * or {@link #instantiateSubcheckers(Map)}.
+   * TreePathCacher to share between subcheckers, and through the {@link CheckerCoordinator} with
+   * the other checkers of the compilation. Initialized either in {@link #getTreePathCacher()} or
+   * {@link #instantiateSubcheckers(Map)}.
    */
   protected TreePathCacher treePathCacher = null;
 
+  /**
+   * JavaExpressionParseCache to share between subcheckers, and through the {@link
+   * CheckerCoordinator} with the other checkers of the compilation. Initialized either in {@link
+   * #getJavaExpressionParseCache()} or {@link #instantiateSubcheckers(Map)}.
+   */
+  protected JavaExpressionParseCache javaExpressionParseCache = null;
+
   /** Creates a source checker. */
   protected SourceChecker() {}
 
@@ -775,8 +814,9 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
     currentRoot = newRoot;
     visitor.setRoot(currentRoot);
     if (parentChecker == null) {
-      // Only clear the path cache if this is the main checker.
-      treePathCacher.clear();
+      // Only clear the path cache if this is the main checker.  The caches are shared with the
+      // other checkers of the compilation, so the coordinator clears them once per root.
+      CheckerCoordinator.of(processingEnv).setRoot(newRoot);
     }
   }
 
@@ -1233,6 +1273,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
       immediateSubcheckers.add(instance);
       instance.setProcessingEnvironment(this.processingEnv);
       instance.treePathCacher = this.getTreePathCacher();
+      instance.javaExpressionParseCache = this.getJavaExpressionParseCache();
       // Prevent the new checker from storing non-immediate subcheckers
       instance.subcheckers = Collections.emptyList();
       instance.immediateSubcheckers =
@@ -1272,11 +1313,24 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
   public TreePathCacher getTreePathCacher() {
     if (treePathCacher == null) {
       // In case it wasn't already set in instantiateSubcheckers.
-      treePathCacher = new TreePathCacher();
+      treePathCacher = CheckerCoordinator.of(processingEnv).getTreePathCacher();
     }
     return treePathCacher;
   }
 
+  /**
+   * Returns the shared JavaExpressionParseCache instance.
+   *
+   * @return the shared JavaExpressionParseCache instance
+   */
+  public JavaExpressionParseCache getJavaExpressionParseCache() {
+    if (javaExpressionParseCache == null) {
+      // In case it wasn't already set in instantiateSubcheckers.
+      javaExpressionParseCache = CheckerCoordinator.of(processingEnv).getJavaExpressionParseCache();
+    }
+    return javaExpressionParseCache;
+  }
+
   /**
    * Type-check the code using this checker's visitor.
    *
@@ -1411,6 +1465,18 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
   // Reporting type-checking errors; most clients use reportError() or reportWarning()
   //
 
+  /**
+   * Returns the number of diagnostics that this checker has been asked to report so far, including
+   * ones that were suppressed or that duplicated an earlier diagnostic. A client can compare two
+   * counts to learn whether a computation reported anything, for example to decide whether the
+   * result of the computation can be reused at another tree.
+   *
+   * @return the number of diagnostics that this checker has been asked to report
+   */
+  public long getReportCount() {
+    return reportCount;
+  }
+
   /**
    * Reports an error. By default, prints it to the screen via the compiler's internal messager.
    *
@@ -1470,6 +1536,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
    */
   @SuppressWarnings("interning:not.interned") // each compilation unit is a distinct tree
   public void reportOnce(TreePath path, DiagMessage d) {
+    reportCount++;
     SourceChecker ultimateParent = this;
     while (ultimateParent.parentChecker != null) {
       ultimateParent = ultimateParent.parentChecker;
@@ -1510,6 +1577,7 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
    */
   private void report(
       Object source, Diagnostic.Kind kind, @CompilerMessageKey String messageKey, Object... args) {
+    reportCount++;
     if (shouldSuppressWarnings(source, messageKey)) {
       return;
     }
@@ -3203,7 +3271,33 @@ public abstract class SourceChecker extends AbstractTypeProcessor implements Opt
    * @return true if checker should not type-check {@code meth}
    */
   public final boolean shouldSkipDefs(ClassTree cls, MethodTree meth) {
-    return shouldSkipDefs(cls) || shouldSkipDefs(meth);
+    return shouldSkipDefs(cls) || shouldSkipDefs(meth) || isMethodToSkip(meth);
+  }
+
+  /**
+   * Sets the method declarations that this checker and its subcheckers do not check or analyze in
+   * the current compilation, because the client that runs the checker already has their results.
+   * This is used by {@link org.checkerframework.framework.util.TypeInformationServer} to re-check
+   * only the methods that changed since the previous compilation of a file.
+   *
+   * @param methods method declarations in the compilation units that are about to be checked
+   */
+  public void setMethodsToSkip(Set<MethodTree> methods) {
+    this.methodsToSkip = methods;
+  }
+
+  /**
+   * Returns true if {@code meth} was passed to {@link #setMethodsToSkip} on this checker or on its
+   * ultimate parent checker.
+   *
+   * @param meth a method declaration
+   * @return true if {@code meth} is neither checked nor analyzed
+   */
+  public boolean isMethodToSkip(MethodTree meth) {
+    if (parentChecker != null) {
+      return parentChecker.isMethodToSkip(meth);
+    }
+    return methodsToSkip.contains(meth);
   }
 
   // ///////////////////////////////////////////////////////////////////////////
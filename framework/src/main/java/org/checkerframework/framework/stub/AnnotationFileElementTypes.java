@@ -1,8 +1,10 @@
 package org.checkerframework.framework.stub;
 
+import com.github.javaparser.ast.StubUnit;
 import com.sun.source.tree.CompilationUnitTree;
 import io.github.classgraph.ClassGraph;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,6 +23,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.stream.Collectors;
@@ -37,6 +42,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.CanonicalNameOrEmpty;
 import org.checkerframework.common.basetype.BaseTypeChecker;
 import org.checkerframework.framework.qual.StubFiles;
+import org.checkerframework.framework.source.CheckerCoordinator;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.stub.AnnotationFileParser.AnnotationFileAnnotations;
 import org.checkerframework.framework.stub.AnnotationFileParser.RecordComponentStub;
@@ -44,6 +50,7 @@ import org.checkerframework.framework.stub.AnnotationFileUtil.AnnotationFileType
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.framework.util.JavaParserUtil;
 import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.BugInCF;
 import org.checkerframework.javacutil.ElementUtils;
@@ -102,6 +109,9 @@ public class AnnotationFileElementTypes {
   /** True if -AstubDebug was passed on the command line. */
   private final boolean stubDebug;
 
+  /** The maximum number of threads on which annotation files are parsed concurrently. */
+  private static final int MAX_PARSER_THREADS = 8;
+
   /**
    * Creates an empty annotation source.
    *
@@ -151,6 +161,10 @@ public class AnnotationFileElementTypes {
    *
    * <p>The JDK stub files are only parsed if a type or declaration annotation is requested from a
    * class in that file.
+   *
+   * <p>The files are parsed by JavaParser concurrently, on worker threads. Their annotations are
+   * then copied into this object on the current thread, in the order given above, so the
+   * precedence among files and the order of warnings do not depend on the concurrency.
    */
   public void parseStubFiles() {
     if (stubDebug) {
@@ -160,49 +174,68 @@ public class AnnotationFileElementTypes {
     }
     parsing = true;
     BaseTypeChecker checker = factory.getChecker();
-    if (!ignorejdkastub) {
-      // 1. jdk.astub
-      // Only look in .jar files, and parse it right away.
-      String jdkVersionStub = "jdk" + annotatedJdkVersion + ".astub";
-      parseOneStubFile(this.getClass(), "jdk.astub");
-      parseOneStubFile(this.getClass(), jdkVersionStub);
-      parseOneStubFile(checker.getClass(), "jdk.astub");
-      parseOneStubFile(checker.getClass(), jdkVersionStub);
-      // This needs to be special-cased for every jdkX.astub for which files exist. :-(
-      if (annotatedJdkVersion.equals("8")) {
-        String jdk11Stub = "jdk11.astub";
-        parseOneStubFile(this.getClass(), jdk11Stub);
-        parseOneStubFile(checker.getClass(), jdk11Stub);
+    ExecutorService parserPool = newParserPool();
+    try {
+      // Steps that process the parsed jdk.astub files, in order.
+      List<Runnable> jdkAstubSteps = new ArrayList<>();
+      if (!ignorejdkastub) {
+        // 1. jdk.astub
+        // Only look in .jar files, and parse it right away.
+        String jdkVersionStub = "jdk" + annotatedJdkVersion + ".astub";
+        submitOneStubFile(this.getClass(), "jdk.astub", parserPool, jdkAstubSteps);
+        submitOneStubFile(this.getClass(), jdkVersionStub, parserPool, jdkAstubSteps);
+        submitOneStubFile(checker.getClass(), "jdk.astub", parserPool, jdkAstubSteps);
+        submitOneStubFile(checker.getClass(), jdkVersionStub, parserPool, jdkAstubSteps);
+        // This needs to be special-cased for every jdkX.astub for which files exist. :-(
+        if (annotatedJdkVersion.equals("8")) {
+          String jdk11Stub = "jdk11.astub";
+          submitOneStubFile(this.getClass(), jdk11Stub, parserPool, jdkAstubSteps);
+          submitOneStubFile(checker.getClass(), jdk11Stub, parserPool, jdkAstubSteps);
+        }
       }
 
-      // 2. Annotated JDK
-      // This preps but does not parse the JDK files (except package-info.java files).
-      // The JDK source code files will be parsed later, on demand.
-      prepJdkStubs();
-      // prepping the JDK parses all package-info.java files, which sets the `parsing` field
-      // to false, so re-set it to true.
-      parsing = true;
-    }
+      // Steps that process the remaining parsed stub files, in order.
+      List<Runnable> stubSteps = new ArrayList<>();
 
-    // 3. Stub files listed in @StubFiles annotation on the checker
-    StubFiles stubFilesAnnotation = checker.getClass().getAnnotation(StubFiles.class);
-    if (stubFilesAnnotation != null) {
-      parseAnnotationFiles(
-          Arrays.asList(stubFilesAnnotation.value()), AnnotationFileType.BUILTIN_STUB);
-    }
+      // 3. Stub files listed in @StubFiles annotation on the checker
+      StubFiles stubFilesAnnotation = checker.getClass().getAnnotation(StubFiles.class);
+      if (stubFilesAnnotation != null) {
+        submitAnnotationFiles(
+            Arrays.asList(stubFilesAnnotation.value()),
+            AnnotationFileType.BUILTIN_STUB,
+            parserPool,
+            stubSteps);
+      }
 
-    // 4. Stub files returned by the `getExtraStubFiles()` method
-    parseAnnotationFiles(checker.getExtraStubFiles(), AnnotationFileType.BUILTIN_STUB);
+      // 4. Stub files returned by the `getExtraStubFiles()` method
+      submitAnnotationFiles(
+          checker.getExtraStubFiles(), AnnotationFileType.BUILTIN_STUB, parserPool, stubSteps);
 
-    // 5. Stub files provided via -Astubs command-line option
-    String stubsOption = checker.getOption("stubs");
-    if (stubsOption != null) {
-      parseAnnotationFiles(
-          SystemUtil.pathSeparatorSplitter.splitToList(stubsOption),
-          AnnotationFileType.COMMAND_LINE_STUB);
-    }
+      // 5. Stub files provided via -Astubs command-line option
+      String stubsOption = checker.getOption("stubs");
+      if (stubsOption != null) {
+        submitAnnotationFiles(
+            SystemUtil.pathSeparatorSplitter.splitToList(stubsOption),
+            AnnotationFileType.COMMAND_LINE_STUB,
+            parserPool,
+            stubSteps);
+      }
 
-    parsing = false;
+      jdkAstubSteps.forEach(Runnable::run);
+      if (!ignorejdkastub) {
+        // 2. Annotated JDK
+        // This preps but does not parse the JDK files (except package-info.java files).
+        // The JDK source code files will be parsed later, on demand.
+        prepJdkStubs();
+        // prepping the JDK parses all package-info.java files, which sets the `parsing` field
+        // to false, so re-set it to true.
+        parsing = true;
+      }
+      stubSteps.forEach(Runnable::run);
+    } finally {
+      parserPool.shutdownNow();
+      parsing = false;
+    }
 
     if (stubDebug) {
       System.out.printf("exited parseStubFiles() for %s%n", factory.getClass().getSimpleName());
@@ -210,12 +243,63 @@ public class AnnotationFileElementTypes {
   }
 
   /**
-   * Parse one .astub file.
+   * Creates a thread pool on which JavaParser parses annotation files. The caller must shut it
+   * down.
+   *
+   * @return a new thread pool for parsing annotation files
+   */
+  private static ExecutorService newParserPool() {
+    int nThreads = Math.min(MAX_PARSER_THREADS, Runtime.getRuntime().availableProcessors());
+    return Executors.newFixedThreadPool(
+        Math.max(1, nThreads),
+        runnable -> {
+          Thread thread = new Thread(runnable, "annotation-file-parser");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  /**
+   * Starts parsing the given annotation file on {@code parserPool}, and adds to {@code steps} a
+   * step that copies its annotations into {@link #annotationFileAnnos}. The step must be run on the
+   * javac thread.
+   *
+   * @param description the description of the file, used for diagnostic messages
+   * @param contents the contents of the file
+   * @param fileType the file type of the file
+   * @param parserPool the thread pool on which to parse the file
+   * @param steps the steps that process parsed files; side-effected by this method
+   */
+  private void submitAnnotationFile(
+      String description,
+      byte[] contents,
+      AnnotationFileType fileType,
+      ExecutorService parserPool,
+      List<Runnable> steps) {
+    Future<StubUnit> stubUnit =
+        parserPool.submit(
+            () -> JavaParserUtil.parseStubUnit(new ByteArrayInputStream(contents)));
+    steps.add(
+        () ->
+            AnnotationFileParser.parseStubFile(
+                description,
+                stubUnit,
+                factory,
+                factory.getProcessingEnv(),
+                annotationFileAnnos,
+                fileType));
+  }
+
+  /**
+   * Reads one .astub file and starts parsing it.
    *
    * @param checkerClass the location of the resource in the checker.jar file
    * @param stubFileName the basename of the .astub file
+   * @param parserPool the thread pool on which to parse the file
+   * @param steps the steps that process parsed files; side-effected by this method
    */
-  private void parseOneStubFile(Class<?> checkerClass, String stubFileName) {
+  private void submitOneStubFile(
+      Class<?> checkerClass, String stubFileName, ExecutorService parserPool, List<Runnable> steps) {
     BaseTypeChecker checker = factory.getChecker();
     ProcessingEnvironment processingEnv = factory.getProcessingEnv();
     try (InputStream jdkVersionStubIn = checkerClass.getResourceAsStream(stubFileName)) {
@@ -223,35 +307,40 @@ public class AnnotationFileElementTypes {
         if (stubDebug) {
           AnnotationFileParser.stubDebugStatic(
               processingEnv,
-              "parseOneStubFile(%s, %s): jdkVersionStubIn = %s%n",
+              "submitOneStubFile(%s, %s): jdkVersionStubIn = %s%n",
               checkerClass.getSimpleName(),
               stubFileName,
               jdkVersionStubIn);
         }
-        AnnotationFileParser.parseStubFile(
+        submitAnnotationFile(
             checkerClass.getResource(stubFileName).toString(),
-            jdkVersionStubIn,
-            factory,
-            processingEnv,
-            annotationFileAnnos,
-            AnnotationFileType.BUILTIN_STUB);
+            jdkVersionStubIn.readAllBytes(),
+            AnnotationFileType.BUILTIN_STUB,
+            parserPool,
+            steps);
       }
     } catch (IOException e) {
-      checker.message(
-          Diagnostic.Kind.NOTE,
-          "Could not read annotation resource from " + checkerClass + ": " + stubFileName);
+      steps.add(
+          () ->
+              checker.message(
+                  Diagnostic.Kind.NOTE,
+                  "Could not read annotation resource from " + checkerClass + ": " + stubFileName));
     }
   }
 
   /** Parses the ajava files passed through the -Aajava command-line option. */
   public void parseAjavaFiles() {
     parsing = true;
+    ExecutorService parserPool = newParserPool();
     try {
       // TODO: Error if this is called more than once?
       SourceChecker checker = factory.getChecker();
       List<String> ajavaFiles = checker.getStringsOption("ajava", File.pathSeparator);
-      parseAnnotationFiles(ajavaFiles, AnnotationFileType.AJAVA);
+      List<Runnable> steps = new ArrayList<>();
+      submitAnnotationFiles(ajavaFiles, AnnotationFileType.AJAVA, parserPool, steps);
+      steps.forEach(Runnable::run);
     } finally {
+      parserPool.shutdownNow();
       parsing = false;
     }
   }
@@ -289,12 +378,18 @@ public class AnnotationFileElementTypes {
   }
 
   /**
-   * Parses the files in {@code annotationFiles} of the given file type. This includes files listed
-   * directly in {@code annotationFiles} and for each listed directory, also includes all files
-   * located in that directory (recursively).
+   * Reads the files in {@code annotationFiles} of the given file type and starts parsing them. This
+   * includes files listed directly in {@code annotationFiles} and for each listed directory, also
+   * includes all files located in that directory (recursively).
+   *
+   * <p>Adds to {@code steps} the steps that copy the files' annotations into {@link
+   * #annotationFileAnnos}, interleaved with the steps that issue any warnings about the files. The
+   * steps must be run in order on the javac thread.
    *
    * @param annotationFiles list of files and directories to parse
    * @param fileType the file type of files to parse
+   * @param parserPool the thread pool on which to parse the files
+   * @param steps the steps that process parsed files; side-effected by this method
    */
   @SuppressWarnings("builder:required.method.not.called" // `allFiles` may contain multiple
   // JarEntryAnnotationFileResource.  Each of those references a zip file entry resource, which
@@ -303,7 +398,11 @@ public class AnnotationFileElementTypes {
   // other zipfile entries.  Therefore, this code does not close any of them.  This code may
   // leak resources.
   )
-  private void parseAnnotationFiles(List<String> annotationFiles, AnnotationFileType fileType) {
+  private void submitAnnotationFiles(
+      List<String> annotationFiles,
+      AnnotationFileType fileType,
+      ExecutorService parserPool,
+      List<Runnable> steps) {
     if (annotationFiles.isEmpty()) {
       return;
     }
@@ -312,7 +411,7 @@ public class AnnotationFileElementTypes {
     ProcessingEnvironment processingEnv = factory.getProcessingEnv();
     if (stubDebug) {
       AnnotationFileParser.stubDebugStatic(
-          processingEnv, "AFET.parseAnnotationFiles(%s, %s)", annotationFiles, fileType);
+          processingEnv, "AFET.submitAnnotationFiles(%s, %s)", annotationFiles, fileType);
     }
     for (String path : annotationFiles) {
       // Special case when running in jtreg.
@@ -323,31 +422,33 @@ public class AnnotationFileElementTypes {
           AnnotationFileUtil.allAnnotationFiles(fullPath, fileType);
       if (allFiles != null) {
         for (AnnotationFileResource resource : allFiles) {
-          BufferedInputStream annotationFileStream;
-          try {
-            annotationFileStream = new BufferedInputStream(resource.getInputStream());
+          byte[] contents;
+          try (BufferedInputStream annotationFileStream =
+              new BufferedInputStream(resource.getInputStream())) {
+            // Is it necessary to also skip files that consist only of Java comments?
+            Boolean isWhitespaceOnly = SystemUtil.isWhitespaceOnly(annotationFileStream, 100);
+            if (isWhitespaceOnly != null && (boolean) isWhitespaceOnly) {
+              continue;
+            }
+            contents = annotationFileStream.readAllBytes();
           } catch (IOException e) {
-            checker.message(
-                Diagnostic.Kind.NOTE,
-                "Could not read annotation resource: " + resource.getDescription());
-            continue;
-          }
-          // Is it necessary to also skip files that consist only of Java comments?
-          Boolean isWhitespaceOnly = SystemUtil.isWhitespaceOnly(annotationFileStream, 100);
-          if (isWhitespaceOnly != null && (boolean) isWhitespaceOnly) {
+            steps.add(
+                () ->
+                    checker.message(
+                        Diagnostic.Kind.NOTE,
+                        "Could not read annotation resource: " + resource.getDescription()));
             continue;
           }
           // We use parseStubFile here even for ajava files because at this stage
           // ajava files are parsed as stub files. The extra annotation data in an
           // ajava file is parsed when type-checking the ajava file's corresponding
           // Java file.
-          AnnotationFileParser.parseStubFile(
+          submitAnnotationFile(
               resource.getDescription(),
-              annotationFileStream,
-              factory,
-              processingEnv,
-              annotationFileAnnos,
-              fileType == AnnotationFileType.AJAVA ? AnnotationFileType.AJAVA_AS_STUB : fileType);
+              contents,
+              fileType == AnnotationFileType.AJAVA ? AnnotationFileType.AJAVA_AS_STUB : fileType,
+              parserPool,
+              steps);
         }
       } else {
         // We didn't find the files.
@@ -356,67 +457,78 @@ public class AnnotationFileElementTypes {
         if (path.startsWith("checker.jar/")) {
           path = "/" + path.substring("checker.jar/".length());
         }
-        try (InputStream in = checker.getClass().getResourceAsStream(path)) {
+        String resourcePath = path;
+        try (InputStream in = checker.getClass().getResourceAsStream(resourcePath)) {
           if (in != null) {
-            AnnotationFileParser.parseStubFile(
-                path, in, factory, processingEnv, annotationFileAnnos, fileType);
+            submitAnnotationFile(resourcePath, in.readAllBytes(), fileType, parserPool, steps);
           } else {
             // Didn't find the file.  Issue a warning.
-
-            // When using a compound checker, the target file may be found by the
-            // current checker's parent checkers. Also check this to avoid a false
-            // warning. Currently, only the original checker will try to parse the
-            // target file, the parent checkers are only used to reduce false
-            // warnings.
-            SourceChecker currentChecker = checker;
-            boolean findByParentCheckers = false;
-            while (currentChecker != null) {
-              URL topLevelResource = currentChecker.getClass().getResource("/" + path);
-              if (topLevelResource != null) {
-                currentChecker.message(
-                    Diagnostic.Kind.WARNING,
-                    path
-                        + " should be in the same directory as "
-                        + currentChecker.getClass().getSimpleName()
-                        + ".class, but is at the top level of a jar file: "
-                        + topLevelResource);
-                findByParentCheckers = true;
-                break;
-              } else {
-                currentChecker = currentChecker.getParentChecker();
-              }
-            }
-            // If there exists one parent checker that can find this file, don't report
-            // a warning.
-            if (!findByParentCheckers) {
-              File parentPath = new File(path).getParentFile();
-              String parentPathDescription =
-                  (parentPath == null
-                      ? "current directory"
-                      : "directory " + parentPath.getAbsolutePath());
-              String msg =
-                  checker.getClass().getSimpleName()
-                      + " did not find annotation file or directory "
-                      + path
-                      + " on classpath or within "
-                      + parentPathDescription
-                      + (fullPath.equals(path) ? "" : (" or at " + fullPath));
-              StringJoiner sj = new StringJoiner(System.lineSeparator() + "  ");
-              sj.add(msg);
-              sj.add("Classpath:");
-              for (URI uri : new ClassGraph().getClasspathURIs()) {
-                sj.add(uri.toString());
-              }
-              checker.message(Diagnostic.Kind.WARNING, sj.toString());
-            }
+            steps.add(() -> warnAnnotationFileNotFound(resourcePath, fullPath));
           }
         } catch (IOException e) {
-          checker.message(Diagnostic.Kind.NOTE, "Could not read annotation resource: " + path);
+          steps.add(
+              () ->
+                  checker.message(
+                      Diagnostic.Kind.NOTE, "Could not read annotation resource: " + resourcePath));
         }
       }
     }
   }
 
+  /**
+   * Issues a warning that an annotation file was not found.
+   *
+   * @param path the annotation file, as given by the user, but without any "checker.jar/" prefix
+   * @param fullPath the annotation file, possibly relative to the jtreg test source directory
+   */
+  private void warnAnnotationFileNotFound(String path, String fullPath) {
+    SourceChecker checker = factory.getChecker();
+    // When using a compound checker, the target file may be found by the
+    // current checker's parent checkers. Also check this to avoid a false
+    // warning. Currently, only the original checker will try to parse the
+    // target file, the parent checkers are only used to reduce false
+    // warnings.
+    SourceChecker currentChecker = checker;
+    boolean findByParentCheckers = false;
+    while (currentChecker != null) {
+      URL topLevelResource = currentChecker.getClass().getResource("/" + path);
+      if (topLevelResource != null) {
+        currentChecker.message(
+            Diagnostic.Kind.WARNING,
+            path
+                + " should be in the same directory as "
+                + currentChecker.getClass().getSimpleName()
+                + ".class, but is at the top level of a jar file: "
+                + topLevelResource);
+        findByParentCheckers = true;
+        break;
+      } else {
+        currentChecker = currentChecker.getParentChecker();
+      }
+    }
+    // If there exists one parent checker that can find this file, don't report
+    // a warning.
+    if (!findByParentCheckers) {
+      File parentPath = new File(path).getParentFile();
+      String parentPathDescription =
+          (parentPath == null ? "current directory" : "directory " + parentPath.getAbsolutePath());
+      String msg =
+          checker.getClass().getSimpleName()
+              + " did not find annotation file or directory "
+              + path
+              + " on classpath or within "
+              + parentPathDescription
+              + (fullPath.equals(path) ? "" : (" or at " + fullPath));
+      StringJoiner sj = new StringJoiner(System.lineSeparator() + "  ");
+      sj.add(msg);
+      sj.add("Classpath:");
+      for (URI uri : new ClassGraph().getClasspathURIs()) {
+        sj.add(uri.toString());
+      }
+      checker.message(Diagnostic.Kind.WARNING, sj.toString());
+    }
+  }
+
   /**
    * Returns the annotated type for {@code e} containing only annotations explicitly written in an
    * annotation file. Returns {@code null} if {@code e} does not appear in an annotation file.
@@ -731,15 +843,24 @@ public class AnnotationFileElementTypes {
    */
   private void parseJdkStubFile(Path path) {
     parsing = true;
-    try (InputStream jdkStub = Files.newInputStream(path)) {
+    try {
+      Future<StubUnit> stubUnit =
+          CheckerCoordinator.of(factory.getProcessingEnv())
+              .getJdkStubUnit(
+                  path.toAbsolutePath().toString(),
+                  () -> {
+                    try (InputStream jdkStub = Files.newInputStream(path)) {
+                      return JavaParserUtil.parseStubUnit(jdkStub);
+                    } catch (IOException e) {
+                      throw new BugInCF("cannot open the jdk stub file " + path, e);
+                    }
+                  });
       AnnotationFileParser.parseJdkFileAsStub(
           path.toFile().getName(),
-          jdkStub,
+          stubUnit,
           factory,
           factory.getProcessingEnv(),
           annotationFileAnnos);
-    } catch (IOException e) {
-      throw new BugInCF("cannot open the jdk stub file " + path, e);
     } finally {
       parsing = false;
     }
@@ -758,12 +879,20 @@ public class AnnotationFileElementTypes {
     JarURLConnection connection = getJarURLConnectionToJdk();
     parsing = true;
     try (JarFile jarFile = connection.getJarFile()) {
-      try (InputStream jdkStub = jarFile.getInputStream(jarFile.getJarEntry(jarEntryName))) {
-        AnnotationFileParser.parseJdkFileAsStub(
-            jarEntryName, jdkStub, factory, factory.getProcessingEnv(), annotationFileAnnos);
-      } catch (IOException e) {
-        throw new BugInCF("cannot open the jdk stub file " + jarEntryName, e);
-      }
+      Future<StubUnit> stubUnit =
+          CheckerCoordinator.of(factory.getProcessingEnv())
+              .getJdkStubUnit(
+                  connection.getJarFileURL() + "!/" + jarEntryName,
+                  () -> {
+                    try (InputStream jdkStub =
+                        jarFile.getInputStream(jarFile.getJarEntry(jarEntryName))) {
+                      return JavaParserUtil.parseStubUnit(jdkStub);
+                    } catch (IOException e) {
+                      throw new BugInCF("cannot open the jdk stub file " + jarEntryName, e);
+                    }
+                  });
+      AnnotationFileParser.parseJdkFileAsStub(
+          jarEntryName, stubUnit, factory, factory.getProcessingEnv(), annotationFileAnnos);
     } catch (IOException e) {
       throw new BugInCF("cannot open the Jar file " + connection.getEntryName(), e);
     } catch (BugInCF e) {
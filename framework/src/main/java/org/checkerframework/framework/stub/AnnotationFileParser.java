@@ -68,6 +68,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
@@ -682,6 +684,66 @@ public final class AnnotationFileParser {
     }
   }
 
+  /**
+   * Like {@link #parseStubFile(String, InputStream, AnnotatedTypeFactory, ProcessingEnvironment,
+   * AnnotationFileAnnotations, AnnotationFileType)}, but the JavaParser step has been started on
+   * another thread. This method waits for it, then processes the result on the current thread.
+   *
+   * @param filename name of stub file, used only for diagnostic messages
+   * @param stubUnit the result of {@link JavaParserUtil#parseStubUnit} on the stub file
+   * @param atypeFactory the type factory
+   * @param processingEnv the processing environment
+   * @param annotationFileAnnos annotations from the annotation file; side-effected by this method
+   * @param fileType the annotation file type and source
+   */
+  public static void parseStubFile(
+      String filename,
+      Future<StubUnit> stubUnit,
+      AnnotatedTypeFactory atypeFactory,
+      ProcessingEnvironment processingEnv,
+      AnnotationFileAnnotations annotationFileAnnos,
+      AnnotationFileType fileType) {
+    AnnotationFileParser afp =
+        new AnnotationFileParser(filename, atypeFactory, processingEnv, fileType);
+    try {
+      afp.stubDebug(
+          "started parsing annotation file %s for %s",
+          filename, atypeFactory.getClass().getSimpleName());
+      afp.setStubUnit(getParsedStubUnit(stubUnit));
+      afp.process(annotationFileAnnos);
+    } catch (ParseProblemException e) {
+      for (Problem p : e.getProblems()) {
+        afp.warn(null, p.getVerboseMessage());
+      }
+    }
+  }
+
+  /**
+   * Waits for a stub file to be parsed on another thread, and returns the result.
+   *
+   * @param stubUnit the result of {@link JavaParserUtil#parseStubUnit}
+   * @return the parsed stub file
+   * @throws ParseProblemException if the stub file has parser errors
+   */
+  private static StubUnit getParsedStubUnit(Future<StubUnit> stubUnit) {
+    try {
+      return stubUnit.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BugInCF("Interrupted while parsing an annotation file", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        // This includes ParseProblemException.
+        throw runtimeException;
+      } else if (cause instanceof Error error) {
+        throw error;
+      } else {
+        throw new BugInCF("Problem parsing an annotation file", cause);
+      }
+    }
+  }
+
   /**
    * The main entry point when parsing an ajava file. Parses an ajava file and side-effects the last
    * two arguments.
@@ -742,6 +804,35 @@ public final class AnnotationFileParser {
         filename, inputStream, atypeFactory, processingEnv, stubAnnos, AnnotationFileType.JDK_STUB);
   }
 
+  /**
+   * Like {@link #parseJdkFileAsStub(String, InputStream, AnnotatedTypeFactory,
+   * ProcessingEnvironment, AnnotationFileAnnotations)}, but the file has already been parsed, for
+   * example by another checker of the same compilation.
+   *
+   * @param filename name of stub file, used only for diagnostic messages
+   * @param stubUnit the result of {@link JavaParserUtil#parseStubUnit} on the stub file
+   * @param atypeFactory the type factory
+   * @param processingEnv the processing environment
+   * @param stubAnnos annotations from the stub file; side-effected by this method
+   */
+  public static void parseJdkFileAsStub(
+      String filename,
+      Future<StubUnit> stubUnit,
+      AnnotatedTypeFactory atypeFactory,
+      ProcessingEnvironment processingEnv,
+      AnnotationFileAnnotations stubAnnos) {
+    boolean debugAnnotationFileParser = processingEnv.getOptions().containsKey("stubDebug");
+    if (debugAnnotationFileParser) {
+      stubDebugStatic(
+          processingEnv,
+          "parseJdkFileAsStub(%s, _, %s, _, _)%n",
+          filename,
+          atypeFactory.getClass().getSimpleName());
+    }
+    parseStubFile(
+        filename, stubUnit, atypeFactory, processingEnv, stubAnnos, AnnotationFileType.JDK_STUB);
+  }
+
   /**
    * Delegate to the Stub Parser to parse the annotation file to an AST, and save it in field {@link
    * #stubUnit}. Also sets {@link #allAnnotations}. Does not copy annotations out of {@link
@@ -755,7 +846,17 @@ public final class AnnotationFileParser {
     stubDebug(
         "started parsing annotation file %s for %s",
         filename, atypeFactory.getClass().getSimpleName());
-    stubUnit = JavaParserUtil.parseStubUnit(inputStream);
+    setStubUnit(JavaParserUtil.parseStubUnit(inputStream));
+  }
+
+  /**
+   * Save an annotation file AST, which JavaParser has already produced, in field {@link
+   * #stubUnit}. Also sets {@link #allAnnotations}.
+   *
+   * @param stubUnit the AST of the annotation file
+   */
+  private void setStubUnit(StubUnit stubUnit) {
+    this.stubUnit = stubUnit;
 
     // getImportedAnnotations() also modifies importedConstants and importedTypes. This should
     // be refactored to be nicer.
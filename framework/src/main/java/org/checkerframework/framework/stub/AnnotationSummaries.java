@@ -0,0 +1,703 @@
+package org.checkerframework.framework.stub;
+
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedIntersectionType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedUnionType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcardType;
+import org.checkerframework.javacutil.AnnotationBuilder;
+import org.checkerframework.javacutil.BugInCF;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.TypesUtils;
+import org.checkerframework.javacutil.UserError;
+
+/**
+ * The annotation summaries on the classpath, which give the annotated types of the public API of
+ * libraries that were type-checked by the same checker. A summary is written by {@link
+ * AnnotationSummaryWriter} when a library is compiled with {@code -AannotationSummaryOutputDir},
+ * and is read when a client is compiled with {@code -AuseAnnotationSummaries}. Then {@link
+ * AnnotatedTypeFactory#fromElement} looks up the type of a library element in the summary instead
+ * of re-deriving it from the bytecode.
+ *
+ * <p>Each checker has its own summary file, {@code
+ * META-INF/checkerframework/summaries/<checker binary name>.cfsummary}, in each jar or class
+ * directory. A summary that is in a file is memory-mapped; one in a jar is read into memory. In
+ * either case, only the index is read when the summary is loaded. The type of an element is decoded
+ * the first time it is requested.
+ *
+ * <p>The format of a summary file is:
+ *
+ * <pre>{@code
+ * int     magic number 0x43465355 ("CFSU")
+ * int     format version
+ * varint  number of annotations
+ *         for each annotation: varint length, then the annotation (see below)
+ * varint  number of entries
+ *         for each entry: string key, varint length, then the encoded type (see below)
+ * }</pre>
+ *
+ * <p>An annotation is its canonical name, the number of its explicit elements, and for each
+ * element its name and value. A value is a one-byte tag followed by its payload; see {@link
+ * #TAG_STRING} and the other tags.
+ *
+ * <p>An entry key identifies an element; see {@link #elementKey}. An encoded type is a pre-order
+ * traversal of the annotated type. Each node is its {@link TypeKind} ordinal, the indices of its
+ * primary annotations, and then its components: the type arguments of a declared type, the
+ * component of an array, the bounds of a wildcard, intersection, or union, and the type variables,
+ * receiver, return, parameter, and thrown types of an executable. The bounds of a type variable
+ * are encoded only at its declaration: for the type parameters of a class or an executable.
+ *
+ * <p>A string is a varint length followed by that many bytes of UTF-8. A varint is an unsigned
+ * integer in 7-bit groups, least significant first.
+ */
+public class AnnotationSummaries {
+
+  /** The directory, within a jar or class directory, that contains the summary files. */
+  public static final String SUMMARY_DIRECTORY = "META-INF/checkerframework/summaries";
+
+  /** The file extension of a summary file. */
+  public static final String SUMMARY_EXTENSION = ".cfsummary";
+
+  /** The magic number at the start of a summary file. */
+  static final int MAGIC = 0x43465355;
+
+  /** The version of the summary file format. */
+  static final int VERSION = 1;
+
+  /** Tag for a String value. */
+  static final byte TAG_STRING = 's';
+
+  /** Tag for a boolean value. */
+  static final byte TAG_BOOLEAN = 'Z';
+
+  /** Tag for a byte value. */
+  static final byte TAG_BYTE = 'B';
+
+  /** Tag for a char value. */
+  static final byte TAG_CHAR = 'C';
+
+  /** Tag for a short value. */
+  static final byte TAG_SHORT = 'S';
+
+  /** Tag for an int value. */
+  static final byte TAG_INT = 'I';
+
+  /** Tag for a long value. */
+  static final byte TAG_LONG = 'J';
+
+  /** Tag for a float value. */
+  static final byte TAG_FLOAT = 'F';
+
+  /** Tag for a double value. */
+  static final byte TAG_DOUBLE = 'D';
+
+  /** Tag for an enum constant value: the canonical name of the enum, then the constant's name. */
+  static final byte TAG_ENUM = 'e';
+
+  /** Tag for a class literal value: the canonical name of the class. */
+  static final byte TAG_CLASS = 'c';
+
+  /** Tag for an array value: the number of elements, then the elements. */
+  static final byte TAG_ARRAY = '[';
+
+  /** The type factory whose types are read from the summaries. */
+  private final AnnotatedTypeFactory atypeFactory;
+
+  /** The processing environment. */
+  private final ProcessingEnvironment processingEnv;
+
+  /** Maps the key of each summarized element to its entry. */
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  /**
+   * The location of the encoded type of an element.
+   *
+   * @param file the summary file that contains the type
+   * @param offset the offset of the encoded type in the file
+   */
+  private record Entry(SummaryFile file, int offset) {}
+
+  /**
+   * Creates a new AnnotationSummaries, which is empty until {@link #load()} is called.
+   *
+   * @param atypeFactory the type factory whose types are read from the summaries
+   */
+  public AnnotationSummaries(AnnotatedTypeFactory atypeFactory) {
+    this.atypeFactory = atypeFactory;
+    this.processingEnv = atypeFactory.getProcessingEnv();
+  }
+
+  /**
+   * Returns the name of the summary file for the given checker.
+   *
+   * @param checkerName the binary name of a checker class
+   * @return the name of the summary file for the checker
+   */
+  public static String summaryFileName(String checkerName) {
+    return checkerName + SUMMARY_EXTENSION;
+  }
+
+  /**
+   * Reads the index of every summary file for the type factory's checker on the classpath. If an
+   * element is in more than one summary, the first one on the classpath is used.
+   */
+  public void load() {
+    String fileName = summaryFileName(atypeFactory.getChecker().getClass().getName());
+    Context context = ((JavacProcessingEnvironment) processingEnv).getContext();
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    if (fileManager == null || !fileManager.hasLocation(StandardLocation.CLASS_PATH)) {
+      return;
+    }
+    Iterable<JavaFileObject> files;
+    try {
+      files =
+          fileManager.list(
+              StandardLocation.CLASS_PATH,
+              SUMMARY_DIRECTORY.replace('/', '.'),
+              EnumSet.of(JavaFileObject.Kind.OTHER),
+              false);
+    } catch (IOException e) {
+      throw new UserError("Cannot list annotation summaries on the classpath: " + e.getMessage());
+    }
+    for (JavaFileObject file : files) {
+      if (!file.toUri().toString().endsWith("/" + fileName)) {
+        continue;
+      }
+      try {
+        SummaryFile summary = new SummaryFile(file.toUri().toString(), read(fileManager, file));
+        for (Map.Entry<String, Integer> entry : summary.readIndex().entrySet()) {
+          entries.putIfAbsent(entry.getKey(), new Entry(summary, entry.getValue()));
+        }
+      } catch (IOException | RuntimeException e) {
+        warnInvalidSummary(file.toUri().toString(), e);
+      }
+    }
+  }
+
+  /**
+   * Returns the contents of a summary file. The file is memory-mapped if it is in the default file
+   * system, and otherwise read into memory.
+   *
+   * @param fileManager the file manager that listed {@code file}
+   * @param file a summary file
+   * @return the contents of {@code file}
+   * @throws IOException if the file cannot be read
+   */
+  private static ByteBuffer read(JavaFileManager fileManager, JavaFileObject file)
+      throws IOException {
+    if (fileManager instanceof StandardJavaFileManager standardFileManager) {
+      Path path = null;
+      try {
+        path = standardFileManager.asPath(file);
+      } catch (IllegalArgumentException | UnsupportedOperationException e) {
+        // Not backed by a Path.
+      }
+      if (path != null && path.getFileSystem() == FileSystems.getDefault()) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+      }
+    }
+    try (InputStream in = file.openInputStream()) {
+      return ByteBuffer.wrap(in.readAllBytes());
+    }
+  }
+
+  /**
+   * Returns true if no summary has been loaded.
+   *
+   * @return true if no summary has been loaded
+   */
+  public boolean isEmpty() {
+    return entries.isEmpty();
+  }
+
+  /**
+   * Returns the annotated type of {@code elt} from a summary, or null if {@code elt} is not in any
+   * summary or its summary does not match its type.
+   *
+   * @param elt a type, method, constructor, or field
+   * @return the annotated type of {@code elt} from a summary, or null
+   */
+  public @Nullable AnnotatedTypeMirror getAnnotatedTypeMirror(Element elt) {
+    if (entries.isEmpty()) {
+      return null;
+    }
+    String key = elementKey(elt, processingEnv.getTypeUtils());
+    if (key == null) {
+      return null;
+    }
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    boolean isTypeDeclaration = ElementUtils.isTypeDeclaration(elt);
+    AnnotatedTypeMirror type =
+        AnnotatedTypeMirror.createType(elt.asType(), atypeFactory, isTypeDeclaration);
+    if (type instanceof AnnotatedExecutableType executableType) {
+      executableType.setElement((ExecutableElement) elt);
+    }
+    ByteBuffer in = entry.file.buffer.duplicate();
+    in.position(entry.offset);
+    try {
+      entry.file.decode(in, type, isTypeDeclaration);
+    } catch (MismatchException e) {
+      // The library changed since the summary was written, or the summary is for a different
+      // version of the checker. Derive the type from the bytecode instead.
+      entries.remove(key);
+      return null;
+    } catch (BufferUnderflowException
+        | IllegalArgumentException
+        | NegativeArraySizeException
+        | UserError e) {
+      // The summary file is truncated or corrupt.
+      warnInvalidSummary(entry.file.name, e);
+      entries.remove(key);
+      return null;
+    }
+    return type;
+  }
+
+  /**
+   * Returns the key of an element in a summary, or null if elements of its kind are not summarized.
+   *
+   * @param elt an element
+   * @param types the type utilities
+   * @return the key of {@code elt} in a summary, or null
+   */
+  public static @Nullable String elementKey(Element elt, Types types) {
+    switch (elt.getKind()) {
+      case CLASS, INTERFACE, ENUM, ANNOTATION_TYPE, RECORD -> {
+        return "T:" + ElementUtils.getBinaryName((TypeElement) elt);
+      }
+      case METHOD, CONSTRUCTOR -> {
+        TypeElement enclosing = ElementUtils.enclosingTypeElement(elt.getEnclosingElement());
+        if (enclosing == null) {
+          return null;
+        }
+        StringJoiner params = new StringJoiner(",", "(", ")");
+        for (VariableElement param : ((ExecutableElement) elt).getParameters()) {
+          params.add(erasedName(types.erasure(param.asType())));
+        }
+        return "M:" + ElementUtils.getBinaryName(enclosing) + "#" + elt.getSimpleName() + params;
+      }
+      case FIELD, ENUM_CONSTANT -> {
+        TypeElement enclosing = ElementUtils.enclosingTypeElement(elt.getEnclosingElement());
+        if (enclosing == null) {
+          return null;
+        }
+        return "F:" + ElementUtils.getBinaryName(enclosing) + "#" + elt.getSimpleName();
+      }
+      default -> {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Returns the name of an erased type, without any type annotations: the binary name of a class,
+   * the name of a primitive type, or the name of the component type followed by {@code []}.
+   *
+   * @param erased an erased type
+   * @return the name of {@code erased}
+   */
+  private static String erasedName(TypeMirror erased) {
+    switch (erased.getKind()) {
+      case DECLARED -> {
+        return TypesUtils.binaryName(erased);
+      }
+      case ARRAY -> {
+        return erasedName(((ArrayType) erased).getComponentType()) + "[]";
+      }
+      default -> {
+        if (erased.getKind().isPrimitive()) {
+          return erased.getKind().name().toLowerCase(Locale.ROOT);
+        }
+        throw new BugInCF("Unexpected erased type %s of kind %s", erased, erased.getKind());
+      }
+    }
+  }
+
+  /**
+   * Warns that a summary file is invalid and will be ignored.
+   *
+   * @param name the name of the summary file
+   * @param e the exception that was thrown while reading the file
+   */
+  private void warnInvalidSummary(String name, Exception e) {
+    String message =
+        e instanceof BufferUnderflowException ? "unexpected end of file" : e.getMessage();
+    atypeFactory
+        .getChecker()
+        .message(
+            Diagnostic.Kind.WARNING, "Ignoring invalid annotation summary %s: %s", name, message);
+  }
+
+  /** Thrown when a summary does not match the type of the element it summarizes. */
+  @SuppressWarnings("serial")
+  private static class MismatchException extends Exception {
+    /** Creates a new MismatchException. */
+    MismatchException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /** One summary file. */
+  private class SummaryFile {
+
+    /** The name of the file, for diagnostics. */
+    final String name;
+
+    /** The contents of the file. */
+    final ByteBuffer buffer;
+
+    /** The offset of each annotation in {@link #buffer}. */
+    int[] annotationOffsets = new int[0];
+
+    /** The decoded annotations; an element is null if that annotation has not been decoded yet. */
+    @Nullable AnnotationMirror[] annotations = new AnnotationMirror[0];
+
+    /**
+     * Creates a new SummaryFile.
+     *
+     * @param name the name of the file, for diagnostics
+     * @param buffer the contents of the file
+     */
+    SummaryFile(String name, ByteBuffer buffer) {
+      this.name = name;
+      this.buffer = buffer;
+    }
+
+    /**
+     * Reads the header, the annotation offsets, and the entry offsets of this file, without
+     * decoding any annotation or type.
+     *
+     * @return a map from the key of each entry to the offset of its encoded type
+     */
+    Map<String, Integer> readIndex() {
+      ByteBuffer in = buffer.duplicate();
+      if (in.getInt() != MAGIC) {
+        throw new UserError("%s is not an annotation summary", name);
+      }
+      int version = in.getInt();
+      if (version != VERSION) {
+        throw new UserError("%s has unsupported version %d", name, version);
+      }
+      int annotationCount = readVarInt(in);
+      annotationOffsets = new int[annotationCount];
+      annotations = new AnnotationMirror[annotationCount];
+      for (int i = 0; i < annotationCount; i++) {
+        int length = readVarInt(in);
+        annotationOffsets[i] = in.position();
+        in.position(in.position() + length);
+      }
+      int entryCount = readVarInt(in);
+      Map<String, Integer> index = new HashMap<>(entryCount * 2);
+      for (int i = 0; i < entryCount; i++) {
+        String key = readString(in);
+        int length = readVarInt(in);
+        index.put(key, in.position());
+        in.position(in.position() + length);
+      }
+      return index;
+    }
+
+    /**
+     * Returns the annotation with the given index, decoding it if necessary.
+     *
+     * @param index the index of an annotation in this file
+     * @return the annotation
+     * @throws MismatchException if the annotation cannot be built in this compilation
+     */
+    @SuppressWarnings("signature:argument") // the name was written by AnnotationSummaryWriter
+    AnnotationMirror getAnnotation(int index) throws MismatchException {
+      if (index < 0 || index >= annotations.length) {
+        throw new MismatchException();
+      }
+      AnnotationMirror result = annotations[index];
+      if (result == null) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(annotationOffsets[index]);
+        String annotationName = readString(in);
+        if (processingEnv.getElementUtils().getTypeElement(annotationName) == null) {
+          throw new MismatchException();
+        }
+        AnnotationBuilder builder = new AnnotationBuilder(processingEnv, annotationName);
+        int valueCount = readVarInt(in);
+        for (int i = 0; i < valueCount; i++) {
+          String elementName = readString(in);
+          Object value = readValue(in);
+          try {
+            if (value instanceof List<?> list) {
+              builder.setValue(elementName, list);
+            } else {
+              setScalarValue(builder, elementName, value);
+            }
+          } catch (RuntimeException e) {
+            // The annotation has changed since the summary was written.
+            throw new MismatchException();
+          }
+        }
+        result = builder.build();
+        annotations[index] = result;
+      }
+      return result;
+    }
+
+    /**
+     * Reads an encoded type and applies its annotations to {@code type}, which has the same
+     * structure.
+     *
+     * @param in the encoded type
+     * @param type the type to which to apply the annotations
+     * @param isDeclaration true if {@code type} is a declaration, whose type variables' bounds are
+     *     encoded
+     * @throws MismatchException if the encoded type does not have the structure of {@code type}
+     */
+    void decode(ByteBuffer in, AnnotatedTypeMirror type, boolean isDeclaration)
+        throws MismatchException {
+      TypeKind kind = type.getKind();
+      if (in.get() != kind.ordinal()) {
+        throw new MismatchException();
+      }
+      int annotationCount = readVarInt(in);
+      if (annotationCount > 0) {
+        List<AnnotationMirror> annos = new ArrayList<>(annotationCount);
+        for (int i = 0; i < annotationCount; i++) {
+          annos.add(getAnnotation(readVarInt(in)));
+        }
+        type.clearPrimaryAnnotations();
+        type.addAnnotations(annos);
+      }
+      switch (kind) {
+        case DECLARED ->
+            decodeAll(in, ((AnnotatedDeclaredType) type).getTypeArguments(), isDeclaration);
+        case ARRAY -> decode(in, ((AnnotatedArrayType) type).getComponentType(), false);
+        case TYPEVAR -> {
+          if (isDeclaration) {
+            AnnotatedTypeVariable typeVariable = (AnnotatedTypeVariable) type;
+            decode(in, typeVariable.getUpperBound(), false);
+            decode(in, typeVariable.getLowerBound(), false);
+          }
+        }
+        case WILDCARD -> {
+          AnnotatedWildcardType wildcard = (AnnotatedWildcardType) type;
+          decode(in, wildcard.getExtendsBound(), false);
+          decode(in, wildcard.getSuperBound(), false);
+        }
+        case INTERSECTION -> decodeAll(in, ((AnnotatedIntersectionType) type).getBounds(), false);
+        case UNION -> decodeAll(in, ((AnnotatedUnionType) type).getAlternatives(), false);
+        case EXECUTABLE -> {
+          AnnotatedExecutableType executable = (AnnotatedExecutableType) type;
+          decodeAll(in, executable.getTypeVariables(), true);
+          AnnotatedDeclaredType receiver = executable.getReceiverType();
+          boolean hasReceiver = in.get() != 0;
+          if (hasReceiver != (receiver != null)) {
+            throw new MismatchException();
+          }
+          if (receiver != null) {
+            decode(in, receiver, false);
+          }
+          decode(in, executable.getReturnType(), false);
+          decodeAll(in, executable.getParameterTypes(), false);
+          decodeAll(in, executable.getThrownTypes(), false);
+        }
+        default -> {}
+      }
+    }
+
+    /**
+     * Reads a count and then that many encoded types, and applies them to {@code types}.
+     *
+     * @param in the encoded types
+     * @param types the types to which to apply the annotations
+     * @param isDeclaration true if the types are type variable declarations
+     * @throws MismatchException if the encoded types do not have the structure of {@code types}
+     */
+    void decodeAll(ByteBuffer in, List<? extends AnnotatedTypeMirror> types, boolean isDeclaration)
+        throws MismatchException {
+      if (readVarInt(in) != types.size()) {
+        throw new MismatchException();
+      }
+      for (AnnotatedTypeMirror type : types) {
+        decode(in, type, isDeclaration);
+      }
+    }
+
+    /**
+     * Reads a tagged annotation element value.
+     *
+     * @param in the encoded value
+     * @return the value, as accepted by {@link AnnotationBuilder}
+     * @throws MismatchException if the value cannot be resolved in this compilation
+     */
+    @SuppressWarnings("signature:argument") // the names were written by AnnotationSummaryWriter
+    Object readValue(ByteBuffer in) throws MismatchException {
+      byte tag = in.get();
+      switch (tag) {
+        case TAG_STRING -> {
+          return readString(in);
+        }
+        case TAG_BOOLEAN -> {
+          return in.get() != 0;
+        }
+        case TAG_BYTE -> {
+          return in.get();
+        }
+        case TAG_CHAR -> {
+          return in.getChar();
+        }
+        case TAG_SHORT -> {
+          return in.getShort();
+        }
+        case TAG_INT -> {
+          return in.getInt();
+        }
+        case TAG_LONG -> {
+          return in.getLong();
+        }
+        case TAG_FLOAT -> {
+          return in.getFloat();
+        }
+        case TAG_DOUBLE -> {
+          return in.getDouble();
+        }
+        case TAG_ENUM -> {
+          TypeElement enumType = processingEnv.getElementUtils().getTypeElement(readString(in));
+          String constantName = readString(in);
+          if (enumType != null) {
+            for (Element member : enumType.getEnclosedElements()) {
+              if (member.getKind() == ElementKind.ENUM_CONSTANT
+                  && member.getSimpleName().contentEquals(constantName)) {
+                return member;
+              }
+            }
+          }
+          throw new MismatchException();
+        }
+        case TAG_CLASS -> {
+          TypeElement classElt = processingEnv.getElementUtils().getTypeElement(readString(in));
+          if (classElt == null) {
+            throw new MismatchException();
+          }
+          return classElt.asType();
+        }
+        case TAG_ARRAY -> {
+          int length = readVarInt(in);
+          List<Object> values = new ArrayList<>(length);
+          for (int i = 0; i < length; i++) {
+            values.add(readValue(in));
+          }
+          return values;
+        }
+        default -> throw new UserError("%s: unknown value tag %d", name, tag);
+      }
+    }
+  }
+
+  /**
+   * Sets a non-array element of an annotation.
+   *
+   * @param builder the annotation builder
+   * @param elementName the name of the element
+   * @param value the value of the element
+   */
+  private static void setScalarValue(AnnotationBuilder builder, String elementName, Object value) {
+    if (value instanceof String s) {
+      builder.setValue(elementName, s);
+    } else if (value instanceof Boolean b) {
+      builder.setValue(elementName, b);
+    } else if (value instanceof Byte b) {
+      builder.setValue(elementName, b);
+    } else if (value instanceof Character c) {
+      builder.setValue(elementName, c);
+    } else if (value instanceof Short s) {
+      builder.setValue(elementName, s);
+    } else if (value instanceof Integer i) {
+      builder.setValue(elementName, i);
+    } else if (value instanceof Long l) {
+      builder.setValue(elementName, l);
+    } else if (value instanceof Float f) {
+      builder.setValue(elementName, f);
+    } else if (value instanceof Double d) {
+      builder.setValue(elementName, d);
+    } else if (value instanceof VariableElement v) {
+      builder.setValue(elementName, v);
+    } else if (value instanceof TypeMirror t) {
+      builder.setValue(elementName, t);
+    } else {
+      throw new IllegalArgumentException("Unexpected value " + value);
+    }
+  }
+
+  /**
+   * Reads a varint.
+   *
+   * @param in the input
+   * @return the varint
+   */
+  static int readVarInt(ByteBuffer in) {
+    int result = 0;
+    int shift = 0;
+    while (true) {
+      byte b = in.get();
+      result |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+      shift += 7;
+    }
+  }
+
+  /**
+   * Reads a string.
+   *
+   * @param in the input
+   * @return the string
+   */
+  static String readString(ByteBuffer in) {
+    int length = readVarInt(in);
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,378 @@
+package org.checkerframework.framework.stub;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedIntersectionType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedTypeVariable;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedUnionType;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedWildcardType;
+import org.checkerframework.javacutil.AnnotationMirrorMap;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.ElementUtils;
+
+/**
+ * Collects the annotated types of the public API of the classes that a checker type-checks, and
+ * writes them as an annotation summary. See {@link AnnotationSummaries} for the format and for how
+ * a summary is used.
+ *
+ * <p>A type, method, constructor, or field is summarized if it is public or protected and every
+ * class that encloses it is too. An element is omitted if one of its annotations has a value that
+ * the format cannot represent: an annotation or a class literal of a non-declared type.
+ *
+ * <p>The summary of an element records the annotations that {@link
+ * AnnotatedTypeFactory#fromElement} gives it: those written in the source code, those from stub and
+ * ajava files, and those written in declaration position. Defaulted and inferred annotations are
+ * not recorded; a client computes them from the summary just as it would from the bytecode.
+ */
+public class AnnotationSummaryWriter {
+
+  /** The type factory whose types are summarized. */
+  private final AnnotatedTypeFactory atypeFactory;
+
+  /** Maps each annotation that has been written to its index. */
+  private final AnnotationMirrorMap<Integer> annotationIndices = new AnnotationMirrorMap<>();
+
+  /** The encoded annotations, in index order. */
+  private final List<byte[]> encodedAnnotations = new ArrayList<>();
+
+  /** Maps the key of each summarized element to its encoded type; sorted for reproducibility. */
+  private final Map<String, byte[]> entries = new TreeMap<>();
+
+  /** Thrown when a type cannot be encoded. */
+  @SuppressWarnings("serial")
+  private static class UnsupportedValueException extends Exception {
+    /** Creates a new UnsupportedValueException. */
+    UnsupportedValueException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * Creates a new AnnotationSummaryWriter.
+   *
+   * @param atypeFactory the type factory whose types are summarized
+   */
+  public AnnotationSummaryWriter(AnnotatedTypeFactory atypeFactory) {
+    this.atypeFactory = atypeFactory;
+  }
+
+  /**
+   * Adds a class and its public and protected members to the summary. Member classes are not
+   * added; each must be passed to this method separately.
+   *
+   * @param classElt a class that has been type-checked
+   */
+  public void addClass(TypeElement classElt) {
+    if (!isVisible(classElt)) {
+      return;
+    }
+    add(classElt);
+    for (Element member : classElt.getEnclosedElements()) {
+      switch (member.getKind()) {
+        case METHOD, CONSTRUCTOR, FIELD, ENUM_CONSTANT -> {
+          if (member.getModifiers().contains(Modifier.PUBLIC)
+              || member.getModifiers().contains(Modifier.PROTECTED)) {
+            add(member);
+          }
+        }
+        default -> {}
+      }
+    }
+  }
+
+  /**
+   * Returns true if {@code classElt} is a top-level or member class that is visible outside its
+   * package, as are all the classes that enclose it.
+   *
+   * @param classElt a class
+   * @return true if {@code classElt} is visible outside its package
+   */
+  private static boolean isVisible(TypeElement classElt) {
+    TypeElement t = classElt;
+    while (true) {
+      if (!t.getModifiers().contains(Modifier.PUBLIC)
+          && !t.getModifiers().contains(Modifier.PROTECTED)) {
+        return false;
+      }
+      if (t.getNestingKind() == NestingKind.TOP_LEVEL) {
+        return true;
+      }
+      if (t.getNestingKind() != NestingKind.MEMBER
+          || !(t.getEnclosingElement() instanceof TypeElement enclosing)) {
+        return false;
+      }
+      t = enclosing;
+    }
+  }
+
+  /**
+   * Adds the annotated type of an element to the summary, unless it cannot be encoded.
+   *
+   * @param elt a type, method, constructor, or field
+   */
+  private void add(Element elt) {
+    String key =
+        AnnotationSummaries.elementKey(elt, atypeFactory.getProcessingEnv().getTypeUtils());
+    if (key == null) {
+      return;
+    }
+    AnnotatedTypeMirror type = atypeFactory.fromElement(elt);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      encode(out, type, ElementUtils.isTypeDeclaration(elt));
+    } catch (UnsupportedValueException e) {
+      return;
+    } catch (IOException e) {
+      throw new AssertionError("Cannot happen for a ByteArrayOutputStream", e);
+    }
+    entries.put(key, bytes.toByteArray());
+  }
+
+  /**
+   * Writes the summary to {@code <outputDir>/META-INF/checkerframework/summaries/<checker>}.
+   *
+   * @param outputDir the root of the class output, such as the directory that is packaged as a
+   *     jar
+   * @param checkerName the binary name of the checker
+   * @return the file that was written
+   * @throws IOException if the summary cannot be written
+   */
+  public Path write(Path outputDir, String checkerName) throws IOException {
+    Path dir = outputDir.resolve(AnnotationSummaries.SUMMARY_DIRECTORY);
+    Files.createDirectories(dir);
+    Path file = dir.resolve(AnnotationSummaries.summaryFileName(checkerName));
+    try (OutputStream os = Files.newOutputStream(file);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+      out.writeInt(AnnotationSummaries.MAGIC);
+      out.writeInt(AnnotationSummaries.VERSION);
+      writeVarInt(out, encodedAnnotations.size());
+      for (byte[] annotation : encodedAnnotations) {
+        writeVarInt(out, annotation.length);
+        out.write(annotation);
+      }
+      writeVarInt(out, entries.size());
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        writeString(out, entry.getKey());
+        writeVarInt(out, entry.getValue().length);
+        out.write(entry.getValue());
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Encodes an annotated type.
+   *
+   * @param out the output
+   * @param type the type to encode
+   * @param isDeclaration true if {@code type} is a declaration, whose type variables' bounds are
+   *     encoded
+   * @throws IOException if writing fails
+   * @throws UnsupportedValueException if an annotation in {@code type} cannot be encoded
+   */
+  private void encode(DataOutputStream out, AnnotatedTypeMirror type, boolean isDeclaration)
+      throws IOException, UnsupportedValueException {
+    TypeKind kind = type.getKind();
+    out.writeByte(kind.ordinal());
+    if (kind == TypeKind.EXECUTABLE) {
+      writeVarInt(out, 0);
+    } else {
+      writeVarInt(out, type.getPrimaryAnnotations().size());
+      for (AnnotationMirror anno : type.getPrimaryAnnotations()) {
+        writeVarInt(out, annotationIndex(anno));
+      }
+    }
+    switch (kind) {
+      case DECLARED ->
+          encodeAll(out, ((AnnotatedDeclaredType) type).getTypeArguments(), isDeclaration);
+      case ARRAY -> encode(out, ((AnnotatedArrayType) type).getComponentType(), false);
+      case TYPEVAR -> {
+        if (isDeclaration) {
+          AnnotatedTypeVariable typeVariable = (AnnotatedTypeVariable) type;
+          encode(out, typeVariable.getUpperBound(), false);
+          encode(out, typeVariable.getLowerBound(), false);
+        }
+      }
+      case WILDCARD -> {
+        AnnotatedWildcardType wildcard = (AnnotatedWildcardType) type;
+        encode(out, wildcard.getExtendsBound(), false);
+        encode(out, wildcard.getSuperBound(), false);
+      }
+      case INTERSECTION -> encodeAll(out, ((AnnotatedIntersectionType) type).getBounds(), false);
+      case UNION -> encodeAll(out, ((AnnotatedUnionType) type).getAlternatives(), false);
+      case EXECUTABLE -> {
+        AnnotatedExecutableType executable = (AnnotatedExecutableType) type;
+        encodeAll(out, executable.getTypeVariables(), true);
+        AnnotatedDeclaredType receiver = executable.getReceiverType();
+        out.writeByte(receiver == null ? 0 : 1);
+        if (receiver != null) {
+          encode(out, receiver, false);
+        }
+        encode(out, executable.getReturnType(), false);
+        encodeAll(out, executable.getParameterTypes(), false);
+        encodeAll(out, executable.getThrownTypes(), false);
+      }
+      default -> {}
+    }
+  }
+
+  /**
+   * Encodes a count and then that many annotated types.
+   *
+   * @param out the output
+   * @param types the types to encode
+   * @param isDeclaration true if the types are type variable declarations
+   * @throws IOException if writing fails
+   * @throws UnsupportedValueException if an annotation in {@code types} cannot be encoded
+   */
+  private void encodeAll(
+      DataOutputStream out, List<? extends AnnotatedTypeMirror> types, boolean isDeclaration)
+      throws IOException, UnsupportedValueException {
+    writeVarInt(out, types.size());
+    for (AnnotatedTypeMirror type : types) {
+      encode(out, type, isDeclaration);
+    }
+  }
+
+  /**
+   * Returns the index of an annotation, encoding it if it has not been encoded yet.
+   *
+   * @param anno an annotation
+   * @return the index of {@code anno}
+   * @throws UnsupportedValueException if {@code anno} cannot be encoded
+   */
+  private int annotationIndex(AnnotationMirror anno) throws UnsupportedValueException {
+    Integer index = annotationIndices.get(anno);
+    if (index == null) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        writeString(out, AnnotationUtils.annotationName(anno));
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+            anno.getElementValues();
+        writeVarInt(out, values.size());
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+            values.entrySet()) {
+          writeString(out, entry.getKey().getSimpleName().toString());
+          writeValue(out, entry.getValue().getValue());
+        }
+      } catch (IOException e) {
+        throw new AssertionError("Cannot happen for a ByteArrayOutputStream", e);
+      }
+      index = encodedAnnotations.size();
+      encodedAnnotations.add(bytes.toByteArray());
+      annotationIndices.put(anno, index);
+    }
+    return index;
+  }
+
+  /**
+   * Writes a tagged annotation element value.
+   *
+   * @param out the output
+   * @param value the value, as returned by {@link AnnotationValue#getValue()}
+   * @throws IOException if writing fails
+   * @throws UnsupportedValueException if {@code value} cannot be encoded
+   */
+  private static void writeValue(DataOutputStream out, Object value)
+      throws IOException, UnsupportedValueException {
+    if (value instanceof String s) {
+      out.writeByte(AnnotationSummaries.TAG_STRING);
+      writeString(out, s);
+    } else if (value instanceof Boolean b) {
+      out.writeByte(AnnotationSummaries.TAG_BOOLEAN);
+      out.writeByte(b ? 1 : 0);
+    } else if (value instanceof Byte b) {
+      out.writeByte(AnnotationSummaries.TAG_BYTE);
+      out.writeByte(b);
+    } else if (value instanceof Character c) {
+      out.writeByte(AnnotationSummaries.TAG_CHAR);
+      out.writeChar(c);
+    } else if (value instanceof Short s) {
+      out.writeByte(AnnotationSummaries.TAG_SHORT);
+      out.writeShort(s);
+    } else if (value instanceof Integer i) {
+      out.writeByte(AnnotationSummaries.TAG_INT);
+      out.writeInt(i);
+    } else if (value instanceof Long l) {
+      out.writeByte(AnnotationSummaries.TAG_LONG);
+      out.writeLong(l);
+    } else if (value instanceof Float f) {
+      out.writeByte(AnnotationSummaries.TAG_FLOAT);
+      out.writeFloat(f);
+    } else if (value instanceof Double d) {
+      out.writeByte(AnnotationSummaries.TAG_DOUBLE);
+      out.writeDouble(d);
+    } else if (value instanceof VariableElement constant) {
+      out.writeByte(AnnotationSummaries.TAG_ENUM);
+      TypeElement enumElt = (TypeElement) constant.getEnclosingElement();
+      writeString(out, enumElt.getQualifiedName().toString());
+      writeString(out, constant.getSimpleName().toString());
+    } else if (value instanceof TypeMirror t && t.getKind() == TypeKind.DECLARED) {
+      out.writeByte(AnnotationSummaries.TAG_CLASS);
+      TypeElement classElt = (TypeElement) ((DeclaredType) t).asElement();
+      writeString(out, classElt.getQualifiedName().toString());
+    } else if (value instanceof List<?> list) {
+      out.writeByte(AnnotationSummaries.TAG_ARRAY);
+      writeVarInt(out, list.size());
+      for (Object element : list) {
+        writeValue(out, ((AnnotationValue) element).getValue());
+      }
+    } else {
+      throw new UnsupportedValueException();
+    }
+  }
+
+  /**
+   * Writes a varint.
+   *
+   * @param out the output
+   * @param value a non-negative integer
+   * @throws IOException if writing fails
+   */
+  static void writeVarInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /**
+   * Writes a string.
+   *
+   * @param out the output
+   * @param s the string
+   * @throws IOException if writing fails
+   */
+  static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(out, bytes.length);
+    out.write(bytes);
+  }
+}
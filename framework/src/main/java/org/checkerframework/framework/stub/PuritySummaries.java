@@ -0,0 +1,281 @@
+package org.checkerframework.framework.stub;
+
+import com.sun.source.tree.MethodTree;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.util.PurityKind;
+import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.javacutil.ElementUtils;
+import org.checkerframework.javacutil.TreeUtils;
+import org.checkerframework.javacutil.UserError;
+
+/**
+ * The inferred purity of methods, as computed by {@link
+ * org.checkerframework.dataflow.util.PurityChecker} for their bodies. A summary is written when a
+ * library is compiled with {@code -ApuritySummaryOutputDir}, and is read when the library or a
+ * client is compiled with {@code -AusePuritySummaries}.
+ *
+ * <p>{@link AnnotatedTypeFactory#isSideEffectFree} and {@link AnnotatedTypeFactory#isDeterministic}
+ * treat a method that has no purity annotation according to its summary, if the method cannot be
+ * overridden. Dataflow analysis then keeps more refinements across calls to the method.
+ *
+ * <p>The purity of a method depends on the purity of the methods that it calls, so a summary is
+ * only valid together with the code it was computed from. Summaries are therefore used only for
+ * methods read from class files: the summary of a method that is compiled again is ignored, and
+ * the method's body is analyzed instead.
+ *
+ * <p>Each checker has its own summary file, {@code
+ * META-INF/checkerframework/summaries/<checker binary name>.cfpurity}, in each jar or class
+ * directory, because the purity annotations in a checker's stub files affect the results. The file
+ * is UTF-8 text. Each line is a method's key (see {@link AnnotationSummaries#elementKey}) and its
+ * comma-separated {@link PurityKind}s or {@code -} for none, separated by a tab. Lines that start
+ * with {@code #} are comments.
+ */
+public class PuritySummaries {
+
+  /** The file extension of a purity summary file. */
+  public static final String SUMMARY_EXTENSION = ".cfpurity";
+
+  /** The first line of a purity summary file. */
+  private static final String HEADER = "# Checker Framework purity summary, version 1";
+
+  /** The type factory whose checker's summaries are read and written. */
+  private final AnnotatedTypeFactory atypeFactory;
+
+  /** The summaries read from the classpath, by method key. */
+  private final Map<String, EnumSet<PurityKind>> loaded = new HashMap<>();
+
+  /** The summaries of the methods checked in this compilation; sorted for reproducibility. */
+  private final Map<String, EnumSet<PurityKind>> computed = new TreeMap<>();
+
+  /** The purity of each method that {@link #getInferredKinds} has been called on. */
+  private final Map<ExecutableElement, EnumSet<PurityKind>> inferredKinds = new HashMap<>();
+
+  /**
+   * Creates a new PuritySummaries, which is empty until {@link #load()} is called.
+   *
+   * @param atypeFactory the type factory whose checker's summaries are read and written
+   */
+  public PuritySummaries(AnnotatedTypeFactory atypeFactory) {
+    this.atypeFactory = atypeFactory;
+  }
+
+  /**
+   * Returns the name of the purity summary file for the given checker.
+   *
+   * @param checkerName the binary name of a checker class
+   * @return the name of the purity summary file for the checker
+   */
+  public static String summaryFileName(String checkerName) {
+    return checkerName + SUMMARY_EXTENSION;
+  }
+
+  /**
+   * Reads every purity summary file for the type factory's checker on the classpath. If a method is
+   * in more than one summary, the first one on the classpath is used.
+   */
+  public void load() {
+    String fileName = summaryFileName(atypeFactory.getChecker().getClass().getName());
+    Context context = ((JavacProcessingEnvironment) atypeFactory.getProcessingEnv()).getContext();
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    if (fileManager == null || !fileManager.hasLocation(StandardLocation.CLASS_PATH)) {
+      return;
+    }
+    Iterable<JavaFileObject> files;
+    try {
+      files =
+          fileManager.list(
+              StandardLocation.CLASS_PATH,
+              AnnotationSummaries.SUMMARY_DIRECTORY.replace('/', '.'),
+              EnumSet.of(JavaFileObject.Kind.OTHER),
+              false);
+    } catch (IOException e) {
+      throw new UserError("Cannot list purity summaries on the classpath: " + e.getMessage());
+    }
+    for (JavaFileObject file : files) {
+      if (!file.toUri().toString().endsWith("/" + fileName)) {
+        continue;
+      }
+      try (Reader in = new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8)) {
+        for (Map.Entry<String, EnumSet<PurityKind>> entry : read(in).entrySet()) {
+          loaded.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+      } catch (IOException | RuntimeException e) {
+        atypeFactory
+            .getChecker()
+            .message(
+                Diagnostic.Kind.WARNING,
+                "Ignoring invalid purity summary %s: %s",
+                file.toUri(),
+                e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Returns the summarized purity of a called method. The result is empty if there is no summary,
+   * if the method is compiled in the current compilation, or if the method can be overridden,
+   * because an overriding method might be less pure.
+   *
+   * @param methodElt a method or constructor
+   * @return the varieties of purity that {@code methodElt} is known to have; must not be modified
+   */
+  public EnumSet<PurityKind> getInferredKinds(ExecutableElement methodElt) {
+    EnumSet<PurityKind> result = inferredKinds.get(methodElt);
+    if (result == null) {
+      result = computeInferredKinds(methodElt);
+      inferredKinds.put(methodElt, result);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the result of {@link #getInferredKinds}.
+   *
+   * @param methodElt a method or constructor
+   * @return the varieties of purity that {@code methodElt} is known to have
+   */
+  private EnumSet<PurityKind> computeInferredKinds(ExecutableElement methodElt) {
+    if (loaded.isEmpty()
+        || !cannotBeOverridden(methodElt)
+        || ElementUtils.isElementFromSourceCode(methodElt)) {
+      return EnumSet.noneOf(PurityKind.class);
+    }
+    String key = key(methodElt);
+    @Nullable EnumSet<PurityKind> summary = key == null ? null : loaded.get(key);
+    return summary == null ? EnumSet.noneOf(PurityKind.class) : summary;
+  }
+
+  /**
+   * Returns true if no method overrides {@code methodElt}.
+   *
+   * @param methodElt a method or constructor
+   * @return true if {@code methodElt} cannot be overridden
+   */
+  private static boolean cannotBeOverridden(ExecutableElement methodElt) {
+    if (methodElt.getKind() == ElementKind.CONSTRUCTOR
+        || methodElt.getModifiers().contains(Modifier.STATIC)
+        || methodElt.getModifiers().contains(Modifier.PRIVATE)
+        || methodElt.getModifiers().contains(Modifier.FINAL)) {
+      return true;
+    }
+    TypeElement enclosing = ElementUtils.enclosingTypeElement(methodElt);
+    return enclosing != null
+        && (enclosing.getModifiers().contains(Modifier.FINAL)
+            || enclosing.getKind() == ElementKind.RECORD);
+  }
+
+  /**
+   * Records the purity of a method body that was analyzed in this compilation, to be written by
+   * {@link #write}.
+   *
+   * @param tree the declaration of a method that has a body
+   * @param kinds the varieties of purity that the body of {@code tree} has
+   */
+  public void put(MethodTree tree, EnumSet<PurityKind> kinds) {
+    String key = key(TreeUtils.elementFromDeclaration(tree));
+    if (key != null) {
+      computed.put(key, EnumSet.copyOf(kinds));
+    }
+  }
+
+  /**
+   * Writes the summaries recorded by {@link #put} to the purity summary file in {@code outputDir},
+   * replacing the file. The entries already in that file are not kept: they were computed against
+   * code that may have changed since, and the summary of a method that calls a method whose body
+   * changed would be unsound. A build that recompiles only some classes therefore has summaries
+   * only for those classes.
+   *
+   * @param outputDir the directory whose contents are packaged into the library
+   * @param checkerName the binary name of the checker
+   * @return the file that was written
+   * @throws IOException if the file cannot be written
+   */
+  public Path write(Path outputDir, String checkerName) throws IOException {
+    Path dir = outputDir.resolve(AnnotationSummaries.SUMMARY_DIRECTORY);
+    Files.createDirectories(dir);
+    Path file = dir.resolve(summaryFileName(checkerName));
+    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      out.write(HEADER);
+      out.write('\n');
+      for (Map.Entry<String, EnumSet<PurityKind>> entry : computed.entrySet()) {
+        StringJoiner kinds = new StringJoiner(",");
+        for (PurityKind kind : entry.getValue()) {
+          kinds.add(kind.name());
+        }
+        out.write(entry.getKey());
+        out.write('\t');
+        out.write(entry.getValue().isEmpty() ? "-" : kinds.toString());
+        out.write('\n');
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Reads the entries of a purity summary file.
+   *
+   * @param in the contents of a purity summary file
+   * @return the entries of the file
+   * @throws IOException if reading fails
+   * @throws IllegalArgumentException if the file is malformed
+   */
+  private static Map<String, EnumSet<PurityKind>> read(Reader in) throws IOException {
+    Map<String, EnumSet<PurityKind>> result = new HashMap<>();
+    BufferedReader reader = new BufferedReader(in);
+    String line = reader.readLine();
+    if (!HEADER.equals(line)) {
+      throw new IllegalArgumentException("unsupported format: " + line);
+    }
+    while ((line = reader.readLine()) != null) {
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split("\t", -1);
+      if (fields.length != 2) {
+        throw new IllegalArgumentException("malformed line: " + line);
+      }
+      EnumSet<PurityKind> kinds = EnumSet.noneOf(PurityKind.class);
+      if (!fields[1].equals("-")) {
+        for (String kind : fields[1].split(",", -1)) {
+          kinds.add(PurityKind.valueOf(kind));
+        }
+      }
+      result.put(fields[0], kinds);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the key of a method in a summary.
+   *
+   * @param methodElt a method or constructor
+   * @return the key of {@code methodElt}, or null if it cannot be summarized
+   */
+  private @Nullable String key(ExecutableElement methodElt) {
+    return AnnotationSummaries.elementKey(
+        methodElt, atypeFactory.getProcessingEnv().getTypeUtils());
+  }
+}
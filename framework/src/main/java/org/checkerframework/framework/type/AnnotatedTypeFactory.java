@@ -40,6 +40,7 @@ import java.lang.annotation.Inherited;
 import java.lang.annotation.Target;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -97,6 +98,7 @@ import org.checkerframework.common.wholeprograminference.WholeProgramInferenceJa
 import org.checkerframework.common.wholeprograminference.WholeProgramInferenceScenesStorage;
 import org.checkerframework.dataflow.qual.SideEffectFree;
 import org.checkerframework.dataflow.qual.SideEffectsOnly;
+import org.checkerframework.dataflow.util.PurityKind;
 import org.checkerframework.framework.qual.AnnotatedFor;
 import org.checkerframework.framework.qual.DoesNotUnrefineReceiver;
 import org.checkerframework.framework.qual.EnsuresQualifier;
@@ -109,6 +111,9 @@ import org.checkerframework.framework.qual.NoQualifierParameter;
 import org.checkerframework.framework.qual.RequiresQualifier;
 import org.checkerframework.framework.source.SourceChecker;
 import org.checkerframework.framework.stub.AnnotationFileElementTypes;
+import org.checkerframework.framework.stub.AnnotationSummaries;
+import org.checkerframework.framework.stub.AnnotationSummaryWriter;
+import org.checkerframework.framework.stub.PuritySummaries;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedExecutableType;
@@ -345,6 +350,24 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
   /** Parses ajava files and stores annotations on public elements from ajava files. */
   public final AnnotationFileElementTypes ajavaTypes;
 
+  /**
+   * The annotation summaries of libraries on the classpath, or null unless the {@code
+   * -AuseAnnotationSummaries} command-line option was supplied.
+   */
+  protected final @Nullable AnnotationSummaries annotationSummaries;
+
+  /**
+   * Collects the annotation summary of the classes being type-checked, or null unless the {@code
+   * -AannotationSummaryOutputDir} command-line option was supplied.
+   */
+  protected final @Nullable AnnotationSummaryWriter annotationSummaryWriter;
+
+  /**
+   * The inferred purity of methods, or null unless the {@code -AusePuritySummaries} or {@code
+   * -ApuritySummaryOutputDir} command-line option was supplied.
+   */
+  protected final @Nullable PuritySummaries puritySummaries;
+
   /**
    * If type checking a Java file, stores annotations read from an ajava file for that class if one
    * exists. Unlike {@link #ajavaTypes}, which only stores annotations on public elements, this
@@ -557,6 +580,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
   /** Mapping from an Element to the source Tree of the declaration. */
   private final Map<Element, Tree> elementToTreeCache;
 
+  /** Memo tables for asMemberOf, asSuper, and direct supertypes; null if caching is disabled. */
+  private final @Nullable AnnotatedTypeMemo typeMemo;
+
   /** Mapping from a Tree to its TreePath. Shared between all instances. */
   private final TreePathCacher treePathCache;
 
@@ -611,6 +637,14 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     this.stubTypes = new AnnotationFileElementTypes(this);
     this.ajavaTypes = new AnnotationFileElementTypes(this);
     this.currentFileAjavaTypes = null;
+    this.annotationSummaries =
+        checker.hasOption("useAnnotationSummaries") ? new AnnotationSummaries(this) : null;
+    this.annotationSummaryWriter =
+        checker.hasOption("annotationSummaryOutputDir") ? new AnnotationSummaryWriter(this) : null;
+    this.puritySummaries =
+        checker.hasOption("usePuritySummaries") || checker.hasOption("puritySummaryOutputDir")
+            ? new PuritySummaries(this)
+            : null;
 
     this.cacheDeclAnnos = new HashMap<>();
 
@@ -627,6 +661,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
       this.fromTypeTreeCache = MapsP.createLruCache(cacheSize);
       this.elementCache = MapsP.createLruCache(cacheSize);
       this.elementToTreeCache = MapsP.createLruCache(cacheSize);
+      this.typeMemo = new AnnotatedTypeMemo(cacheSize, types);
       this.annotationClassNames =
           Collections.synchronizedMap(MapsP.createLruCache(ANNOTATION_CACHE_SIZE));
     } else {
@@ -636,6 +671,7 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
       this.fromTypeTreeCache = null;
       this.elementCache = null;
       this.elementToTreeCache = null;
+      this.typeMemo = null;
       this.annotationClassNames = null;
     }
 
@@ -966,6 +1002,10 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
       fromMemberTreeCache.clear();
       fromTypeTreeCache.clear();
       classAndMethodTreeCache.clear();
+      // The memoized types may be derived from the declarations in this compilation unit.
+      if (typeMemo != null) {
+        typeMemo.clear();
+      }
 
       // There is no need to clear the following cache, it is limited by cache size and it
       // contents won't change between compilation units.
@@ -1394,6 +1434,34 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
     }
   }
 
+  /**
+   * Returns the memo tables for {@link AnnotatedTypes#asMemberOf}, {@link AnnotatedTypes#asSuper},
+   * and {@link AnnotatedTypeMirror#directSupertypes()}. Returns null if caching is disabled, and
+   * while annotation files are being parsed, because results computed before the annotation files
+   * are fully read can be incorrect.
+   *
+   * @return the memo tables, or null if results must not be memoized now
+   */
+  public @Nullable AnnotatedTypeMemo getTypeMemo() {
+    if (typeMemo == null || isParsingAnnotationFiles()) {
+      return null;
+    }
+    return typeMemo;
+  }
+
+  /**
+   * Returns true if a stub file or ajava file is being parsed. Until the annotation files have been
+   * read, the declaration annotations and types that this factory returns are incomplete, so
+   * results derived from them must not be cached.
+   *
+   * @return true if an annotation file is being parsed
+   */
+  public boolean isParsingAnnotationFiles() {
+    return stubTypes.isParsing()
+        || ajavaTypes.isParsing()
+        || (currentFileAjavaTypes != null && currentFileAjavaTypes.isParsing());
+  }
+
   /**
    * Returns an AnnotatedTypeMirror representing the annotated type of {@code elt}.
    *
@@ -1489,6 +1557,14 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
    */
   public void preProcessClassTree(ClassTree classTree) {}
 
+  /**
+   * Called by {@link BaseTypeVisitor#processMethodTree(String, MethodTree)} after the MethodTree
+   * has been type checked.
+   *
+   * @param methodTree the method to postprocess
+   */
+  public void postProcessMethodTree(MethodTree methodTree) {}
+
   /**
    * Called by {@link BaseTypeVisitor#visitClass(ClassTree, Void)} after the ClassTree has been type
    * checked.
@@ -1515,6 +1591,55 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
       // them.
       wholeProgramInference.writeResultsToFile(wpiOutputFormat, this.checker);
     }
+
+    if (annotationSummaryWriter != null) {
+      annotationSummaryWriter.addClass(TreeUtils.elementFromDeclaration(tree));
+    }
+  }
+
+  /**
+   * Writes the annotation summary of the classes that have been type-checked, if the {@code
+   * -AannotationSummaryOutputDir} command-line option was supplied. Called once, after all
+   * compilation units have been processed.
+   */
+  public void writeAnnotationSummary() {
+    if (annotationSummaryWriter == null) {
+      return;
+    }
+    String outputDir = checker.getOption("annotationSummaryOutputDir", ".");
+    try {
+      annotationSummaryWriter.write(Paths.get(outputDir), checker.getClass().getName());
+    } catch (IOException e) {
+      checker.message(
+          Diagnostic.Kind.ERROR, "Cannot write annotation summary to %s: %s", outputDir, e);
+    }
+  }
+
+  /**
+   * Writes the purity summary of the methods that have been type-checked, if the {@code
+   * -ApuritySummaryOutputDir} command-line option was supplied. Called once, after all
+   * compilation units have been processed.
+   */
+  public void writePuritySummary() {
+    if (puritySummaries == null || !checker.hasOption("puritySummaryOutputDir")) {
+      return;
+    }
+    String outputDir = checker.getOption("puritySummaryOutputDir", ".");
+    try {
+      puritySummaries.write(Paths.get(outputDir), checker.getClass().getName());
+    } catch (IOException e) {
+      checker.message(Diagnostic.Kind.ERROR, "Cannot write purity summary to %s: %s", outputDir, e);
+    }
+  }
+
+  /**
+   * Returns the inferred purity of methods, or null unless the {@code -AusePuritySummaries} or
+   * {@code -ApuritySummaryOutputDir} command-line option was supplied.
+   *
+   * @return the inferred purity of methods, or null
+   */
+  public @Nullable PuritySummaries getPuritySummaries() {
+    return puritySummaries;
   }
 
   /**
@@ -1612,6 +1737,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
 
     if (decl == null) {
       type = stubTypes.getAnnotatedTypeMirror(elt);
+      if (type == null && annotationSummaries != null) {
+        type = annotationSummaries.getAnnotatedTypeMirror(elt);
+      }
       if (type == null) {
         type = toAnnotatedType(elt.asType(), ElementUtils.isTypeDeclaration(elt));
         ElementAnnotationApplier.apply(type, elt, this);
@@ -3929,10 +4057,19 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
    * the qualifier in the last stub file is applied.
    *
    * <p>The annotations are stored by side-effecting {@link #stubTypes} and {@link #ajavaTypes}.
+   * This method also loads the annotation summaries on the classpath, if {@code
+   * -AuseAnnotationSummaries} was supplied, and the purity summaries, if {@code
+   * -AusePuritySummaries} was supplied.
    */
   protected void parseAnnotationFiles() {
     stubTypes.parseStubFiles();
     ajavaTypes.parseAjavaFiles();
+    if (annotationSummaries != null) {
+      annotationSummaries.load();
+    }
+    if (puritySummaries != null && checker.hasOption("usePuritySummaries")) {
+      puritySummaries.load();
+    }
   }
 
   /**
@@ -5961,6 +6098,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         return true;
       }
     }
+    if (puritySummaries != null) {
+      return puritySummaries.getInferredKinds(methodElement).contains(PurityKind.SIDE_EFFECT_FREE);
+    }
     return false;
   }
 
@@ -5980,6 +6120,9 @@ public class AnnotatedTypeFactory implements AnnotationProvider {
         return true;
       }
     }
+    if (puritySummaries != null) {
+      return puritySummaries.getInferredKinds(methodElement).contains(PurityKind.DETERMINISTIC);
+    }
     return false;
   }
 
@@ -0,0 +1,372 @@
+package org.checkerframework.framework.type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import javax.lang.model.element.Element;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+import org.checkerframework.framework.util.AnnotatedTypes;
+import org.plumelib.util.MapsP;
+
+/**
+ * Memo tables for the type computations that an {@link AnnotatedTypeFactory} repeats most often
+ * with equal arguments: viewing a member as a member of a receiver type ({@link
+ * AnnotatedTypes#asMemberOf}), viewing a type as one of its supertypes ({@link
+ * AnnotatedTypes#asSuper}), and finding the direct supertypes of a declared type.
+ *
+ * <p>Annotated types are mutable, so the tables store deep copies of both the arguments and the
+ * results, and every lookup returns a fresh deep copy. Two arguments are the same if they have the
+ * same annotations, their underlying types are the same according to {@link
+ * javax.lang.model.util.Types#isSameType} (see {@link SameTypeAtmComparer}), and they agree on the
+ * properties that the comparison ignores but the computations read, such as whether a declared type
+ * is raw. {@link AnnotatedTypeMirror#equals} would not do, because it compares underlying types by
+ * identity and javac creates a new underlying type for each occurrence of a type in the source.
+ *
+ * <p>The factory discards the memoized results when it moves to another compilation unit, like its
+ * other caches of types computed from trees. Each table counts its hits and misses over the whole
+ * run; {@link #toString} reports them.
+ *
+ * @see AnnotatedTypeFactory#getTypeMemo()
+ */
+public final class AnnotatedTypeMemo {
+
+  /** The substituted type of a member, by receiver type, member, and unsubstituted type. */
+  private final Table<MemberKey, AnnotatedTypeMirror> memberTypes;
+
+  /** The result of {@code asSuper}, by subtype and supertype. */
+  private final Table<SuperKey, AnnotatedTypeMirror> superTypes;
+
+  /** The direct supertypes of a declared type. */
+  private final Table<TypeKey, List<AnnotatedDeclaredType>> directSupertypes;
+
+  /** Compares the types of keys. */
+  private final SameTypeAtmComparer sameTypeComparer;
+
+  /**
+   * Creates memo tables.
+   *
+   * @param size the maximum number of entries in each table
+   * @param types the type utilities
+   */
+  AnnotatedTypeMemo(int size, Types types) {
+    sameTypeComparer = new SameTypeAtmComparer(types);
+    memberTypes = new Table<>("asMemberOf", size, AnnotatedTypeMirror::deepCopy);
+    superTypes = new Table<>("asSuper", size, AnnotatedTypeMirror::deepCopy);
+    directSupertypes = new Table<>("directSupertypes", size, AnnotatedTypeMemo::deepCopyAll);
+  }
+
+  /**
+   * Returns true if the type of a member of {@code receiver} can be memoized. That is the case if
+   * {@code receiver} is a declared type that capture conversion leaves unchanged: capture
+   * conversion creates fresh type variables, which must not be shared by different uses.
+   *
+   * @param receiver a receiver type
+   * @return true if {@link #getMemberType} and {@link #putMemberType} may be called for {@code
+   *     receiver}
+   */
+  public static boolean canMemoizeMemberOf(AnnotatedTypeMirror receiver) {
+    if (receiver.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    TypeMirror type = receiver.getUnderlyingType();
+    while (type.getKind() == TypeKind.DECLARED) {
+      DeclaredType declaredType = (DeclaredType) type;
+      for (TypeMirror typeArg : declaredType.getTypeArguments()) {
+        if (typeArg.getKind() == TypeKind.WILDCARD) {
+          return false;
+        }
+      }
+      type = declaredType.getEnclosingType();
+    }
+    return true;
+  }
+
+  /**
+   * Returns the memoized type of a member as a member of a receiver type, before {@link
+   * AnnotatedTypeFactory#postAsMemberOf} has been applied.
+   *
+   * @param receiver the receiver type, for which {@link #canMemoizeMemberOf} is true
+   * @param member the member
+   * @param memberType the unsubstituted type of the member
+   * @return a copy of the memoized type, or null if there is none
+   */
+  public @Nullable AnnotatedTypeMirror getMemberType(
+      AnnotatedTypeMirror receiver, Element member, AnnotatedTypeMirror memberType) {
+    return memberTypes.get(new MemberKey(typeKey(receiver), member, typeKey(memberType)));
+  }
+
+  /**
+   * Memoizes the type of a member as a member of a receiver type.
+   *
+   * @param receiver the receiver type, for which {@link #canMemoizeMemberOf} is true
+   * @param member the member
+   * @param memberType the unsubstituted type of the member
+   * @param result the type of {@code member} as a member of {@code receiver}
+   */
+  public void putMemberType(
+      AnnotatedTypeMirror receiver,
+      Element member,
+      AnnotatedTypeMirror memberType,
+      AnnotatedTypeMirror result) {
+    memberTypes.put(
+        new MemberKey(typeKeyOfCopy(receiver), member, typeKeyOfCopy(memberType)), result);
+  }
+
+  /**
+   * Returns true if {@code asSuper(type, superType)} can be memoized, which is the case if both
+   * types are declared types.
+   *
+   * @param type a type
+   * @param superType a supertype of {@code type}
+   * @return true if {@link #getAsSuper} and {@link #putAsSuper} may be called for the types
+   */
+  public static boolean canMemoizeAsSuper(AnnotatedTypeMirror type, AnnotatedTypeMirror superType) {
+    return type.getKind() == TypeKind.DECLARED && superType.getKind() == TypeKind.DECLARED;
+  }
+
+  /**
+   * Returns the memoized result of {@code asSuper(type, superType)}.
+   *
+   * @param <T> the type of the supertype
+   * @param type a type
+   * @param superType a supertype of {@code type}
+   * @return a copy of the memoized result, or null if there is none
+   */
+  @SuppressWarnings("unchecked") // asSuper returns a T
+  public <T extends AnnotatedTypeMirror> @Nullable T getAsSuper(
+      AnnotatedTypeMirror type, T superType) {
+    return (T) superTypes.get(new SuperKey(typeKey(type), typeKey(superType)));
+  }
+
+  /**
+   * Memoizes the result of {@code asSuper(type, superType)}.
+   *
+   * @param type a type
+   * @param superType a supertype of {@code type}
+   * @param result the result of {@code asSuper(type, superType)}
+   */
+  public void putAsSuper(
+      AnnotatedTypeMirror type, AnnotatedTypeMirror superType, AnnotatedTypeMirror result) {
+    superTypes.put(new SuperKey(typeKeyOfCopy(type), typeKeyOfCopy(superType)), result);
+  }
+
+  /**
+   * Returns the memoized direct supertypes of a declared type.
+   *
+   * @param type a declared type
+   * @return copies of the memoized direct supertypes, or null if there are none
+   */
+  public @Nullable List<AnnotatedDeclaredType> getDirectSupertypes(AnnotatedDeclaredType type) {
+    return directSupertypes.get(typeKey(type));
+  }
+
+  /**
+   * Memoizes the direct supertypes of a declared type.
+   *
+   * @param type a declared type
+   * @param supertypes the direct supertypes of {@code type}
+   */
+  public void putDirectSupertypes(
+      AnnotatedDeclaredType type, List<AnnotatedDeclaredType> supertypes) {
+    directSupertypes.put(typeKeyOfCopy(type), supertypes);
+  }
+
+  /** Discards all memoized results, but not the counts of hits and misses. */
+  public void clear() {
+    memberTypes.map.clear();
+    superTypes.map.clear();
+    directSupertypes.map.clear();
+  }
+
+  /**
+   * Returns the number of hits and misses of each table.
+   *
+   * @return the number of hits and misses of each table
+   */
+  @Override
+  public String toString() {
+    return String.join(
+        System.lineSeparator(),
+        memberTypes.toString(),
+        superTypes.toString(),
+        directSupertypes.toString());
+  }
+
+  /**
+   * Deep-copies each of a list of types.
+   *
+   * @param types a list of types
+   * @return a new list of deep copies of {@code types}
+   */
+  private static List<AnnotatedDeclaredType> deepCopyAll(List<AnnotatedDeclaredType> types) {
+    List<AnnotatedDeclaredType> result = new ArrayList<>(types.size());
+    for (AnnotatedDeclaredType type : types) {
+      result.add(type.deepCopy());
+    }
+    return result;
+  }
+
+  /**
+   * Returns a key for looking up a type. The key refers to the type itself.
+   *
+   * @param type a type
+   * @return a key for {@code type}
+   */
+  private TypeKey typeKey(AnnotatedTypeMirror type) {
+    return new TypeKey(
+        type,
+        type.isDeclaration(),
+        type instanceof AnnotatedDeclaredType adt && adt.isUnderlyingTypeRaw());
+  }
+
+  /**
+   * Returns a key for storing a type. The key refers to a copy of the type, which later changes to
+   * the type do not affect.
+   *
+   * @param type a type
+   * @return a key for {@code type}
+   */
+  private TypeKey typeKeyOfCopy(AnnotatedTypeMirror type) {
+    TypeKey key = typeKey(type);
+    return new TypeKey(type.deepCopy(), key.isDeclaration, key.isRaw);
+  }
+
+  /**
+   * An annotated type used as a key, together with the properties of the type that the
+   * computations read but that {@link #sameTypeComparer} ignores.
+   */
+  private final class TypeKey {
+
+    /** The type. */
+    private final AnnotatedTypeMirror type;
+
+    /** Whether the type is the type of a declaration. */
+    private final boolean isDeclaration;
+
+    /** Whether the type is a raw declared type. */
+    private final boolean isRaw;
+
+    /**
+     * Creates a key.
+     *
+     * @param type the type, which must not be modified while the key is in use
+     * @param isDeclaration whether the type is the type of a declaration
+     * @param isRaw whether the type is a raw declared type
+     */
+    TypeKey(AnnotatedTypeMirror type, boolean isDeclaration, boolean isRaw) {
+      this.type = type;
+      this.isDeclaration = isDeclaration;
+      this.isRaw = isRaw;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      return o instanceof TypeKey other
+          && isDeclaration == other.isDeclaration
+          && isRaw == other.isRaw
+          && sameTypeComparer.visit(type, other.type, null);
+    }
+
+    @Override
+    public int hashCode() {
+      // Consistent with equals except for same types that print differently, which only miss;
+      // see SameTypeAtmComparer.
+      return Objects.hash(type, isDeclaration, isRaw);
+    }
+  }
+
+  /**
+   * The arguments of {@code asMemberOf}.
+   *
+   * @param receiver the receiver type
+   * @param member the member
+   * @param memberType the unsubstituted type of the member
+   */
+  private record MemberKey(TypeKey receiver, Element member, TypeKey memberType) {}
+
+  /**
+   * The arguments of {@code asSuper}.
+   *
+   * @param type the subtype
+   * @param superType the supertype
+   */
+  private record SuperKey(TypeKey type, TypeKey superType) {}
+
+  /**
+   * A bounded memo table that counts its hits and misses.
+   *
+   * @param <K> the type of the keys
+   * @param <V> the type of the values
+   */
+  private static final class Table<K, V> {
+
+    /** The name of the computation, for {@link #toString}. */
+    private final String name;
+
+    /** The memoized results. */
+    final Map<K, V> map;
+
+    /** Copies a result, so that callers cannot modify the memoized result. */
+    private final UnaryOperator<V> copier;
+
+    /** The number of lookups that found a result. */
+    private long hits = 0;
+
+    /** The number of lookups that found no result. */
+    private long misses = 0;
+
+    /**
+     * Creates a table.
+     *
+     * @param name the name of the computation
+     * @param size the maximum number of entries
+     * @param copier copies a result
+     */
+    Table(String name, int size, UnaryOperator<V> copier) {
+      this.name = name;
+      this.map = MapsP.createLruCache(size);
+      this.copier = copier;
+    }
+
+    /**
+     * Returns a copy of the result for a key.
+     *
+     * @param key a key
+     * @return a copy of the result for {@code key}, or null if there is none
+     */
+    @Nullable V get(K key) {
+      V result = map.get(key);
+      if (result == null) {
+        misses++;
+        return null;
+      }
+      hits++;
+      return copier.apply(result);
+    }
+
+    /**
+     * Stores a copy of the result for a key.
+     *
+     * @param key a key, which must not be modified later
+     * @param value the result for {@code key}
+     */
+    void put(K key, V value) {
+      map.put(key, copier.apply(value));
+    }
+
+    @Override
+    public String toString() {
+      long lookups = hits + misses;
+      return String.format(
+          "%s: %d hits, %d misses (%.1f%% hit rate)",
+          name, hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups);
+    }
+  }
+}
@@ -3,10 +3,12 @@ package org.checkerframework.framework.type;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -81,11 +83,29 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    */
   private int underlyingTypeHashCode = -1;
 
-  /** The annotations on this type. */
-  // AnnotationMirror doesn't override Object.hashCode, .equals, so we use
-  // the class name of Annotation instead.
-  // Caution: Assumes that a type can have at most one AnnotationMirror for any Annotation type.
-  protected final AnnotationMirrorSet primaryAnnotations = new AnnotationMirrorSet();
+  /**
+   * The primary annotations on this type that are supported qualifiers, indexed by {@link
+   * QualifierHierarchy#getHierarchyIndex}, so that finding or replacing the annotation in a
+   * hierarchy does not search a set. Null until the first such annotation is added.
+   */
+  private @Nullable AnnotationMirror @Nullable [] primaryAnnotationSlots = null;
+
+  /** The number of non-null elements of {@link #primaryAnnotationSlots}. */
+  private int primaryAnnotationSlotCount = 0;
+
+  /**
+   * The primary annotations on this type that have no slot in {@link #primaryAnnotationSlots}:
+   * those whose hierarchy has no index, those that are not supported qualifiers (see {@link
+   * AnnotatedDeclaredTypeNoHierarchy}), and any further annotation in an occupied slot. Null if
+   * there are none.
+   */
+  private @Nullable AnnotationMirrorSet otherPrimaryAnnotations = null;
+
+  /**
+   * The result of {@link #getPrimaryAnnotations}, or null if it has not been computed since the
+   * primary annotations last changed.
+   */
+  private @Nullable AnnotationMirrorSet primaryAnnotationsView = null;
 
   // /** The explicitly written annotations on this type. */
   // TODO: use this to cache the result once computed? For generic types?
@@ -255,7 +275,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @return the annotation in the same hierarchy as {@code annotation}, or null
    */
   public @Nullable AnnotationMirror getPrimaryAnnotationInHierarchy(AnnotationMirror annotation) {
-    if (primaryAnnotations.isEmpty()) {
+    if (primaryAnnotationSlotCount == 0 && otherPrimaryAnnotations == null) {
       return null;
     }
     annotation = atypeFactory.canonicalAnnotation(annotation, underlyingType);
@@ -265,12 +285,15 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
     }
 
     QualifierHierarchy qualHierarchy = atypeFactory.getQualifierHierarchy();
-    AnnotationMirror anno =
-        qualHierarchy.findAnnotationInSameHierarchy(primaryAnnotations, annotation);
-    if (anno != null) {
-      return anno;
+    if (primaryAnnotationSlotCount != 0) {
+      int index = qualHierarchy.getHierarchyIndex(annotation);
+      if (index >= 0 && primaryAnnotationSlots[index] != null) {
+        return primaryAnnotationSlots[index];
+      }
+    }
+    if (otherPrimaryAnnotations != null) {
+      return qualHierarchy.findAnnotationInSameHierarchy(otherPrimaryAnnotations, annotation);
     }
-
     return null;
   }
 
@@ -308,24 +331,105 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * #getPrimaryAnnotationInHierarchy}. If there is only one hierarchy, you can use {@link
    * #getPrimaryAnnotation}.
    *
+   * <p>The result is computed once and then shared until the annotations on this type change; it is
+   * not affected by later changes.
+   *
    * @return an unmodifiable set of the annotations on this
    */
   public final AnnotationMirrorSet getPrimaryAnnotations() {
-    return AnnotationMirrorSet.unmodifiableSet(primaryAnnotations);
+    if (primaryAnnotationsView == null) {
+      if (primaryAnnotationSlotCount == 0 && otherPrimaryAnnotations == null) {
+        primaryAnnotationsView = AnnotationMirrorSet.emptySet();
+      } else {
+        AnnotationMirrorSet annos = new AnnotationMirrorSet();
+        if (primaryAnnotationSlotCount != 0) {
+          for (AnnotationMirror anno : primaryAnnotationSlots) {
+            if (anno != null) {
+              annos.add(anno);
+            }
+          }
+        }
+        if (otherPrimaryAnnotations != null) {
+          annos.addAll(otherPrimaryAnnotations);
+        }
+        primaryAnnotationsView = annos.makeUnmodifiable();
+      }
+    }
+    return primaryAnnotationsView;
   }
 
   /**
-   * Returns the annotations on this type; mutations affect this object, because the return type is
-   * an alias of the {@code annotations} field. It does not include annotations in deep types (type
+   * Returns the annotations on this type. It does not include annotations in deep types (type
    * arguments, array components, etc).
    *
-   * <p>The returned set should not be modified, but for efficiency reasons modification is not
-   * prevented. Modifications might break invariants.
+   * <p>This is the same as {@link #getPrimaryAnnotations}. To change the annotations on this type,
+   * use {@link #addAnnotation}, {@link #removePrimaryAnnotation}, and related methods.
    *
-   * @return the set of the annotations on this; mutations affect this object
+   * @return an unmodifiable set of the annotations on this
    */
   protected final AnnotationMirrorSet getPrimaryAnnotationsField() {
-    return primaryAnnotations;
+    return getPrimaryAnnotations();
+  }
+
+  /**
+   * Returns the first primary annotation on this type that satisfies a predicate, without building
+   * the set returned by {@link #getPrimaryAnnotations}.
+   *
+   * @param predicate the predicate
+   * @return the first primary annotation on this type that satisfies {@code predicate}, or null
+   */
+  private @Nullable AnnotationMirror findPrimaryAnnotation(Predicate<AnnotationMirror> predicate) {
+    if (primaryAnnotationSlotCount != 0) {
+      for (AnnotationMirror anno : primaryAnnotationSlots) {
+        if (anno != null && predicate.test(anno)) {
+          return anno;
+        }
+      }
+    }
+    if (otherPrimaryAnnotations != null) {
+      for (AnnotationMirror anno : otherPrimaryAnnotations) {
+        if (predicate.test(anno)) {
+          return anno;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stores a primary annotation on this type. An annotation that is the same as one already on this
+   * type is not stored again.
+   *
+   * @param annotation the annotation to store
+   * @param index the result of {@link QualifierHierarchy#getHierarchyIndex} for {@code
+   *     annotation}, or -1 if {@code annotation} should not be stored in a slot
+   */
+  private void storePrimaryAnnotation(AnnotationMirror annotation, int index) {
+    if (index >= 0) {
+      if (primaryAnnotationSlots == null) {
+        primaryAnnotationSlots =
+            new AnnotationMirror[atypeFactory.getQualifierHierarchy().getWidth()];
+      }
+      AnnotationMirror current = primaryAnnotationSlots[index];
+      if (current == null) {
+        if (otherPrimaryAnnotations == null
+            || !AnnotationUtils.containsSame(otherPrimaryAnnotations, annotation)) {
+          primaryAnnotationSlots[index] = annotation;
+          primaryAnnotationSlotCount++;
+          primaryAnnotationsView = null;
+        }
+        return;
+      }
+      if (AnnotationUtils.areSame(current, annotation)) {
+        return;
+      }
+    }
+    if (otherPrimaryAnnotations == null) {
+      otherPrimaryAnnotations = new AnnotationMirrorSet();
+    }
+    if (otherPrimaryAnnotations.add(annotation)) {
+      primaryAnnotationsView = null;
+    }
   }
 
   /**
@@ -341,14 +445,17 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    *     type variable or wildcard)
    */
   public final @Nullable AnnotationMirror getPrimaryAnnotation() {
-    if (primaryAnnotations.isEmpty()) {
+    int size =
+        primaryAnnotationSlotCount
+            + (otherPrimaryAnnotations == null ? 0 : otherPrimaryAnnotations.size());
+    if (size == 0) {
       // This AnnotatedTypeMirror must be a type variable or wildcard.
       return null;
     }
-    if (primaryAnnotations.size() != 1) {
+    if (size != 1) {
       throw new BugInCF("Bad annotation size for getPrimaryAnnotation(): " + this);
     }
-    return primaryAnnotations.iterator().next();
+    return findPrimaryAnnotation(anno -> true);
   }
 
   /**
@@ -401,12 +508,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @return the annotation mirror whose class is {@code annoClass} or null
    */
   public @Nullable AnnotationMirror getPrimaryAnnotation(Class<? extends Annotation> annoClass) {
-    for (AnnotationMirror annoMirror : primaryAnnotations) {
-      if (atypeFactory.areSameByClass(annoMirror, annoClass)) {
-        return annoMirror;
-      }
-    }
-    return null;
+    return findPrimaryAnnotation(anno -> atypeFactory.areSameByClass(anno, annoClass));
   }
 
   /**
@@ -419,12 +521,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @return the annotation mirror whose class is named {@code annoName} or null
    */
   public @Nullable AnnotationMirror getPrimaryAnnotation(String annoName) {
-    for (AnnotationMirror annoMirror : primaryAnnotations) {
-      if (AnnotationUtils.areSameByName(annoMirror, annoName)) {
-        return annoMirror;
-      }
-    }
-    return null;
+    return findPrimaryAnnotation(anno -> AnnotationUtils.areSameByName(anno, annoName));
   }
 
   /**
@@ -475,7 +572,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @see #hasPrimaryAnnotationRelaxed(AnnotationMirror)
    */
   public boolean hasPrimaryAnnotation(AnnotationMirror a) {
-    return AnnotationUtils.containsSame(primaryAnnotations, a);
+    return findPrimaryAnnotation(anno -> AnnotationUtils.areSame(anno, a)) != null;
   }
 
   /**
@@ -564,7 +661,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @see #hasPrimaryAnnotation(AnnotationMirror)
    */
   public boolean hasPrimaryAnnotationRelaxed(AnnotationMirror a) {
-    return AnnotationUtils.containsSameByName(primaryAnnotations, a);
+    return findPrimaryAnnotation(anno -> AnnotationUtils.areSameByName(anno, a)) != null;
   }
 
   /**
@@ -627,7 +724,8 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
     }
     annotation = atypeFactory.canonicalAnnotation(annotation, underlyingType);
     if (atypeFactory.isSupportedQualifier(annotation)) {
-      this.primaryAnnotations.add(annotation);
+      storePrimaryAnnotation(
+          annotation, atypeFactory.getQualifierHierarchy().getHierarchyIndex(annotation));
     }
   }
 
@@ -718,9 +816,23 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @return true if the annotation was removed, false if the type's annotations were unchanged
    */
   public boolean removePrimaryAnnotation(AnnotationMirror a) {
-    AnnotationMirror anno = AnnotationUtils.getSame(primaryAnnotations, a);
-    if (anno != null) {
-      return primaryAnnotations.remove(anno);
+    if (primaryAnnotationSlotCount != 0) {
+      for (int i = 0; i < primaryAnnotationSlots.length; i++) {
+        AnnotationMirror anno = primaryAnnotationSlots[i];
+        if (anno != null && AnnotationUtils.areSame(anno, a)) {
+          primaryAnnotationSlots[i] = null;
+          primaryAnnotationSlotCount--;
+          primaryAnnotationsView = null;
+          return true;
+        }
+      }
+    }
+    if (otherPrimaryAnnotations != null && otherPrimaryAnnotations.remove(a)) {
+      if (otherPrimaryAnnotations.isEmpty()) {
+        otherPrimaryAnnotations = null;
+      }
+      primaryAnnotationsView = null;
+      return true;
     }
     return false;
   }
@@ -732,9 +844,9 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
    * @return true if the annotation was removed, false if the type's annotations were unchanged
    */
   public boolean removePrimaryAnnotationByClass(Class<? extends Annotation> a) {
-    AnnotationMirror anno = atypeFactory.getAnnotationByClass(primaryAnnotations, a);
+    AnnotationMirror anno = getPrimaryAnnotation(a);
     if (anno != null) {
-      return primaryAnnotations.remove(anno);
+      return removePrimaryAnnotation(anno);
     }
     return false;
   }
@@ -770,7 +882,12 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
 
   /** Removes all primary annotations on this type. */
   public void clearPrimaryAnnotations() {
-    primaryAnnotations.clear();
+    if (primaryAnnotationSlotCount != 0) {
+      Arrays.fill(primaryAnnotationSlots, null);
+      primaryAnnotationSlotCount = 0;
+    }
+    otherPrimaryAnnotations = null;
+    primaryAnnotationsView = null;
   }
 
   @SideEffectFree
@@ -1207,7 +1324,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
 
     @Override
     public void addAnnotation(AnnotationMirror annotation) {
-      primaryAnnotations.add(annotation);
+      storePrimaryAnnotation(annotation, -1);
     }
   }
 
@@ -1868,7 +1985,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
       // return a deep copy instead.
       AnnotatedTypeVariable type = deepCopy(true);
       if (!copyAnnotations) {
-        type.getPrimaryAnnotationsField().clear();
+        type.clearPrimaryAnnotations();
       }
       return type;
     }
@@ -2225,7 +2342,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
       // deep copy instead.
       AnnotatedWildcardType type = deepCopy(true);
       if (!copyAnnotations) {
-        type.getPrimaryAnnotationsField().clear();
+        type.clearPrimaryAnnotations();
       }
       return type;
     }
@@ -2301,7 +2418,7 @@ public abstract class AnnotatedTypeMirror implements DeepCopyable<AnnotatedTypeM
     }
 
     /**
-     * Copies {@link #primaryAnnotations} to all the bounds, replacing any existing annotations in
+     * Copies the primary annotations to all the bounds, replacing any existing annotations in
      * the same hierarchy.
      */
     private void fixupBoundAnnotations() {
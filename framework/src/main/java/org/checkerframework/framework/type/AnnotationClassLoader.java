@@ -1,8 +1,11 @@
 package org.checkerframework.framework.type;
 
+import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Target;
@@ -12,6 +15,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -57,6 +61,13 @@ import org.plumelib.reflection.Signatures;
  * <p>To load annotations using this class, their directory structure and package structure must be
  * identical.
  *
+ * <p>The Checker Framework build writes a qualifier index for each qual package that it ships (see
+ * {@link #QUALIFIER_INDEX_DIRECTORY}). When an index exists for a checker's qual package, the
+ * bundled annotation classes are read from it, and the classpath is not scanned. The index lists
+ * only the names of the qualifiers: each listed class is still loaded, and its meta-annotations
+ * (such as {@code @SubtypeOf}, {@code @DefaultFor}, and {@code @PolymorphicQualifier}) are still
+ * read by reflection.
+ *
  * <p>Only annotation classes that have the {@link Target} meta-annotation with the value of {@link
  * ElementType#TYPE_USE} (and optionally {@link ElementType#TYPE_PARAMETER}) are loaded. If it has
  * other {@link ElementType} values, it won't be loaded. Other annotation classes must be manually
@@ -104,14 +115,30 @@ public class AnnotationClassLoader implements Closeable {
   /** The path separator, in .jar files, binary names, etc. */
   private static final char SLASH = '/';
 
+  /**
+   * The resource directory that contains the qualifier indexes generated at build time. The index
+   * for the qual package {@code p} is the resource {@code qualifier-index/p.txt}, and it contains
+   * the binary names of the type qualifiers in {@code p} and its subpackages, one per line.
+   */
+  public static final String QUALIFIER_INDEX_DIRECTORY = "qualifier-index";
+
   /**
    * Processing Env used to create an {@link AnnotationBuilder}, which is in turn used to build the
    * annotation mirror from the loaded class.
    */
   protected final ProcessingEnvironment processingEnv;
 
-  /** The resource URL of the qual directory of a checker class. */
-  private final URL resourceURL;
+  /**
+   * The resource URL of the qual directory of a checker class. It is null if the qual directory
+   * could not be found, or if it was not needed because a qualifier index was found.
+   */
+  private final @Nullable URL resourceURL;
+
+  /**
+   * The binary names of the bundled annotation classes, as read from the qualifier index, or null
+   * if there is no qualifier index for this checker's qual package.
+   */
+  private final @Nullable Set<@BinaryName String> indexedAnnotationNames;
 
   /** The class loader used to load annotation classes. */
   @SuppressWarnings("rlccalledmethods:required.method.not.called") // this class is @MustCall({})
@@ -159,8 +186,13 @@ public class AnnotationClassLoader implements Closeable {
 
     classLoader = getClassLoader();
 
+    indexedAnnotationNames = readQualifierIndex();
+
     URL localResourceURL;
-    if (classLoader != null) {
+    if (indexedAnnotationNames != null) {
+      // The qualifier index makes scanning the qual directory unnecessary.
+      localResourceURL = null;
+    } else if (classLoader != null) {
       // if the application classloader is accessible, then directly retrieve the resource URL
       // of the qual package resource URLs must use slashes
       localResourceURL = classLoader.getResource(packageNameWithSlashes);
@@ -173,7 +205,7 @@ public class AnnotationClassLoader implements Closeable {
       localResourceURL = null;
     }
 
-    if (localResourceURL == null) {
+    if (localResourceURL == null && indexedAnnotationNames == null) {
       // if the application classloader is not accessible (which means the checker class was
       // loaded using the bootstrap classloader) or if the classloader didn't find the
       // package, then scan the classpaths to find a jar or directory which contains the qual
@@ -197,6 +229,40 @@ public class AnnotationClassLoader implements Closeable {
     }
   }
 
+  /**
+   * Reads the qualifier index for this checker's qual package, if one exists.
+   *
+   * @return the binary names listed in the qualifier index, or null if there is no qualifier index
+   *     for this checker's qual package
+   */
+  @SuppressWarnings("signature:assignment") // the index contains binary names
+  private @Nullable Set<@BinaryName String> readQualifierIndex() {
+    ClassLoader indexLoader =
+        classLoader != null ? classLoader : InternalUtils.getClassLoaderForClass(checker.getClass());
+    if (indexLoader == null) {
+      return null;
+    }
+    String indexName = QUALIFIER_INDEX_DIRECTORY + SLASH + packageName + ".txt";
+    try (InputStream in = indexLoader.getResourceAsStream(indexName)) {
+      if (in == null) {
+        return null;
+      }
+      Set<@BinaryName String> result = new LinkedHashSet<>();
+      BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty()) {
+          result.add(line);
+        }
+      }
+      return result;
+    } catch (IOException e) {
+      // Fall back to scanning the qual directory.
+      return null;
+    }
+  }
+
   /**
    * Scans all classpaths and returns the resource URL to the jar which contains the checker's qual
    * package, or the qual package directory if it exists, or null if no jar or directory contains
@@ -511,7 +577,10 @@ public class AnnotationClassLoader implements Closeable {
     // retrieve the fully qualified class names of the annotations
     Set<@BinaryName String> annotationNames;
     // see whether the resource URL has a protocol of jar or file
-    if (resourceURL != null && resourceURL.getProtocol().contentEquals("jar")) {
+    if (indexedAnnotationNames != null) {
+      // The qualifier index was generated when the checker was built.
+      annotationNames = indexedAnnotationNames;
+    } else if (resourceURL != null && resourceURL.getProtocol().contentEquals("jar")) {
       // if the checker class file is contained within a jar, then the resource URL for the
       // qual directory will have the protocol "jar". This means the whole checker is loaded
       // as a jar file.
@@ -14,6 +14,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import java.lang.annotation.Annotation;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -31,13 +32,18 @@ import java.util.regex.Pattern;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.IntersectionType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.UnionType;
+import javax.lang.model.type.WildcardType;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import org.checkerframework.afu.scenelib.el.AField;
@@ -61,6 +67,7 @@ import org.checkerframework.dataflow.cfg.UnderlyingAST;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGLambda;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGMethod;
 import org.checkerframework.dataflow.cfg.UnderlyingAST.CFGStatement;
+import org.checkerframework.dataflow.cfg.block.Block;
 import org.checkerframework.dataflow.cfg.node.MethodInvocationNode;
 import org.checkerframework.dataflow.cfg.node.Node;
 import org.checkerframework.dataflow.cfg.node.ObjectCreationNode;
@@ -354,6 +361,8 @@ public abstract class GenericAnnotatedTypeFactory<
 
     this.cfgVisualizer = createCFGVisualizer();
     this.handleCFGViz = checker.hasOption("flowdotdir") || checker.hasOption("cfgviz");
+    this.compactFlowResults =
+        checker.hasOption("compactFlowResults") && checker.getParentChecker() == null;
 
     if (shouldCache) {
       int cacheSize = getCacheSize();
@@ -460,8 +469,11 @@ public abstract class GenericAnnotatedTypeFactory<
     this.exceptionalExitStores.clear();
     this.methodInvocationStores.clear();
     this.returnStatementStores.clear();
+    this.reanalysisInputs.clear();
+    this.reanalysis = null;
     this.initializationStore = null;
     this.initializationStaticStore = null;
+    this.analysis.clearCaches();
 
     if (shouldCache) {
       this.flowResultAnalysisCaches.clear();
@@ -1133,6 +1145,84 @@ public abstract class GenericAnnotatedTypeFactory<
   /** A mapping from a method invocation to its corresponding store. */
   protected IdentityHashMap<MethodInvocationTree, Store> methodInvocationStores;
 
+  /**
+   * True if the dataflow results of a method are compacted once the visitor has type-checked the
+   * method. See {@link #postProcessMethodTree(MethodTree)}.
+   */
+  private final boolean compactFlowResults;
+
+  /**
+   * If {@link #compactFlowResults} is true, the inputs needed to re-run the analysis of each method
+   * and lambda of the current compilation unit. The keys are MethodTrees and
+   * LambdaExpressionTrees.
+   */
+  private final IdentityHashMap<Tree, ReanalysisInputs> reanalysisInputs = new IdentityHashMap<>();
+
+  /** The most recent re-analysis of a method or lambda whose results were released, or null. */
+  private @Nullable Reanalysis reanalysis = null;
+
+  /** The inputs of the analysis of a method or lambda. */
+  private class ReanalysisInputs {
+    /** The analyzed method or lambda. */
+    final UnderlyingAST ast;
+
+    /** The abstract values for all fields of the enclosing class. */
+    final List<FieldInitialValue<Value>> fieldValues;
+
+    /** The initial store of the analysis. */
+    final @Nullable Store initialStore;
+
+    /** The control flow graph of {@link #ast}, or null if its results have been released. */
+    @Nullable ControlFlowGraph cfg;
+
+    /**
+     * Creates a new ReanalysisInputs.
+     *
+     * @param ast the analyzed method or lambda
+     * @param fieldValues the abstract values for all fields of the enclosing class
+     * @param initialStore the initial store of the analysis
+     * @param cfg the control flow graph of {@code ast}
+     */
+    ReanalysisInputs(
+        UnderlyingAST ast,
+        List<FieldInitialValue<Value>> fieldValues,
+        @Nullable Store initialStore,
+        ControlFlowGraph cfg) {
+      this.ast = ast;
+      this.fieldValues = fieldValues;
+      this.initialStore = initialStore;
+      this.cfg = cfg;
+    }
+  }
+
+  /** The result of re-running the analysis of a method or lambda whose results were released. */
+  private class Reanalysis {
+    /** The MethodTree or LambdaExpressionTree that was re-analyzed. */
+    final Tree code;
+
+    /** The result of the analysis. */
+    final AnalysisResult<Value, Store> result;
+
+    /** The return statements of {@link #code} and their stores. */
+    final List<IPair<ReturnNode, TransferResult<Value, Store>>> returnStatementStores;
+
+    /**
+     * Creates a new Reanalysis.
+     *
+     * @param code the MethodTree or LambdaExpressionTree that was re-analyzed
+     * @param result the result of the analysis
+     * @param returnStatementStores the return statements of {@code code} and their stores
+     */
+    Reanalysis(
+        Tree code,
+        AnalysisResult<Value, Store> result,
+        List<IPair<ReturnNode, TransferResult<Value, Store>>> returnStatementStores) {
+      this.code = code;
+      this.result = result;
+      this.returnStatementStores = returnStatementStores;
+    }
+  }
+
   /**
    * Returns the regular exit store for a method or another code block (such as static
    * initializers). Returns {@code null} if there is no such store. This can happen because the
@@ -1176,6 +1266,9 @@ public abstract class GenericAnnotatedTypeFactory<
    */
   public List<IPair<ReturnNode, TransferResult<Value, Store>>> getReturnStatementStores(
       MethodTree methodTree) {
+    if (!returnStatementStores.containsKey(methodTree) && isReleased(methodTree)) {
+      return reanalyze(methodTree).returnStatementStores;
+    }
     assert returnStatementStores.containsKey(methodTree);
     return returnStatementStores.get(methodTree);
   }
@@ -1190,7 +1283,7 @@ public abstract class GenericAnnotatedTypeFactory<
     if (analysis.isRunning()) {
       return analysis.getStoreBefore(tree, flowResultAnalysisCaches);
     }
-    return flowResult.getStoreBefore(tree);
+    return getFlowResultFor(tree).getStoreBefore(tree);
   }
 
   /**
@@ -1203,7 +1296,8 @@ public abstract class GenericAnnotatedTypeFactory<
     if (analysis.isRunning()) {
       return analysis.getStoreBefore(node, flowResultAnalysisCaches);
     }
-    return flowResult.getStoreBefore(node);
+    AnalysisResult<Value, Store> result = getFlowResultFor(node);
+    return result.getStoreBefore(getNodeIn(result, node));
   }
 
   /**
@@ -1218,7 +1312,7 @@ public abstract class GenericAnnotatedTypeFactory<
     if (analysis.isRunning()) {
       return analysis.getStoreAfter(tree, flowResultAnalysisCaches);
     }
-    return flowResult.getStoreAfter(tree);
+    return getFlowResultFor(tree).getStoreAfter(tree);
   }
 
   /**
@@ -1231,7 +1325,8 @@ public abstract class GenericAnnotatedTypeFactory<
     if (analysis.isRunning()) {
       return analysis.getStoreAfter(node, flowResultAnalysisCaches);
     }
-    return flowResult.getStoreAfter(node);
+    AnalysisResult<Value, Store> result = getFlowResultFor(node);
+    return result.getStoreAfter(getNodeIn(result, node));
   }
 
   /**
@@ -1242,7 +1337,162 @@ public abstract class GenericAnnotatedTypeFactory<
    * @see org.checkerframework.dataflow.analysis.AnalysisResult#getNodesForTree(Tree)
    */
   public @Nullable Set<Node> getNodesForTree(Tree tree) {
-    return flowResult.getNodesForTree(tree);
+    return getFlowResultFor(tree).getNodesForTree(tree);
+  }
+
+  /**
+   * Returns the analysis result that has the nodes and stores for {@code tree}. This is {@link
+   * #flowResult}, unless the results of the method or lambda that contains {@code tree} have been
+   * released, in which case the method or lambda is analyzed again.
+   *
+   * @param tree a tree
+   * @return the analysis result that has the nodes and stores for {@code tree}
+   */
+  private AnalysisResult<Value, Store> getFlowResultFor(Tree tree) {
+    if (!compactFlowResults || flowResult == null || flowResult.getNodesForTree(tree) != null) {
+      return flowResult;
+    }
+    if (reanalysis != null && reanalysis.result.getNodesForTree(tree) != null) {
+      return reanalysis.result;
+    }
+    TreePath path = getPath(tree);
+    for (; path != null; path = path.getParentPath()) {
+      Tree leaf = path.getLeaf();
+      if (leaf instanceof MethodTree || leaf instanceof LambdaExpressionTree) {
+        if (isReleased(leaf)) {
+          return reanalyze(leaf).result;
+        }
+        if (reanalysisInputs.containsKey(leaf)) {
+          // The enclosing method or lambda still has its results.
+          break;
+        }
+      }
+    }
+    return flowResult;
+  }
+
+  /**
+   * Returns the analysis result that has the stores for {@code node}. This is {@link #flowResult},
+   * unless the results of the method or lambda that contains {@code node} have been released. In
+   * that case it is the result of analyzing the method or lambda again, which may be {@link
+   * #reanalysis} or a new analysis.
+   *
+   * @param node a node
+   * @return the analysis result that has the stores for {@code node}
+   */
+  private AnalysisResult<Value, Store> getFlowResultFor(Node node) {
+    if (!compactFlowResults || flowResult == null) {
+      return flowResult;
+    }
+    Block block = node.getBlock();
+    if (block == null || flowResult.getInput(block) != null) {
+      return flowResult;
+    }
+    if (reanalysis != null && reanalysis.result.getInput(block) != null) {
+      return reanalysis.result;
+    }
+    Tree tree = node.getTree();
+    return tree == null ? flowResult : getFlowResultFor(tree);
+  }
+
+  /**
+   * Returns the node of {@code result} that corresponds to {@code node}. A node of a method whose
+   * results were released comes from an earlier analysis of the method, so {@code result}, which
+   * is from a later analysis, has a different node for the same tree.
+   *
+   * @param result an analysis result, as returned by {@link #getFlowResultFor(Node)}
+   * @param node a node
+   * @return the node of {@code result} that corresponds to {@code node}, or {@code node} itself if
+   *     it is one of the nodes of {@code result} or if there is no corresponding node
+   */
+  private Node getNodeIn(AnalysisResult<Value, Store> result, Node node) {
+    Block block = node.getBlock();
+    Tree tree = node.getTree();
+    if (block == null || result.getInput(block) != null || tree == null) {
+      return node;
+    }
+    Set<Node> nodes = result.getNodesForTree(tree);
+    if (nodes != null) {
+      for (Node candidate : nodes) {
+        if (candidate.getClass() == node.getClass()) {
+          return candidate;
+        }
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Returns true if the dataflow results of {@code code} have been released.
+   *
+   * @param code a MethodTree or LambdaExpressionTree
+   * @return true if the dataflow results of {@code code} have been released
+   */
+  private boolean isReleased(Tree code) {
+    ReanalysisInputs inputs = reanalysisInputs.get(code);
+    return inputs != null && inputs.cfg == null;
+  }
+
+  /**
+   * Analyzes a method or lambda whose results were released again, and keeps the result in {@link
+   * #reanalysis} until another one is analyzed. The result is not combined into {@link
+   * #flowResult}, and {@link #postAnalyze(ControlFlowGraph)} is not called for the new CFG.
+   *
+   * @param code a MethodTree or LambdaExpressionTree whose results were released
+   * @return the result of analyzing {@code code}
+   */
+  private Reanalysis reanalyze(Tree code) {
+    if (reanalysis != null && reanalysis.code == code) {
+      return reanalysis;
+    }
+    ReanalysisInputs inputs = reanalysisInputs.get(code);
+    ControlFlowGraph cfg = CFCFGBuilder.build(root, inputs.ast, checker, this, processingEnv);
+    if (subcheckerSharedCFG != null) {
+      // No subchecker needs the CFG any more.
+      subcheckerSharedCFG.remove(inputs.ast.getCode());
+    }
+    transfer.setFixedInitialStore(inputs.initialStore);
+    analysis.performAnalysis(cfg, inputs.fieldValues);
+    // Copy the result, because the next analysis reuses the maps that it wraps.
+    AnalysisResult<Value, Store> result = new AnalysisResult<>(new IdentityHashMap<>());
+    result.combine(analysis.getResult());
+    reanalysis = new Reanalysis(code, result, analysis.getReturnStatementStores());
+    return reanalysis;
+  }
+
+  /**
+   * Releases the dataflow results of {@code methodTree} and of the lambdas in it, if {@code
+   * -AcompactFlowResults} was passed. Only the abstract value of each tree, and the exit stores of
+   * the method, are kept. If a store of the method is requested afterward, the method is analyzed
+   * again.
+   *
+   * @param methodTree a method that has been type-checked
+   */
+  @Override
+  public void postProcessMethodTree(MethodTree methodTree) {
+    super.postProcessMethodTree(methodTree);
+    if (!compactFlowResults || getWholeProgramInference() != null || flowResult == null) {
+      return;
+    }
+    Queue<Tree> worklist = new ArrayDeque<>();
+    worklist.add(methodTree);
+    while (!worklist.isEmpty()) {
+      ReanalysisInputs inputs = reanalysisInputs.get(worklist.remove());
+      if (inputs == null || inputs.cfg == null) {
+        continue;
+      }
+      ControlFlowGraph cfg = inputs.cfg;
+      worklist.addAll(cfg.getDeclaredLambdas());
+      flowResult.release(cfg);
+      if (subcheckerSharedCFG != null) {
+        subcheckerSharedCFG.remove(inputs.ast.getCode());
+      }
+      inputs.cfg = null;
+    }
+    if (isReleased(methodTree)) {
+      // The return nodes refer to the CFG.
+      returnStatementStores.remove(methodTree);
+    }
   }
 
   /**
@@ -1414,6 +1664,10 @@ public abstract class GenericAnnotatedTypeFactory<
         // TODO: at this point, we don't have any information about
         // fields of superclasses.
         for (CFGMethod method : methods) {
+          if (checker.isMethodToSkip(method.getMethod())
+              || canSkipFlowAnalysis(method.getMethod())) {
+            continue;
+          }
           performFlowAnalysisForMethod(ct, method, classQueue, fieldValues, capturedStore);
         }
 
@@ -1453,6 +1707,147 @@ public abstract class GenericAnnotatedTypeFactory<
     }
   }
 
+  /**
+   * Returns true if dataflow analysis of {@code methodTree} cannot change the type of any
+   * expression in it, so it need not be performed. Then no CFG is built for the method, and every
+   * expression in it has its declared or defaulted type.
+   *
+   * <p>This is the case only for a type system with {@link RelevantJavaTypes}, when no expression in
+   * the method body has a relevant type (nor a type whose type arguments, array components, or
+   * bounds are relevant). To keep the stores that other parts of the framework rely on, this method
+   * also returns false for constructors, for methods with contracts, for methods that call a method
+   * with a precondition, for methods that contain lambdas or class declarations, and when
+   * whole-program inference is enabled.
+   *
+   * <p>Subclasses may override this method to return false if they need a store for every method.
+   *
+   * @param methodTree a method with a body
+   * @return true if dataflow analysis of {@code methodTree} can be skipped
+   */
+  protected boolean canSkipFlowAnalysis(MethodTree methodTree) {
+    if (relevantJavaTypes == null
+        || getWholeProgramInference() != null
+        || TreeUtils.isConstructor(methodTree)) {
+      return false;
+    }
+    if (!contractsUtils.getContracts(TreeUtils.elementFromDeclaration(methodTree)).isEmpty()) {
+      return false;
+    }
+    FlowRelevanceScanner scanner = new FlowRelevanceScanner();
+    scanner.scan(methodTree.getBody(), null);
+    return !scanner.found;
+  }
+
+  /**
+   * Searches a method body for a tree that requires dataflow analysis; see {@link
+   * #canSkipFlowAnalysis}. After a scan, {@link #found} is true if there is such a tree.
+   */
+  private class FlowRelevanceScanner extends TreeScanner<Void, Void> {
+
+    /** True if a tree that requires dataflow analysis has been found. */
+    boolean found = false;
+
+    /** Creates a new FlowRelevanceScanner. */
+    FlowRelevanceScanner() {}
+
+    @Override
+    public Void scan(Tree tree, Void p) {
+      if (found || tree == null) {
+        return null;
+      }
+      switch (tree.getKind()) {
+        case CLASS, RECORD, ENUM, INTERFACE, ANNOTATION_TYPE, LAMBDA_EXPRESSION -> {
+          found = true;
+          return null;
+        }
+        case NEW_CLASS -> {
+          if (((NewClassTree) tree).getClassBody() != null) {
+            found = true;
+            return null;
+          }
+        }
+        case METHOD_INVOCATION -> {
+          ExecutableElement invoked = TreeUtils.elementFromUse((MethodInvocationTree) tree);
+          if (!contractsUtils.getPreconditions(invoked).isEmpty()) {
+            found = true;
+            return null;
+          }
+        }
+        default -> {}
+      }
+      if (tree instanceof ExpressionTree) {
+        TypeMirror type = TreeUtils.typeOf(tree);
+        if (type != null && containsRelevantType(type)) {
+          found = true;
+          return null;
+        }
+      }
+      return super.scan(tree, p);
+    }
+  }
+
+  /**
+   * Returns true if {@code type}, or any of its type arguments, array components, bounds, or
+   * alternatives, is relevant.
+   *
+   * @param type a type
+   * @return true if {@code type} or any type it contains is relevant
+   */
+  private boolean containsRelevantType(TypeMirror type) {
+    switch (type.getKind()) {
+      case DECLARED -> {
+        if (isRelevant(type)) {
+          return true;
+        }
+        for (TypeMirror typeArg : ((DeclaredType) type).getTypeArguments()) {
+          if (containsRelevantType(typeArg)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      case ARRAY -> {
+        return isRelevant(type) || containsRelevantType(((ArrayType) type).getComponentType());
+      }
+      case WILDCARD -> {
+        WildcardType wildcard = (WildcardType) type;
+        TypeMirror extendsBound = wildcard.getExtendsBound();
+        TypeMirror superBound = wildcard.getSuperBound();
+        return (extendsBound == null
+                ? isRelevant(TypesUtils.getObjectTypeMirror(processingEnv))
+                : containsRelevantType(extendsBound))
+            || (superBound != null && containsRelevantType(superBound));
+      }
+      case INTERSECTION -> {
+        for (TypeMirror bound : ((IntersectionType) type).getBounds()) {
+          if (containsRelevantType(bound)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      case UNION -> {
+        for (TypeMirror alternative : ((UnionType) type).getAlternatives()) {
+          if (containsRelevantType(alternative)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      case NONE, VOID, EXECUTABLE, PACKAGE, MODULE -> {
+        return false;
+      }
+      case ERROR, OTHER -> {
+        // Be conservative.
+        return true;
+      }
+      default -> {
+        // Primitives, type variables, and null.
+        return isRelevant(type);
+      }
+    }
+  }
+
   /**
    * Analyzes {@code method} and all lambdas contained within it.
    *
@@ -1610,22 +2005,30 @@ public abstract class GenericAnnotatedTypeFactory<
                 }
               });
     }
+    Store initialStore = capturedStore;
     if (isInitializationCode) {
       Store initStore = !isStatic ? initializationStore : initializationStaticStore;
       if (initStore != null) {
         // we have already seen initialization code and analyzed it, and
         // the analysis ended with the store initStore.
         // use it to start the next analysis.
-        transfer.setFixedInitialStore(initStore);
-      } else {
-        transfer.setFixedInitialStore(capturedStore);
+        initialStore = initStore;
       }
-    } else {
-      transfer.setFixedInitialStore(capturedStore);
     }
+    transfer.setFixedInitialStore(initialStore);
     analysis.performAnalysis(cfg, fieldValues);
     AnalysisResult<Value, Store> result = analysis.getResult();
 
+    if (compactFlowResults) {
+      if (ast instanceof CFGMethod methodAst) {
+        reanalysisInputs.put(
+            methodAst.getMethod(), new ReanalysisInputs(ast, fieldValues, initialStore, cfg));
+      } else if (ast instanceof CFGLambda lambdaAst) {
+        reanalysisInputs.put(
+            lambdaAst.getLambdaTree(), new ReanalysisInputs(ast, fieldValues, initialStore, cfg));
+      }
+    }
+
     // store result
     flowResult.combine(result);
     if (ast.getKind() == UnderlyingAST.Kind.METHOD) {
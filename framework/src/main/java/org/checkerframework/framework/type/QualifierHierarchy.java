@@ -1,6 +1,7 @@
 package org.checkerframework.framework.type;
 
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -8,9 +9,12 @@ import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.checker.mustcall.qual.MustCallUnknown;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.dataflow.analysis.WideningStrategy;
 import org.checkerframework.framework.qual.AnnotatedFor;
+import org.checkerframework.javacutil.AnnotationMirrorMap;
 import org.checkerframework.javacutil.AnnotationMirrorSet;
 import org.checkerframework.javacutil.AnnotationUtils;
 import org.checkerframework.javacutil.BugInCF;
@@ -35,6 +39,19 @@ public abstract class QualifierHierarchy {
   /** The associated type factory. This is used only for checking whether types are relevant. */
   protected GenericAnnotatedTypeFactory<?, ?, ?, ?> atypeFactory;
 
+  /**
+   * The position of each top qualifier in {@link #getTopAnnotations}, keyed by the top qualifier
+   * itself; see {@link #getHierarchyIndex}. Computed on first use, because subclasses determine
+   * their top qualifiers after this class's constructor has run.
+   */
+  private @MonotonicNonNull IdentityHashMap<AnnotationMirror, Integer> topIndicesByIdentity;
+
+  /**
+   * The position of each top qualifier in {@link #getTopAnnotations}, for top qualifiers that are
+   * equal to, but not the same object as, the ones in {@link #getTopAnnotations}.
+   */
+  private @MonotonicNonNull AnnotationMirrorMap<Integer> topIndicesByValue;
+
   /**
    * Creates a new QualifierHierarchy.
    *
@@ -93,6 +110,38 @@ public abstract class QualifierHierarchy {
    */
   public abstract AnnotationMirror getTopAnnotation(AnnotationMirror qualifier);
 
+  /**
+   * Returns the index of the hierarchy of the given qualifier, that is, the position of its top
+   * qualifier in {@link #getTopAnnotations}. The index is between 0 and {@link #getWidth} - 1, so
+   * {@link AnnotatedTypeMirror} uses it to store the primary annotation of each hierarchy in an
+   * array.
+   *
+   * @param qualifier any qualifier from one of the qualifier hierarchies represented by this
+   * @return the index of the hierarchy of {@code qualifier}, or -1 if it is not known
+   */
+  public int getHierarchyIndex(AnnotationMirror qualifier) {
+    IdentityHashMap<AnnotationMirror, Integer> byIdentity = topIndicesByIdentity;
+    AnnotationMirrorMap<Integer> byValue = topIndicesByValue;
+    if (byIdentity == null || byValue == null) {
+      byIdentity = new IdentityHashMap<>();
+      byValue = new AnnotationMirrorMap<>();
+      int index = 0;
+      for (AnnotationMirror top : getTopAnnotations()) {
+        byIdentity.put(top, index);
+        byValue.put(top, index);
+        index++;
+      }
+      topIndicesByIdentity = byIdentity;
+      topIndicesByValue = byValue;
+    }
+    AnnotationMirror top = getTopAnnotation(qualifier);
+    Integer index = byIdentity.get(top);
+    if (index == null) {
+      index = byValue.get(top);
+    }
+    return index == null ? -1 : index;
+  }
+
   /**
    * Returns the bottom type qualifiers in the hierarchy. The size of this set is equal to {@link
    * #getWidth}.
@@ -496,6 +545,18 @@ public abstract class QualifierHierarchy {
     return -1;
   }
 
+  /**
+   * Returns where and how dataflow should widen when {@link #numberOfIterationsBeforeWidening()}
+   * is not -1. By default, dataflow widens at every block and does not narrow afterward. A
+   * hierarchy whose {@link #widenedUpperBound(AnnotationMirror, AnnotationMirror)} loses a lot of
+   * precision can widen only at loop heads instead.
+   *
+   * @return where and how dataflow should widen
+   */
+  public WideningStrategy wideningStrategy() {
+    return WideningStrategy.EVERY_BLOCK;
+  }
+
   /**
    * If the qualifier hierarchy has an infinite ascending chain, then the dataflow analysis might
    * never reach a fixed point. To prevent this, implement this method such that it returns an upper
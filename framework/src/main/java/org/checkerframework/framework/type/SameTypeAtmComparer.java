@@ -0,0 +1,42 @@
+package org.checkerframework.framework.type;
+
+import javax.lang.model.util.Types;
+import org.checkerframework.checker.interning.qual.EqualsMethod;
+
+/**
+ * Compares annotated types like {@link AnnotatedTypeMirror#equals}, except that it compares
+ * underlying types with {@link Types#isSameType} instead of by identity. javac creates a new
+ * underlying type for each occurrence of a parameterized type in the source code, so tables keyed
+ * by annotated types use this comparer to find a type that was computed for another occurrence.
+ *
+ * <p>{@link AnnotatedTypeMirror#hashCode} depends on how the underlying type prints, which is
+ * usually the same for types that this comparer considers equal. When it is not, a table keyed this
+ * way misses, but never returns the result for a different type.
+ */
+public class SameTypeAtmComparer extends EqualityAtmComparer {
+
+  /** The type utilities. */
+  private final Types types;
+
+  /**
+   * Creates a SameTypeAtmComparer.
+   *
+   * @param types the type utilities
+   */
+  public SameTypeAtmComparer(Types types) {
+    this.types = types;
+  }
+
+  @Override
+  @EqualsMethod // to make Interning Checker permit the == comparison
+  protected boolean compare(AnnotatedTypeMirror type1, AnnotatedTypeMirror type2) {
+    if (type1 == type2) {
+      return true;
+    }
+    if (type1 == null || type2 == null) {
+      return false;
+    }
+    return types.isSameType(type1.getUnderlyingType(), type2.getUnderlyingType())
+        && arePrimaryAnnosEqual(type1, type2);
+  }
+}
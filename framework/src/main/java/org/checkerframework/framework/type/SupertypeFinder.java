@@ -53,11 +53,21 @@ final class SupertypeFinder {
    * @see Types#directSupertypes(TypeMirror)
    */
   public static List<AnnotatedDeclaredType> directSupertypes(AnnotatedDeclaredType type) {
+    AnnotatedTypeMemo memo = type.atypeFactory.getTypeMemo();
+    if (memo != null) {
+      List<AnnotatedDeclaredType> memoized = memo.getDirectSupertypes(type);
+      if (memoized != null) {
+        return memoized;
+      }
+    }
     SupertypeFindingVisitor supertypeFindingVisitor =
         new SupertypeFindingVisitor(type.atypeFactory);
     List<AnnotatedDeclaredType> supertypes =
         supertypeFindingVisitor.visitDeclared(type.asUse(), null);
     type.atypeFactory.postDirectSuperTypes(type, supertypes);
+    if (memo != null) {
+      memo.putDirectSupertypes(type, supertypes);
+    }
     return supertypes;
   }
 
@@ -368,7 +378,7 @@ final class SupertypeFinder {
       for (AnnotatedTypeMirror t : adt.getTypeArguments()) {
         // If the type argument of super is the same as the input type
         if (atypeFactory.types.isSameType(t.getUnderlyingType(), type.getUnderlyingType())) {
-          t.addAnnotations(type.primaryAnnotations);
+          t.addAnnotations(type.getPrimaryAnnotations());
         }
       }
       adt.addAnnotations(type.getPrimaryAnnotations());
@@ -37,6 +37,7 @@ import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.checkerframework.checker.signature.qual.CanonicalName;
 import org.checkerframework.framework.type.AnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMemo;
 import org.checkerframework.framework.type.AnnotatedTypeMirror;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedArrayType;
 import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
@@ -111,10 +112,24 @@ public final class AnnotatedTypes {
    */
   public static <T extends AnnotatedTypeMirror> T asSuper(
       AnnotatedTypeFactory atypeFactory, AnnotatedTypeMirror type, T superType) {
+    AnnotatedTypeMemo memo = atypeFactory.getTypeMemo();
+    if (memo != null && !AnnotatedTypeMemo.canMemoizeAsSuper(type, superType)) {
+      memo = null;
+    }
+    if (memo != null) {
+      T memoized = memo.getAsSuper(type, superType);
+      if (memoized != null) {
+        return memoized;
+      }
+    }
     if (asSuperVisitor == null || !asSuperVisitor.sameAnnotatedTypeFactory(atypeFactory)) {
       asSuperVisitor = new AsSuperVisitor(atypeFactory);
     }
-    return asSuperVisitor.asSuper(type, superType);
+    T result = asSuperVisitor.asSuper(type, superType);
+    if (memo != null) {
+      memo.putAsSuper(type, superType, result);
+    }
+    return result;
   }
 
   /**
@@ -356,7 +371,19 @@ public final class AnnotatedTypes {
         if (t == null || ElementUtils.isStatic(elem)) {
           return elemType;
         }
-        AnnotatedTypeMirror res = asMemberOfImpl(types, atypeFactory, t, elem, elemType);
+        AnnotatedTypeMirror res;
+        // postAsMemberOf may depend on the state of the factory, so only the substitution is
+        // memoized.
+        AnnotatedTypeMemo memo = atypeFactory.getTypeMemo();
+        if (memo != null && AnnotatedTypeMemo.canMemoizeMemberOf(t)) {
+          res = memo.getMemberType(t, elem, elemType);
+          if (res == null) {
+            res = asMemberOfImpl(types, atypeFactory, t, elem, elemType);
+            memo.putMemberType(t, elem, elemType, res);
+          }
+        } else {
+          res = asMemberOfImpl(types, atypeFactory, t, elem, elemType);
+        }
         atypeFactory.postAsMemberOf(res, t, elem);
         return res;
       }
@@ -1,6 +1,7 @@
 package org.checkerframework.framework.util;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -45,6 +46,18 @@ public class ContractsFromMethod {
   /** The factory that this ContractsFromMethod is associated with. */
   protected final GenericAnnotatedTypeFactory<?, ?, ?, ?> factory;
 
+  /**
+   * The contracts of each kind on each method or constructor. Reading them requires looking up
+   * several declaration and meta-annotations and building the enforced qualifiers, and the
+   * transfer function does so at every call. The sets are never returned to clients, which may
+   * modify the sets they receive.
+   */
+  private final Map<Contract.Kind, Map<ExecutableElement, Set<? extends Contract>>> contractsCache =
+      new EnumMap<>(Contract.Kind.class);
+
+  /** The result of {@link #makeArgumentRenaming} for each contract annotation declaration. */
+  private final Map<Element, Map<String, String>> argumentRenamingCache = new HashMap<>();
+
   /**
    * Creates a ContractsFromMethod for the given factory.
    *
@@ -64,7 +77,6 @@ public class ContractsFromMethod {
    */
   public Set<Contract> getContracts(ExecutableElement executableElement) {
     Set<Contract> contracts = new LinkedHashSet<>();
-    // TODO: It is inefficient to call getContractsOfKind three times.
     contracts.addAll(getPreconditions(executableElement));
     contracts.addAll(getPostconditions(executableElement));
     contracts.addAll(getConditionalPostconditions(executableElement));
@@ -121,6 +133,40 @@ public class ContractsFromMethod {
    */
   private <T extends Contract> Set<T> getContractsOfKind(
       ExecutableElement executableElement, Contract.Kind kind, Class<T> clazz) {
+    boolean useCache = factory.shouldCache && !factory.isParsingAnnotationFiles();
+    Map<ExecutableElement, Set<? extends Contract>> cache =
+        contractsCache.computeIfAbsent(kind, k -> new HashMap<>());
+    if (useCache) {
+      Set<? extends Contract> cached = cache.get(executableElement);
+      if (cached != null) {
+        Set<T> result = new LinkedHashSet<>();
+        for (Contract contract : cached) {
+          result.add(clazz.cast(contract));
+        }
+        return result;
+      }
+    }
+    Set<T> result = readContractsOfKind(executableElement, kind, clazz);
+    if (useCache) {
+      cache.put(
+          executableElement,
+          result.isEmpty() ? Collections.emptySet() : new LinkedHashSet<>(result));
+    }
+    return result;
+  }
+
+  /**
+   * Reads the contracts (of a particular kind) on method or constructor {@code executableElement}
+   * from its annotations.
+   *
+   * @param <T> the type of {@link Contract} to return
+   * @param executableElement the method whose contracts to return
+   * @param kind the kind of contracts to retrieve
+   * @param clazz the class to determine the return type
+   * @return the contracts on {@code executableElement}
+   */
+  private <T extends Contract> Set<T> readContractsOfKind(
+      ExecutableElement executableElement, Contract.Kind kind, Class<T> clazz) {
     Set<T> result = new LinkedHashSet<>();
     // Check for a single framework-defined contract annotation.
     // The result is RequiresQualifier, EnsuresQualifier, EnsuresQualifierIf, or null.
@@ -235,8 +281,14 @@ public class ContractsFromMethod {
   private @Nullable AnnotationMirror getQualifierEnforcedByContractAnnotation(
       AnnotationMirror contractAnno, AnnotationMirror argumentAnno) {
 
-    Map<String, String> argumentRenaming =
-        makeArgumentRenaming(argumentAnno.getAnnotationType().asElement());
+    Element argumentAnnoElement = argumentAnno.getAnnotationType().asElement();
+    Map<String, String> argumentRenaming = argumentRenamingCache.get(argumentAnnoElement);
+    if (argumentRenaming == null) {
+      argumentRenaming = makeArgumentRenaming(argumentAnnoElement);
+      if (factory.shouldCache && !factory.isParsingAnnotationFiles()) {
+        argumentRenamingCache.put(argumentAnnoElement, argumentRenaming);
+      }
+    }
     return getQualifierEnforcedByContractAnnotation(contractAnno, argumentAnno, argumentRenaming);
   }
 
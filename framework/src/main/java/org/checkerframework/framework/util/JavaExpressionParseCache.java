@@ -0,0 +1,78 @@
+package org.checkerframework.framework.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.lang.model.element.Element;
+import org.checkerframework.dataflow.expression.JavaExpression;
+import org.checkerframework.dataflow.expression.JavaExpressionParseException;
+
+/**
+ * Caches the result of parsing a Java expression string as if it were written on a declaration,
+ * such as the {@code "this.f"} in {@code @EnsuresNonNull("this.f")} on a method. The result
+ * depends only on the string and the declaration, so annotations that are viewpoint-adapted at
+ * many uses of the same field or method are parsed once; only the cheap viewpoint adaptation of the
+ * cached {@link JavaExpression} is repeated.
+ *
+ * <p>Parse errors are cached too.
+ *
+ * <p>Name resolution during parsing uses the current compilation unit, so the cache must be cleared
+ * whenever the compilation unit changes. A single cache is shared among a checker and its
+ * subcheckers; see {@link
+ * org.checkerframework.framework.source.SourceChecker#getJavaExpressionParseCache()}.
+ */
+public class JavaExpressionParseCache {
+
+  /**
+   * A key in the cache.
+   *
+   * @param expression the string that is parsed
+   * @param declaration the declaration at which {@code expression} is parsed
+   */
+  private record Key(String expression, Element declaration) {}
+
+  /**
+   * Maps a string and a declaration to the result of parsing the string there: either a {@link
+   * JavaExpression}, or the {@link JavaExpressionParseException} that parsing threw.
+   */
+  private final Map<Key, Object> cache = new HashMap<>();
+
+  /** Creates a new, empty JavaExpressionParseCache. */
+  public JavaExpressionParseCache() {}
+
+  /**
+   * Returns the result of parsing {@code expression} at {@code declaration}, which {@code parser}
+   * computes if it is not already cached.
+   *
+   * @param expression a Java expression to parse
+   * @param declaration the type, field, or method declaration at which {@code expression} is
+   *     parsed
+   * @param parser parses {@code expression} at {@code declaration}; must not return null
+   * @return the result of parsing {@code expression} at {@code declaration}
+   * @throws JavaExpressionParseException if {@code expression} cannot be parsed
+   */
+  public JavaExpression get(
+      String expression, Element declaration, StringToJavaExpression parser)
+      throws JavaExpressionParseException {
+    Key key = new Key(expression, declaration);
+    Object cached = cache.get(key);
+    if (cached == null) {
+      try {
+        @SuppressWarnings("nullness:assignment") // the parsers used here never return null
+        JavaExpression parsed = parser.toJavaExpression(expression);
+        cached = parsed;
+      } catch (JavaExpressionParseException e) {
+        cached = e;
+      }
+      cache.put(key, cached);
+    }
+    if (cached instanceof JavaExpressionParseException e) {
+      throw e;
+    }
+    return (JavaExpression) cached;
+  }
+
+  /** Clears the cache. Called when the compilation unit changes. */
+  public void clear() {
+    cache.clear();
+  }
+}
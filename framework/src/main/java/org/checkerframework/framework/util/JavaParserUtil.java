@@ -364,12 +364,6 @@ public final class JavaParserUtil {
     }
   }
 
-  /**
-   * Initialized by {@link #getCurrentSourceVersion(ProcessingEnvironment)}. Use that method to
-   * access.
-   */
-  private static LanguageLevel currentSourceVersion = null;
-
   /**
    * Returns the {@link com.github.javaparser.ParserConfiguration.LanguageLevel} corresponding to
    * the current source version.
@@ -379,34 +373,32 @@ public final class JavaParserUtil {
    */
   public static ParserConfiguration.LanguageLevel getCurrentSourceVersion(
       ProcessingEnvironment env) {
-    if (currentSourceVersion == null) {
-      // Use String comparison so we can compile on older JDKs which
-      // don't have all the latest SourceVersion constants:
-      currentSourceVersion =
-          switch (env.getSourceVersion().name()) {
-            case "RELEASE_8" -> ParserConfiguration.LanguageLevel.JAVA_8;
-            case "RELEASE_9" -> ParserConfiguration.LanguageLevel.JAVA_9;
-            case "RELEASE_10" -> ParserConfiguration.LanguageLevel.JAVA_10;
-            case "RELEASE_11" -> ParserConfiguration.LanguageLevel.JAVA_11;
-            case "RELEASE_12" -> ParserConfiguration.LanguageLevel.JAVA_12;
-            case "RELEASE_13" -> ParserConfiguration.LanguageLevel.JAVA_13;
-            case "RELEASE_14" -> ParserConfiguration.LanguageLevel.JAVA_14;
-            case "RELEASE_15" -> ParserConfiguration.LanguageLevel.JAVA_15;
-            case "RELEASE_16" -> ParserConfiguration.LanguageLevel.JAVA_16;
-            case "RELEASE_17" -> ParserConfiguration.LanguageLevel.JAVA_17;
-            case "RELEASE_18" -> ParserConfiguration.LanguageLevel.JAVA_18;
-            case "RELEASE_19" -> ParserConfiguration.LanguageLevel.JAVA_19;
-            case "RELEASE_20" -> ParserConfiguration.LanguageLevel.JAVA_20;
-            case "RELEASE_21" -> ParserConfiguration.LanguageLevel.JAVA_21;
-            case "RELEASE_22" -> ParserConfiguration.LanguageLevel.JAVA_22;
-            case "RELEASE_23" -> ParserConfiguration.LanguageLevel.JAVA_23;
-            case "RELEASE_24" -> ParserConfiguration.LanguageLevel.JAVA_24;
-            case "RELEASE_25" -> ParserConfiguration.LanguageLevel.JAVA_25;
-            // Up-to-date as of 2026-03-26.  See
-            // https://www.javadoc.io/doc/com.github.javaparser/javaparser-core/latest/com/github/javaparser/ParserConfiguration.LanguageLevel.html .
-            default -> DEFAULT_LANGUAGE_LEVEL;
-          };
-    }
-    return currentSourceVersion;
+    // The result is not cached in a static field, because javac tasks in the same JVM, such as
+    // tests that run concurrently, may use different source versions.
+    // Use String comparison so we can compile on older JDKs which
+    // don't have all the latest SourceVersion constants:
+    return switch (env.getSourceVersion().name()) {
+      case "RELEASE_8" -> ParserConfiguration.LanguageLevel.JAVA_8;
+      case "RELEASE_9" -> ParserConfiguration.LanguageLevel.JAVA_9;
+      case "RELEASE_10" -> ParserConfiguration.LanguageLevel.JAVA_10;
+      case "RELEASE_11" -> ParserConfiguration.LanguageLevel.JAVA_11;
+      case "RELEASE_12" -> ParserConfiguration.LanguageLevel.JAVA_12;
+      case "RELEASE_13" -> ParserConfiguration.LanguageLevel.JAVA_13;
+      case "RELEASE_14" -> ParserConfiguration.LanguageLevel.JAVA_14;
+      case "RELEASE_15" -> ParserConfiguration.LanguageLevel.JAVA_15;
+      case "RELEASE_16" -> ParserConfiguration.LanguageLevel.JAVA_16;
+      case "RELEASE_17" -> ParserConfiguration.LanguageLevel.JAVA_17;
+      case "RELEASE_18" -> ParserConfiguration.LanguageLevel.JAVA_18;
+      case "RELEASE_19" -> ParserConfiguration.LanguageLevel.JAVA_19;
+      case "RELEASE_20" -> ParserConfiguration.LanguageLevel.JAVA_20;
+      case "RELEASE_21" -> ParserConfiguration.LanguageLevel.JAVA_21;
+      case "RELEASE_22" -> ParserConfiguration.LanguageLevel.JAVA_22;
+      case "RELEASE_23" -> ParserConfiguration.LanguageLevel.JAVA_23;
+      case "RELEASE_24" -> ParserConfiguration.LanguageLevel.JAVA_24;
+      case "RELEASE_25" -> ParserConfiguration.LanguageLevel.JAVA_25;
+      // Up-to-date as of 2026-03-26.  See
+      // https://www.javadoc.io/doc/com.github.javaparser/javaparser-core/latest/com/github/javaparser/ParserConfiguration.LanguageLevel.html .
+      default -> DEFAULT_LANGUAGE_LEVEL;
+    };
   }
 }
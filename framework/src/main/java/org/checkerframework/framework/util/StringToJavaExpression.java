@@ -39,6 +39,10 @@ import org.checkerframework.javacutil.TreeUtils;
  *
  * <p>To parse a string "at a location" means to parse it as if it were written in an annotation
  * that is written on that location.
+ *
+ * <p>The results of parsing at a type, field, or method declaration are cached in the checker's
+ * {@link JavaExpressionParseCache}, so the methods that parse at a declaration and then
+ * viewpoint-adapt the result to a use do not re-parse the string at every use.
  */
 @FunctionalInterface
 public interface StringToJavaExpression {
@@ -72,6 +76,26 @@ public interface StringToJavaExpression {
   static JavaExpression atTypeDecl(
       String expression, TypeElement typeElement, SourceChecker checker)
       throws JavaExpressionParseException {
+    return checker
+        .getJavaExpressionParseCache()
+        .get(expression, typeElement, s -> parseAtTypeDecl(s, typeElement, checker));
+  }
+
+  /**
+   * Parses a string to a {@link JavaExpression} as if it were written at {@code typeElement},
+   * without using the cache.
+   *
+   * @param expression a Java expression to parse
+   * @param typeElement type element at which {@code expression} is parsed
+   * @param checker checker used to get the {@link
+   *     javax.annotation.processing.ProcessingEnvironment} and current {@link
+   *     com.sun.source.tree.CompilationUnitTree}
+   * @return a {@code JavaExpression} for {@code expression}
+   * @throws JavaExpressionParseException if {@code expression} cannot be parsed
+   */
+  private static JavaExpression parseAtTypeDecl(
+      String expression, TypeElement typeElement, SourceChecker checker)
+      throws JavaExpressionParseException {
     ThisReference thisReference = new ThisReference(typeElement.asType());
     List<FormalParameter> parameters = null;
     return JavaExpressionParseUtil.parse(
@@ -98,6 +122,26 @@ public interface StringToJavaExpression {
   static JavaExpression atFieldDecl(
       String expression, VariableElement fieldElement, SourceChecker checker)
       throws JavaExpressionParseException {
+    return checker
+        .getJavaExpressionParseCache()
+        .get(expression, fieldElement, s -> parseAtFieldDecl(s, fieldElement, checker));
+  }
+
+  /**
+   * Parses a string to a {@link JavaExpression} as if it were written at {@code fieldElement},
+   * without using the cache.
+   *
+   * @param expression a Java expression to parse
+   * @param fieldElement variable element at which {@code expression} is parsed
+   * @param checker checker used to get the {@link
+   *     javax.annotation.processing.ProcessingEnvironment} and current {@link
+   *     com.sun.source.tree.CompilationUnitTree}
+   * @return a {@code JavaExpression} for {@code expression}
+   * @throws JavaExpressionParseException if {@code expression} cannot be parsed
+   */
+  private static JavaExpression parseAtFieldDecl(
+      String expression, VariableElement fieldElement, SourceChecker checker)
+      throws JavaExpressionParseException {
     TypeMirror enclosingType = ElementUtils.enclosingTypeElement(fieldElement).asType();
     ThisReference thisReference;
     if (ElementUtils.isStatic(fieldElement)) {
@@ -134,6 +178,27 @@ public interface StringToJavaExpression {
   static JavaExpression atMethodDecl(
       String expression, ExecutableElement method, SourceChecker checker)
       throws JavaExpressionParseException {
+    return checker
+        .getJavaExpressionParseCache()
+        .get(expression, method, s -> parseAtMethodDecl(s, method, checker));
+  }
+
+  /**
+   * Parses a string to a {@link JavaExpression} as if it were written at {@code method}, without
+   * using the cache. The returned {@code JavaExpression} uses {@link FormalParameter}s to represent
+   * parameters.
+   *
+   * @param expression a Java expression to parse
+   * @param method method element at which {@code expression} is parsed
+   * @param checker checker used to get the {@link
+   *     javax.annotation.processing.ProcessingEnvironment} and current {@link
+   *     com.sun.source.tree.CompilationUnitTree}
+   * @return a {@code JavaExpression} for {@code expression}
+   * @throws JavaExpressionParseException if {@code expression} cannot be parsed
+   */
+  private static JavaExpression parseAtMethodDecl(
+      String expression, ExecutableElement method, SourceChecker checker)
+      throws JavaExpressionParseException {
     TypeMirror enclosingType = ElementUtils.enclosingTypeElement(method).asType();
     ThisReference thisReference;
     if (ElementUtils.isStatic(method)) {
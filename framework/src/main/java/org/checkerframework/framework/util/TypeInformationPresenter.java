@@ -344,6 +344,10 @@ public class TypeInformationPresenter {
 
     @Override
     public Void visitMethod(MethodTree tree, Void unused) {
+      if (checker.isMethodToSkip(tree)) {
+        // The method was not type-checked; the client already has its type information.
+        return null;
+      }
       reportTreeType(tree, factory.getAnnotatedType(tree), MessageKind.DECLARED_TYPE);
       return super.visitMethod(tree, unused);
     }
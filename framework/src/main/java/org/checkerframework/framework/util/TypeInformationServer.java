@@ -0,0 +1,1091 @@
+package org.checkerframework.framework.util;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.Trees;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.source.SourceChecker;
+import org.checkerframework.javacutil.UserError;
+
+/**
+ * A long-running process that type-checks Java files on request and answers queries about the types
+ * and diagnostics in them, for editor and IDE integrations. It avoids the cost of starting a new
+ * JVM and javac for every save, and it re-checks only the methods of a file that changed.
+ *
+ * <p>Usage:
+ *
+ * <pre>{@code
+ * java -cp checker.jar org.checkerframework.framework.util.TypeInformationServer \
+ *     <checker class> [javac options]
+ * }</pre>
+ *
+ * The javac options, such as {@code -classpath} and {@code -sourcepath}, are used for every
+ * compilation. The server reads one JSON request per line from standard input and writes one JSON
+ * response per line to standard output. Anything else that is printed, such as debugging output of
+ * the checker, goes to standard error. Lines and columns are 0-based, as in the Language Server
+ * Protocol. The requests are:
+ *
+ * <dl>
+ *   <dt>{@code {"id": 1, "method": "check", "file": "/path/A.java", "text": "..."}}
+ *   <dd>Type-checks a file. {@code "text"} is the current content of the file, such as an unsaved
+ *       editor buffer; if it is absent, the file is read from disk. The result contains the
+ *       diagnostics, the number of methods that were checked, and the number of methods whose
+ *       results were reused from the previous check of the file.
+ *   <dt>{@code {"id": 2, "method": "typeAt", "file": "/path/A.java", "line": 3, "column": 8}}
+ *   <dd>Returns the types, as computed by the last check of the file, of the trees whose range
+ *       contains the position. See {@link TypeInformationPresenter} for the kinds of types.
+ *   <dt>{@code {"id": 3, "method": "diagnostics", "file": "/path/A.java"}}
+ *   <dd>Returns the diagnostics of the last check of the file.
+ *   <dt>{@code {"id": 4, "method": "close", "file": "/path/A.java"}}
+ *   <dd>Discards the results of the file.
+ *   <dt>{@code {"id": 5, "method": "shutdown"}}
+ *   <dd>Stops the server.
+ * </dl>
+ *
+ * A response is {@code {"id": ..., "result": ...}} or {@code {"id": ..., "error": "..."}}.
+ *
+ * <p>Each check compiles only the requested file; other classes come from the classpath or
+ * sourcepath. The server keeps the JVM and the file manager, with its open jar files and directory
+ * listings, from one check to the next. A javac context cannot be re-attributed, so each check
+ * uses a new javac task and checker instance.
+ *
+ * <p>The results of a check are stored per method. When a file is checked again and only method
+ * bodies changed, every method whose text is unchanged is neither analyzed nor checked (see {@link
+ * SourceChecker#setMethodsToSkip}); its diagnostics and types from the previous check are reused,
+ * shifted to its new position. Any other change to the file, such as to a field or a method
+ * signature, causes all of its methods to be checked. So does any change to the other inputs of
+ * the check: a file on the classpath, sourcepath, or module path, or a stub file, that was added,
+ * removed, or modified since the previous check of the file. Results are never reused when
+ * whole-program inference is enabled, because then a method body can affect the types of other
+ * methods.
+ */
+public class TypeInformationServer {
+
+  /** The javac options that the server always passes, in addition to those of the user. */
+  private static final List<String> SERVER_OPTIONS =
+      List.of("-AlspTypeInfo", "-Xmaxerrs", "1000000", "-Xmaxwarns", "1000000");
+
+  /** Matches the message of a diagnostic that reports type information. */
+  private static final Pattern TYPE_INFORMATION =
+      Pattern.compile(
+          "^\\[(?:[^\\]]*:)?lsp\\.type\\.information\\] checker=(.*?); kind=(.*?); type=(.*);"
+              + " range=\\((\\d+), (\\d+), (\\d+), (\\d+)\\)$",
+          Pattern.DOTALL);
+
+  /** The checker class. */
+  private final Class<? extends SourceChecker> checkerClass;
+
+  /** The javac options for every compilation. */
+  private final List<String> options;
+
+  /** True if results of unchanged methods may be reused. */
+  private final boolean reuseResults;
+
+  /** The compiler. */
+  private final JavaCompiler compiler;
+
+  /** The file manager, which is shared by all compilations. */
+  private final StandardJavaFileManager fileManager;
+
+  /** The results of the last check of each file. */
+  private final Map<Path, FileState> files = new HashMap<>();
+
+  /**
+   * Creates a new TypeInformationServer.
+   *
+   * @param checkerName the binary name of the checker class
+   * @param userOptions the javac options for every compilation
+   */
+  public TypeInformationServer(String checkerName, List<String> userOptions) {
+    try {
+      this.checkerClass = Class.forName(checkerName).asSubclass(SourceChecker.class);
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new UserError("%s is not a checker class: %s", checkerName, e);
+    }
+    this.options = new ArrayList<>(userOptions);
+    this.options.addAll(SERVER_OPTIONS);
+    this.reuseResults = userOptions.stream().noneMatch(option -> option.startsWith("-Ainfer"));
+    this.compiler = ToolProvider.getSystemJavaCompiler();
+    this.fileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Runs the server on standard input and standard output.
+   *
+   * @param args the checker class, followed by javac options
+   * @throws IOException if standard input cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println(
+          "Usage: java " + TypeInformationServer.class.getName() + " <checker> [javac options]");
+      System.exit(1);
+    }
+    PrintStream out =
+        new PrintStream(new FileOutputStream(FileDescriptor.out), false, StandardCharsets.UTF_8);
+    // Keep standard output for responses.
+    System.setOut(System.err);
+    TypeInformationServer server =
+        new TypeInformationServer(args[0], List.of(args).subList(1, args.length));
+    server.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), out);
+  }
+
+  /**
+   * Answers requests until a shutdown request or the end of the input.
+   *
+   * @param in the requests, one per line
+   * @param out the responses, one per line
+   * @throws IOException if the requests cannot be read
+   */
+  public void serve(BufferedReader in, PrintStream out) throws IOException {
+    String line;
+    while ((line = in.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      Object id = null;
+      String response;
+      boolean shutdown = false;
+      try {
+        Map<String, @Nullable Object> request = Json.parseObject(line);
+        id = request.get("id");
+        String method = Json.getString(request, "method");
+        shutdown = method.equals("shutdown");
+        response = "{\"id\":" + Json.write(id) + ",\"result\":" + handle(method, request) + "}";
+      } catch (RuntimeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.toString();
+        response = "{\"id\":" + Json.write(id) + ",\"error\":" + Json.quote(message) + "}";
+      }
+      out.println(response);
+      out.flush();
+      if (shutdown) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Handles one request.
+   *
+   * @param method the name of the request
+   * @param request the request
+   * @return the result, as JSON
+   */
+  private String handle(String method, Map<String, @Nullable Object> request) {
+    switch (method) {
+      case "check" -> {
+        Path file = getFile(request);
+        Object text = request.get("text");
+        return check(file, text instanceof String s ? s : null);
+      }
+      case "typeAt" -> {
+        FileState state = getState(getFile(request));
+        int line = Json.getInt(request, "line");
+        int column = Json.getInt(request, "column");
+        StringJoiner types = new StringJoiner(",", "[", "]");
+        for (Message message : state.messages) {
+          if (message.type != null && message.type.contains(line, column)) {
+            types.add(message.type.toJson());
+          }
+        }
+        return "{\"types\":" + types + "}";
+      }
+      case "diagnostics" -> {
+        return "{\"diagnostics\":" + diagnosticsToJson(getState(getFile(request))) + "}";
+      }
+      case "close" -> {
+        files.remove(getFile(request));
+        return "null";
+      }
+      case "shutdown" -> {
+        return "null";
+      }
+      default -> throw new UserError("Unknown method: " + method);
+    }
+  }
+
+  /**
+   * Returns the normalized path of the file in a request.
+   *
+   * @param request a request
+   * @return the file of the request
+   */
+  private static Path getFile(Map<String, @Nullable Object> request) {
+    return Paths.get(Json.getString(request, "file")).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Returns the results of the last check of a file.
+   *
+   * @param file a file
+   * @return the results of the last check of {@code file}
+   */
+  private FileState getState(Path file) {
+    FileState state = files.get(file);
+    if (state == null) {
+      throw new UserError("File has not been checked: " + file);
+    }
+    return state;
+  }
+
+  /**
+   * Type-checks a file, reusing the results of unchanged methods from its previous check.
+   *
+   * @param file the file to check
+   * @param text the content of the file, or null to read it from disk
+   * @return the result, as JSON
+   */
+  private String check(Path file, @Nullable String text) {
+    long startNanos = System.nanoTime();
+    if (text == null && !Files.isRegularFile(file)) {
+      throw new UserError("Cannot read %s: no such file", file);
+    }
+    JavaFileObject source =
+        text != null
+            ? new SourceText(file.toUri(), text)
+            : fileManager.getJavaFileObjects(file).iterator().next();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavacTask task =
+        (JavacTask)
+            compiler.getTask(null, fileManager, diagnostics, options, null, List.of(source));
+    SourceChecker checker = newChecker();
+    task.setProcessors(List.of(checker));
+
+    CompilationUnitTree root;
+    String content;
+    try {
+      root = task.parse().iterator().next();
+      content = root.getSourceFile().getCharContent(true).toString();
+    } catch (IOException e) {
+      throw new UserError("Cannot read %s: %s", file, e.getMessage());
+    }
+    SourcePositions positions = Trees.instance(task).getSourcePositions();
+    List<MethodInfo> methods = new ArrayList<>();
+    for (Tree decl : root.getTypeDecls()) {
+      if (decl instanceof ClassTree classTree) {
+        collectMethods(classTree, classTree.getSimpleName().toString(), root, positions, methods);
+      }
+    }
+    String skeleton = skeleton(content, methods, root, positions);
+    long inputs = reuseResults ? inputsFingerprint(file) : 0;
+
+    // Decide which methods are unchanged since the previous check.
+    FileState previous = files.get(file);
+    Map<String, MethodState> reused = new HashMap<>();
+    Set<MethodTree> toSkip = Collections.newSetFromMap(new IdentityHashMap<>());
+    if (reuseResults
+        && previous != null
+        && previous.skeleton.equals(skeleton)
+        && previous.inputs == inputs) {
+      for (MethodInfo method : methods) {
+        MethodState old = previous.methods.get(method.key);
+        if (old != null && old.text.equals(method.text(content))) {
+          reused.put(method.key, old);
+          toSkip.add(method.tree);
+        }
+      }
+    }
+    checker.setMethodsToSkip(toSkip);
+
+    try {
+      task.analyze();
+    } catch (IOException e) {
+      throw new UserError("Cannot check %s: %s", file, e.getMessage());
+    }
+
+    // Attribute each new diagnostic to the method that contains it.
+    List<Message> messages = new ArrayList<>();
+    Map<String, List<Message>> methodMessages = new HashMap<>();
+    for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+      if (d.getSource() != null && !d.getSource().toUri().equals(source.toUri())) {
+        continue;
+      }
+      Message message = Message.of(d);
+      messages.add(message);
+      MethodInfo owner = findMethod(methods, d.getPosition());
+      if (owner != null) {
+        methodMessages.computeIfAbsent(owner.key, k -> new ArrayList<>()).add(message);
+      }
+    }
+
+    // Reuse the results of unchanged methods, at their new positions.
+    LineMap lineMap = root.getLineMap();
+    Map<String, MethodState> methodStates = new LinkedHashMap<>();
+    for (MethodInfo method : methods) {
+      int line = (int) lineMap.getLineNumber(method.start) - 1;
+      int column = (int) lineMap.getColumnNumber(method.start) - 1;
+      MethodState old = reused.get(method.key);
+      List<Message> results = methodMessages.getOrDefault(method.key, new ArrayList<>());
+      if (old != null) {
+        // javac attributed the method again, but the checker did not visit it.
+        for (Message message : old.messages) {
+          if (message.fromChecker) {
+            Message shifted = message.shift(old.line, line - old.line, column - old.column);
+            results.add(shifted);
+            messages.add(shifted);
+          }
+        }
+      }
+      methodStates.put(method.key, new MethodState(method.text(content), line, column, results));
+    }
+    messages.sort(Comparator.comparingInt(Message::line).thenComparingInt(Message::column));
+
+    FileState state = new FileState(skeleton, inputs, methodStates, messages);
+    files.put(file, state);
+    long millis = (System.nanoTime() - startNanos) / 1_000_000;
+    return "{\"diagnostics\":"
+        + diagnosticsToJson(state)
+        + ",\"checkedMethods\":"
+        + (methods.size() - reused.size())
+        + ",\"reusedMethods\":"
+        + reused.size()
+        + ",\"millis\":"
+        + millis
+        + "}";
+  }
+
+  /**
+   * Returns a fingerprint of the inputs of a check other than the checked file: the files on the
+   * classpath, sourcepath, and module path, and the stub files. The fingerprint changes if any of
+   * those files is added, removed, or modified. Must be called after the javac task of the check
+   * has been created, which sets the locations of the file manager from the options.
+   *
+   * @param file the checked file, which is excluded from the fingerprint
+   * @return a fingerprint of the inputs of a check of {@code file}
+   */
+  private long inputsFingerprint(Path file) {
+    List<Path> roots = new ArrayList<>();
+    for (StandardLocation location :
+        List.of(
+            StandardLocation.CLASS_PATH,
+            StandardLocation.SOURCE_PATH,
+            StandardLocation.MODULE_PATH)) {
+      Iterable<? extends Path> paths = fileManager.getLocationAsPaths(location);
+      if (paths != null) {
+        paths.forEach(roots::add);
+      }
+    }
+    for (String option : options) {
+      if (option.startsWith("-Astubs=")) {
+        for (String stub : option.substring("-Astubs=".length()).split(File.pathSeparator)) {
+          if (!stub.isEmpty()) {
+            roots.add(Paths.get(stub));
+          }
+        }
+      }
+    }
+
+    long fingerprint = 0;
+    for (Path root : roots) {
+      if (!Files.exists(root)) {
+        continue;
+      }
+      try (Stream<Path> walk = Files.walk(root)) {
+        for (Path input : (Iterable<Path>) walk::iterator) {
+          if (!Files.isRegularFile(input) || input.toAbsolutePath().normalize().equals(file)) {
+            continue;
+          }
+          // A sum does not depend on the order of the walk, and changes whenever the size or
+          // modification time of a single file does.
+          long size = Files.size(input);
+          long modified = Files.getLastModifiedTime(input).toMillis();
+          fingerprint += (input.hashCode() * 31L + size) * 31L + modified;
+        }
+      } catch (IOException | UncheckedIOException e) {
+        // An input that cannot be read forces all methods to be checked, now and next time.
+        return System.nanoTime();
+      }
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Creates a new instance of the checker.
+   *
+   * @return a new instance of the checker
+   */
+  private SourceChecker newChecker() {
+    try {
+      return checkerClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new UserError("Cannot instantiate %s: %s", checkerClass.getName(), e);
+    }
+  }
+
+  /**
+   * Returns the diagnostics of a file, excluding type information, as JSON.
+   *
+   * @param state the results of a file
+   * @return the diagnostics of the file, as a JSON array
+   */
+  private static String diagnosticsToJson(FileState state) {
+    StringJoiner result = new StringJoiner(",", "[", "]");
+    for (Message message : state.messages) {
+      if (message.type == null) {
+        result.add(message.toJson());
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * A method declaration in the file being checked.
+   *
+   * @param key identifies the method within its file, across checks
+   * @param tree the method declaration
+   * @param start the start position of the method
+   * @param end the end position of the method
+   */
+  private record MethodInfo(String key, MethodTree tree, long start, long end) {
+    /**
+     * Returns the source code of the method.
+     *
+     * @param content the content of the file
+     * @return the source code of the method
+     */
+    String text(String content) {
+      return content.substring((int) start, (int) end);
+    }
+  }
+
+  /**
+   * Adds the methods of a class and its member classes to {@code methods}. Methods of local and
+   * anonymous classes are part of the method or field that contains them.
+   *
+   * @param classTree a class
+   * @param classKey identifies the class within its file
+   * @param root the compilation unit
+   * @param positions the source positions
+   * @param methods the list to which to add the methods
+   */
+  private static void collectMethods(
+      ClassTree classTree,
+      String classKey,
+      CompilationUnitTree root,
+      SourcePositions positions,
+      List<MethodInfo> methods) {
+    for (Tree member : classTree.getMembers()) {
+      if (member instanceof ClassTree memberClass) {
+        collectMethods(
+            memberClass, classKey + "$" + memberClass.getSimpleName(), root, positions, methods);
+      } else if (member instanceof MethodTree method) {
+        long start = positions.getStartPosition(root, method);
+        long end = positions.getEndPosition(root, method);
+        if (start == Diagnostic.NOPOS || end == Diagnostic.NOPOS) {
+          // A default constructor, which is not in the source code.
+          continue;
+        }
+        StringJoiner params = new StringJoiner(",", "(", ")");
+        for (VariableTree param : method.getParameters()) {
+          params.add(param.getType().toString());
+        }
+        String key = classKey + "#" + method.getName() + params;
+        String uniqueKey = key;
+        for (int i = 2; containsKey(methods, uniqueKey); i++) {
+          // Erroneous code can declare the same method twice.
+          uniqueKey = key + "~" + i;
+        }
+        methods.add(new MethodInfo(uniqueKey, method, start, end));
+      }
+    }
+  }
+
+  /**
+   * Returns true if {@code methods} contains a method with the given key.
+   *
+   * @param methods a list of methods
+   * @param key a method key
+   * @return true if {@code methods} contains a method with key {@code key}
+   */
+  private static boolean containsKey(List<MethodInfo> methods, String key) {
+    for (MethodInfo method : methods) {
+      if (method.key.equals(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the method that contains a position, or null if none does.
+   *
+   * @param methods the methods of a file
+   * @param position a position in the file
+   * @return the method that contains {@code position}, or null
+   */
+  private static @Nullable MethodInfo findMethod(List<MethodInfo> methods, long position) {
+    if (position == Diagnostic.NOPOS) {
+      return null;
+    }
+    for (MethodInfo method : methods) {
+      if (method.start <= position && position < method.end) {
+        return method;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the content of a file with every method body removed. Two versions of a file with the
+   * same skeleton differ only in method bodies.
+   *
+   * @param content the content of the file
+   * @param methods the methods of the file, in order
+   * @param root the compilation unit
+   * @param positions the source positions
+   * @return the skeleton of the file
+   */
+  private static String skeleton(
+      String content,
+      List<MethodInfo> methods,
+      CompilationUnitTree root,
+      SourcePositions positions) {
+    List<MethodInfo> sorted = new ArrayList<>(methods);
+    sorted.sort(Comparator.comparingLong(MethodInfo::start));
+    StringBuilder result = new StringBuilder(content.length());
+    int copied = 0;
+    for (MethodInfo method : sorted) {
+      Tree body = method.tree.getBody();
+      if (body == null) {
+        continue;
+      }
+      int bodyStart = (int) positions.getStartPosition(root, body);
+      int bodyEnd = (int) positions.getEndPosition(root, body);
+      if (bodyStart < copied || bodyEnd < bodyStart) {
+        continue;
+      }
+      result.append(content, copied, bodyStart).append("{}");
+      copied = bodyEnd;
+    }
+    result.append(content, copied, content.length());
+    return result.toString();
+  }
+
+  /**
+   * The results of the last check of a file.
+   *
+   * @param skeleton the skeleton of the file; see {@link #skeleton}
+   * @param inputs the fingerprint of the other inputs of the check; see {@link #inputsFingerprint}
+   * @param methods the results of each method
+   * @param messages all diagnostics and type information of the file
+   */
+  private record FileState(
+      String skeleton, long inputs, Map<String, MethodState> methods, List<Message> messages) {}
+
+  /**
+   * The results of the last check of a method.
+   *
+   * @param text the source code of the method
+   * @param line the line on which the method starts
+   * @param column the column at which the method starts
+   * @param messages the diagnostics and type information within the method
+   */
+  private record MethodState(String text, int line, int column, List<Message> messages) {}
+
+  /**
+   * A diagnostic, or the type information of a tree.
+   *
+   * @param severity the kind of the diagnostic, in lower case
+   * @param line the line of the diagnostic
+   * @param column the column of the diagnostic
+   * @param text the message of the diagnostic
+   * @param fromChecker true if the diagnostic was issued by the checker rather than by javac
+   * @param type the type information in the diagnostic, or null if it is not type information
+   */
+  private record Message(
+      String severity,
+      int line,
+      int column,
+      String text,
+      boolean fromChecker,
+      @Nullable TypeInfo type) {
+
+    /**
+     * Converts a javac diagnostic.
+     *
+     * @param d a javac diagnostic
+     * @return the diagnostic as a Message
+     */
+    static Message of(Diagnostic<? extends JavaFileObject> d) {
+      int line = d.getLineNumber() == Diagnostic.NOPOS ? 0 : (int) d.getLineNumber() - 1;
+      int column = d.getColumnNumber() == Diagnostic.NOPOS ? 0 : (int) d.getColumnNumber() - 1;
+      String text = d.getMessage(Locale.ROOT);
+      Matcher m = TYPE_INFORMATION.matcher(text);
+      TypeInfo type = null;
+      if (m.matches()) {
+        type =
+            new TypeInfo(
+                m.group(1),
+                m.group(2),
+                m.group(3),
+                Integer.parseInt(m.group(4)),
+                Integer.parseInt(m.group(5)),
+                Integer.parseInt(m.group(6)),
+                Integer.parseInt(m.group(7)));
+      }
+      String severity = d.getKind().name().toLowerCase(Locale.ROOT);
+      // The checker reports diagnostics through the Messager.
+      boolean fromChecker = d.getCode() != null && d.getCode().endsWith(".proc.messager");
+      return new Message(severity, line, column, text, fromChecker, type);
+    }
+
+    /**
+     * Returns this message, moved along with the method that contains it.
+     *
+     * @param firstLine the line on which the method started
+     * @param lineDelta the number of lines by which the method moved
+     * @param columnDelta the number of columns by which the first line of the method moved
+     * @return this message, moved
+     */
+    Message shift(int firstLine, int lineDelta, int columnDelta) {
+      return new Message(
+          severity,
+          line + lineDelta,
+          line == firstLine ? column + columnDelta : column,
+          text,
+          fromChecker,
+          type == null ? null : type.shift(firstLine, lineDelta, columnDelta));
+    }
+
+    /**
+     * Returns this diagnostic as JSON.
+     *
+     * @return this diagnostic as a JSON object
+     */
+    String toJson() {
+      return "{\"severity\":"
+          + Json.quote(severity)
+          + ",\"line\":"
+          + line
+          + ",\"column\":"
+          + column
+          + ",\"message\":"
+          + Json.quote(text)
+          + "}";
+    }
+  }
+
+  /**
+   * The type of a tree, as reported by {@link TypeInformationPresenter}.
+   *
+   * @param checker the simple name of the checker
+   * @param kind the kind of type information
+   * @param type the formatted type
+   * @param startLine the first line of the tree
+   * @param startColumn the first column of the tree
+   * @param endLine the last line of the tree
+   * @param endColumn the last column of the tree, inclusive
+   */
+  private record TypeInfo(
+      String checker,
+      String kind,
+      String type,
+      int startLine,
+      int startColumn,
+      int endLine,
+      int endColumn) {
+
+    /**
+     * Returns true if the range of this contains a position.
+     *
+     * @param line a line
+     * @param column a column
+     * @return true if the range of this contains the position
+     */
+    boolean contains(int line, int column) {
+      if (line < startLine || line > endLine) {
+        return false;
+      }
+      return (line != startLine || column >= startColumn)
+          && (line != endLine || column <= endColumn);
+    }
+
+    /**
+     * Returns this type information, moved along with the method that contains it.
+     *
+     * @param firstLine the line on which the method started
+     * @param lineDelta the number of lines by which the method moved
+     * @param columnDelta the number of columns by which the first line of the method moved
+     * @return this type information, moved
+     */
+    TypeInfo shift(int firstLine, int lineDelta, int columnDelta) {
+      return new TypeInfo(
+          checker,
+          kind,
+          type,
+          startLine + lineDelta,
+          startLine == firstLine ? startColumn + columnDelta : startColumn,
+          endLine + lineDelta,
+          endLine == firstLine ? endColumn + columnDelta : endColumn);
+    }
+
+    /**
+     * Returns this type information as JSON.
+     *
+     * @return this type information as a JSON object
+     */
+    String toJson() {
+      return "{\"checker\":"
+          + Json.quote(checker)
+          + ",\"kind\":"
+          + Json.quote(kind)
+          + ",\"type\":"
+          + Json.quote(type)
+          + ",\"range\":["
+          + startLine
+          + ","
+          + startColumn
+          + ","
+          + endLine
+          + ","
+          + endColumn
+          + "]}";
+    }
+  }
+
+  /** A source file whose content is given by the client rather than read from disk. */
+  private static class SourceText extends SimpleJavaFileObject {
+
+    /** The content of the file. */
+    private final String text;
+
+    /**
+     * Creates a new SourceText.
+     *
+     * @param uri the URI of the file
+     * @param text the content of the file
+     */
+    SourceText(URI uri, String text) {
+      super(uri, Kind.SOURCE);
+      this.text = text;
+    }
+
+    @Override
+    public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+      return text;
+    }
+  }
+
+  /**
+   * A minimal reader and writer for the JSON of the protocol. A request is an object whose values
+   * are strings, numbers, booleans, null, arrays, or objects.
+   */
+  private static class Json {
+
+    /** The text being parsed. */
+    private final String text;
+
+    /** The position of the next character to parse. */
+    private int pos = 0;
+
+    /**
+     * Creates a new Json parser.
+     *
+     * @param text the text to parse
+     */
+    private Json(String text) {
+      this.text = text;
+    }
+
+    /**
+     * Parses a JSON object.
+     *
+     * @param text a JSON object
+     * @return the object, as a map
+     */
+    @SuppressWarnings("unchecked") // parseValue returns a Map<String, @Nullable Object> for '{'
+    static Map<String, @Nullable Object> parseObject(String text) {
+      Json parser = new Json(text);
+      parser.skipWhitespace();
+      if (parser.peek() != '{') {
+        throw parser.error("expected an object");
+      }
+      Map<String, @Nullable Object> result = (Map<String, @Nullable Object>) parser.parseValue();
+      parser.skipWhitespace();
+      if (parser.pos != text.length()) {
+        throw parser.error("unexpected text after the object");
+      }
+      return result;
+    }
+
+    /**
+     * Returns a string-valued member of an object.
+     *
+     * @param object an object
+     * @param name the name of the member
+     * @return the value of the member
+     */
+    static String getString(Map<String, @Nullable Object> object, String name) {
+      if (object.get(name) instanceof String s) {
+        return s;
+      }
+      throw new UserError("Missing string \"%s\"", name);
+    }
+
+    /**
+     * Returns an integer-valued member of an object.
+     *
+     * @param object an object
+     * @param name the name of the member
+     * @return the value of the member
+     */
+    static int getInt(Map<String, @Nullable Object> object, String name) {
+      if (object.get(name) instanceof Number n) {
+        return n.intValue();
+      }
+      throw new UserError("Missing number \"%s\"", name);
+    }
+
+    /**
+     * Returns the next character, without consuming it.
+     *
+     * @return the next character
+     */
+    private char peek() {
+      if (pos >= text.length()) {
+        throw error("unexpected end of input");
+      }
+      return text.charAt(pos);
+    }
+
+    /** Skips whitespace. */
+    private void skipWhitespace() {
+      while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+        pos++;
+      }
+    }
+
+    /**
+     * Consumes an expected character.
+     *
+     * @param c the expected character
+     */
+    private void expect(char c) {
+      skipWhitespace();
+      if (peek() != c) {
+        throw error("expected '" + c + "'");
+      }
+      pos++;
+    }
+
+    /**
+     * Parses a value.
+     *
+     * @return the value
+     */
+    private @Nullable Object parseValue() {
+      skipWhitespace();
+      char c = peek();
+      switch (c) {
+        case '{' -> {
+          pos++;
+          Map<String, @Nullable Object> result = new LinkedHashMap<>();
+          skipWhitespace();
+          if (peek() == '}') {
+            pos++;
+            return result;
+          }
+          while (true) {
+            skipWhitespace();
+            String name = parseString();
+            expect(':');
+            result.put(name, parseValue());
+            skipWhitespace();
+            if (peek() == '}') {
+              pos++;
+              return result;
+            }
+            expect(',');
+          }
+        }
+        case '[' -> {
+          pos++;
+          List<@Nullable Object> result = new ArrayList<>();
+          skipWhitespace();
+          if (peek() == ']') {
+            pos++;
+            return result;
+          }
+          while (true) {
+            result.add(parseValue());
+            skipWhitespace();
+            if (peek() == ']') {
+              pos++;
+              return result;
+            }
+            expect(',');
+          }
+        }
+        case '"' -> {
+          return parseString();
+        }
+        default -> {
+          int start = pos;
+          while (pos < text.length() && "{}[],: \t\r\n".indexOf(text.charAt(pos)) < 0) {
+            pos++;
+          }
+          String word = text.substring(start, pos);
+          switch (word) {
+            case "true" -> {
+              return true;
+            }
+            case "false" -> {
+              return false;
+            }
+            case "null" -> {
+              return null;
+            }
+            default -> {
+              try {
+                if (word.contains(".") || word.contains("e") || word.contains("E")) {
+                  return Double.parseDouble(word);
+                }
+                return Long.parseLong(word);
+              } catch (NumberFormatException e) {
+                throw error("unexpected '" + word + "'");
+              }
+            }
+          }
+        }
+      }
+    }
+
+    /**
+     * Parses a string.
+     *
+     * @return the string
+     */
+    private String parseString() {
+      if (peek() != '"') {
+        throw error("expected a string");
+      }
+      pos++;
+      StringBuilder result = new StringBuilder();
+      while (true) {
+        char c = peek();
+        pos++;
+        if (c == '"') {
+          return result.toString();
+        }
+        if (c != '\\') {
+          result.append(c);
+          continue;
+        }
+        char escaped = peek();
+        pos++;
+        switch (escaped) {
+          case 'b' -> result.append('\b');
+          case 'f' -> result.append('\f');
+          case 'n' -> result.append('\n');
+          case 'r' -> result.append('\r');
+          case 't' -> result.append('\t');
+          case 'u' -> {
+            if (pos + 4 > text.length()) {
+              throw error("unexpected end of input");
+            }
+            result.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+            pos += 4;
+          }
+          default -> result.append(escaped);
+        }
+      }
+    }
+
+    /**
+     * Returns an exception for a syntax error at the current position.
+     *
+     * @param message the error message
+     * @return an exception for the syntax error
+     */
+    private UserError error(String message) {
+      return new UserError("Invalid JSON at position %d: %s", pos, message);
+    }
+
+    /**
+     * Writes a value as JSON.
+     *
+     * @param value a string, number, boolean, or null
+     * @return the value as JSON
+     */
+    static String write(@Nullable Object value) {
+      if (value == null) {
+        return "null";
+      } else if (value instanceof String s) {
+        return quote(s);
+      } else {
+        return value.toString();
+      }
+    }
+
+    /**
+     * Returns a string as a JSON string literal.
+     *
+     * @param s a string
+     * @return {@code s} as a JSON string literal
+     */
+    static String quote(String s) {
+      StringBuilder result = new StringBuilder(s.length() + 2);
+      result.append('"');
+      for (int i = 0; i < s.length(); i++) {
+        char c = s.charAt(i);
+        switch (c) {
+          case '"' -> result.append("\\\"");
+          case '\\' -> result.append("\\\\");
+          case '\n' -> result.append("\\n");
+          case '\r' -> result.append("\\r");
+          case '\t' -> result.append("\\t");
+          default -> {
+            if (c < 0x20) {
+              result.append(String.format("\\u%04x", (int) c));
+            } else {
+              result.append(c);
+            }
+          }
+        }
+      }
+      result.append('"');
+      return result.toString();
+    }
+  }
+}
@@ -11,6 +11,7 @@ import com.sun.source.tree.Tree;
 import com.sun.source.tree.TypeParameterTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -107,15 +108,39 @@ public class QualifierDefaults {
   protected final Map<Element, BoundType> elementToBoundType = MapsP.createLruCache(CACHE_SIZE);
 
   /**
-   * Defaults that apply for a certain Element. On the one hand this is used for caching (an earlier
-   * name for the field was "qualifierCache"). It can also be used by type systems to set defaults
-   * for certain Elements.
+   * Defaults that type systems set for certain Elements with {@link #addElementDefault}. They
+   * replace the defaults that {@link #defaultsAt} would otherwise compute for the Element.
    */
   private final IdentityHashMap<Element, DefaultSet> elementDefaults = new IdentityHashMap<>();
 
+  /**
+   * The defaults that {@link #defaultsAt} computed for each Element, including Elements that have
+   * no defaults (an earlier name for the field was "qualifierCache"). The cache is discarded when a
+   * default is added.
+   */
+  private final IdentityHashMap<Element, DefaultSet> defaultsAtCache = new IdentityHashMap<>();
+
   /** A mapping of Element &rarr; Whether or not that element is AnnotatedFor this type system. */
   private final IdentityHashMap<Element, Boolean> elementAnnotatedFors = new IdentityHashMap<>();
 
+  /**
+   * The defaults to apply within each scope, in the order in which {@link #applyDefaultsElement}
+   * applies them: the defaults of the scope and its enclosing elements, then the unchecked code
+   * defaults if {@link #applyConservativeDefaults} holds for the scope, then the checked code
+   * defaults. The key null stands for no scope. Each array is computed once by {@link
+   * #effectiveDefaultsAt} and never modified; the table is discarded when a default is added.
+   */
+  private final IdentityHashMap<@Nullable Element, Default[]> effectiveDefaults =
+      new IdentityHashMap<>();
+
+  /**
+   * A default applier that is not in use, so that {@link #applyDefaultsElement} need not create a
+   * new applier for every type. Null while the applier is in use, in which case a nested call
+   * creates its own, and if the appliers are not {@linkplain DefaultApplierElement#isReusable()
+   * reusable}.
+   */
+  private @Nullable DefaultApplierElement idleApplier = null;
+
   /** CLIMB locations whose standard default is top for a given type system. */
   public static final List<TypeUseLocation> STANDARD_CLIMB_DEFAULTS_TOP =
       List.of(
@@ -274,6 +299,7 @@ public class QualifierDefaults {
       AnnotationMirror absoluteDefaultAnno, TypeUseLocation location) {
     checkDuplicates(checkedCodeDefaults, absoluteDefaultAnno, location);
     checkedCodeDefaults.add(new Default(absoluteDefaultAnno, location));
+    effectiveDefaults.clear();
   }
 
   /**
@@ -288,6 +314,7 @@ public class QualifierDefaults {
     checkIsValidUncheckedCodeLocation(uncheckedDefaultAnno, location);
 
     uncheckedCodeDefaults.add(new Default(uncheckedDefaultAnno, location));
+    effectiveDefaults.clear();
   }
 
   /** Sets the default annotation for unchecked elements, with specific locations. */
@@ -322,6 +349,8 @@ public class QualifierDefaults {
     }
     prevset.add(new Default(elementDefaultAnno, location));
     elementDefaults.put(elem, prevset);
+    defaultsAtCache.clear();
+    effectiveDefaults.clear();
   }
 
   /**
@@ -608,9 +637,7 @@ public class QualifierDefaults {
       }
     }
 
-    if (atypeFactory.shouldCache
-        && !atypeFactory.stubTypes.isParsing()
-        && !atypeFactory.ajavaTypes.isParsing()) {
+    if (canCache()) {
       elementAnnotatedFors.put(elt, elementAnnotatedForThisChecker);
     }
 
@@ -629,8 +656,12 @@ public class QualifierDefaults {
       return DefaultSet.EMPTY;
     }
 
-    if (elementDefaults.containsKey(elt)) {
-      return elementDefaults.get(elt);
+    DefaultSet cached = elementDefaults.get(elt);
+    if (cached == null) {
+      cached = defaultsAtCache.get(elt);
+    }
+    if (cached != null) {
+      return cached;
     }
 
     DefaultSet qualifiers = null;
@@ -682,12 +713,50 @@ public class QualifierDefaults {
       qualifiers.addAll(parentDefaults);
     }
 
-    if (qualifiers != null && !qualifiers.isEmpty()) {
-      elementDefaults.put(elt, qualifiers);
-      return qualifiers;
-    } else {
-      return DefaultSet.EMPTY;
+    // Also remember that an element has no defaults, so that its enclosed elements do not look
+    // for @DefaultQualifier annotations on it and on its enclosing elements again.
+    if (canCache()) {
+      defaultsAtCache.put(elt, qualifiers);
+    }
+    return qualifiers;
+  }
+
+  /**
+   * Returns the defaults to apply within the given scope; see {@link #effectiveDefaults}.
+   *
+   * @param scope the element representing the nearest enclosing default annotation scope
+   * @return the defaults to apply within {@code scope}, in order; must not be modified
+   */
+  private Default[] effectiveDefaultsAt(@Nullable Element scope) {
+    Default[] result = effectiveDefaults.get(scope);
+    if (result != null) {
+      return result;
+    }
+
+    List<Default> defaults = new ArrayList<>(defaultsAt(scope));
+    if (applyConservativeDefaults(scope)) {
+      defaults.addAll(uncheckedCodeDefaults);
     }
+    defaults.addAll(checkedCodeDefaults);
+    result = defaults.toArray(new Default[0]);
+
+    if (canCache()) {
+      effectiveDefaults.put(scope, result);
+    }
+    return result;
+  }
+
+  /**
+   * Returns true if the results of {@link #isElementAnnotatedForThisChecker}, {@link #defaultsAt},
+   * and {@link #effectiveDefaultsAt} may be cached. They are not cached while stub or ajava files
+   * are parsed, because the declaration annotations they read may not be complete yet.
+   *
+   * @return true if the results of queries about elements may be cached
+   */
+  private boolean canCache() {
+    return atypeFactory.shouldCache
+        && !atypeFactory.stubTypes.isParsing()
+        && !atypeFactory.ajavaTypes.isParsing();
   }
 
   /**
@@ -747,22 +816,29 @@ public class QualifierDefaults {
    * @checker_framework.manual #annotating-libraries Annotating libraries
    */
   private void applyDefaultsElement(Element annotationScope, AnnotatedTypeMirror type) {
-    DefaultSet defaults = defaultsAt(annotationScope);
-    DefaultApplierElement applier =
-        createDefaultApplierElement(atypeFactory, annotationScope, type, applyToTypeVar);
+    Default[] defaults = effectiveDefaultsAt(annotationScope);
+    if (defaults.length == 0) {
+      return;
+    }
 
-    for (Default def : defaults) {
-      applier.applyDefault(def);
+    DefaultApplierElement applier = idleApplier;
+    if (applier == null) {
+      applier = createDefaultApplierElement(atypeFactory, annotationScope, type, applyToTypeVar);
+    } else {
+      // Applying a default may compute the bounds of a type variable, which may apply defaults
+      // to another type, so take the applier while it is in use.
+      idleApplier = null;
+      applier.setTarget(annotationScope, type, applyToTypeVar);
     }
 
-    if (applyConservativeDefaults(annotationScope)) {
-      for (Default def : uncheckedCodeDefaults) {
+    try {
+      for (Default def : defaults) {
         applier.applyDefault(def);
       }
-    }
-
-    for (Default def : checkedCodeDefaults) {
-      applier.applyDefault(def);
+    } finally {
+      if (applier.isReusable()) {
+        idleApplier = applier;
+      }
     }
   }
 
@@ -781,10 +857,10 @@ public class QualifierDefaults {
     protected final AnnotatedTypeFactory atypeFactory;
 
     /** The scope of the default. */
-    protected final Element scope;
+    protected Element scope;
 
     /** The type to which to apply the default. */
-    protected final AnnotatedTypeMirror type;
+    protected AnnotatedTypeMirror type;
 
     /** Location to which to apply the default. (Should only be set by the applyDefault method.) */
     protected TypeUseLocation location;
@@ -803,7 +879,7 @@ public class QualifierDefaults {
       we use referential equality with the top level type var to determine which ones are definite
       type uses, i.e. uses which can be defaulted
     */
-    private final AnnotatedTypeVariable defaultableTypeVar;
+    private AnnotatedTypeVariable defaultableTypeVar;
 
     public DefaultApplierElement(
         AnnotatedTypeFactory atypeFactory,
@@ -817,6 +893,30 @@ public class QualifierDefaults {
       this.defaultableTypeVar = applyToTypeVar ? (AnnotatedTypeVariable) type : null;
     }
 
+    /**
+     * Reuses this applier for another type.
+     *
+     * @param scope the scope of the default
+     * @param type the type to which to apply the default
+     * @param applyToTypeVar whether {@code type} is a type variable that should be defaulted
+     */
+    public void setTarget(Element scope, AnnotatedTypeMirror type, boolean applyToTypeVar) {
+      this.scope = scope;
+      this.type = type;
+      this.defaultableTypeVar = applyToTypeVar ? (AnnotatedTypeVariable) type : null;
+    }
+
+    /**
+     * Returns true if {@link #setTarget} may retarget this applier for another type, instead of
+     * {@link #createDefaultApplierElement} creating a new applier. A subclass opts in by overriding
+     * this method, and {@link #setTarget} if its own state depends on the target.
+     *
+     * @return true if this applier may be reused for another type
+     */
+    protected boolean isReusable() {
+      return getClass() == DefaultApplierElement.class;
+    }
+
     /**
      * Apply default to the type.
      *
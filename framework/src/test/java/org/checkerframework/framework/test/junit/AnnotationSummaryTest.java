@@ -0,0 +1,75 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.framework.test.TypecheckExecutor;
+import org.checkerframework.framework.test.TypecheckResult;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that an annotation summary written by {@code -AannotationSummaryOutputDir} is read back by
+ * {@code -AuseAnnotationSummaries}.
+ */
+public class AnnotationSummaryTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * Create an AnnotationSummaryTest.
+   *
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public AnnotationSummaryTest(List<File> testFiles) {
+    super(
+        testFiles,
+        ValueChecker.class,
+        "annotation-summaries",
+        // This test reads the .class files and the summary written by the first compilation.
+        Collections.singletonList(TestConfigurationBuilder.getOutputDirFromProperty().getPath()),
+        "-AuseAnnotationSummaries");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"annotation-summaries"};
+  }
+
+  @Override
+  public void run() {
+    boolean shouldEmitDebugInfo = TestUtilities.getShouldEmitDebugInfo();
+    List<String> customizedOptions1 =
+        customizeOptions(
+            Arrays.asList(
+                "-Astubs=tests/annotation-summarieslib/SummaryLib.astub",
+                "-AmergeStubsWithSource",
+                "-AannotationSummaryOutputDir="
+                    + TestConfigurationBuilder.getOutputDirFromProperty()));
+    TestConfiguration config1 =
+        TestConfigurationBuilder.buildDefaultConfiguration(
+            "tests/annotation-summarieslib",
+            new File("tests/annotation-summarieslib", "SummaryLib.java"),
+            ValueChecker.class,
+            customizedOptions1,
+            shouldEmitDebugInfo);
+    TypecheckResult testResult1 = new TypecheckExecutor().runTest(config1);
+    TestUtilities.assertTestDidNotFail(testResult1);
+
+    List<String> customizedOptions2 =
+        customizeOptions(Collections.unmodifiableList(checkerOptions));
+    TestConfiguration config2 =
+        TestConfigurationBuilder.buildDefaultConfiguration(
+            new File(resolveTestDirectory(), testDir).getPath(),
+            testFiles,
+            classpathExtra,
+            checkerNames,
+            customizedOptions2,
+            shouldEmitDebugInfo);
+    TypecheckResult testResult2 = new TypecheckExecutor().runTest(config2);
+    checkResult(adjustTypecheckResult(testResult2));
+  }
+}
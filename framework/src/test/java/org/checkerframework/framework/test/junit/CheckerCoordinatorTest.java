@@ -0,0 +1,95 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import org.checkerframework.common.aliasing.AliasingChecker;
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.source.CheckerCoordinator;
+import org.checkerframework.framework.source.SourceChecker;
+import org.checkerframework.framework.util.TreePathCacher;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests that the checkers passed to javac as separate annotation processors share a {@link
+ * CheckerCoordinator}, and that the coordinator is discarded when the compilation finishes.
+ */
+public class CheckerCoordinatorTest {
+
+  /** A compilation unit that the checkers accept. */
+  private static final String SOURCE =
+      String.join(
+          "\n",
+          "class A {",
+          "  int f;",
+          "  int m(int x) {",
+          "    f = x + 1;",
+          "    return f;",
+          "  }",
+          "}",
+          "");
+
+  @Test
+  public void independentCheckersShareCoordinatorOfOneCompilation() throws IOException {
+    ValueChecker valueChecker = new ValueChecker();
+    AliasingChecker aliasingChecker = new AliasingChecker();
+    Path outputDir = Files.createTempDirectory("coordinator");
+    try {
+      compile(outputDir, valueChecker, aliasingChecker);
+    } finally {
+      try (Stream<Path> files = Files.walk(outputDir)) {
+        for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+          Files.delete(file);
+        }
+      }
+    }
+
+    TreePathCacher shared = valueChecker.getTreePathCacher();
+    Assert.assertSame(shared, aliasingChecker.getTreePathCacher());
+    Assert.assertSame(
+        valueChecker.getJavaExpressionParseCache(), aliasingChecker.getJavaExpressionParseCache());
+    // The coordinator of the finished compilation is no longer retained, so asking for the
+    // coordinator of the same processing environment creates a new one.
+    Assert.assertNotSame(
+        shared, CheckerCoordinator.of(valueChecker.getProcessingEnvironment()).getTreePathCacher());
+  }
+
+  /**
+   * Compiles {@link #SOURCE} in one javac task, with each of the given checkers as an annotation
+   * processor.
+   *
+   * @param outputDir the directory for class files
+   * @param checkers the checkers
+   */
+  private static void compile(Path outputDir, SourceChecker... checkers) {
+    JavaFileObject source =
+        new SimpleJavaFileObject(URI.create("string:///A.java"), JavaFileObject.Kind.SOURCE) {
+          @Override
+          public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return SOURCE;
+          }
+        };
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler.CompilationTask task =
+        compiler.getTask(
+            null,
+            null,
+            diagnostics,
+            List.of("-d", outputDir.toString()),
+            null,
+            List.of(source));
+    task.setProcessors(List.of(checkers));
+    Assert.assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+  }
+}
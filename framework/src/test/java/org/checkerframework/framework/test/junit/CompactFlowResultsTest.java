@@ -0,0 +1,28 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.checkerframework.framework.testchecker.compactflow.CompactFlowChecker;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Tests that stores are still available after {@code -AcompactFlowResults} released them. */
+public class CompactFlowResultsTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public CompactFlowResultsTest(List<File> testFiles) {
+    super(
+        testFiles,
+        CompactFlowChecker.class,
+        "flow",
+        "-AcheckPurityAnnotations",
+        "-AcompactFlowResults");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"flow", "all-systems"};
+  }
+}
@@ -0,0 +1,26 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.checkerframework.framework.testchecker.parsecache.ParseCacheChecker;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that an expression string parsed at a declaration through the parse cache yields the same
+ * result as parsing it afresh, in every compilation unit that uses the declaration.
+ */
+public class ParseCacheTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public ParseCacheTest(List<File> testFiles) {
+    super(testFiles, ParseCacheChecker.class, "parsecache");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"parsecache"};
+  }
+}
@@ -0,0 +1,73 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.checkerframework.common.value.ValueChecker;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.checkerframework.framework.test.TestConfiguration;
+import org.checkerframework.framework.test.TestConfigurationBuilder;
+import org.checkerframework.framework.test.TestUtilities;
+import org.checkerframework.framework.test.TypecheckExecutor;
+import org.checkerframework.framework.test.TypecheckResult;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that a purity summary written by {@code -ApuritySummaryOutputDir} is read back by {@code
+ * -AusePuritySummaries}.
+ */
+public class PuritySummaryTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * Create a PuritySummaryTest.
+   *
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public PuritySummaryTest(List<File> testFiles) {
+    super(
+        testFiles,
+        ValueChecker.class,
+        "purity-summaries",
+        // This test reads the .class files and the summary written by the first compilation.
+        Collections.singletonList(TestConfigurationBuilder.getOutputDirFromProperty().getPath()),
+        "-AusePuritySummaries");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"purity-summaries"};
+  }
+
+  @Override
+  public void run() {
+    boolean shouldEmitDebugInfo = TestUtilities.getShouldEmitDebugInfo();
+    List<String> customizedOptions1 =
+        customizeOptions(
+            Arrays.asList(
+                "-ApuritySummaryOutputDir=" + TestConfigurationBuilder.getOutputDirFromProperty()));
+    TestConfiguration config1 =
+        TestConfigurationBuilder.buildDefaultConfiguration(
+            "tests/purity-summarieslib",
+            TestUtilities.findNestedJavaTestFiles("purity-summarieslib"),
+            Collections.emptyList(),
+            Collections.singletonList(ValueChecker.class.getName()),
+            customizedOptions1,
+            shouldEmitDebugInfo);
+    TypecheckResult testResult1 = new TypecheckExecutor().runTest(config1);
+    TestUtilities.assertTestDidNotFail(testResult1);
+
+    List<String> customizedOptions2 =
+        customizeOptions(Collections.unmodifiableList(checkerOptions));
+    TestConfiguration config2 =
+        TestConfigurationBuilder.buildDefaultConfiguration(
+            new File(resolveTestDirectory(), testDir).getPath(),
+            testFiles,
+            classpathExtra,
+            checkerNames,
+            customizedOptions2,
+            shouldEmitDebugInfo);
+    TypecheckResult testResult2 = new TypecheckExecutor().runTest(config2);
+    checkResult(adjustTypecheckResult(testResult2));
+  }
+}
@@ -0,0 +1,26 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.checkerframework.framework.testchecker.typeargmemo.TypeArgMemoChecker;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that valid type arguments of a repeated parameterized type are checked once per
+ * compilation unit, and that invalid ones are reported at every occurrence.
+ */
+public class TypeArgMemoTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public TypeArgMemoTest(List<File> testFiles) {
+    super(testFiles, TypeArgMemoChecker.class, "typeargmemo");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"typeargmemo"};
+  }
+}
@@ -0,0 +1,205 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.checkerframework.framework.util.TypeInformationServer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Tests the request handling of {@link TypeInformationServer}. */
+public class TypeInformationServerTest {
+
+  /** A file with one error of the Value Checker, on line 3 (0-based). */
+  private static final String SOURCE =
+      String.join(
+          "\n",
+          "import org.checkerframework.common.value.qual.IntVal;",
+          "class A {",
+          "  void m() {",
+          "    @IntVal(1) int x = 2;",
+          "  }",
+          "}",
+          "");
+
+  /**
+   * Runs a new server on the given requests.
+   *
+   * @param requests the requests, one per line
+   * @return the responses, one per line
+   * @throws IOException if the requests cannot be read
+   */
+  private static List<String> serve(String... requests) throws IOException {
+    return serve(newServer(List.of()), requests);
+  }
+
+  /**
+   * Creates a new server for the Value Checker.
+   *
+   * @param options the javac options of the server
+   * @return a new server
+   */
+  private static TypeInformationServer newServer(List<String> options) {
+    return new TypeInformationServer("org.checkerframework.common.value.ValueChecker", options);
+  }
+
+  /**
+   * Runs a server on the given requests.
+   *
+   * @param server the server
+   * @param requests the requests, one per line
+   * @return the responses, one per line
+   * @throws IOException if the requests cannot be read
+   */
+  private static List<String> serve(TypeInformationServer server, String... requests)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+      server.serve(new BufferedReader(new StringReader(String.join("\n", requests))), out);
+    }
+    return bytes.toString(StandardCharsets.UTF_8).lines().toList();
+  }
+
+  /**
+   * Returns a JSON string literal.
+   *
+   * @param s a string that contains no control characters other than newlines
+   * @return {@code s} as a JSON string literal
+   */
+  private static String quote(String s) {
+    return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+  }
+
+  @Test
+  public void wellFormedQueries() throws IOException {
+    Path file = Files.createTempDirectory("tis").resolve("A.java");
+    String path = quote(file.toString());
+    String check = "\"method\": \"check\", \"file\": " + path + ", \"text\": " + quote(SOURCE);
+    List<String> responses =
+        serve(
+            "{\"id\": 1, " + check + "}",
+            "{\"id\": 2, \"method\": \"diagnostics\", \"file\": " + path + "}",
+            "{\"id\": 3, \"method\": \"typeAt\", \"file\": "
+                + path
+                + ", \"line\": 3, \"column\": 19}",
+            "{\"id\": 4, " + check + "}");
+    Assert.assertEquals(4, responses.size());
+
+    String first = responses.get(0);
+    Assert.assertTrue(first, first.startsWith("{\"id\":1,\"result\":"));
+    Assert.assertTrue(first, first.contains("\"severity\":\"error\",\"line\":3"));
+    Assert.assertTrue(first, first.contains("\"checkedMethods\":1,\"reusedMethods\":0"));
+
+    String diagnostics = responses.get(1);
+    Assert.assertTrue(diagnostics, diagnostics.startsWith("{\"id\":2,\"result\":"));
+    Assert.assertTrue(diagnostics, diagnostics.contains("\"severity\":\"error\",\"line\":3"));
+
+    String typeAt = responses.get(2);
+    Assert.assertTrue(typeAt, typeAt.startsWith("{\"id\":3,\"result\":{\"types\":[{"));
+    Assert.assertTrue(typeAt, typeAt.contains("IntVal"));
+
+    // The unchanged file is checked again: its methods are reused, and so is the error.
+    String recheck = responses.get(3);
+    Assert.assertTrue(recheck, recheck.contains("\"severity\":\"error\",\"line\":3"));
+    Assert.assertTrue(recheck, recheck.contains("\"checkedMethods\":0,\"reusedMethods\":1"));
+  }
+
+  @Test
+  public void dependencyEditedBetweenChecks() throws IOException {
+    Path dir = Files.createTempDirectory("tis");
+    Path dependency = dir.resolve("B.java");
+    String dependencySource =
+        String.join(
+            "\n",
+            "import org.checkerframework.common.value.qual.IntVal;",
+            "class B {",
+            "  static @IntVal(1) int one() {",
+            "    return 1;",
+            "  }",
+            "}",
+            "");
+    Files.writeString(dependency, dependencySource);
+    Path file = dir.resolve("A.java");
+    String source =
+        String.join(
+            "\n",
+            "import org.checkerframework.common.value.qual.IntVal;",
+            "class A {",
+            "  void m() {",
+            "    @IntVal(1) int x = B.one();",
+            "  }",
+            "}",
+            "");
+    String check =
+        "{\"id\": 1, \"method\": \"check\", \"file\": "
+            + quote(file.toString())
+            + ", \"text\": "
+            + quote(source)
+            + "}";
+    TypeInformationServer server = newServer(List.of("-sourcepath", dir.toString()));
+
+    String first = serve(server, check).get(0);
+    Assert.assertFalse(first, first.contains("\"severity\":\"error\""));
+    Assert.assertTrue(first, first.contains("\"checkedMethods\":1,\"reusedMethods\":0"));
+
+    // Change the return type of B.one, without changing the size of B.java.
+    Files.writeString(dependency, dependencySource.replace("1", "2"));
+    Files.setLastModifiedTime(
+        dependency,
+        FileTime.fromMillis(Files.getLastModifiedTime(dependency).toMillis() + 10_000));
+
+    // A.java is unchanged, but its method must be checked again.
+    String second = serve(server, check).get(0);
+    Assert.assertTrue(second, second.contains("\"severity\":\"error\",\"line\":3"));
+    Assert.assertTrue(second, second.contains("\"checkedMethods\":1,\"reusedMethods\":0"));
+
+    // With no further change, the results are reused.
+    String third = serve(server, check).get(0);
+    Assert.assertTrue(third, third.contains("\"severity\":\"error\",\"line\":3"));
+    Assert.assertTrue(third, third.contains("\"checkedMethods\":0,\"reusedMethods\":1"));
+  }
+
+  @Test
+  public void malformedJson() throws IOException {
+    List<String> responses =
+        serve("{\"id\": 1, \"method\": ", "{\"id\": 2, \"method\": \"nonexistent\"}");
+    Assert.assertEquals(2, responses.size());
+    Assert.assertTrue(responses.get(0), responses.get(0).startsWith("{\"id\":null,\"error\":"));
+    Assert.assertTrue(responses.get(0), responses.get(0).contains("Invalid JSON"));
+    // The server keeps answering after an invalid request.
+    Assert.assertEquals("{\"id\":2,\"error\":\"Unknown method: nonexistent\"}", responses.get(1));
+  }
+
+  @Test
+  public void unknownFile() throws IOException {
+    Path file = Files.createTempDirectory("tis").resolve("Missing.java");
+    String path = quote(file.toString());
+    List<String> responses =
+        serve(
+            "{\"id\": 1, \"method\": \"diagnostics\", \"file\": " + path + "}",
+            "{\"id\": 2, \"method\": \"check\", \"file\": " + path + "}");
+    Assert.assertEquals(2, responses.size());
+    Assert.assertTrue(responses.get(0), responses.get(0).startsWith("{\"id\":1,\"error\":"));
+    Assert.assertTrue(responses.get(0), responses.get(0).contains("File has not been checked"));
+    Assert.assertTrue(responses.get(1), responses.get(1).startsWith("{\"id\":2,\"error\":"));
+    Assert.assertTrue(responses.get(1), responses.get(1).contains("no such file"));
+  }
+
+  @Test
+  public void shutdown() throws IOException {
+    List<String> responses =
+        serve(
+            "",
+            "{\"id\": 1, \"method\": \"shutdown\"}",
+            "{\"id\": 2, \"method\": \"diagnostics\", \"file\": \"A.java\"}");
+    // Blank lines are ignored, and no request is read after the shutdown request.
+    Assert.assertEquals(List.of("{\"id\":1,\"result\":null}"), responses);
+  }
+}
@@ -0,0 +1,26 @@
+package org.checkerframework.framework.test.junit;
+
+import java.io.File;
+import java.util.List;
+import org.checkerframework.framework.test.CheckerFrameworkPerDirectoryTest;
+import org.checkerframework.framework.testchecker.typememo.TypeMemoChecker;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Tests that the memo tables of a type factory find the result computed for one occurrence of a
+ * type when another occurrence of the same type is looked up, and only for the same type.
+ */
+public class TypeMemoTest extends CheckerFrameworkPerDirectoryTest {
+
+  /**
+   * @param testFiles the files containing test code, which will be type-checked
+   */
+  public TypeMemoTest(List<File> testFiles) {
+    super(testFiles, TypeMemoChecker.class, "typememo");
+  }
+
+  @Parameters
+  public static String[] getTestDirs() {
+    return new String[] {"typememo"};
+  }
+}
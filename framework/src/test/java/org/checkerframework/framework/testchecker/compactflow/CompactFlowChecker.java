@@ -0,0 +1,18 @@
+package org.checkerframework.framework.testchecker.compactflow;
+
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+
+/**
+ * A checker with the qualifiers of {@link
+ * org.checkerframework.framework.testchecker.util.FlowTestChecker} that tests that the stores of a
+ * method are still available after its dataflow results were released by {@code
+ * -AcompactFlowResults}.
+ */
+public class CompactFlowChecker extends BaseTypeChecker {
+
+  @Override
+  protected BaseTypeVisitor<?> createSourceVisitor() {
+    return new CompactFlowVisitor(this);
+  }
+}
@@ -0,0 +1,78 @@
+package org.checkerframework.framework.testchecker.compactflow;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreeScanner;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.dataflow.cfg.node.Node;
+import org.checkerframework.framework.flow.CFStore;
+import org.checkerframework.framework.testchecker.util.FlowTestAnnotatedTypeFactory;
+
+/**
+ * Records the stores before and after each node of a method before the method is type-checked,
+ * and reports an error if the same queries return different stores after the dataflow results of
+ * the method were released.
+ */
+public class CompactFlowVisitor extends BaseTypeVisitor<FlowTestAnnotatedTypeFactory> {
+
+  /**
+   * Creates a CompactFlowVisitor.
+   *
+   * @param checker the checker
+   */
+  public CompactFlowVisitor(BaseTypeChecker checker) {
+    super(checker);
+  }
+
+  @Override
+  protected FlowTestAnnotatedTypeFactory createTypeFactory() {
+    return new FlowTestAnnotatedTypeFactory(checker);
+  }
+
+  @Override
+  public void processMethodTree(String className, MethodTree tree) {
+    Map<Node, CFStore[]> stores = new LinkedHashMap<>();
+    if (tree.getBody() != null) {
+      new TreeScanner<Void, Void>() {
+        @Override
+        public Void scan(Tree t, Void p) {
+          if (t instanceof ExpressionTree) {
+            Set<Node> nodes = atypeFactory.getNodesForTree(t);
+            if (nodes != null) {
+              for (Node node : nodes) {
+                stores.put(
+                    node,
+                    new CFStore[] {
+                      atypeFactory.getStoreBefore(node), atypeFactory.getStoreAfter(node)
+                    });
+              }
+            }
+          }
+          return super.scan(t, p);
+        }
+      }.scan(tree.getBody(), null);
+    }
+
+    super.processMethodTree(className, tree);
+
+    // The dataflow results of the method have been released; the following queries reanalyze it.
+    for (Map.Entry<Node, CFStore[]> entry : stores.entrySet()) {
+      Node node = entry.getKey();
+      if (!Objects.equals(entry.getValue()[0], atypeFactory.getStoreBefore(node))
+          || !Objects.equals(entry.getValue()[1], atypeFactory.getStoreAfter(node))) {
+        checker.reportError(
+            node.getTree(),
+            // An error specific to this checker, with no corresponding text in a
+            // messages.properties file; this checker is just for testing.
+            "compactflow.store.mismatch",
+            node);
+      }
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package org.checkerframework.framework.testchecker.parsecache;
+
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.framework.testchecker.javaexpression.JavaExpressionChecker;
+
+/**
+ * The JavaExpression test checker, extended to test that {@link
+ * org.checkerframework.framework.util.JavaExpressionParseCache} returns the same result as parsing
+ * an expression string afresh.
+ */
+public class ParseCacheChecker extends JavaExpressionChecker {
+
+  @Override
+  protected BaseTypeVisitor<?> createSourceVisitor() {
+    return new ParseCacheVisitor(this);
+  }
+}
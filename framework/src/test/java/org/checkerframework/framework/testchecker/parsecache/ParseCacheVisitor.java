@@ -0,0 +1,150 @@
+package org.checkerframework.framework.testchecker.parsecache;
+
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import java.util.Collections;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.dataflow.expression.JavaExpressionParseException;
+import org.checkerframework.framework.testchecker.javaexpression.JavaExpressionAnnotatedTypeFactory;
+import org.checkerframework.framework.testchecker.javaexpression.qual.FlowExp;
+import org.checkerframework.framework.util.StringToJavaExpression;
+import org.checkerframework.javacutil.AnnotationUtils;
+import org.checkerframework.javacutil.TreeUtils;
+
+/**
+ * At each declaration and use of a field or method whose type has a {@link FlowExp} annotation,
+ * parses each expression string of the annotation at the declaration three times: twice through
+ * the cache, and once more after clearing the cache. Reports an error if the second parse does not
+ * return the cached result of the first, or if the result of parsing afresh differs from the
+ * cached result.
+ */
+public class ParseCacheVisitor extends BaseTypeVisitor<JavaExpressionAnnotatedTypeFactory> {
+
+  /**
+   * Creates a ParseCacheVisitor.
+   *
+   * @param checker the checker
+   */
+  public ParseCacheVisitor(BaseTypeChecker checker) {
+    super(checker);
+  }
+
+  @Override
+  public void processMethodTree(String className, MethodTree tree) {
+    ExecutableElement method = TreeUtils.elementFromDeclaration(tree);
+    checkCachedParses(tree, method, method.getReturnType());
+    super.processMethodTree(className, tree);
+  }
+
+  @Override
+  public Void visitVariable(VariableTree tree, Void p) {
+    VariableElement variable = TreeUtils.elementFromDeclaration(tree);
+    if (variable.getKind() == ElementKind.FIELD) {
+      checkCachedParses(tree, variable, variable.asType());
+    }
+    return super.visitVariable(tree, p);
+  }
+
+  @Override
+  public Void visitMethodInvocation(MethodInvocationTree tree, Void p) {
+    ExecutableElement method = TreeUtils.elementFromUse(tree);
+    checkCachedParses(tree, method, method.getReturnType());
+    return super.visitMethodInvocation(tree, p);
+  }
+
+  @Override
+  public Void visitMemberSelect(MemberSelectTree tree, Void p) {
+    Element element = TreeUtils.elementFromUse(tree);
+    if (element.getKind() == ElementKind.FIELD) {
+      checkCachedParses(tree, element, element.asType());
+    }
+    return super.visitMemberSelect(tree, p);
+  }
+
+  /**
+   * Parses each expression string of the {@link FlowExp} annotation on {@code type} at {@code
+   * declaration}, with and without the cache, and reports an error at {@code tree} if the results
+   * differ.
+   *
+   * @param tree the tree at which to report errors
+   * @param declaration a field or method declaration
+   * @param type the type of the field, or the return type of the method
+   */
+  private void checkCachedParses(Tree tree, Element declaration, TypeMirror type) {
+    for (String expression : flowExpStrings(type)) {
+      Object first = parse(expression, declaration);
+      Object second = parse(expression, declaration);
+      checker.getJavaExpressionParseCache().clear();
+      Object fresh = parse(expression, declaration);
+      if (first != second) {
+        checker.reportError(
+            tree,
+            // An error specific to this checker, with no corresponding text in a
+            // messages.properties file; this checker is just for testing.
+            "parsecache.notcached",
+            expression);
+      }
+      boolean sameResult =
+          first instanceof JavaExpressionParseException
+              ? fresh instanceof JavaExpressionParseException
+              : first.equals(fresh);
+      if (!sameResult) {
+        checker.reportError(
+            tree,
+            // An error specific to this checker, with no corresponding text in a
+            // messages.properties file; this checker is just for testing.
+            "parsecache.mismatch",
+            expression,
+            first,
+            fresh);
+      }
+    }
+  }
+
+  /**
+   * Parses {@code expression} at {@code declaration}, using the cache.
+   *
+   * @param expression a Java expression
+   * @param declaration a field or method declaration
+   * @return the parsed expression, or the exception that parsing threw
+   */
+  private Object parse(String expression, Element declaration) {
+    try {
+      if (declaration instanceof ExecutableElement method) {
+        return StringToJavaExpression.atMethodDecl(expression, method, checker);
+      } else {
+        return StringToJavaExpression.atFieldDecl(
+            expression, (VariableElement) declaration, checker);
+      }
+    } catch (JavaExpressionParseException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Returns the expression strings of the {@link FlowExp} annotation written on {@code type}.
+   *
+   * @param type a type
+   * @return the expression strings of the {@link FlowExp} annotation on {@code type}, or an empty
+   *     list if there is none
+   */
+  private static List<String> flowExpStrings(TypeMirror type) {
+    for (AnnotationMirror anno : type.getAnnotationMirrors()) {
+      if (AnnotationUtils.areSameByName(anno, FlowExp.class.getCanonicalName())) {
+        return AnnotationUtils.getElementValueArray(anno, "value", String.class, true);
+      }
+    }
+    return Collections.emptyList();
+  }
+}
@@ -0,0 +1,17 @@
+package org.checkerframework.framework.testchecker.typeargmemo;
+
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.common.value.ValueChecker;
+
+/**
+ * The Value Checker, extended to test that {@link
+ * org.checkerframework.common.basetype.BaseTypeValidator} checks the type arguments of a repeated
+ * parameterized type only once per compilation unit if they are valid.
+ */
+public class TypeArgMemoChecker extends ValueChecker {
+
+  @Override
+  protected BaseTypeVisitor<?> createSourceVisitor() {
+    return new TypeArgMemoVisitor(this);
+  }
+}
@@ -0,0 +1,78 @@
+package org.checkerframework.framework.testchecker.typeargmemo;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ParameterizedTypeTree;
+import com.sun.source.tree.Tree;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.value.ValueVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeParameterBounds;
+
+/**
+ * Counts how often the type arguments of each parameterized type are checked without a diagnostic,
+ * and reports an error at the end of each top-level class for every such type that was checked
+ * more than once.
+ */
+public class TypeArgMemoVisitor extends ValueVisitor {
+
+  /**
+   * The number of times that the type arguments of each parameterized type, as written in the
+   * source code, were checked without a diagnostic in the current top-level class.
+   */
+  private final Map<String, Integer> checksWithoutDiagnostics = new TreeMap<>();
+
+  /**
+   * Creates a TypeArgMemoVisitor.
+   *
+   * @param checker the checker
+   */
+  public TypeArgMemoVisitor(BaseTypeChecker checker) {
+    super(checker);
+  }
+
+  @Override
+  public void setRoot(CompilationUnitTree newRoot) {
+    checksWithoutDiagnostics.clear();
+    super.setRoot(newRoot);
+  }
+
+  @Override
+  protected void checkTypeArguments(
+      Tree toptree,
+      List<? extends AnnotatedTypeParameterBounds> paramBounds,
+      List<? extends AnnotatedTypeMirror> typeargs,
+      List<? extends Tree> typeargTrees,
+      CharSequence typeOrMethodName,
+      List<?> paramNames) {
+    long reportCount = checker.getReportCount();
+    super.checkTypeArguments(
+        toptree, paramBounds, typeargs, typeargTrees, typeOrMethodName, paramNames);
+    if (toptree instanceof ParameterizedTypeTree && checker.getReportCount() == reportCount) {
+      checksWithoutDiagnostics.merge(toptree.toString(), 1, Integer::sum);
+    }
+  }
+
+  @Override
+  public void processClassTree(ClassTree classTree) {
+    super.processClassTree(classTree);
+    if (!root.getTypeDecls().contains(classTree)) {
+      return;
+    }
+    for (Map.Entry<String, Integer> entry : checksWithoutDiagnostics.entrySet()) {
+      if (entry.getValue() > 1) {
+        checker.reportError(
+            classTree,
+            // An error specific to this checker, with no corresponding text in a
+            // messages.properties file; this checker is just for testing.
+            "typeargmemo.rechecked",
+            entry.getKey(),
+            entry.getValue());
+      }
+    }
+    checksWithoutDiagnostics.clear();
+  }
+}
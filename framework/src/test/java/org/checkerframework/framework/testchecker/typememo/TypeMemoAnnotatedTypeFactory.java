@@ -0,0 +1,48 @@
+package org.checkerframework.framework.testchecker.typememo;
+
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.value.ValueAnnotatedTypeFactory;
+import org.checkerframework.framework.type.AnnotatedTypeMemo;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+
+/** A Value Checker type factory that can compute types without its memo tables. */
+public class TypeMemoAnnotatedTypeFactory extends ValueAnnotatedTypeFactory {
+
+  /** True while the memo tables must not be used. */
+  private boolean bypassMemo = false;
+
+  /**
+   * Creates a TypeMemoAnnotatedTypeFactory.
+   *
+   * @param checker the checker
+   */
+  @SuppressWarnings("this-escape")
+  public TypeMemoAnnotatedTypeFactory(BaseTypeChecker checker) {
+    super(checker);
+    if (this.getClass() == TypeMemoAnnotatedTypeFactory.class) {
+      this.postInit();
+    }
+  }
+
+  @Override
+  public @Nullable AnnotatedTypeMemo getTypeMemo() {
+    return bypassMemo ? null : super.getTypeMemo();
+  }
+
+  /**
+   * Returns the direct supertypes of a type, computed without the memo tables.
+   *
+   * @param type a declared type
+   * @return the direct supertypes of {@code type}
+   */
+  public List<AnnotatedDeclaredType> directSupertypesWithoutMemo(AnnotatedDeclaredType type) {
+    bypassMemo = true;
+    try {
+      return type.directSupertypes();
+    } finally {
+      bypassMemo = false;
+    }
+  }
+}
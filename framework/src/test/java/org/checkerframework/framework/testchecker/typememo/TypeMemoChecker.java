@@ -0,0 +1,18 @@
+package org.checkerframework.framework.testchecker.typememo;
+
+import org.checkerframework.common.basetype.BaseTypeVisitor;
+import org.checkerframework.common.value.ValueChecker;
+
+/**
+ * The Value Checker, extended to test that {@link
+ * org.checkerframework.framework.type.AnnotatedTypeMemo} finds the result computed for one
+ * occurrence of a type when it is looked up for another occurrence of the same type, and that the
+ * result equals one computed afresh.
+ */
+public class TypeMemoChecker extends ValueChecker {
+
+  @Override
+  protected BaseTypeVisitor<?> createSourceVisitor() {
+    return new TypeMemoVisitor(this);
+  }
+}
@@ -0,0 +1,90 @@
+package org.checkerframework.framework.testchecker.typememo;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.VariableTree;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.common.basetype.BaseTypeChecker;
+import org.checkerframework.common.value.ValueVisitor;
+import org.checkerframework.framework.type.AnnotatedTypeMemo;
+import org.checkerframework.framework.type.AnnotatedTypeMirror;
+import org.checkerframework.framework.type.AnnotatedTypeMirror.AnnotatedDeclaredType;
+
+/**
+ * At each variable declaration whose type is a parameterized type, looks up the direct supertypes
+ * of the type in the memo tables. Reports an error if the lookup misses although the same type was
+ * declared before in the compilation unit, or if it hits but the memoized supertypes differ from
+ * those computed afresh.
+ */
+public class TypeMemoVisitor extends ValueVisitor {
+
+  /** The parameterized types, as printed, of the variables declared so far in the current root. */
+  private final Set<String> seen = new HashSet<>();
+
+  /**
+   * Creates a TypeMemoVisitor.
+   *
+   * @param checker the checker
+   */
+  public TypeMemoVisitor(BaseTypeChecker checker) {
+    super(checker);
+  }
+
+  @Override
+  public void setRoot(CompilationUnitTree newRoot) {
+    // The factory clears its memo tables for each compilation unit.
+    seen.clear();
+    super.setRoot(newRoot);
+  }
+
+  @Override
+  public Void visitVariable(VariableTree tree, Void p) {
+    AnnotatedTypeMirror type = atypeFactory.getAnnotatedType(tree);
+    if (type instanceof AnnotatedDeclaredType declaredType
+        && !declaredType.getTypeArguments().isEmpty()) {
+      checkMemoizedSupertypes(tree, declaredType);
+    }
+    return super.visitVariable(tree, p);
+  }
+
+  /**
+   * Checks the memoized direct supertypes of the type of a variable.
+   *
+   * @param tree the variable declaration, at which to report errors
+   * @param type the type of the variable
+   */
+  private void checkMemoizedSupertypes(VariableTree tree, AnnotatedDeclaredType type) {
+    AnnotatedTypeMemo memo = atypeFactory.getTypeMemo();
+    if (memo == null) {
+      return;
+    }
+    boolean seenBefore = !seen.add(type.toString());
+    List<AnnotatedDeclaredType> memoized = memo.getDirectSupertypes(type);
+    if (memoized == null) {
+      if (seenBefore) {
+        checker.reportError(
+            tree,
+            // An error specific to this checker, with no corresponding text in a
+            // messages.properties file; this checker is just for testing.
+            "typememo.miss",
+            type);
+      }
+      // Memoizes the supertypes for later occurrences of the type.
+      type.directSupertypes();
+      return;
+    }
+    List<AnnotatedDeclaredType> fresh =
+        ((TypeMemoAnnotatedTypeFactory) atypeFactory).directSupertypesWithoutMemo(type);
+    if (!memoized.toString().equals(fresh.toString())) {
+      checker.reportError(
+          tree,
+          // An error specific to this checker, with no corresponding text in a
+          // messages.properties file; this checker is just for testing.
+          "typememo.mismatch",
+          type,
+          memoized,
+          fresh);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+import org.checkerframework.common.value.qual.*;
+
+// SummaryLib is read from bytecode. The annotations of its methods come from the annotation
+// summary that was written when SummaryLib was compiled with its stub file.
+public class SummaryClient {
+  void test() {
+    @IntVal(5) int five = SummaryLib.five();
+    @StringVal("hello") String greeting = SummaryLib.greeting();
+    @IntRange(from = 0, to = 9) int digit = SummaryLib.digit();
+    // The key of this method is the same whether or not its parameter types are annotated.
+    int @ArrayLen(2) [] pair = SummaryLib.pair("ab", new int[] {1, 2});
+
+    // :: error: (assignment)
+    @IntVal(6) int six = SummaryLib.five();
+    // The summary records no defaulted annotations.
+    // :: error: (assignment)
+    @IntVal(1) int one = SummaryLib.unannotated();
+  }
+}
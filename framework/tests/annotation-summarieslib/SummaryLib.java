@@ -0,0 +1,25 @@
+import org.checkerframework.common.value.qual.*;
+
+// The annotations of this class's methods are in SummaryLib.astub, so a client that reads this
+// class from bytecode sees them only if it reads the annotation summary.
+public class SummaryLib {
+  public static int five() {
+    return 5;
+  }
+
+  public static String greeting() {
+    return "hello";
+  }
+
+  public static int digit() {
+    return 3;
+  }
+
+  public static int[] pair(@StringVal("ab") String s, int @ArrayLen(2) [] a) {
+    return new int[] {s.length(), a.length};
+  }
+
+  public static int unannotated() {
+    return 1;
+  }
+}
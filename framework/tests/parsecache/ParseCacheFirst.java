@@ -0,0 +1,26 @@
+import org.checkerframework.framework.testchecker.javaexpression.qual.FlowExp;
+
+// ParseCacheChecker reports parsecache.notcached if parsing an expression string at a declaration a
+// second time does not return the cached result, and parsecache.mismatch if the cached result
+// differs from the result of parsing the string afresh.
+public class ParseCacheFirst {
+  final Object lock = new Object();
+
+  @FlowExp("lock") Object guarded;
+
+  // :: error: [expression.unparsable]
+  @FlowExp("missing") Object broken = null;
+
+  @FlowExp("lock") Object get() {
+    return guarded;
+  }
+
+  void uses(ParseCacheFirst other) {
+    @FlowExp("lock") Object a = get();
+    @FlowExp("lock") Object b = this.get();
+    @FlowExp("other.lock") Object c = other.get();
+    // :: error: [assignment]
+    @FlowExp("lock") Object d = other.get();
+    @FlowExp("other.lock") Object e = other.guarded;
+  }
+}
@@ -0,0 +1,28 @@
+import org.checkerframework.framework.testchecker.javaexpression.qual.FlowExp;
+
+// Uses the declarations of ParseCacheFirst from another compilation unit, whose change clears the
+// parse cache.  It also declares a field and a method with the same expression string, which must
+// be resolved in this class rather than reuse the result for ParseCacheFirst.
+public class ParseCacheSecond {
+  final Object lock = new Object();
+
+  final ParseCacheFirst first = new ParseCacheFirst();
+
+  @FlowExp("lock") Object guarded;
+
+  @FlowExp("lock") Object get() {
+    return guarded;
+  }
+
+  void uses() {
+    @FlowExp("first.lock") Object a = first.get();
+    @FlowExp("first.lock") Object b = first.get();
+    @FlowExp("first.lock") Object c = first.guarded;
+    @FlowExp("lock") Object d = get();
+    @FlowExp("this.lock") Object e = guarded;
+    // :: error: [assignment]
+    @FlowExp("lock") Object f = first.get();
+    // :: error: [assignment]
+    @FlowExp("first.lock") Object g = get();
+  }
+}
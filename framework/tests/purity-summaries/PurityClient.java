@@ -0,0 +1,59 @@
+import org.checkerframework.common.value.qual.*;
+
+// PurityLib is read from bytecode. The purity of its methods comes from the purity summary that
+// was written when PurityLib was compiled.
+public class PurityClient {
+  int f;
+
+  void sideEffectFree() {
+    f = 1;
+    PurityLib.twice(3);
+    @IntVal(1) int one = f;
+  }
+
+  void sideEffecting() {
+    f = 1;
+    PurityLib.bump();
+    // :: error: (assignment)
+    @IntVal(1) int one = f;
+  }
+
+  void notOverridable(PurityLib lib) {
+    f = 1;
+    lib.fixed();
+    @IntVal(1) int one = f;
+  }
+
+  void overridable(PurityLib lib) {
+    f = 1;
+    // An override might have side effects, so the summary is not used.
+    lib.overridable();
+    // :: error: (assignment)
+    @IntVal(1) int one = f;
+  }
+
+  void compiledAgain() {
+    f = 1;
+    // This method is compiled now, so its body is analyzed instead of using a summary.
+    Local.bump();
+    // :: error: (assignment)
+    @IntVal(1) int one = f;
+  }
+
+  void recompiledImpure() {
+    f = 1;
+    // The summary on the classpath says that this method is pure, but its body now has a side
+    // effect. The body is analyzed instead of using the stale summary.
+    PurityRecompiled.get();
+    // :: error: (assignment)
+    @IntVal(1) int one = f;
+  }
+
+  static class Local {
+    static int counter;
+
+    static void bump() {
+      counter++;
+    }
+  }
+}
@@ -0,0 +1,9 @@
+// The purity summary on the classpath, written when ../purity-summarieslib/PurityRecompiled.java
+// was compiled, says that get() is pure.  This version, which is compiled again, has a side effect.
+public class PurityRecompiled {
+  static int counter;
+
+  public static int get() {
+    return ++counter;
+  }
+}
@@ -0,0 +1,20 @@
+// Compiled with -ApuritySummaryOutputDir.  None of these methods has a purity annotation.
+public class PurityLib {
+  static int counter;
+
+  public static int twice(int x) {
+    return x * 2;
+  }
+
+  public static void bump() {
+    counter++;
+  }
+
+  public final int fixed() {
+    return 1;
+  }
+
+  public int overridable() {
+    return 1;
+  }
+}
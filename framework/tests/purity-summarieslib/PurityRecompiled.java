@@ -0,0 +1,9 @@
+// Compiled with -ApuritySummaryOutputDir, so the summary says that get() is pure.  The client test
+// compiles a version of this class whose get() has a side effect.
+public class PurityRecompiled {
+  static int counter;
+
+  public static int get() {
+    return counter;
+  }
+}
@@ -0,0 +1,30 @@
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.common.value.qual.*;
+
+// TypeArgMemoChecker reports typeargmemo.rechecked if the valid type arguments of a parameterized
+// type are checked more than once.  Each occurrence of a type below has its own underlying type.
+public class RepeatedTypeArguments {
+  static class Box<T extends @IntRange(from = 0, to = 10) Integer> {}
+
+  Box<@IntVal(3) Integer> field;
+
+  Map<String, List<Box<@IntVal(3) Integer>>> nested;
+
+  Box<@IntVal(3) Integer> method(Box<@IntVal(3) Integer> param) {
+    Box<@IntVal(3) Integer> local = param;
+    Map<String, List<Box<@IntVal(3) Integer>>> copy = nested;
+    return local;
+  }
+
+  void invalid() {
+    // :: error: (type.argument)
+    Box<@IntVal(20) Integer> first;
+    // :: error: (type.argument)
+    Box<@IntVal(20) Integer> second;
+  }
+
+  class Inner {
+    Box<@IntVal(3) Integer> innerField;
+  }
+}
@@ -0,0 +1,31 @@
+import java.util.ArrayList;
+import java.util.List;
+import org.checkerframework.common.value.qual.*;
+
+// TypeMemoChecker reports typememo.miss if the memoized direct supertypes of a parameterized type
+// are not found for a later occurrence of the same type, and typememo.mismatch if they differ from
+// the supertypes computed afresh.  Each occurrence of a type below has its own underlying type.
+public class RepeatedTypes {
+  static class Box<T> extends ArrayList<T> {}
+
+  Box<@IntVal(3) Integer> first;
+
+  // The same underlying type with other annotations has other supertypes.
+  Box<@IntVal(4) Integer> other;
+
+  Box<@IntVal(3) Integer> second;
+
+  List<Box<@IntVal(3) Integer>> nested;
+
+  List<Box<@IntVal(3) Integer>> nestedAgain;
+
+  void method(Box<@IntVal(3) Integer> param, Box<@IntVal(4) Integer> otherParam) {
+    Box<@IntVal(3) Integer> local = param;
+    Box<@IntVal(4) Integer> otherLocal = otherParam;
+    List<Box<@IntVal(3) Integer>> nestedLocal = nested;
+  }
+
+  class Inner {
+    Box<@IntVal(3) Integer> innerField;
+  }
+}
@@ -0,0 +1,62 @@
+import org.checkerframework.common.value.qual.IntRange;
+import org.checkerframework.common.value.qual.IntVal;
+
+// The counters of these loops take more values than the Value Checker tracks, so the analysis
+// widens them at the loop heads.  The widened bounds stop at the literals of the method, so the
+// loops keep precise ranges inside and after them.
+public class LoopWidening {
+  void countUp() {
+    int i = 0;
+    while (i < 1000) {
+      @IntRange(from = 0, to = 999) int inLoop = i;
+      i++;
+    }
+    @IntVal(1000) int after = i;
+  }
+
+  void countDown() {
+    int i = 1000;
+    while (i > 0) {
+      @IntRange(from = 1, to = 1000) int inLoop = i;
+      i--;
+    }
+    @IntVal(0) int after = i;
+  }
+
+  void stillSound() {
+    int i = 0;
+    while (i < 1000) {
+      // :: error: [assignment]
+      @IntRange(from = 0, to = 998) int inLoop = i;
+      i++;
+    }
+    // :: error: [assignment]
+    @IntVal(999) int after = i;
+  }
+
+  void nested() {
+    for (int i = 0; i < 500; i++) {
+      for (int j = i; j < 1000; j++) {
+        @IntRange(from = 0, to = 499) int outer = i;
+        @IntRange(from = 0, to = 999) int inner = j;
+      }
+    }
+  }
+
+  void longCounter() {
+    for (long l = 0; l < Long.MAX_VALUE; l++) {
+      @IntRange(from = 0, to = Long.MAX_VALUE - 1) long inLoop = l;
+    }
+  }
+
+  // The analysis terminates even though no literal bounds the counter.
+  int unbounded(boolean b) {
+    int i = 0;
+    int j = 0;
+    while (b) {
+      i++;
+      j -= 3;
+    }
+    return i + j;
+  }
+}
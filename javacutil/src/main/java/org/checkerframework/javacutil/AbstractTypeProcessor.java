@@ -104,10 +104,13 @@ public abstract class AbstractTypeProcessor extends AbstractProcessor {
 
   /**
    * The use of this method is obsolete in type processors. The method is called during declaration
-   * annotation processing phase only. It registers the names of elements to process.
+   * annotation processing phase only. It registers the names of elements to process, and it
+   * discards the class hierarchy tables of {@link ElementUtils} and {@link TypesUtils}, because
+   * javac may have completed symbols again for the new round.
    */
   @Override
   public final boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    HierarchyTables.invalidate(processingEnv);
     for (TypeElement elem : ElementFilter.typesIn(roundEnv.getRootElements())) {
       elements.add(elem.getQualifiedName());
     }
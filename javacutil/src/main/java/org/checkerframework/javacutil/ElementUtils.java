@@ -14,7 +14,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import javax.annotation.processing.ProcessingEnvironment;
@@ -633,7 +635,15 @@ public final class ElementUtils {
       return Collections.emptyList();
     }
 
+    Map<TypeElement, List<TypeElement>> table = HierarchyTables.of(elements).superTypes;
+    List<TypeElement> cached = table.get(type);
+    if (cached != null) {
+      return cached;
+    }
+
     List<TypeElement> superElems = new ArrayList<>();
+    // The elements of superElems, for fast membership tests.
+    Set<TypeElement> visited = new HashSet<>();
 
     // Set up a stack containing `type`, which is our starting point.
     Deque<TypeElement> stack = new ArrayDeque<>();
@@ -647,7 +657,7 @@ public final class ElementUtils {
       // add it to our superElems set.
       TypeElement supercls = getSuperClass(current);
       if (supercls != null) {
-        if (!superElems.contains(supercls)) {
+        if (visited.add(supercls)) {
           stack.push(supercls);
           superElems.add(supercls);
         }
@@ -655,7 +665,7 @@ public final class ElementUtils {
 
       for (TypeMirror supertypeitf : current.getInterfaces()) {
         TypeElement superitf = (TypeElement) ((DeclaredType) supertypeitf).asElement();
-        if (!superElems.contains(superitf)) {
+        if (visited.add(superitf)) {
           stack.push(superitf);
           superElems.add(superitf);
         }
@@ -664,11 +674,13 @@ public final class ElementUtils {
 
     // Include java.lang.Object as implicit superclass for all classes and interfaces.
     TypeElement jlobject = elements.getTypeElement("java.lang.Object");
-    if (!superElems.contains(jlobject)) {
+    if (!visited.contains(jlobject)) {
       superElems.add(jlobject);
     }
 
-    return Collections.unmodifiableList(superElems);
+    List<TypeElement> result = Collections.unmodifiableList(superElems);
+    table.put(type, result);
+    return result;
   }
 
   /**
@@ -707,13 +719,20 @@ public final class ElementUtils {
    * @return fields of {@code type}
    */
   public static List<VariableElement> getAllFieldsIn(TypeElement type, Elements elements) {
+    Map<TypeElement, List<VariableElement>> table = HierarchyTables.of(elements).allFields;
+    List<VariableElement> cached = table.get(type);
+    if (cached != null) {
+      return cached;
+    }
     // ElementFilter.fieldsIn returns a new list
     List<VariableElement> fields = ElementFilter.fieldsIn(type.getEnclosedElements());
     List<TypeElement> alltypes = getSuperTypes(type, elements);
     for (TypeElement atype : alltypes) {
       fields.addAll(ElementFilter.fieldsIn(atype.getEnclosedElements()));
     }
-    return Collections.unmodifiableList(fields);
+    List<VariableElement> result = Collections.unmodifiableList(fields);
+    table.put(type, result);
+    return result;
   }
 
   /**
@@ -745,6 +764,11 @@ public final class ElementUtils {
    * @return methods of {@code type}
    */
   public static List<ExecutableElement> getAllMethodsIn(TypeElement type, Elements elements) {
+    Map<TypeElement, List<ExecutableElement>> table = HierarchyTables.of(elements).allMethods;
+    List<ExecutableElement> cached = table.get(type);
+    if (cached != null) {
+      return cached;
+    }
     // ElementFilter.fieldsIn returns a new list
     List<ExecutableElement> meths = ElementFilter.methodsIn(type.getEnclosedElements());
 
@@ -752,7 +776,9 @@ public final class ElementUtils {
     for (TypeElement atype : alltypes) {
       meths.addAll(ElementFilter.methodsIn(atype.getEnclosedElements()));
     }
-    return Collections.unmodifiableList(meths);
+    List<ExecutableElement> result = Collections.unmodifiableList(meths);
+    table.put(type, result);
+    return result;
   }
 
   /**
@@ -974,14 +1000,25 @@ public final class ElementUtils {
    *
    * @param type a type
    * @param env the processing environment
-   * @return list including the type and all its supertypes, with a guarantee that direct supertypes
-   *     (i.e. those that appear in extends or implements clauses) appear before indirect supertypes
+   * @return an unmodifiable list including the type and all its supertypes, with a guarantee that
+   *     direct supertypes (i.e. those that appear in extends or implements clauses) appear before
+   *     indirect supertypes
    */
   public static List<TypeElement> getAllSupertypes(TypeElement type, ProcessingEnvironment env) {
+    Map<TypeElement, List<TypeElement>> table =
+        HierarchyTables.of(env.getElementUtils()).allSupertypes;
+    List<TypeElement> cached = table.get(type);
+    if (cached != null) {
+      return cached;
+    }
     Context ctx = ((JavacProcessingEnvironment) env).getContext();
     com.sun.tools.javac.code.Types javacTypes = com.sun.tools.javac.code.Types.instance(ctx);
-    return CollectionsP.<Type, TypeElement>mapList(
-        t -> (TypeElement) t.tsym, javacTypes.closure(((Symbol) type).type));
+    List<TypeElement> result =
+        Collections.unmodifiableList(
+            CollectionsP.<Type, TypeElement>mapList(
+                t -> (TypeElement) t.tsym, javacTypes.closure(((Symbol) type).type)));
+    table.put(type, result);
+    return result;
   }
 
   /**
@@ -0,0 +1,112 @@
+package org.checkerframework.javacutil;
+
+import com.sun.source.tree.Tree;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.plumelib.util.MapsP;
+
+/**
+ * Memo tables for the class hierarchy queries of {@link ElementUtils} and {@link TypesUtils} and
+ * for the name resolutions of {@link Resolver}.
+ *
+ * <p>There is one set of tables for each {@code Elements} or {@code Types} object, that is, for
+ * each compilation. The tables are keyed by symbols, which belong to a single compilation and which
+ * javac may complete again when it starts a new round of annotation processing. {@link
+ * AbstractTypeProcessor} therefore calls {@link #invalidate} at the start of each round.
+ */
+final class HierarchyTables {
+
+  /** The maximum number of memoized name resolutions. */
+  private static final int RESOLUTIONS_SIZE = 1000;
+
+  /** The tables for each {@code Elements} or {@code Types} object. */
+  private static final Map<Object, HierarchyTables> instances = new WeakHashMap<>();
+
+  /** The result of {@link ElementUtils#getSuperTypes} for each type element. */
+  final Map<TypeElement, List<TypeElement>> superTypes = new HashMap<>();
+
+  /** The result of {@link ElementUtils#getAllSupertypes} for each type element. */
+  final Map<TypeElement, List<TypeElement>> allSupertypes = new HashMap<>();
+
+  /** The result of {@link ElementUtils#getAllFieldsIn} for each type element. */
+  final Map<TypeElement, List<VariableElement>> allFields = new HashMap<>();
+
+  /** The result of {@link ElementUtils#getAllMethodsIn} for each type element. */
+  final Map<TypeElement, List<ExecutableElement>> allMethods = new HashMap<>();
+
+  /** The result of {@link TypesUtils#isErasedSubtype} for each pair of declared types. */
+  final Map<ClassPair, Boolean> erasedSubtypes = new HashMap<>();
+
+  /** The result of each {@link Resolver} lookup, which may be null. */
+  final Map<Resolution, @Nullable Element> resolutions = MapsP.createLruCache(RESOLUTIONS_SIZE);
+
+  /** Creates empty tables. */
+  private HierarchyTables() {}
+
+  /**
+   * Returns the tables for the compilation of an {@code Elements} or {@code Types} object.
+   *
+   * @param utils the {@code Elements} or {@code Types} object of a compilation
+   * @return the tables for {@code utils}
+   */
+  static HierarchyTables of(Object utils) {
+    synchronized (instances) {
+      return instances.computeIfAbsent(utils, k -> new HierarchyTables());
+    }
+  }
+
+  /**
+   * Discards the memoized results for a compilation.
+   *
+   * @param env the processing environment of the compilation
+   */
+  static void invalidate(ProcessingEnvironment env) {
+    synchronized (instances) {
+      for (Object utils : new Object[] {env.getElementUtils(), env.getTypeUtils()}) {
+        HierarchyTables tables = instances.get(utils);
+        if (tables != null) {
+          tables.clear();
+        }
+      }
+    }
+  }
+
+  /** Discards all memoized results. */
+  private void clear() {
+    superTypes.clear();
+    allSupertypes.clear();
+    allFields.clear();
+    allMethods.clear();
+    erasedSubtypes.clear();
+    resolutions.clear();
+  }
+
+  /**
+   * The erasures of two declared types, by their type elements.
+   *
+   * @param subtype the possible subtype
+   * @param supertype the possible supertype
+   */
+  record ClassPair(TypeElement subtype, TypeElement supertype) {}
+
+  /**
+   * The arguments of a {@link Resolver} lookup. Types are compared by identity, as javac does.
+   *
+   * @param kind which lookup this is, such as "field" or "method"
+   * @param name the name to look up
+   * @param site the type, package, or other element in which to look up the name, or null for the
+   *     local scope
+   * @param scope the leaf of the tree path to the local scope
+   * @param argumentTypes the types of the arguments of a method, or an empty list
+   */
+  record Resolution(
+      String kind, String name, @Nullable Object site, Tree scope, List<?> argumentTypes) {}
+}
@@ -26,7 +26,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.function.Supplier;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
@@ -56,6 +58,9 @@ public class Resolver {
   /** Instance of {@link Log} for error logs. */
   private final Log log;
 
+  /** The memoized results of lookups in the current compilation. */
+  private final HierarchyTables tables;
+
   /** {@code Resolve#findMethod} method. */
   private static final Method FIND_METHOD;
 
@@ -178,6 +183,7 @@ public class Resolver {
     this.names = Names.instance(context);
     this.trees = Trees.instance(env);
     this.log = Log.instance(context);
+    this.tables = HierarchyTables.of(env.getElementUtils());
   }
 
   /**
@@ -215,6 +221,17 @@ public class Resolver {
    * @return the {@code PackageSymbol} for the package if it is found, {@code null} otherwise
    */
   public @Nullable PackageSymbol findPackage(String name, TreePath path) {
+    return memoize("package", name, null, path, List.nil(), () -> findPackageImpl(name, path));
+  }
+
+  /**
+   * Implements {@link #findPackage}.
+   *
+   * @param name the name of the package
+   * @param path the tree path to the local scope
+   * @return the {@code PackageSymbol} for the package if it is found, {@code null} otherwise
+   */
+  private @Nullable PackageSymbol findPackageImpl(String name, TreePath path) {
     Log.DiagnosticHandler discardDiagnosticHandler = newDiagnosticHandler();
 
     try {
@@ -249,6 +266,18 @@ public class Resolver {
    * @return the element for the field, {@code null} otherwise
    */
   public @Nullable VariableElement findField(String name, TypeMirror type, TreePath path) {
+    return memoize("field", name, type, path, List.nil(), () -> findFieldImpl(name, type, path));
+  }
+
+  /**
+   * Implements {@link #findField}.
+   *
+   * @param name the name of the field
+   * @param type the type of the receiver (i.e., the type in which to look for the field)
+   * @param path the tree path to the local scope
+   * @return the element for the field, {@code null} otherwise
+   */
+  private @Nullable VariableElement findFieldImpl(String name, TypeMirror type, TreePath path) {
     Log.DiagnosticHandler discardDiagnosticHandler = newDiagnosticHandler();
     try {
       Env<AttrContext> env = getEnvForPath(path);
@@ -280,6 +309,18 @@ public class Resolver {
    * @return the element for the local variable, {@code null} otherwise
    */
   public @Nullable VariableElement findLocalVariableOrParameter(String name, TreePath path) {
+    return memoize(
+        "local", name, null, path, List.nil(), () -> findLocalVariableOrParameterImpl(name, path));
+  }
+
+  /**
+   * Implements {@link #findLocalVariableOrParameter}.
+   *
+   * @param name the name of the local variable
+   * @param path the tree path to the local scope
+   * @return the element for the local variable, {@code null} otherwise
+   */
+  private @Nullable VariableElement findLocalVariableOrParameterImpl(String name, TreePath path) {
     Log.DiagnosticHandler discardDiagnosticHandler = newDiagnosticHandler();
     try {
       Env<AttrContext> env = getEnvForPath(path);
@@ -320,6 +361,17 @@ public class Resolver {
    * @return the element for the class
    */
   public Element findClass(String name, TreePath path) {
+    return memoize("class", name, null, path, List.nil(), () -> findClassImpl(name, path));
+  }
+
+  /**
+   * Implements {@link #findClass}.
+   *
+   * @param name the name of the class
+   * @param path the tree path to the local scope
+   * @return the element for the class
+   */
+  private Element findClassImpl(String name, TreePath path) {
     Log.DiagnosticHandler discardDiagnosticHandler = newDiagnosticHandler();
     try {
       Env<AttrContext> env = getEnvForPath(path);
@@ -338,6 +390,25 @@ public class Resolver {
    * @return the {@code ClassSymbol} for the class if it is found, {@code null} otherwise
    */
   public @Nullable ClassSymbol findClassInPackage(String name, PackageSymbol pck, TreePath path) {
+    return memoize(
+        "classInPackage",
+        name,
+        pck,
+        path,
+        List.nil(),
+        () -> findClassInPackageImpl(name, pck, path));
+  }
+
+  /**
+   * Implements {@link #findClassInPackage}.
+   *
+   * @param name the name of the class
+   * @param pck the PackageSymbol for the package
+   * @param path the tree path to the local scope
+   * @return the {@code ClassSymbol} for the class if it is found, {@code null} otherwise
+   */
+  private @Nullable ClassSymbol findClassInPackageImpl(
+      String name, PackageSymbol pck, TreePath path) {
     Log.DiagnosticHandler discardDiagnosticHandler = newDiagnosticHandler();
     try {
       Env<AttrContext> env = getEnvForPath(path);
@@ -382,6 +453,29 @@ public class Resolver {
       TypeMirror receiverType,
       TreePath path,
       java.util.List<TypeMirror> argumentTypes) {
+    return memoize(
+        "method",
+        methodName,
+        receiverType,
+        path,
+        argumentTypes,
+        () -> findMethodImpl(methodName, receiverType, path, argumentTypes));
+  }
+
+  /**
+   * Implements {@link #findMethod}.
+   *
+   * @param methodName name of the method to find
+   * @param receiverType type of the receiver of the method
+   * @param path tree path
+   * @param argumentTypes types of arguments passed to the method call
+   * @return the method element (if found)
+   */
+  private @Nullable ExecutableElement findMethodImpl(
+      String methodName,
+      TypeMirror receiverType,
+      TreePath path,
+      java.util.List<TypeMirror> argumentTypes) {
     Log.DiagnosticHandler discardDiagnosticHandler = newDiagnosticHandler();
     try {
       Env<AttrContext> env = getEnvForPath(path);
@@ -435,6 +529,39 @@ public class Resolver {
     }
   }
 
+  /**
+   * Returns the memoized result of a lookup, performing the lookup if there is none. Lookups are
+   * expensive because they call javac's {@code Resolve} reflectively, and the same names are looked
+   * up repeatedly in the same scopes.
+   *
+   * @param <T> the type of the result
+   * @param kind which lookup this is
+   * @param name the name to look up
+   * @param site the type or package in which to look up the name, or null for the local scope
+   * @param path the tree path to the local scope
+   * @param argumentTypes the types of the arguments of a method, or an empty list
+   * @param lookup performs the lookup
+   * @return the result of the lookup
+   */
+  @SuppressWarnings("unchecked") // the kind of a lookup determines the type of its result
+  private <T extends @Nullable Element> T memoize(
+      String kind,
+      String name,
+      @Nullable Object site,
+      TreePath path,
+      java.util.List<?> argumentTypes,
+      Supplier<T> lookup) {
+    HierarchyTables.Resolution key =
+        new HierarchyTables.Resolution(
+            kind, name, site, path.getLeaf(), new ArrayList<>(argumentTypes));
+    if (tables.resolutions.containsKey(key)) {
+      return (T) tables.resolutions.get(key);
+    }
+    T result = lookup.get();
+    tables.resolutions.put(key, result);
+    return result;
+  }
+
   /**
    * Build an instance of {@code Resolve$MethodResolutionContext}.
    *
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -944,7 +945,25 @@ public final class TypesUtils {
    * @return true if the erased type of subtype is a subtype of the erased type of supertype
    */
   public static boolean isErasedSubtype(TypeMirror subtype, TypeMirror supertype, Types types) {
-    return types.isSubtype(types.erasure(subtype), types.erasure(supertype));
+    TypeMirror erasedSubtype = types.erasure(subtype);
+    TypeMirror erasedSupertype = types.erasure(supertype);
+    if (erasedSubtype.getKind() != TypeKind.DECLARED
+        || erasedSupertype.getKind() != TypeKind.DECLARED) {
+      return types.isSubtype(erasedSubtype, erasedSupertype);
+    }
+    // The erasure of a declared type is determined by its type element.
+    HierarchyTables.ClassPair key =
+        new HierarchyTables.ClassPair(
+            (TypeElement) ((DeclaredType) erasedSubtype).asElement(),
+            (TypeElement) ((DeclaredType) erasedSupertype).asElement());
+    Map<HierarchyTables.ClassPair, Boolean> table = HierarchyTables.of(types).erasedSubtypes;
+    Boolean cached = table.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    boolean result = types.isSubtype(erasedSubtype, erasedSupertype);
+    table.put(key, result);
+    return result;
   }
 
   /**